@@ -0,0 +1,57 @@
+package com.etl.etl_pipeline.benchmark;
+
+import com.etl.etl_pipeline.processor.DataProcessor;
+
+import java.lang.reflect.Field;
+
+/**
+ * Field injection for application components built outside a Spring context
+ * Benchmarks construct components directly so that only the code under test is measured
+ */
+final class Beans {
+
+    private Beans() {
+    }
+
+    /**
+     * Set a private field, as @Autowired or @Value would
+     * @param target Component
+     * @param name Field name
+     * @param value Value to set
+     * @return The component
+     */
+    static <T> T inject(T target, String name, Object value) {
+        Class<?> type = target.getClass();
+        while (type != null) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                field.set(target, value);
+                return target;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot set " + name + " on " + target.getClass().getSimpleName(), e);
+            }
+        }
+        throw new IllegalArgumentException("No field " + name + " on " + target.getClass().getSimpleName());
+    }
+
+    /**
+     * @return Processor configured with the defaults from application.properties
+     */
+    static DataProcessor dataProcessor() {
+        DataProcessor processor = new DataProcessor();
+        inject(processor, "taxBracket1", 20000.0);
+        inject(processor, "taxBracket2", 50000.0);
+        inject(processor, "taxBracket3", 100000.0);
+        inject(processor, "taxRate1", 0.10);
+        inject(processor, "taxRate2", 0.15);
+        inject(processor, "taxRate3", 0.20);
+        inject(processor, "taxRate4", 0.25);
+        inject(processor, "dependentAllowancePerDependent", 2000.0);
+        inject(processor, "bonusPercentage", 0.05);
+        inject(processor, "retirementContributionPercentage", 0.03);
+        return processor;
+    }
+}
@@ -0,0 +1,141 @@
+package com.etl.etl_pipeline.benchmark;
+
+import com.etl.etl_pipeline.model.InputData;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic input rows and files for the benchmarks
+ * A fixed seed keeps every run on the same data, so results are comparable between commits
+ */
+final class BenchmarkData {
+
+    private static final String[] FIRST_NAMES = {"James", "Maria", "Wei", "Amina", "Lucas", "Sofia", "Ivan", "Aiko"};
+    private static final String[] LAST_NAMES = {"Smith", "Garcia", "Chen", "Okafor", "Silva", "Rossi", "Petrov", "Sato"};
+    private static final String[] CITIES = {"London", "Madrid", "Shanghai", "Lagos", "Sao Paulo", "Rome", "Moscow", "Tokyo"};
+    private static final String[] COUNTRIES = {"UK", "Spain", "China", "Nigeria", "Brazil", "Italy", "Russia", "Japan"};
+    private static final String[] HEADER = {
+        "id", "firstName", "lastName", "email", "birthDate",
+        "address", "city", "country", "phoneNumber", "salary", "dependents"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Generate input rows, about 5% of them invalid (missing email or negative salary)
+     * @param count Number of rows
+     * @return Rows with ids 1..count
+     */
+    static List<InputData> rows(int count) {
+        Random random = new Random(42);
+        List<InputData> rows = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            int place = random.nextInt(CITIES.length);
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            boolean invalid = random.nextInt(20) == 0;
+            rows.add(InputData.builder()
+                .id(String.valueOf(i))
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(invalid ? "" : (firstName + "." + lastName + i + "@example.com").toLowerCase())
+                .birthDate(LocalDate.of(1950 + random.nextInt(55), 1 + random.nextInt(12), 1 + random.nextInt(28)))
+                .address((1 + random.nextInt(999)) + " Main Street")
+                .city(CITIES[place])
+                .country(COUNTRIES[place])
+                .phoneNumber("+1-555-" + String.format("%04d", random.nextInt(10000)))
+                .salary(invalid ? -1.0 : 15000 + random.nextInt(185000))
+                .dependents(random.nextInt(5))
+                .build());
+        }
+        return rows;
+    }
+
+    /**
+     * Write rows as CSV with a header line, in the default column order
+     */
+    static void writeCsv(List<InputData> rows, Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(String.join(",", HEADER));
+            writer.newLine();
+            for (InputData row : rows) {
+                writer.write(String.join(",", values(row)));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Write rows as a JSON array of objects keyed by field name
+     */
+    static void writeJson(List<InputData> rows, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file);
+             JsonGenerator generator = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (InputData row : rows) {
+                String[] values = values(row);
+                generator.writeStartObject();
+                for (int i = 0; i < HEADER.length; i++) {
+                    if (i >= 9) {
+                        generator.writeNumberField(HEADER[i], Double.parseDouble(values[i]));
+                    } else {
+                        generator.writeStringField(HEADER[i], values[i]);
+                    }
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Write rows as an .xlsx sheet with a header row
+     */
+    static void writeXlsx(List<InputData> rows, Path file) throws IOException {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(500);
+             OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("data");
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADER.length; i++) {
+                header.createCell(i).setCellValue(HEADER[i]);
+            }
+            int rowIndex = 1;
+            for (InputData row : rows) {
+                Row excelRow = sheet.createRow(rowIndex++);
+                String[] values = values(row);
+                for (int i = 0; i < values.length; i++) {
+                    if (i >= 9) {
+                        excelRow.createCell(i).setCellValue(Double.parseDouble(values[i]));
+                    } else {
+                        excelRow.createCell(i).setCellValue(values[i]);
+                    }
+                }
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+    }
+
+    private static String[] values(InputData row) {
+        return new String[] {
+            row.getId(), row.getFirstName(), row.getLastName(), row.getEmail(), row.getBirthDate().toString(),
+            row.getAddress(), row.getCity(), row.getCountry(), row.getPhoneNumber(),
+            String.valueOf(row.getSalary()), String.valueOf(row.getDependents())
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package com.etl.etl_pipeline.benchmark;
+
+import com.etl.etl_pipeline.model.InputData;
+import com.etl.etl_pipeline.util.DateUtils;
+import com.etl.etl_pipeline.util.ValidationUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row parsing and validation: DateUtils.parseDate with and without a detected format,
+ * and the ValidationUtils checks the processor runs on every row
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ParsingBenchmark {
+
+    /**
+     * Date format of the input: ISO dates parse on the first attempt, the others only after
+     * the earlier formats have failed
+     */
+    @Param({"yyyy-MM-dd", "dd/MM/yyyy", "MMM dd, yyyy"})
+    private String dateFormat;
+
+    @Param({"10000"})
+    private int rows;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    private String[] dates;
+    private String detectedFormat;
+    private String[] emails;
+    private String[] phones;
+    private Double[] salaries;
+    private Workers workers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<InputData> data = BenchmarkData.rows(rows);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        dates = data.stream().map(InputData::getBirthDate).map(formatter::format).toArray(String[]::new);
+        detectedFormat = DateUtils.detectFormat(Arrays.asList(dates).subList(0, Math.min(200, rows)));
+        emails = data.stream().map(InputData::getEmail).toArray(String[]::new);
+        phones = data.stream().map(InputData::getPhoneNumber).toArray(String[]::new);
+        salaries = data.stream().map(InputData::getSalary).toArray(Double[]::new);
+        workers = new Workers(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        workers.close();
+    }
+
+    @Benchmark
+    public long parseDate(Blackhole blackhole) throws Exception {
+        return workers.split(rows, (from, to) -> {
+            long parsed = 0;
+            for (int i = from; i < to; i++) {
+                LocalDate date = DateUtils.parseDate(dates[i]);
+                blackhole.consume(date);
+                if (date != null) {
+                    parsed++;
+                }
+            }
+            return parsed;
+        });
+    }
+
+    @Benchmark
+    public long parseDateWithDetectedFormat(Blackhole blackhole) throws Exception {
+        return workers.split(rows, (from, to) -> {
+            long parsed = 0;
+            for (int i = from; i < to; i++) {
+                LocalDate date = DateUtils.parseDate(dates[i], detectedFormat);
+                blackhole.consume(date);
+                if (date != null) {
+                    parsed++;
+                }
+            }
+            return parsed;
+        });
+    }
+
+    @Benchmark
+    public long validate() throws Exception {
+        return workers.split(rows, (from, to) -> {
+            long valid = 0;
+            for (int i = from; i < to; i++) {
+                if (!ValidationUtils.isNullOrEmpty(emails[i])
+                        && ValidationUtils.isValidEmail(emails[i])
+                        && ValidationUtils.isValidPhoneNumber(phones[i])
+                        && ValidationUtils.isPositive(salaries[i])) {
+                    valid++;
+                }
+            }
+            return valid;
+        });
+    }
+}
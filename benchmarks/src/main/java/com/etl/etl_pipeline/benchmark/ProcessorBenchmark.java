@@ -0,0 +1,57 @@
+package com.etl.etl_pipeline.benchmark;
+
+import com.etl.etl_pipeline.model.InputData;
+import com.etl.etl_pipeline.model.ProcessedData;
+import com.etl.etl_pipeline.processor.DataProcessor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataProcessor.process over a batch of rows, split across the step's worker threads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ProcessorBenchmark {
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    private List<InputData> input;
+    private DataProcessor processor;
+    private Workers workers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = BenchmarkData.rows(rows);
+        processor = Beans.dataProcessor();
+        workers = new Workers(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        workers.close();
+    }
+
+    @Benchmark
+    public long process(Blackhole blackhole) throws Exception {
+        return workers.split(rows, (from, to) -> {
+            long processed = 0;
+            for (int i = from; i < to; i++) {
+                ProcessedData result = processor.process(input.get(i));
+                blackhole.consume(result);
+                processed++;
+            }
+            return processed;
+        });
+    }
+}
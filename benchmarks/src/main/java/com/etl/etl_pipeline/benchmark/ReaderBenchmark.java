@@ -0,0 +1,100 @@
+package com.etl.etl_pipeline.benchmark;
+
+import com.etl.etl_pipeline.model.InputData;
+import com.etl.etl_pipeline.reader.CsvReader;
+import com.etl.etl_pipeline.reader.ExcelReader;
+import com.etl.etl_pipeline.reader.JsonReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the file readers: one operation reads the whole file once per thread,
+ * as concurrent jobs reading their own uploads would
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ReaderBenchmark {
+
+    @Param({"csv", "json", "xlsx"})
+    private String format;
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    private Path dir;
+    private String filePath;
+    private Workers workers;
+
+    private final CsvReader csvReader = new CsvReader();
+    private final JsonReader jsonReader = new JsonReader();
+    private final ExcelReader excelReader = new ExcelReader();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("etl-bench-reader");
+        Path file = dir.resolve("input." + format);
+        List<InputData> data = BenchmarkData.rows(rows);
+        switch (format) {
+            case "csv" -> BenchmarkData.writeCsv(data, file);
+            case "json" -> BenchmarkData.writeJson(data, file);
+            case "xlsx" -> BenchmarkData.writeXlsx(data, file);
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        filePath = file.toString();
+        workers = new Workers(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        workers.close();
+        Files.deleteIfExists(Path.of(filePath));
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public long readAll(Blackhole blackhole) throws Exception {
+        return workers.each((from, to) -> {
+            ItemReader<InputData> reader = createReader();
+            if (reader instanceof ItemStream stream) {
+                stream.open(new ExecutionContext());
+            }
+            long count = 0;
+            try {
+                InputData item;
+                while ((item = reader.read()) != null) {
+                    blackhole.consume(item);
+                    count++;
+                }
+            } finally {
+                if (reader instanceof ItemStream stream) {
+                    stream.close();
+                }
+            }
+            return count;
+        });
+    }
+
+    private ItemReader<InputData> createReader() {
+        return switch (format) {
+            case "csv" -> csvReader.createReader(filePath);
+            case "json" -> jsonReader.createReader(filePath);
+            default -> excelReader.createReader(filePath);
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.etl.etl_pipeline.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fixed pool that splits a benchmark operation across the "threads" parameter
+ * With one thread the work runs on the benchmark thread itself
+ */
+final class Workers implements AutoCloseable {
+
+    /**
+     * Work on the half-open range [from, to) of the input
+     */
+    interface Slice {
+        long run(int from, int to) throws Exception;
+    }
+
+    private final int threads;
+    private final ExecutorService pool;
+
+    Workers(int threads) {
+        this.threads = threads;
+        this.pool = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+    }
+
+    /**
+     * Run a slice of [0, size) on each thread and wait for all of them
+     * @param size Input size
+     * @param slice Work for one slice
+     * @return Sum of the slice results
+     */
+    long split(int size, Slice slice) throws Exception {
+        if (pool == null) {
+            return slice.run(0, size);
+        }
+        List<Future<Long>> futures = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            int from = (int) ((long) size * i / threads);
+            int to = (int) ((long) size * (i + 1) / threads);
+            futures.add(pool.submit(() -> slice.run(from, to)));
+        }
+        long total = 0;
+        for (Future<Long> future : futures) {
+            total += future.get();
+        }
+        return total;
+    }
+
+    /**
+     * Run the same task once on each thread and wait for all of them
+     * @param task Task, given the thread's index
+     * @return Sum of the task results
+     */
+    long each(Slice task) throws Exception {
+        return split(threads, task);
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.etl.etl_pipeline.benchmark;
+
+import com.etl.etl_pipeline.config.DatabaseInitializer;
+import com.etl.etl_pipeline.config.SQLiteTransactionManager;
+import com.etl.etl_pipeline.model.InputData;
+import com.etl.etl_pipeline.model.ProcessedData;
+import com.etl.etl_pipeline.processor.DataProcessor;
+import com.etl.etl_pipeline.service.ProcessedStatsService;
+import com.etl.etl_pipeline.writer.DatabaseWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.item.Chunk;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DatabaseWriter against a temporary SQLite file: one operation writes all rows in chunks of
+ * the given size, each chunk in its own transaction
+ * Single-threaded: concurrent chunk transactions on one SQLite file fail with SQLITE_BUSY once
+ * their retries run out, so the benchmark measures the cost per chunk size rather than contention
+ * The indexes parameter drops secondary indexes after DatabaseInitializer has created them, to price
+ * what each index set adds to the insert path: "all" is the schema as shipped, "no-status-age" drops
+ * the status and age keyset indexes, "job-only" keeps just the per-job index
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class WriterBenchmark {
+
+    @Param({"5000"})
+    private int rows;
+
+    @Param({"10", "50", "200", "1000"})
+    private int chunkSize;
+
+    @Param({"all"})
+    private String indexes;
+
+    private Path databaseFile;
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private DatabaseWriter writer;
+    private List<Chunk<ProcessedData>> chunks;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        databaseFile = Files.createTempFile("etl-bench-writer", ".db");
+
+        // Same data source as DatabaseConfig
+        dataSource = new DriverManagerDataSource("jdbc:sqlite:" + databaseFile);
+        dataSource.setDriverClassName("org.sqlite.JDBC");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        DatabaseInitializer initializer = Beans.inject(new DatabaseInitializer(), "jdbcTemplate", jdbcTemplate);
+        initializer.initialize();
+        for (String index : droppedIndexes(indexes)) {
+            jdbcTemplate.execute("DROP INDEX " + index);
+        }
+
+        SQLiteTransactionManager transactionManager = new SQLiteTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        ProcessedStatsService statsService = new ProcessedStatsService();
+        Beans.inject(statsService, "jdbcTemplate", jdbcTemplate);
+        Beans.inject(statsService, "transactionManager", transactionManager);
+
+        writer = new DatabaseWriter();
+        Beans.inject(writer, "jdbcTemplate", jdbcTemplate);
+        Beans.inject(writer, "sqliteTransactionManager", transactionManager);
+        Beans.inject(writer, "processedStatsService", statsService);
+        Beans.inject(writer, "meterRegistry", new SimpleMeterRegistry());
+        // Defaults from application.properties
+        Beans.inject(writer, "maxRetries", 5);
+        Beans.inject(writer, "initialRetryDelayMs", 1000L);
+        Beans.inject(writer, "backoffMultiplier", 1.5);
+        Beans.inject(writer, "maxRetryDelayMs", 10000L);
+        Beans.inject(writer, "maxWriters", 1);
+        writer.registerMetrics();
+
+        DataProcessor processor = Beans.dataProcessor();
+        chunks = new ArrayList<>();
+        Chunk<ProcessedData> chunk = new Chunk<>();
+        for (InputData row : BenchmarkData.rows(rows)) {
+            chunk.add(processor.process(row));
+            if (chunk.size() == chunkSize) {
+                chunks.add(chunk);
+                chunk = new Chunk<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+    }
+
+    private static List<String> droppedIndexes(String indexes) {
+        return switch (indexes) {
+            case "all" -> List.of();
+            case "no-status-age" -> List.of("idx_processed_data_status", "idx_processed_data_age");
+            case "job-only" -> List.of("idx_processed_data_status", "idx_processed_data_salary",
+                "idx_processed_data_net_salary", "idx_processed_data_age", "idx_processed_data_agg_country",
+                "idx_processed_data_agg_city", "idx_processed_data_invalid");
+            default -> throw new IllegalArgumentException("Unknown index set: " + indexes);
+        };
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        // Every operation inserts new rows rather than replacing the previous operation's
+        jdbcTemplate.update("DELETE FROM processed_data");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(databaseFile);
+        Files.deleteIfExists(Path.of(databaseFile + "-wal"));
+        Files.deleteIfExists(Path.of(databaseFile + "-shm"));
+    }
+
+    @Benchmark
+    public long writeChunks() {
+        long written = 0;
+        for (Chunk<ProcessedData> chunk : chunks) {
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    writer.write(chunk);
+                } catch (Exception e) {
+                    throw new IllegalStateException("Chunk write failed", e);
+                }
+            });
+            written += chunk.size();
+        }
+        return written;
+    }
+}
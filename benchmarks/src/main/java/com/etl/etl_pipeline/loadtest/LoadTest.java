@@ -0,0 +1,420 @@
+package com.etl.etl_pipeline.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load test against a running application
+ * Sends files through the REST API, waits for every job to finish and writes a JSON report with
+ * rows per second, job latency percentiles, peak resident memory and SQLite lock contention.
+ * Files are generated with {@link SyntheticDataGenerator} unless --files is given
+ * <pre>
+ * java -cp target/benchmarks.jar com.etl.etl_pipeline.loadtest.LoadTest \
+ *     --url http://localhost:8080 --rows 200000 --formats csv,ndjson --jobs 8 --concurrency 4 \
+ *     --report loadtest-report.json
+ * </pre>
+ * Options: --mode ingest (raw body to /api/etl/ingest, no size limit; the default) or upload
+ * (multipart to /api/etl/upload, limited by spring.servlet.multipart.max-file-size),
+ * --poll-ms, --timeout-minutes, and the generator's options
+ */
+public class LoadTest {
+
+    private static final Set<String> FINISHED = Set.of("COMPLETED", "FAILED", "STOPPED", "ABANDONED");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final String baseUrl;
+    private final String mode;
+    private final long pollMs;
+    private final long timeoutMs;
+
+    // Sampled while the jobs run
+    private final AtomicLong peakRss = new AtomicLong(-1);
+    private final AtomicLong peakLockQueue = new AtomicLong(-1);
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    LoadTest(String baseUrl, String mode, long pollMs, long timeoutMs) {
+        if (!mode.equals("ingest") && !mode.equals("upload")) {
+            throw new IllegalArgumentException("Unknown mode: " + mode + " (expected ingest or upload)");
+        }
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.mode = mode;
+        this.pollMs = pollMs;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = new Arguments(args);
+        LoadTest loadTest = new LoadTest(
+                arguments.get("url", "http://localhost:8080"),
+                arguments.get("mode", "ingest"),
+                arguments.getLong("poll-ms", 500),
+                TimeUnit.MINUTES.toMillis(arguments.getLong("timeout-minutes", 60)));
+
+        List<Path> files = new ArrayList<>();
+        Map<String, Object> input = new LinkedHashMap<>();
+        if (arguments.has("files")) {
+            for (String file : arguments.get("files", "").split(",")) {
+                files.add(Path.of(file));
+            }
+            input.put("files", files.stream().map(Path::toString).toList());
+        } else {
+            Map<String, Object> generated = SyntheticDataGenerator.fromArguments(arguments).generate();
+            input.putAll(generated);
+            for (Object file : ((Map<?, ?>) generated.get("files")).values()) {
+                files.add(Path.of(String.valueOf(((Map<?, ?>) file).get("path"))));
+            }
+        }
+
+        Map<String, Object> report = loadTest.run(files, arguments.getInt("jobs", files.size()),
+                arguments.getInt("concurrency", 2));
+        report.put("input", input);
+
+        Path reportFile = Path.of(arguments.get("report", "loadtest-report.json"));
+        loadTest.objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile.toFile(), report);
+        System.out.println("Report written to " + reportFile.toAbsolutePath());
+        System.out.println(loadTest.objectMapper.writeValueAsString(report.get("summary")));
+
+        Map<?, ?> jobs = (Map<?, ?>) report.get("jobs");
+        System.exit(((Number) jobs.get("failed")).intValue() > 0 ? 1 : 0);
+    }
+
+    /**
+     * Send the files round-robin until the job count is reached, with at most the given number
+     * of uploads and running jobs in flight
+     * @return Report
+     */
+    Map<String, Object> run(List<Path> files, int jobs, int concurrency) throws Exception {
+        Map<String, Double> before = serverCounters();
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(this::sample, 0, 1, TimeUnit.SECONDS);
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+
+        long start = System.nanoTime();
+        List<Future<Map<String, Object>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < jobs; i++) {
+                Path file = files.get(i % files.size());
+                futures.add(pool.submit(() -> runJob(file)));
+            }
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (Future<Map<String, Object>> future : futures) {
+                results.add(future.get());
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            sample();
+            return report(results, seconds, before, serverCounters(), jobs, concurrency);
+        } finally {
+            pool.shutdownNow();
+            sampler.shutdownNow();
+        }
+    }
+
+    /**
+     * Send one file and wait for its job
+     * Latency runs from the start of the upload to the end of the job, so it includes queueing
+     * behind other jobs
+     */
+    private Map<String, Object> runJob(Path file) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("file", file.toString());
+        long start = System.nanoTime();
+        try {
+            JsonNode response = submit(file);
+            long uploadNanos = System.nanoTime() - start;
+            String jobId = response.path("jobId").asText();
+            result.put("jobId", jobId);
+            result.put("uploadMs", uploadNanos / 1_000_000);
+
+            JsonNode status = awaitCompletion(jobId);
+            result.put("latencyMs", (System.nanoTime() - start) / 1_000_000);
+            result.put("status", status.path("status").asText());
+            long read = 0;
+            long written = 0;
+            long skipped = 0;
+            for (JsonNode step : status.path("steps")) {
+                read += step.path("readCount").asLong();
+                written += step.path("writeCount").asLong();
+                skipped += step.path("skipCount").asLong();
+            }
+            result.put("readCount", read);
+            result.put("writeCount", written);
+            result.put("skipCount", skipped);
+        } catch (Exception e) {
+            result.put("latencyMs", (System.nanoTime() - start) / 1_000_000);
+            result.put("status", "ERROR");
+            result.put("error", e.getMessage());
+        }
+        return result;
+    }
+
+    private JsonNode submit(Path file) throws IOException, InterruptedException {
+        while (true) {
+            HttpResponse<String> response = client.send(uploadRequest(file), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 429) {
+                // Launch queue full: wait as told and send again
+                rejected.incrementAndGet();
+                long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(5);
+                Thread.sleep(TimeUnit.SECONDS.toMillis(retryAfter));
+                continue;
+            }
+            if (response.statusCode() != 200) {
+                throw new IOException("Upload of " + file + " failed with HTTP " + response.statusCode()
+                        + ": " + errorMessage(response.body()));
+            }
+            JsonNode body = objectMapper.readTree(response.body());
+            if (!body.hasNonNull("jobId")) {
+                throw new IOException("Upload of " + file + " was not launched: " + body.path("message").asText());
+            }
+            return body;
+        }
+    }
+
+    private String errorMessage(String body) {
+        // Controllers answer with a JSON message; unhandled errors come back as the error page
+        try {
+            return objectMapper.readTree(body).path("message").asText();
+        } catch (IOException e) {
+            return body.length() > 200 ? body.substring(0, 200) : body;
+        }
+    }
+
+    private HttpRequest uploadRequest(Path file) throws IOException {
+        String fileName = uploadName(file);
+        if (mode.equals("ingest")) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/etl/ingest?fileName="
+                            + URLEncoder.encode(fileName, StandardCharsets.UTF_8)))
+                    .header("Content-Type", fileName.endsWith(".csv") ? "text/csv"
+                            : fileName.endsWith(".json") ? "application/json" : "application/octet-stream")
+                    .POST(HttpRequest.BodyPublishers.ofFile(file))
+                    .build();
+        }
+
+        // Forced, so sending the same file again starts a new job instead of returning the last one
+        String boundary = "loadtest-" + UUID.randomUUID();
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/etl/upload?force=true"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofString(head),
+                        HttpRequest.BodyPublishers.ofFile(file),
+                        HttpRequest.BodyPublishers.ofString(tail)))
+                .build();
+    }
+
+    /**
+     * NDJSON files are sent as .json: the JSON reader accepts a sequence of objects
+     */
+    private static String uploadName(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".ndjson") ? name.substring(0, name.length() - ".ndjson".length()) + ".json" : name;
+    }
+
+    private JsonNode awaitCompletion(String jobId) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            JsonNode status = getJson("/api/etl/status/" + jobId);
+            if (status != null && FINISHED.contains(status.path("status").asText())) {
+                return status;
+            }
+            Thread.sleep(pollMs);
+        }
+        throw new IOException("Job " + jobId + " did not finish within " + TimeUnit.MILLISECONDS.toMinutes(timeoutMs) + " minutes");
+    }
+
+    private void sample() {
+        try {
+            Double rss = metric("process.memory.rss", null, "VALUE");
+            if (rss != null) {
+                peakRss.accumulateAndGet(rss.longValue(), Math::max);
+            }
+            Double lockQueue = metric("etl.lock.queue", null, "VALUE");
+            if (lockQueue != null) {
+                peakLockQueue.accumulateAndGet(lockQueue.longValue(), Math::max);
+            }
+        } catch (Exception e) {
+            // A missed sample only makes the peaks less precise
+        }
+    }
+
+    /**
+     * Server-side counters read before and after the run; the report shows their difference
+     */
+    private Map<String, Double> serverCounters() throws IOException, InterruptedException {
+        Map<String, Double> counters = new LinkedHashMap<>();
+        JsonNode database = getJson("/api/monitor/db-status");
+        if (database != null) {
+            counters.put("lockContentions", database.path("lockContentions").asDouble());
+            counters.put("transactions", database.path("totalTransactions").asDouble());
+            counters.put("failedTransactions", database.path("failedTransactions").asDouble());
+        }
+        counters.put("globalLockWaits", metric("etl.lock.wait", "lock:global", "COUNT"));
+        counters.put("globalLockWaitSeconds", metric("etl.lock.wait", "lock:global", "TOTAL_TIME"));
+        counters.put("writerLockWaits", metric("etl.lock.wait", "lock:writer", "COUNT"));
+        counters.put("writerLockWaitSeconds", metric("etl.lock.wait", "lock:writer", "TOTAL_TIME"));
+        counters.put("transactionRetries", metric("etl.transaction.retries", null, "COUNT"));
+        counters.put("writeRetries", metric("etl.write.retries", null, "COUNT"));
+        return counters;
+    }
+
+    private Map<String, Object> report(List<Map<String, Object>> results, double seconds,
+                                       Map<String, Double> before, Map<String, Double> after,
+                                       int jobs, int concurrency) {
+        List<Long> latencies = new ArrayList<>();
+        long written = 0;
+        long read = 0;
+        int completed = 0;
+        int failed = 0;
+        for (Map<String, Object> result : results) {
+            latencies.add((Long) result.get("latencyMs"));
+            if ("COMPLETED".equals(result.get("status"))) {
+                completed++;
+                read += (Long) result.get("readCount");
+                written += (Long) result.get("writeCount");
+            } else {
+                failed++;
+            }
+        }
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("rowsPerSecond", seconds > 0 ? Math.round(written / seconds) : 0);
+        summary.put("p50LatencyMs", percentile(sorted, 50));
+        summary.put("p99LatencyMs", percentile(sorted, 99));
+        summary.put("peakRssBytes", peakRss.get() >= 0 ? peakRss.get() : null);
+        summary.put("lockContentions", difference(before, after, "lockContentions"));
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("url", baseUrl);
+        config.put("mode", mode);
+        config.put("jobs", jobs);
+        config.put("concurrency", concurrency);
+
+        Map<String, Object> jobSummary = new LinkedHashMap<>();
+        jobSummary.put("submitted", results.size());
+        jobSummary.put("completed", completed);
+        jobSummary.put("failed", failed);
+        jobSummary.put("rejectedUploads", rejected.get());
+
+        Map<String, Object> throughput = new LinkedHashMap<>();
+        throughput.put("seconds", seconds);
+        throughput.put("rowsRead", read);
+        throughput.put("rowsWritten", written);
+        throughput.put("rowsPerSecond", summary.get("rowsPerSecond"));
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50Ms", percentile(sorted, 50));
+        latency.put("p90Ms", percentile(sorted, 90));
+        latency.put("p99Ms", percentile(sorted, 99));
+        latency.put("maxMs", sorted.length > 0 ? sorted[sorted.length - 1] : null);
+        latency.put("meanMs", Arrays.stream(sorted).average().orElse(0));
+
+        Map<String, Object> memory = new LinkedHashMap<>();
+        memory.put("peakRssBytes", summary.get("peakRssBytes"));
+        memory.put("processPeakRssBytes", metricOrNull("process.memory.rss.peak"));
+
+        Map<String, Object> sqlite = new LinkedHashMap<>();
+        for (String counter : after.keySet()) {
+            sqlite.put(counter, difference(before, after, counter));
+        }
+        sqlite.put("peakLockQueue", peakLockQueue.get() >= 0 ? peakLockQueue.get() : null);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", Instant.now().minusMillis((long) (seconds * 1000)).toString());
+        report.put("summary", summary);
+        report.put("config", config);
+        report.put("jobs", jobSummary);
+        report.put("throughput", throughput);
+        report.put("latency", latency);
+        report.put("memory", memory);
+        report.put("sqlite", sqlite);
+        report.put("results", results);
+        return report;
+    }
+
+    /**
+     * Nearest-rank percentile
+     */
+    private static Long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return null;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static Double difference(Map<String, Double> before, Map<String, Double> after, String counter) {
+        Double start = before.get(counter);
+        Double end = after.get(counter);
+        return start != null && end != null ? end - start : null;
+    }
+
+    private Double metricOrNull(String name) {
+        try {
+            return metric(name, null, "VALUE");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read one statistic of a meter from /actuator/metrics
+     * @return Value, or null if the meter is not registered
+     */
+    private Double metric(String name, String tag, String statistic) throws IOException, InterruptedException {
+        String path = "/actuator/metrics/" + name + (tag != null ? "?tag=" + URLEncoder.encode(tag, StandardCharsets.UTF_8) : "");
+        JsonNode meter = getJson(path);
+        if (meter == null) {
+            return null;
+        }
+        for (JsonNode measurement : meter.path("measurements")) {
+            if (statistic.equals(measurement.path("statistic").asText())) {
+                double value = measurement.path("value").asDouble();
+                return Double.isNaN(value) ? null : value;
+            }
+        }
+        return null;
+    }
+
+    private JsonNode getJson(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() == 200 ? objectMapper.readTree(response.body()) : null;
+    }
+}
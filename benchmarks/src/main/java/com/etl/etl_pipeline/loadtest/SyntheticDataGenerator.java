@@ -0,0 +1,413 @@
+package com.etl.etl_pipeline.loadtest;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates input files matching InputData's columns at any size, for load tests
+ * Rows are written as they are generated, so memory use does not grow with the row count. All
+ * requested formats are written in one pass and hold the same rows. A fixed seed gives the same
+ * files on every run
+ * <pre>
+ * java -cp target/benchmarks.jar com.etl.etl_pipeline.loadtest.SyntheticDataGenerator \
+ *     --rows 1000000 --formats csv,ndjson --invalid 0.05 --duplicates 0.01 \
+ *     --date-formats "yyyy-MM-dd;MM/dd/yyyy;MMM dd, yyyy" --out target/loadtest
+ * </pre>
+ */
+public class SyntheticDataGenerator {
+
+    /**
+     * Supported output formats; NDJSON goes through the application's JSON reader
+     */
+    public static final List<String> FORMATS = List.of("csv", "json", "ndjson", "xlsx");
+
+    static final String[] HEADER = {
+        "id", "firstName", "lastName", "email", "birthDate",
+        "address", "city", "country", "phoneNumber", "salary", "dependents"
+    };
+
+    private static final String[] FIRST_NAMES = {
+        "James", "Maria", "Wei", "Amina", "Lucas", "Sofia", "Ivan", "Aiko", "Noah", "Priya",
+        "Omar", "Elena", "Kofi", "Hana", "Mateo", "Freya", "Ravi", "Lena", "Tariq", "Yuki"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Garcia", "Chen", "Okafor", "Silva", "Rossi", "Petrov", "Sato", "Kim", "Patel",
+        "Haddad", "Novak", "Mensah", "Tanaka", "Lopez", "Berg", "Sharma", "Weber", "Aziz", "Mori"
+    };
+    private static final String[][] PLACES = {
+        {"London", "UK"}, {"Madrid", "Spain"}, {"Shanghai", "China"}, {"Lagos", "Nigeria"},
+        {"Sao Paulo", "Brazil"}, {"Rome", "Italy"}, {"Moscow", "Russia"}, {"Tokyo", "Japan"},
+        {"Toronto", "Canada"}, {"Mumbai", "India"}, {"Cairo", "Egypt"}, {"Berlin", "Germany"}
+    };
+    private static final String[] STREETS = {"Main Street", "High Street", "Park Avenue", "Station Road", "Church Lane"};
+
+    // Recent rows kept for exact duplicates, so duplicates do not need the whole file in memory
+    private static final int DUPLICATE_WINDOW = 1000;
+
+    private int rows = 10000;
+    private List<String> formats = List.of("csv");
+    private double invalidRatio = 0.05;
+    private double duplicateRatio = 0.0;
+    private List<String> dateFormats = List.of("yyyy-MM-dd");
+    private long seed = 42;
+    private Path outputDir = Path.of("target", "loadtest");
+    private String prefix = "synthetic";
+
+    public SyntheticDataGenerator rows(int rows) {
+        this.rows = rows;
+        return this;
+    }
+
+    public SyntheticDataGenerator formats(List<String> formats) {
+        for (String format : formats) {
+            if (!FORMATS.contains(format)) {
+                throw new IllegalArgumentException("Unsupported format: " + format + " (expected one of " + FORMATS + ")");
+            }
+        }
+        this.formats = List.copyOf(formats);
+        return this;
+    }
+
+    /**
+     * @param invalidRatio Share of rows that fail validation (bad or missing email, negative
+     *                     salary, missing or future birth date, missing id)
+     */
+    public SyntheticDataGenerator invalidRatio(double invalidRatio) {
+        this.invalidRatio = ratio("invalid", invalidRatio);
+        return this;
+    }
+
+    /**
+     * @param duplicateRatio Share of rows that repeat an earlier row exactly, id included
+     */
+    public SyntheticDataGenerator duplicateRatio(double duplicateRatio) {
+        this.duplicateRatio = ratio("duplicate", duplicateRatio);
+        return this;
+    }
+
+    /**
+     * @param dateFormats Birth date patterns, mixed with equal weight row by row
+     */
+    public SyntheticDataGenerator dateFormats(List<String> dateFormats) {
+        if (dateFormats.isEmpty()) {
+            throw new IllegalArgumentException("At least one date format is required");
+        }
+        dateFormats.forEach(DateTimeFormatter::ofPattern);
+        this.dateFormats = List.copyOf(dateFormats);
+        return this;
+    }
+
+    public SyntheticDataGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public SyntheticDataGenerator outputDir(Path outputDir) {
+        this.outputDir = outputDir;
+        return this;
+    }
+
+    public SyntheticDataGenerator prefix(String prefix) {
+        this.prefix = prefix;
+        return this;
+    }
+
+    private static double ratio(String name, double value) {
+        if (value < 0 || value > 1) {
+            throw new IllegalArgumentException("The " + name + " ratio must be between 0 and 1");
+        }
+        return value;
+    }
+
+    /**
+     * Write the files
+     * @return Summary: row counts, and the path and size of each file by format
+     */
+    public Map<String, Object> generate() throws IOException {
+        if (formats.contains("xlsx") && rows >= SpreadsheetVersion.EXCEL2007.getMaxRows()) {
+            throw new IllegalArgumentException("An .xlsx sheet holds at most "
+                    + (SpreadsheetVersion.EXCEL2007.getMaxRows() - 1) + " rows");
+        }
+        Files.createDirectories(outputDir);
+
+        Map<String, Path> files = new LinkedHashMap<>();
+        List<RowWriter> writers = new ArrayList<>();
+        try {
+            for (String format : formats) {
+                Path file = outputDir.resolve(prefix + "-" + rows + "." + format);
+                files.put(format, file);
+                writers.add(openWriter(format, file));
+            }
+
+            Random random = new Random(seed);
+            List<DateTimeFormatter> formatters = dateFormats.stream()
+                    .map(pattern -> DateTimeFormatter.ofPattern(pattern, Locale.ENGLISH))
+                    .toList();
+            String[][] recent = new String[DUPLICATE_WINDOW][];
+            long invalid = 0;
+            long duplicates = 0;
+            int generated = 0;
+
+            for (int i = 1; i <= rows; i++) {
+                String[] values;
+                if (generated > 0 && random.nextDouble() < duplicateRatio) {
+                    values = recent[random.nextInt(Math.min(generated, DUPLICATE_WINDOW))];
+                    duplicates++;
+                } else {
+                    boolean broken = random.nextDouble() < invalidRatio;
+                    values = row(i, random, formatters, broken);
+                    if (broken) {
+                        invalid++;
+                    }
+                    recent[generated++ % DUPLICATE_WINDOW] = values;
+                }
+                for (RowWriter writer : writers) {
+                    writer.write(values);
+                }
+            }
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("rows", rows);
+            summary.put("invalidRows", invalid);
+            summary.put("duplicateRows", duplicates);
+            summary.put("dateFormats", dateFormats);
+            summary.put("seed", seed);
+            closeAll(writers);
+            writers.clear();
+
+            Map<String, Object> fileSummary = new LinkedHashMap<>();
+            for (Map.Entry<String, Path> entry : files.entrySet()) {
+                fileSummary.put(entry.getKey(), Map.of(
+                        "path", entry.getValue().toString(),
+                        "bytes", Files.size(entry.getValue())));
+            }
+            summary.put("files", fileSummary);
+            return summary;
+        } finally {
+            closeAll(writers);
+        }
+    }
+
+    private static String[] row(int index, Random random, List<DateTimeFormatter> formatters, boolean invalid) {
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String[] place = PLACES[random.nextInt(PLACES.length)];
+        LocalDate birthDate = LocalDate.of(1950 + random.nextInt(55), 1 + random.nextInt(12), 1 + random.nextInt(28));
+
+        String[] values = {
+            String.valueOf(index),
+            firstName,
+            lastName,
+            (firstName + "." + lastName + index + "@example.com").toLowerCase(Locale.ROOT),
+            formatters.get(random.nextInt(formatters.size())).format(birthDate),
+            (1 + random.nextInt(999)) + " " + STREETS[random.nextInt(STREETS.length)],
+            place[0],
+            place[1],
+            "+1-555-" + String.format("%04d", random.nextInt(10000)),
+            String.valueOf(15000 + random.nextInt(185000)),
+            String.valueOf(random.nextInt(5))
+        };
+
+        if (invalid) {
+            switch (random.nextInt(6)) {
+                case 0 -> values[3] = "";
+                case 1 -> values[3] = firstName + "." + lastName + "-at-example.com";
+                case 2 -> values[9] = String.valueOf(-1 - random.nextInt(1000));
+                case 3 -> values[4] = "";
+                case 4 -> values[4] = formatters.get(0).format(LocalDate.now().plusYears(1 + random.nextInt(10)));
+                default -> values[0] = "";
+            }
+        }
+        return values;
+    }
+
+    private static RowWriter openWriter(String format, Path file) throws IOException {
+        return switch (format) {
+            case "csv" -> new CsvRowWriter(file);
+            case "json" -> new JsonRowWriter(file, true);
+            case "ndjson" -> new JsonRowWriter(file, false);
+            case "xlsx" -> new XlsxRowWriter(file);
+            default -> throw new IllegalArgumentException("Unsupported format: " + format);
+        };
+    }
+
+    private static void closeAll(List<RowWriter> writers) throws IOException {
+        IOException failure = null;
+        for (RowWriter writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private interface RowWriter extends Closeable {
+        void write(String[] values) throws IOException;
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+        private final BufferedWriter writer;
+
+        CsvRowWriter(Path file) throws IOException {
+            writer = Files.newBufferedWriter(file);
+            writer.write(String.join(",", HEADER));
+            writer.newLine();
+        }
+
+        @Override
+        public void write(String[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                String value = values[i];
+                // Dates like "Jan 31, 2023" contain the delimiter
+                if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0) {
+                    writer.write('"' + value.replace("\"", "\"\"") + '"');
+                } else {
+                    writer.write(value);
+                }
+            }
+            writer.newLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    /**
+     * A JSON array of objects, or one object per line (NDJSON)
+     */
+    private static class JsonRowWriter implements RowWriter {
+        private final OutputStream out;
+        private final JsonGenerator generator;
+        private final boolean array;
+
+        JsonRowWriter(Path file, boolean array) throws IOException {
+            this.array = array;
+            out = Files.newOutputStream(file);
+            generator = new JsonFactory().createGenerator(out, JsonEncoding.UTF8);
+            generator.setRootValueSeparator(array ? null : new SerializedString("\n"));
+            if (array) {
+                generator.writeStartArray();
+            }
+        }
+
+        @Override
+        public void write(String[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < HEADER.length; i++) {
+                // Salary and dependents as numbers, as a JSON export would have them
+                if (i >= 9) {
+                    generator.writeFieldName(HEADER[i]);
+                    generator.writeNumber(values[i]);
+                } else {
+                    generator.writeStringField(HEADER[i], values[i]);
+                }
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (out; generator) {
+                if (array) {
+                    generator.writeEndArray();
+                } else {
+                    generator.writeRaw('\n');
+                }
+            }
+        }
+    }
+
+    private static class XlsxRowWriter implements RowWriter {
+        private final Path file;
+        private final SXSSFWorkbook workbook = new SXSSFWorkbook(500);
+        private final Sheet sheet = workbook.createSheet("data");
+        private int rowIndex = 0;
+
+        XlsxRowWriter(Path file) {
+            this.file = file;
+            write(HEADER, false);
+        }
+
+        @Override
+        public void write(String[] values) {
+            write(values, true);
+        }
+
+        private void write(String[] values, boolean numeric) {
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < values.length; i++) {
+                if (numeric && i >= 9) {
+                    row.createCell(i).setCellValue(Double.parseDouble(values[i]));
+                } else {
+                    row.createCell(i).setCellValue(values[i]);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                workbook.write(out);
+            } finally {
+                workbook.dispose();
+                workbook.close();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Arguments arguments = new Arguments(args);
+        SyntheticDataGenerator generator = fromArguments(arguments);
+        Map<String, Object> summary = generator.generate();
+        System.out.println(new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(summary));
+    }
+
+    /**
+     * Generator configured from command-line options (--rows, --formats, --invalid, --duplicates,
+     * --date-formats separated by semicolons, --seed, --out, --prefix)
+     */
+    static SyntheticDataGenerator fromArguments(Arguments arguments) {
+        return new SyntheticDataGenerator()
+                .rows(arguments.getInt("rows", 10000))
+                .formats(Arrays.asList(arguments.get("formats", "csv").split(",")))
+                .invalidRatio(arguments.getDouble("invalid", 0.05))
+                .duplicateRatio(arguments.getDouble("duplicates", 0.0))
+                .dateFormats(Arrays.asList(arguments.get("date-formats", "yyyy-MM-dd").split(";")))
+                .seed(arguments.getLong("seed", 42))
+                .outputDir(Path.of(arguments.get("out", "target/loadtest")))
+                .prefix(arguments.get("prefix", "synthetic"));
+    }
+}
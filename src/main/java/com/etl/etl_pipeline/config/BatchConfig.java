@@ -1,28 +1,60 @@
 package com.etl.etl_pipeline.config;
 
+import com.etl.etl_pipeline.executor.FairShareTaskExecutor;
+import com.etl.etl_pipeline.executor.VirtualThreads;
+import com.etl.etl_pipeline.listener.ChunkEventListener;
+import com.etl.etl_pipeline.listener.FairShareJobListener;
+import com.etl.etl_pipeline.listener.JobExportListener;
+import com.etl.etl_pipeline.listener.JobLineageListener;
+import com.etl.etl_pipeline.listener.JobMetricsListener;
+import com.etl.etl_pipeline.listener.JobProgressListener;
+import com.etl.etl_pipeline.listener.JobQueueListener;
 import com.etl.etl_pipeline.model.InputData;
 import com.etl.etl_pipeline.model.ProcessedData;
+import com.etl.etl_pipeline.partition.InputPartitioner;
+import com.etl.etl_pipeline.partition.PartitionStatusAggregator;
+import com.etl.etl_pipeline.pipeline.PipelineEngine;
+import com.etl.etl_pipeline.pipeline.PipelineTasklet;
+import com.etl.etl_pipeline.pipeline.ReactivePipeline;
 import com.etl.etl_pipeline.processor.DataProcessor;
 import com.etl.etl_pipeline.reader.FileReaderFactory;
+import com.etl.etl_pipeline.reader.ReadAheadItemReader;
+import com.etl.etl_pipeline.reader.ReaderPlan;
+import com.etl.etl_pipeline.service.IngestSpoolRegistry;
+import com.etl.etl_pipeline.service.JobProgressService;
 import com.etl.etl_pipeline.writer.DatabaseWriter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.item.support.SynchronizedItemReader;
+import org.springframework.batch.repeat.support.TaskExecutorRepeatTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
 
 import java.util.Collections;
 
@@ -44,6 +76,36 @@ public class BatchConfig {
     @Autowired
     private DatabaseWriter databaseWriter;
 
+    @Autowired
+    private JobExportListener jobExportListener;
+
+    @Autowired
+    private JobQueueListener jobQueueListener;
+
+    @Autowired
+    private JobLineageListener jobLineageListener;
+
+    @Autowired
+    private JobProgressListener jobProgressListener;
+
+    @Autowired
+    private JobProgressService jobProgressService;
+
+    @Autowired
+    private JobMetricsListener jobMetricsListener;
+
+    @Autowired
+    private ChunkEventListener chunkEventListener;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ExecutionModeDecider executionModeDecider;
+
+    @Autowired
+    private IngestSpoolRegistry spoolRegistry;
+
     @Value("${etl.chunk-size:10}")
     private int chunkSize;
 
@@ -53,61 +115,287 @@ public class BatchConfig {
     @Value("${etl.throttle-limit:4}")
     private int throttleLimit;
     
-    @Value("${etl.queue-capacity:16}")
-    private int queueCapacity;
-
-    @Bean
-    public TaskExecutor taskExecutor() {
-        // Configure task executor with reduced concurrency to prevent database locking
-        org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor taskExecutor = 
-            new org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor();
-        
-        // Reduce thread count to minimize database contention
-        taskExecutor.setCorePoolSize(maxThreads);
-        taskExecutor.setMaxPoolSize(maxThreads);
-        taskExecutor.setQueueCapacity(queueCapacity);
-        taskExecutor.setThreadNamePrefix("etl-thread-");
-        taskExecutor.setAllowCoreThreadTimeOut(true);
-        taskExecutor.setKeepAliveSeconds(120); // Longer idle threads timeout
-        taskExecutor.setWaitForTasksToCompleteOnShutdown(true);
-        taskExecutor.setAwaitTerminationSeconds(60);
-        taskExecutor.initialize();
-        
-        return taskExecutor;
+    @Value("${etl.scheduler.fast-lane-threads:1}")
+    private int fastLaneThreads;
+
+    @Value("${etl.scheduler.fast-lane-weight:4}")
+    private int fastLaneWeight;
+
+    @Value("${etl.scheduler.small-file-bytes:5242880}")
+    private long smallFileBytes;
+
+    @Value("${etl.partition.count:4}")
+    private int partitionCount;
+
+    @Value("${etl.io.max-concurrency:64}")
+    private int ioMaxConcurrency;
+
+    @Value("${etl.io.read-ahead:1000}")
+    private int readAheadSize;
+
+    @Value("${etl.io.chunks-per-job:16}")
+    private int ioChunksPerJob;
+
+    @Value("${etl.pipeline.processor-threads:2}")
+    private int pipelineProcessorThreads;
+
+    @Value("${etl.pipeline.input-buffer:1024}")
+    private int pipelineInputBuffer;
+
+    @Value("${etl.pipeline.output-buffer:1024}")
+    private int pipelineOutputBuffer;
+
+    @Value("${etl.pipeline.handoff-batch:64}")
+    private int pipelineHandoffBatch;
+
+    @Value("${etl.pipeline.write-batch:500}")
+    private int pipelineWriteBatch;
+
+    @Value("${etl.pipeline.report-interval-ms:500}")
+    private long pipelineReportIntervalMs;
+
+    @Value("${etl.reactive.processor-threads:2}")
+    private int reactiveProcessorThreads;
+
+    @Value("${etl.reactive.prefetch:256}")
+    private int reactivePrefetch;
+
+    @Value("${etl.reactive.write-batch:500}")
+    private int reactiveWriteBatch;
+
+    @Value("${etl.reactive.max-batch-wait-ms:1000}")
+    private long reactiveMaxBatchWaitMs;
+
+    @Bean
+    public FairShareTaskExecutor taskExecutor() {
+        // Fixed pool sized small to limit database contention, shared fairly between running jobs
+        return new FairShareTaskExecutor(maxThreads, fastLaneThreads, fastLaneWeight, "etl-thread-");
+    }
+
+    @Bean
+    public SimpleAsyncTaskExecutor ioTaskExecutor() {
+        // A thread per task, virtual where the runtime supports it; not bounded by etl.max-threads
+        return VirtualThreads.newExecutor("etl-io-", ioMaxConcurrency);
+    }
+
+    @Bean
+    public FairShareJobListener fairShareJobListener() {
+        return new FairShareJobListener(taskExecutor(), spoolRegistry, smallFileBytes);
     }
 
     @Bean
     public Job etlJob() {
         return new JobBuilder("etlJob", jobRepository)
                 .incrementer(new RunIdIncrementer())
-                .start(etlStep())
+                .meterRegistry(meterRegistry)
+                // afterJob runs in reverse order: the export finishes before the queue slot is released,
+                // and watchers are told the job is complete last
+                .listener((JobExecutionListener) jobProgressListener)
+                .listener((JobExecutionListener) jobMetricsListener)
+                .listener(jobQueueListener)
+                .listener(fairShareJobListener())
+                .listener(jobExportListener)
+                .listener(jobLineageListener)
+                // The executionMode job parameter picks how the input is read
+                .start(executionModeDecider)
+                .on(ExecutionModeDecider.PARTITIONED).to(partitionedEtlStep())
+                .from(executionModeDecider)
+                .on(ExecutionModeDecider.VIRTUAL_THREADS).to(virtualThreadEtlStep())
+                .from(executionModeDecider)
+                .on(ExecutionModeDecider.PIPELINED).to(pipelinedEtlStep())
+                .from(executionModeDecider)
+                .on(ExecutionModeDecider.REACTIVE).to(reactiveEtlStep())
+                .from(executionModeDecider)
+                .on("*").to(etlStep())
+                .end()
                 .build();
     }
 
     @Bean
     public Step etlStep() {
-        return new StepBuilder("etlStep", jobRepository)
-                .<InputData, ProcessedData>chunk(chunkSize, transactionManager)
-                .reader(reader(null)) // This will be replaced at runtime with the actual reader
-                .processor(processor())
-                .writer(writer())
+        return chunkStep("etlStep", reader(null, null, null)) // The reader is replaced at runtime with the actual reader
                 .taskExecutor(taskExecutor())
                 // Note: throttleLimit is deprecated in Spring Batch 5.0+
-                // The ThreadPoolTaskExecutor configuration now handles this
+                // Per-job concurrency is capped by the FairShareTaskExecutor instead
+                .build();
+    }
+
+    /**
+     * Partitioned mode: the input is split into ranges and each range is processed by its own
+     * partition step, with its own reader and checkpoint, on the fair-share executor.
+     * A restarted job only re-runs the partitions that did not complete
+     */
+    @Bean
+    public Step partitionedEtlStep() {
+        return new StepBuilder("etlPartitionedStep", jobRepository)
+                .partitioner("etlPartitionStep", partitioner(null, null))
+                .step(etlPartitionStep())
+                .gridSize(partitionCount)
+                .taskExecutor(taskExecutor())
+                .aggregator(new PartitionStatusAggregator())
+                .meterRegistry(meterRegistry)
+                .build();
+    }
+
+    @Bean
+    public Step etlPartitionStep() {
+        return chunkStep("etlPartitionStep", partitionReader(null, null, null, null, null)).build();
+    }
+
+    /**
+     * Virtual-thread mode: the input is read ahead on an I/O thread and chunks run on I/O threads,
+     * so waiting on input is not bounded by the fixed pool. Chunks queue for the database
+     * writer's permits before their transaction touches SQLite.
+     * Up to etl.io.chunks-per-job chunks of a job run at once, within the etl.io.max-concurrency
+     * threads shared by all jobs; without an explicit template the step would use Spring Batch's
+     * default throttle limit of 4
+     */
+    @Bean
+    @SuppressWarnings("deprecation") // The throttle limit is still the only per-step cap on chunk threads in Spring Batch 5
+    public Step virtualThreadEtlStep() {
+        TaskExecutorRepeatTemplate stepOperations = new TaskExecutorRepeatTemplate();
+        stepOperations.setTaskExecutor(ioTaskExecutor());
+        stepOperations.setThrottleLimit(Math.max(1, ioChunksPerJob));
+        return chunkStep("etlVirtualThreadStep", readAheadReader(null, null, null))
+                .stepOperations(stepOperations)
+                .build();
+    }
+
+    /**
+     * Pipelined mode: reading, processing and writing run concurrently on threads of their own,
+     * connected by ring buffers. The step only reports progress, outside any transaction, since
+     * the writer stage commits its own batches
+     */
+    @Bean
+    public Step pipelinedEtlStep() {
+        return pipelineStep("etlPipelinedStep", pipelineTasklet(null, null, null));
+    }
+
+    /**
+     * Reactive mode: the input is pulled through parallel processor rails into batched writes, with
+     * demand driven by the writer and bounded prefetch between stages, for streaming sources
+     */
+    @Bean
+    public Step reactiveEtlStep() {
+        return pipelineStep("etlReactiveStep", reactivePipelineTasklet(null, null, null));
+    }
+
+    private Step pipelineStep(String name, PipelineTasklet tasklet) {
+        return new StepBuilder(name, jobRepository)
+                .tasklet(tasklet, transactionManager)
+                .transactionAttribute(new DefaultTransactionAttribute(TransactionDefinition.PROPAGATION_NOT_SUPPORTED))
+                .listener((StepExecutionListener) tasklet)
+                .listener((ChunkListener) jobProgressListener)
+                .meterRegistry(meterRegistry)
                 .build();
     }
 
+    /**
+     * Chunk-oriented step over the processor and writer, with the listeners every processing step reports to
+     */
+    private SimpleStepBuilder<InputData, ProcessedData> chunkStep(String name, ItemReader<InputData> reader) {
+        return new StepBuilder(name, jobRepository)
+                .<InputData, ProcessedData>chunk(chunkSize, transactionManager)
+                .reader(reader)
+                .processor(processor())
+                .writer(writer())
+                .listener((ChunkListener) jobProgressListener)
+                .listener((ChunkListener) jobMetricsListener)
+                // Flight recorder events per chunk phase
+                .listener((StepExecutionListener) chunkEventListener)
+                .listener((ChunkListener) chunkEventListener)
+                .listener((ItemReadListener<InputData>) chunkEventListener)
+                .listener((ItemProcessListener<InputData, ProcessedData>) chunkEventListener)
+                .listener((ItemWriteListener<ProcessedData>) chunkEventListener)
+                .meterRegistry(meterRegistry);
+    }
+
+    @Bean
+    @StepScope
+    public Partitioner partitioner(@Value("#{jobParameters['filePath']}") String filePath,
+                                   @Value("#{stepExecution.jobExecution.jobId}") Long jobId) {
+        return new InputPartitioner(filePath, fileReaderFactory, jobProgressService.trackReads(jobId));
+    }
+
+    /**
+     * Reader for one partition, opened and checkpointed by its partition step
+     */
+    @Bean
+    @StepScope
+    public ItemStreamReader<InputData> partitionReader(
+            @Value("#{jobParameters['filePath']}") String filePath,
+            @Value("#{jobParameters['readerPlan']}") String readerPlan,
+            @Value("#{stepExecution.jobExecution.jobId}") Long jobId,
+            @Value("#{stepExecutionContext['" + InputPartitioner.START_KEY + "']}") Long start,
+            @Value("#{stepExecutionContext['" + InputPartitioner.END_KEY + "']}") Long end) {
+        return fileReaderFactory.getPartitionReader(filePath, ReaderPlan.fromJson(readerPlan),
+                jobProgressService.trackReads(jobId), start, end);
+    }
+
+    @Bean
+    @StepScope
+    public ItemStreamReader<InputData> readAheadReader(@Value("#{jobParameters['filePath']}") String filePath,
+                                                       @Value("#{jobParameters['readerPlan']}") String readerPlan,
+                                                       @Value("#{stepExecution.jobExecution.jobId}") Long jobId) {
+        try {
+            ItemReader<InputData> reader = fileReaderFactory.getReader(filePath, ReaderPlan.fromJson(readerPlan),
+                    jobProgressService.trackReads(jobId));
+            return new ReadAheadItemReader<>(reader, ioTaskExecutor(), readAheadSize);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create reader for file: " + filePath, e);
+        }
+    }
+
+    @Bean
+    @StepScope
+    public PipelineTasklet pipelineTasklet(@Value("#{jobParameters['filePath']}") String filePath,
+                                           @Value("#{jobParameters['readerPlan']}") String readerPlan,
+                                           @Value("#{stepExecution.jobExecution.jobId}") Long jobId) {
+        try {
+            ItemReader<InputData> reader = fileReaderFactory.getReader(filePath, ReaderPlan.fromJson(readerPlan),
+                    jobProgressService.trackReads(jobId));
+            PipelineEngine.Settings settings = new PipelineEngine.Settings(pipelineProcessorThreads,
+                    pipelineInputBuffer, pipelineOutputBuffer, pipelineHandoffBatch, pipelineWriteBatch);
+            return new PipelineTasklet(stepExecution -> new PipelineEngine(reader, processor(), databaseWriter,
+                    transactionManager, stepExecution, meterRegistry, settings), pipelineReportIntervalMs);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create reader for file: " + filePath, e);
+        }
+    }
+
+    @Bean
+    @StepScope
+    public PipelineTasklet reactivePipelineTasklet(@Value("#{jobParameters['filePath']}") String filePath,
+                                                   @Value("#{jobParameters['readerPlan']}") String readerPlan,
+                                                   @Value("#{stepExecution.jobExecution.jobId}") Long jobId) {
+        try {
+            ItemReader<InputData> reader = fileReaderFactory.getReader(filePath, ReaderPlan.fromJson(readerPlan),
+                    jobProgressService.trackReads(jobId));
+            ReactivePipeline.Settings settings = new ReactivePipeline.Settings(reactiveProcessorThreads,
+                    reactivePrefetch, reactiveWriteBatch, reactiveMaxBatchWaitMs);
+            return new PipelineTasklet(stepExecution -> new ReactivePipeline(reader, processor(), databaseWriter,
+                    transactionManager, stepExecution, meterRegistry, settings), pipelineReportIntervalMs);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create reader for file: " + filePath, e);
+        }
+    }
+
     @Bean
     @StepScope
-    public ItemReader<InputData> reader(@Value("#{jobParameters['filePath']}") String filePath) {
+    public ItemReader<InputData> reader(@Value("#{jobParameters['filePath']}") String filePath,
+                                        @Value("#{jobParameters['readerPlan']}") String readerPlan,
+                                        @Value("#{stepExecution.jobExecution.jobId}") Long jobId) {
         if (filePath != null) {
             try {
-                ItemReader<InputData> reader = fileReaderFactory.getReader(filePath);
+                // Uploads handed off from a preview carry their resolved column mapping and date format
+                ItemReader<InputData> reader = fileReaderFactory.getReader(filePath, ReaderPlan.fromJson(readerPlan),
+                        jobProgressService.trackReads(jobId));
                 // Initialize the reader
                 if (reader instanceof org.springframework.batch.item.ItemStream) {
                     ((org.springframework.batch.item.ItemStream) reader).open(new org.springframework.batch.item.ExecutionContext());
                 }
-                return reader;
+                // The step's threads share one reader, and the streaming readers keep a single parser position
+                return new SynchronizedItemReader<>(reader);
             } catch (Exception e) {
                 throw new RuntimeException("Failed to create reader for file: " + filePath, e);
             }
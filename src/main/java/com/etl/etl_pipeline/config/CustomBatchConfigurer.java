@@ -6,9 +6,12 @@ import org.springframework.batch.core.configuration.support.DefaultBatchConfigur
 import org.springframework.batch.core.repository.ExecutionContextSerializer;
 import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.transaction.annotation.Isolation;
@@ -26,6 +29,12 @@ import lombok.extern.slf4j.Slf4j;
 public class CustomBatchConfigurer extends DefaultBatchConfiguration {
 
     private final DataSource dataSource;
+    
+    @Value("${etl.launcher.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+    
+    @Value("${etl.launcher.max-queued-jobs:8}")
+    private int maxQueuedJobs;
 
     @Autowired
     public CustomBatchConfigurer(DataSource dataSource) {
@@ -54,6 +63,32 @@ public class CustomBatchConfigurer extends DefaultBatchConfiguration {
         return Isolation.READ_COMMITTED;
     }
     
+    /**
+     * Run jobs on a bounded pool instead of the caller's thread, so the launcher returns
+     * as soon as the job execution is created and HTTP threads are not held for the whole load.
+     * The queue is sized to the admission limit enforced by JobQueueService, so an admitted job
+     * is never rejected by the pool
+     */
+    @Override
+    protected @NonNull TaskExecutor getTaskExecutor() {
+        return jobLauncherTaskExecutor();
+    }
+    
+    @Bean
+    public ThreadPoolTaskExecutor jobLauncherTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentJobs);
+        executor.setMaxPoolSize(maxConcurrentJobs);
+        executor.setQueueCapacity(Math.max(1, maxQueuedJobs));
+        executor.setThreadNamePrefix("etl-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        log.info("Created job launcher executor with {} concurrent jobs and {} queued jobs", 
+                maxConcurrentJobs, maxQueuedJobs);
+        return executor;
+    }
+    
     @Bean
     public ExecutionContextSerializer executionContextSerializer() {
         // Use Jackson serializer for better handling of large contexts
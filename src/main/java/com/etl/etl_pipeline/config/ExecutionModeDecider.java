@@ -0,0 +1,55 @@
+package com.etl.etl_pipeline.config;
+
+import com.etl.etl_pipeline.service.IngestSpoolRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chooses the step that processes a job's input from its executionMode parameter
+ * multi-threaded: one reader shared by the step's threads (the default, and the only mode for
+ * inputs still being uploaded, since they cannot be split before they are complete).
+ * partitioned: the input is split into ranges, each read by its own partition step.
+ * virtual-threads: the input is read ahead and chunks run on virtual threads, outside the
+ * etl.max-threads pool, with database writes limited by the writer's permits.
+ * pipelined: reading, processing and writing run concurrently on their own threads.
+ * reactive: the input flows through parallel processor rails into batched writes, with demand
+ * driven by the writer
+ */
+@Slf4j
+@Component
+public class ExecutionModeDecider implements JobExecutionDecider {
+
+    /**
+     * Job parameter holding the execution mode
+     */
+    public static final String MODE_PARAMETER = "executionMode";
+
+    public static final String MULTI_THREADED = "multi-threaded";
+    public static final String PARTITIONED = "partitioned";
+    public static final String VIRTUAL_THREADS = "virtual-threads";
+    public static final String PIPELINED = "pipelined";
+    public static final String REACTIVE = "reactive";
+
+    @Autowired
+    private IngestSpoolRegistry spoolRegistry;
+
+    @Override
+    @NonNull
+    public FlowExecutionStatus decide(@NonNull JobExecution jobExecution, StepExecution stepExecution) {
+        String mode = jobExecution.getJobParameters().getString(MODE_PARAMETER, MULTI_THREADED);
+        String filePath = jobExecution.getJobParameters().getString("filePath");
+
+        if (PARTITIONED.equals(mode) && filePath != null && spoolRegistry.isReceiving(filePath)) {
+            log.info("Job execution {} input is still being received, running multi-threaded instead of partitioned",
+                    jobExecution.getId());
+            mode = MULTI_THREADED;
+        }
+        return new FlowExecutionStatus(mode);
+    }
+}
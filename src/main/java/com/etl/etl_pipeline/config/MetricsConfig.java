@@ -0,0 +1,89 @@
+package com.etl.etl_pipeline.config;
+
+import com.etl.etl_pipeline.executor.FairShareTaskExecutor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Gauges over the pipeline's existing counters, exposed through Actuator at /actuator/prometheus
+ * Timers for chunks, lock waits and write retries are recorded where the work happens
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final Path PROC_STATUS = Path.of("/proc/self/status");
+
+    @Bean
+    public MeterBinder executorMetrics(FairShareTaskExecutor taskExecutor) {
+        return registry -> {
+            Gauge.builder("etl.executor.queued", taskExecutor, FairShareTaskExecutor::getQueuedTaskCount)
+                    .description("Step tasks waiting for a worker thread")
+                    .register(registry);
+            Gauge.builder("etl.executor.active", taskExecutor, FairShareTaskExecutor::getActiveTaskCount)
+                    .description("Step tasks running on a worker thread")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder transactionMetrics(SQLiteTransactionManager transactionManager) {
+        return registry -> {
+            Gauge.builder("etl.lock.queue", transactionManager, SQLiteTransactionManager::getQueueLength)
+                    .description("Threads waiting for a database lock")
+                    .tag("lock", "global")
+                    .register(registry);
+            Gauge.builder("etl.transactions.active", transactionManager, SQLiteTransactionManager::getActiveTransactionCount)
+                    .description("Transactions begun and not yet committed or rolled back")
+                    .register(registry);
+            FunctionCounter.builder("etl.lock.contentions", transactionManager, SQLiteTransactionManager::getLockContentionCount)
+                    .description("Database lock acquisitions that timed out")
+                    .register(registry);
+            FunctionCounter.builder("etl.transactions.failed", transactionManager, SQLiteTransactionManager::getFailedTransactionCount)
+                    .description("Transactions that could not be begun or completed")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Resident set size of the JVM process, which the JVM's own memory metrics do not cover
+     * (native buffers, SQLite's page cache, thread stacks). Only available on Linux
+     */
+    @Bean
+    public MeterBinder processMemoryMetrics() {
+        return registry -> {
+            if (!Files.isReadable(PROC_STATUS)) {
+                return;
+            }
+            Gauge.builder("process.memory.rss", () -> readProcStatus("VmRSS:"))
+                    .description("Resident set size of the process")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("process.memory.rss.peak", () -> readProcStatus("VmHWM:"))
+                    .description("Highest resident set size since the process started")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    private static double readProcStatus(String field) {
+        try {
+            for (String line : Files.readAllLines(PROC_STATUS)) {
+                if (line.startsWith(field)) {
+                    // e.g. "VmRSS:	  123456 kB"
+                    String kilobytes = line.substring(field.length()).replace("kB", "").trim();
+                    return Long.parseLong(kilobytes) * 1024.0;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Reported as missing rather than failing the scrape
+        }
+        return Double.NaN;
+    }
+}
@@ -1,13 +1,20 @@
 package com.etl.etl_pipeline.config;
 
+import com.etl.etl_pipeline.jfr.DatabaseRetryEvent;
+import com.etl.etl_pipeline.jfr.LockAcquireEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.JdbcTransactionObjectSupport;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
@@ -38,6 +45,14 @@ public class SQLiteTransactionManager extends DataSourceTransactionManager {
     private static final AtomicInteger totalTransactions = new AtomicInteger(0);
     private static final AtomicInteger failedTransactions = new AtomicInteger(0);
 
+    // Registered globally like the lock itself: CustomBatchConfigurer also creates an unmanaged instance
+    private static final Timer beginLockWait = lockWaitTimer("begin");
+    private static final Timer commitLockWait = lockWaitTimer("commit");
+    private static final Timer rollbackLockWait = lockWaitTimer("rollback");
+    private static final Counter beginRetries = Counter.builder("etl.transaction.retries")
+            .description("Transaction begins retried after a lock timeout or SQLITE_BUSY")
+            .register(Metrics.globalRegistry);
+
     @Value("${sqlite.lock.timeout-ms:30000}")
     private long lockTimeoutMs = 30000;
 
@@ -82,6 +97,8 @@ public class SQLiteTransactionManager extends DataSourceTransactionManager {
             try {
                 // Try to acquire the global lock with timeout
                 boolean lockAcquired = false;
+                long waitStart = System.nanoTime();
+                LockAcquireEvent lockEvent = LockAcquireEvent.begin("global", "begin", operationName, globalLock.getQueueLength());
 
                 // Job repository operations get priority if configured
                 if (jobRepositoryPriority && isJobRepositoryOperation() && globalLock.hasQueuedThreads()) {
@@ -94,24 +111,18 @@ public class SQLiteTransactionManager extends DataSourceTransactionManager {
                     // Regular lock acquisition
                     lockAcquired = globalLock.tryLock(currentLockTimeoutMs, TimeUnit.MILLISECONDS);
                 }
+                beginLockWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+                lockEvent.finish(lockAcquired);
 
                 if (lockAcquired) {
                     try {
                         // Once we have the lock, proceed with the transaction
                         super.doBegin(transaction, definition);
 
-                        // Get connection from the transaction
+                        // Get the connection the transaction was just bound to
                         Connection connection = null;
-                        if (transaction instanceof DefaultTransactionStatus) {
-                            try {
-                                // Get connection using DataSourceUtils
-                                DataSource dataSource = getDataSource();
-                                if (dataSource != null) {
-                                    connection = DataSourceUtils.getConnection(dataSource);
-                                }
-                            } catch (Exception e) {
-                                log.warn("Could not get connection from transaction: {}", e.getMessage());
-                            }
+                        if (transaction instanceof JdbcTransactionObjectSupport txObject && txObject.hasConnectionHolder()) {
+                            connection = txObject.getConnectionHolder().getConnection();
                         }
                         
                         if (connection != null) {
@@ -125,8 +136,7 @@ public class SQLiteTransactionManager extends DataSourceTransactionManager {
                                     stmt.execute("PRAGMA busy_timeout=" + lockTimeoutMs);
                                     log.debug("Set SQLite busy_timeout to {}ms", lockTimeoutMs);
                                     
-                                    // Set synchronous mode to NORMAL for better performance
-                                    stmt.execute("PRAGMA synchronous=NORMAL");
+                                    // synchronous cannot be changed once the transaction has begun
                                     
                                     // Enable foreign keys
                                     stmt.execute("PRAGMA foreign_keys=ON");
@@ -154,10 +164,12 @@ public class SQLiteTransactionManager extends DataSourceTransactionManager {
                     log.warn("Failed to acquire global lock for {} after {}ms, retrying... (attempt {}/{})", 
                             operationName, currentLockTimeoutMs, retryCount + 1, maxRetryCount);
                     retryCount++;
+                    beginRetries.increment();
 
                     // Wait before retrying with exponential backoff and jitter
                     if (retryCount < maxRetryCount) {
                         long delay = calculateRetryDelay(retryCount);
+                        DatabaseRetryEvent.emit(operationName, retryCount, "lock timeout", delay);
                         Thread.sleep(delay);
                     }
                 }
@@ -178,6 +190,7 @@ public class SQLiteTransactionManager extends DataSourceTransactionManager {
                     lockContentionsByOperation.compute(operationName, (k, v) -> (v == null) ? 1 : v + 1);
                     
                     retryCount++;
+                    beginRetries.increment();
                     
                     // Wait before retrying with exponential backoff and jitter
                     if (retryCount < maxRetryCount) {
@@ -185,6 +198,7 @@ public class SQLiteTransactionManager extends DataSourceTransactionManager {
                             long delay = calculateRetryDelay(retryCount);
                             log.info("Waiting {}ms before retry {} for operation: {}", 
                                     delay, retryCount, operationName);
+                            DatabaseRetryEvent.emit(operationName, retryCount, "SQLITE_BUSY", delay);
                             Thread.sleep(delay);
                             // Continue to next retry iteration
                             continue;
@@ -213,6 +227,74 @@ public class SQLiteTransactionManager extends DataSourceTransactionManager {
             throw new RuntimeException("Failed to acquire database lock after " + maxRetryCount + 
                     " attempts and " + elapsedTime + "ms for operation: " + operationName);
         }
+
+        if (!definition.isReadOnly() && isJobRepositoryTransaction(definition)) {
+            claimWriteLock(transaction, operationName);
+        }
+    }
+
+    /**
+     * Spring Batch's repository transactions, named after the SimpleJobRepository method they wrap
+     */
+    private boolean isJobRepositoryTransaction(TransactionDefinition definition) {
+        String name = definition.getName();
+        return name != null && name.contains("JobRepository");
+    }
+
+    /**
+     * Take SQLite's write lock at the start of a job repository transaction
+     * These transactions read a version or key before writing it back. Begun deferred, the write
+     * fails with SQLITE_BUSY straight away if a chunk committed in between, since busy_timeout cannot
+     * help a stale snapshot; claiming the lock first makes them queue behind the chunk instead.
+     * Done after the global lock is released, so a chunk holding the write lock can still commit
+     */
+    private void claimWriteLock(Object transaction, String operationName) {
+        if (!(transaction instanceof JdbcTransactionObjectSupport txObject) || !txObject.hasConnectionHolder()) {
+            return;
+        }
+        try (Statement stmt = txObject.getConnectionHolder().getConnection().createStatement()) {
+            stmt.executeUpdate("UPDATE BATCH_JOB_EXECUTION SET VERSION = VERSION WHERE 0");
+        } catch (SQLException e) {
+            // Carry on as a deferred transaction, as before
+            lockContentions.incrementAndGet();
+            lockContentionsByOperation.compute(operationName, (k, v) -> (v == null) ? 1 : v + 1);
+            log.warn("Could not take the write lock for {}: {}", operationName, e.getMessage());
+        }
+    }
+
+    /**
+     * Take SQLite's write lock for the transaction bound to the current thread, if there is one
+     * For transactions that will run a job repository update without having written anything
+     * themselves, such as the last, empty chunk of a step: the update joins the transaction and
+     * so does not claim the lock when it begins
+     */
+    public void claimWriteLock() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        DataSource dataSource = getDataSource();
+        if (dataSource == null) {
+            return;
+        }
+        String operationName = getOperationName();
+        // Bound to the transaction, so it is not closed here
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("UPDATE BATCH_JOB_EXECUTION SET VERSION = VERSION WHERE 0");
+        } catch (SQLException e) {
+            lockContentions.incrementAndGet();
+            lockContentionsByOperation.compute(operationName, (k, v) -> (v == null) ? 1 : v + 1);
+            log.warn("Could not take the write lock for {}: {}", operationName, e.getMessage());
+        }
+    }
+
+    private static Timer lockWaitTimer(String phase) {
+        return Timer.builder("etl.lock.wait")
+                .description("Time spent waiting for a database lock")
+                .tag("lock", "global")
+                .tag("phase", phase)
+                .register(Metrics.globalRegistry);
     }
 
     /**
@@ -264,7 +346,13 @@ public class SQLiteTransactionManager extends DataSourceTransactionManager {
                 currentLockTimeoutMs = lockTimeoutMs * 2;
             }
 
-            if (globalLock.tryLock(currentLockTimeoutMs, TimeUnit.MILLISECONDS)) {
+            long waitStart = System.nanoTime();
+            LockAcquireEvent lockEvent = LockAcquireEvent.begin("global", "commit", operationName, globalLock.getQueueLength());
+            boolean lockAcquired = globalLock.tryLock(currentLockTimeoutMs, TimeUnit.MILLISECONDS);
+            commitLockWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+            lockEvent.finish(lockAcquired);
+
+            if (lockAcquired) {
                 try {
                     super.doCommit(status);
                     log.debug("Transaction committed successfully for operation: {}", operationName);
@@ -302,7 +390,13 @@ public class SQLiteTransactionManager extends DataSourceTransactionManager {
                 currentLockTimeoutMs = lockTimeoutMs * 2;
             }
             
-            if (globalLock.tryLock(currentLockTimeoutMs, TimeUnit.MILLISECONDS)) {
+            long waitStart = System.nanoTime();
+            LockAcquireEvent lockEvent = LockAcquireEvent.begin("global", "rollback", operationName, globalLock.getQueueLength());
+            boolean lockAcquired = globalLock.tryLock(currentLockTimeoutMs, TimeUnit.MILLISECONDS);
+            rollbackLockWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+            lockEvent.finish(lockAcquired);
+
+            if (lockAcquired) {
                 try {
                     super.doRollback(status);
                     log.debug("Transaction rolled back successfully for operation: {}", operationName);
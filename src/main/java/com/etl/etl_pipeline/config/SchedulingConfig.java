@@ -0,0 +1,13 @@
+package com.etl.etl_pipeline.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration for scheduled background tasks (retention purges, etc.)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // No additional configuration needed, just enabling scheduled tasks
+}
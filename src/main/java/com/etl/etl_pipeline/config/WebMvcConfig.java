@@ -1,7 +1,11 @@
 package com.etl.etl_pipeline.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -11,6 +15,12 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    @Value("${etl.stream.max-concurrent:4}")
+    private int streamMaxConcurrent;
+
+    @Value("${etl.stream.timeout-ms:3600000}")
+    private long streamTimeoutMs;
+
     @Override
     public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
         // Register custom resource handlers
@@ -20,4 +30,22 @@ public class WebMvcConfig implements WebMvcConfigurer {
         registry.addResourceHandler("/assets/**")
                 .addResourceLocations("classpath:/static/assets/");
     }
+
+    @Override
+    public void configureAsyncSupport(@NonNull AsyncSupportConfigurer configurer) {
+        // Streaming responses run on a bounded pool and may take far longer than the default async timeout
+        configurer.setTaskExecutor(streamTaskExecutor());
+        configurer.setDefaultTimeout(streamTimeoutMs);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor streamTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamMaxConcurrent);
+        executor.setMaxPoolSize(streamMaxConcurrent);
+        executor.setQueueCapacity(streamMaxConcurrent * 4);
+        executor.setThreadNamePrefix("etl-stream-");
+        executor.initialize();
+        return executor;
+    }
 }
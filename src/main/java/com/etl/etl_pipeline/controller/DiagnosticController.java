@@ -1,5 +1,7 @@
 package com.etl.etl_pipeline.controller;
 
+import com.etl.etl_pipeline.config.DatabaseInitializer;
+import com.etl.etl_pipeline.service.ProcessedStatsService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +25,12 @@ public class DiagnosticController {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private DatabaseInitializer databaseInitializer;
+
+    @Autowired
+    private ProcessedStatsService processedStatsService;
+
     /**
      * Get database schema information
      * @return Map with schema information
@@ -106,14 +114,26 @@ public class DiagnosticController {
                 "tax_amount DOUBLE, " +
                 "processed_at TEXT, " +
                 "processing_status TEXT, " +
-                "validation_messages TEXT" +
+                "validation_messages TEXT, " +
+                "job_execution_id INTEGER" +
                 ")"
             );
             
-            // Copy data from the old table to the new one if it exists
+            // Copy data from the old table to the new one if it exists, keeping the job execution
+            // that loaded each row when the old table records it: job-scoped exports, deletes,
+            // restarts and upload deduplication find rows by it
             try {
+                boolean hasLineage = jdbcTemplate.queryForList("PRAGMA table_info(processed_data)").stream()
+                    .anyMatch(column -> "job_execution_id".equalsIgnoreCase(String.valueOf(column.get("name"))));
+                String lineageColumn = hasLineage ? ", job_execution_id" : "";
+                
                 jdbcTemplate.execute(
-                    "INSERT INTO processed_data_new " +
+                    "INSERT INTO processed_data_new (" +
+                    "id, first_name, last_name, email, birth_date, address, city, country, " +
+                    "phone_number, salary, dependents, age, tax_rate, net_salary, full_name, " +
+                    "dependent_allowance, total_deductions, bonus, retirement_contribution, " +
+                    "total_compensation, tax_amount, processed_at, processing_status, validation_messages" +
+                    lineageColumn + ") " +
                     "SELECT id, first_name, last_name, email, birth_date, address, city, country, " +
                     "phone_number, salary, dependents, age, tax_rate, net_salary, full_name, " +
                     "dependent_allowance, total_deductions, " +
@@ -121,7 +141,7 @@ public class DiagnosticController {
                     "COALESCE(retirement_contribution, 0) as retirement_contribution, " +
                     "COALESCE(total_compensation, 0) as total_compensation, " +
                     "COALESCE(tax_amount, 0) as tax_amount, " +
-                    "processed_at, processing_status, validation_messages " +
+                    "processed_at, processing_status, validation_messages" + lineageColumn + " " +
                     "FROM processed_data"
                 );
             } catch (Exception e) {
@@ -135,6 +155,10 @@ public class DiagnosticController {
             
             jdbcTemplate.execute("COMMIT");
             
+            // Indexes were dropped with the old table, and rows may have been lost if copying failed
+            databaseInitializer.createProcessedDataIndexes();
+            processedStatsService.rebuild();
+            
             response.put("status", "success");
             response.put("message", "Database schema reset successfully");
             
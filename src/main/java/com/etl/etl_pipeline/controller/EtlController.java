@@ -1,22 +1,43 @@
 package com.etl.etl_pipeline.controller;
 
 import com.etl.etl_pipeline.model.ProcessedData;
+import com.etl.etl_pipeline.service.AggregationService;
 import com.etl.etl_pipeline.service.EtlService;
+import com.etl.etl_pipeline.service.FileExportService;
+import com.etl.etl_pipeline.service.JobProgressService;
+import com.etl.etl_pipeline.service.JobQueueFullException;
+import com.etl.etl_pipeline.service.PreviewService;
+import com.etl.etl_pipeline.service.ProcessedDataQueryService;
+import com.etl.etl_pipeline.service.UploadTokenNotFoundException;
+import com.etl.etl_pipeline.service.UploadTokenService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
 import org.springframework.batch.core.JobParametersInvalidException;
 import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
 import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
 import org.springframework.batch.core.repository.JobRestartException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST controller for ETL operations
@@ -30,27 +51,80 @@ public class EtlController {
     @Autowired
     private EtlService etlService;
 
+    @Autowired
+    private ProcessedDataQueryService processedDataQueryService;
+
+    @Autowired
+    private FileExportService fileExportService;
+
+    @Autowired
+    private AggregationService aggregationService;
+
+    @Autowired
+    private PreviewService previewService;
+
+    @Autowired
+    private UploadTokenService uploadTokenService;
+
+    @Autowired
+    private JobProgressService jobProgressService;
+
+    @Value("${etl.export.buffer-size:65536}")
+    private int streamBufferSize;
+
+    @Value("${etl.launcher.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
     /**
      * Upload a file and process it through the ETL pipeline
+     * Identical content that was already processed returns the previous job unless force is set.
+     * Instead of the file, a token from /preview/handoff can be sent; the previewed file is then
+     * processed without being sent again
      * @param file File to process
+     * @param token Upload token from a handoff preview (instead of the file)
+     * @param force Re-process the file even if identical content was already processed
      * @return Response with job execution details
      */
     @PostMapping("/upload")
-    public ResponseEntity<Map<String, Object>> uploadFile(@RequestParam("file") MultipartFile file) {
-        log.info("Received file upload request: {}", file.getOriginalFilename());
+    public ResponseEntity<Map<String, Object>> uploadFile(@RequestParam(value = "file", required = false) MultipartFile file,
+                                                          @RequestParam(value = "token", required = false) String token,
+                                                          @RequestParam(value = "force", defaultValue = "false") boolean force) {
+        log.info("Received file upload request: {}", file != null ? file.getOriginalFilename() : "token " + token);
         
         Map<String, Object> response = new HashMap<>();
         
+        if ((file == null) == (token == null)) {
+            response.put("status", "error");
+            response.put("message", "Send either a file or an upload token");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
         try {
-            // Save the uploaded file and start ETL job
-            String jobId = etlService.processFile(file);
+            // Save the uploaded file (or take the previewed one) and start ETL job
+            Map<String, Object> result = file != null ?
+                    etlService.processFile(file, force) : etlService.processUploadToken(token, force);
+            boolean duplicate = Boolean.TRUE.equals(result.get("duplicate"));
             
             response.put("status", "success");
-            response.put("message", "File uploaded and ETL job started");
-            response.put("jobId", jobId);
-            response.put("fileName", file.getOriginalFilename());
+            response.put("message", duplicate ?
+                    "File already processed, returning the previous ETL job" : "File uploaded and ETL job queued");
+            response.putAll(result);
+            if (file != null) {
+                response.put("fileName", file.getOriginalFilename());
+            }
             
             return ResponseEntity.ok(response);
+        } catch (UploadTokenNotFoundException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (JobQueueFullException e) {
+            log.warn("Upload rejected: {}", e.getMessage());
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(response);
         } catch (IOException e) {
             log.error("Error handling file upload", e);
             response.put("status", "error");
@@ -65,6 +139,111 @@ public class EtlController {
         }
     }
 
+    /**
+     * Get the launch queue depth and wait/run time statistics
+     * @return Map of queue statistics
+     */
+    @GetMapping("/queue")
+    public ResponseEntity<Map<String, Object>> getQueueStatus() {
+        return ResponseEntity.ok(etlService.getQueueStatus());
+    }
+
+    /**
+     * Ingest a file sent as the raw request body, processing it while it is still being uploaded
+     * Not subject to the multipart size limit. Send the file with a non-form content type
+     * (e.g. text/csv, application/json or application/octet-stream)
+     * @param fileName Original file name; its extension selects the reader
+     * @param request HTTP request whose body is the file
+     * @return Response with job execution details
+     */
+    @PostMapping("/ingest")
+    public ResponseEntity<Map<String, Object>> ingestFile(@RequestParam("fileName") String fileName,
+                                                          HttpServletRequest request) {
+        log.info("Received streaming ingest request: {}", fileName);
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Map<String, Object> result = etlService.ingestStream(request.getInputStream(), fileName,
+                    request.getContentLengthLong());
+            
+            response.put("status", "success");
+            response.put("message", "File ingested and ETL job queued");
+            response.putAll(result);
+            response.put("fileName", fileName);
+            
+            return ResponseEntity.ok(response);
+        } catch (JobQueueFullException e) {
+            log.warn("Ingest rejected: {}", e.getMessage());
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IOException e) {
+            log.error("Error receiving streamed file", e);
+            response.put("status", "error");
+            response.put("message", "Failed to receive file: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } catch (JobParametersInvalidException | JobExecutionAlreadyRunningException | 
+                JobRestartException | JobInstanceAlreadyCompleteException e) {
+            log.error("Error starting ETL job", e);
+            response.put("status", "error");
+            response.put("message", "Failed to start ETL job: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Restart a failed or stopped ETL job with its original input and parameters
+     * Jobs run in partitioned mode only re-run the partitions that did not complete. The rows of
+     * completed partitions are re-stamped with the new execution's ID before it starts, so
+     * /jobs/{id}/data, its delete and the export of the new execution include them; the earlier
+     * executions are left without rows
+     * @param jobId Job ID
+     * @return Response with the restarted job's execution details
+     */
+    @PostMapping("/restart/{jobId}")
+    public ResponseEntity<Map<String, Object>> restartJob(@PathVariable String jobId) {
+        log.info("Received restart request for job: {}", jobId);
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Map<String, Object> result = etlService.restartJob(jobId);
+            
+            response.put("status", "success");
+            response.put("message", "ETL job restarted");
+            response.putAll(result);
+            
+            return ResponseEntity.ok(response);
+        } catch (JobQueueFullException e) {
+            log.warn("Restart rejected: {}", e.getMessage());
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (IllegalStateException | JobExecutionAlreadyRunningException | JobInstanceAlreadyCompleteException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (JobParametersInvalidException | JobRestartException e) {
+            log.error("Error restarting ETL job", e);
+            response.put("status", "error");
+            response.put("message", "Failed to restart ETL job: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     /**
      * Get the status of an ETL job
      * @param jobId Job ID
@@ -78,6 +257,19 @@ public class EtlController {
         return ResponseEntity.ok(status);
     }
 
+    /**
+     * Stream the progress of an ETL job as server-sent events
+     * Sends a "status" event with the current status, "progress" events with counts, throughput
+     * and ETA while the job runs, and a "complete" event when it ends
+     * @param jobId Job ID
+     * @return Event stream
+     */
+    @GetMapping(value = "/status/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJobStatus(@PathVariable String jobId) {
+        log.debug("Opening progress stream for job: {}", jobId);
+        return jobProgressService.subscribe(jobId, etlService.getJobStatus(jobId));
+    }
+
     /**
      * Get all processed data
      * @return List of processed data
@@ -90,6 +282,136 @@ public class EtlController {
         return ResponseEntity.ok(data);
     }
 
+    /**
+     * Get one page of processed data
+     * Pages are addressed by the cursor returned with the previous page, so latency depends only on the page size
+     * @param status Processing status filter (VALID or INVALID)
+     * @param country Country filter
+     * @param city City filter
+     * @param minSalary Minimum salary
+     * @param maxSalary Maximum salary
+     * @param minAge Minimum age
+     * @param maxAge Maximum age
+     * @param jobExecutionId Job execution filter
+     * @param sort Sort key (id, salary, netSalary or age)
+     * @param direction Sort direction (asc or desc)
+     * @param limit Page size
+     * @param cursor Cursor of the next page
+     * @return Page with items, nextCursor, hasMore and an estimated total
+     */
+    @GetMapping("/data/page")
+    public ResponseEntity<Map<String, Object>> getDataPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) Double minSalary,
+            @RequestParam(required = false) Double maxSalary,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) Long jobExecutionId,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String cursor) {
+        
+        ProcessedDataQueryService.DataFilter filter = new ProcessedDataQueryService.DataFilter();
+        filter.setStatus(blankToNull(status));
+        filter.setCountry(blankToNull(country));
+        filter.setCity(blankToNull(city));
+        filter.setMinSalary(minSalary);
+        filter.setMaxSalary(maxSalary);
+        filter.setMinAge(minAge);
+        filter.setMaxAge(maxAge);
+        filter.setJobExecutionId(jobExecutionId);
+        
+        try {
+            return ResponseEntity.ok(processedDataQueryService.getPage(
+                    filter, sort, "desc".equalsIgnoreCase(direction), limit, cursor));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Stream processed data as NDJSON (one JSON object per line)
+     * Rows are written straight from a database cursor, so memory use is constant and the client
+     * receives the first rows immediately. The body is gzip-compressed when the client accepts it
+     * @param status Processing status filter (VALID or INVALID)
+     * @param country Country filter
+     * @param city City filter
+     * @param jobExecutionId Job execution filter
+     * @param acceptEncoding Accept-Encoding request header
+     * @return Streaming response
+     */
+    @GetMapping("/data/stream")
+    public ResponseEntity<StreamingResponseBody> streamData(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) Long jobExecutionId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.info("Streaming processed data as NDJSON");
+        
+        ProcessedDataQueryService.DataFilter filter = new ProcessedDataQueryService.DataFilter();
+        filter.setStatus(blankToNull(status));
+        filter.setCountry(blankToNull(country));
+        filter.setCity(blankToNull(city));
+        filter.setJobExecutionId(jobExecutionId);
+        
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, streamBufferSize);
+                fileExportService.writeNdjson(filter, gzipStream);
+                gzipStream.finish();
+            } else {
+                OutputStream buffered = new BufferedOutputStream(outputStream, streamBufferSize);
+                fileExportService.writeNdjson(filter, buffered);
+                buffered.flush();
+            }
+        };
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).body(body);
+    }
+
+    /**
+     * Get the processed data loaded by a single job execution
+     * @param jobExecutionId Job execution ID
+     * @return List of processed data
+     */
+    @GetMapping("/jobs/{jobExecutionId}/data")
+    public ResponseEntity<List<ProcessedData>> getJobData(@PathVariable Long jobExecutionId) {
+        log.info("Retrieving processed data for job execution: {}", jobExecutionId);
+        
+        List<ProcessedData> data = etlService.getProcessedDataForJob(jobExecutionId);
+        return ResponseEntity.ok(data);
+    }
+
+    /**
+     * Delete the processed data loaded by a single job execution
+     * @param jobExecutionId Job execution ID
+     * @return Response with the number of deleted rows
+     */
+    @DeleteMapping("/jobs/{jobExecutionId}/data")
+    public ResponseEntity<Map<String, Object>> deleteJobData(@PathVariable Long jobExecutionId) {
+        log.info("Deleting processed data for job execution: {}", jobExecutionId);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("jobExecutionId", jobExecutionId);
+        response.put("deletedRows", etlService.deleteProcessedDataForJob(jobExecutionId));
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get summary statistics of processed data
      * @return Map of statistics
@@ -102,21 +424,209 @@ public class EtlController {
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * Recompute the statistics summary from processed_data
+     * Use after changing processed_data outside the application
+     * @return Map of rebuilt statistics
+     */
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildStats() {
+        log.info("Rebuilding ETL statistics");
+        
+        Map<String, Object> stats = etlService.rebuildStatistics();
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Aggregate processed data by whitelisted dimensions and measures
+     * e.g. /aggregate?dimensions=country,ageBand&amp;measures=count,avgSalary&amp;status=VALID
+     * @param dimensions Comma-separated group-by dimensions (may be empty for a single total row)
+     * @param measures Comma-separated measures
+     * @param orderBy Dimension or measure to sort by (defaults to the first measure)
+     * @param direction Sort direction (asc or desc)
+     * @param limit Maximum number of groups
+     * @param ageBandWidth Width of the ageBand dimension in years
+     * @param salaryBandWidth Width of the salaryBand dimension
+     * @return Map with the result rows, or a 400 response for unknown dimensions or measures
+     */
+    @GetMapping("/aggregate")
+    public ResponseEntity<Map<String, Object>> aggregate(
+            @RequestParam(required = false) List<String> dimensions,
+            @RequestParam List<String> measures,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) Double minSalary,
+            @RequestParam(required = false) Double maxSalary,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) Long jobExecutionId,
+            @RequestParam(required = false) String orderBy,
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestParam(defaultValue = "10") int ageBandWidth,
+            @RequestParam(defaultValue = "10000") double salaryBandWidth) {
+
+        AggregationService.AggregationQuery query = new AggregationService.AggregationQuery();
+        if (dimensions != null) {
+            query.setDimensions(dimensions);
+        }
+        query.setMeasures(measures);
+        query.getFilter().setStatus(blankToNull(status));
+        query.getFilter().setCountry(blankToNull(country));
+        query.getFilter().setCity(blankToNull(city));
+        query.getFilter().setMinSalary(minSalary);
+        query.getFilter().setMaxSalary(maxSalary);
+        query.getFilter().setMinAge(minAge);
+        query.getFilter().setMaxAge(maxAge);
+        query.getFilter().setJobExecutionId(jobExecutionId);
+        query.setOrderBy(blankToNull(orderBy));
+        query.setDescending(!"asc".equalsIgnoreCase(direction));
+        query.setLimit(limit);
+        query.setAgeBandWidth(ageBandWidth);
+        query.setSalaryBandWidth(salaryBandWidth);
+
+        try {
+            return ResponseEntity.ok(aggregationService.aggregate(query));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            response.putAll(aggregationService.getCapabilities());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     /**
      * Preview raw data from an uploaded file
+     * Only the first rows are parsed; the rest of the file is never read
      * @param file File to preview
+     * @param rows Number of rows to return
      * @return List of raw data records
      */
     @PostMapping("/preview")
-    public ResponseEntity<List<Map<String, Object>>> previewFile(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<List<Map<String, Object>>> previewFile(@RequestParam("file") MultipartFile file,
+                                                                 @RequestParam(value = "rows", defaultValue = "50") int rows) {
         log.info("Previewing file: {}", file.getOriginalFilename());
         
+        Path spooled = null;
         try {
-            List<Map<String, Object>> preview = etlService.previewFile(file);
+            String extension = getExtension(file);
+            spooled = spoolUpload(file, extension);
+            List<Map<String, Object>> preview = previewService.head(spooled, extension, rows);
             return ResponseEntity.ok(preview);
+        } catch (IllegalArgumentException e) {
+            log.warn("Cannot preview file: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(null);
         } catch (IOException e) {
             log.error("Error previewing file", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        } finally {
+            deleteSpooled(spooled);
         }
     }
+
+    /**
+     * Sample an uploaded file and profile its columns
+     * The whole file is scanned once; the sample is a uniform random selection of its rows
+     * @param file File to sample
+     * @param rows Sample size
+     * @param seed Random seed for a repeatable sample
+     * @return Response with the sample, the number of rows scanned and per-column profiles
+     */
+    @PostMapping("/preview/sample")
+    public ResponseEntity<Map<String, Object>> sampleFile(@RequestParam("file") MultipartFile file,
+                                                          @RequestParam(value = "rows", defaultValue = "50") int rows,
+                                                          @RequestParam(value = "seed", required = false) Long seed) {
+        log.info("Sampling file: {}", file.getOriginalFilename());
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        Path spooled = null;
+        try {
+            String extension = getExtension(file);
+            spooled = spoolUpload(file, extension);
+            response.put("status", "success");
+            response.putAll(previewService.sample(spooled, extension, rows, seed));
+            response.put("fileName", file.getOriginalFilename());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IOException e) {
+            log.error("Error sampling file", e);
+            response.put("status", "error");
+            response.put("message", "Failed to read file: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } finally {
+            deleteSpooled(spooled);
+        }
+    }
+
+    /**
+     * Move an upload to a temporary file for a preview
+     * Previews read from a file, so an .xlsx package is read part by part instead of being
+     * buffered in memory
+     */
+    private Path spoolUpload(MultipartFile file, String extension) throws IOException {
+        Path spooled = Files.createTempFile("etl-preview-", "." + extension);
+        file.transferTo(spooled);
+        return spooled;
+    }
+
+    private void deleteSpooled(Path spooled) {
+        if (spooled == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(spooled);
+        } catch (IOException e) {
+            log.warn("Could not delete preview file {}: {}", spooled, e.getMessage());
+        }
+    }
+
+    /**
+     * Preview an uploaded file and keep it for processing
+     * The file is stored and its reader plan (format, header mapping and date format) resolved;
+     * pass the returned token to /upload to process it without sending it again
+     * @param file File to preview
+     * @param rows Number of rows to return
+     * @return Response with the upload token, its expiry, the reader plan and the preview rows
+     */
+    @PostMapping("/preview/handoff")
+    public ResponseEntity<Map<String, Object>> previewForUpload(@RequestParam("file") MultipartFile file,
+                                                                @RequestParam(value = "rows", defaultValue = "50") int rows) {
+        log.info("Previewing file for upload: {}", file.getOriginalFilename());
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try (InputStream in = file.getInputStream()) {
+            response.put("status", "success");
+            response.putAll(uploadTokenService.createHandoff(in, file.getOriginalFilename(), rows));
+            response.put("fileName", file.getOriginalFilename());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IOException e) {
+            log.error("Error previewing file for upload", e);
+            response.put("status", "error");
+            response.put("message", "Failed to read file: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    private String getExtension(MultipartFile file) {
+        String filename = file.getOriginalFilename();
+        if (filename == null) {
+            throw new IllegalArgumentException("File name is required");
+        }
+        return FilenameUtils.getExtension(filename).toLowerCase();
+    }
+
+    private String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
 }
@@ -1,6 +1,7 @@
 package com.etl.etl_pipeline.controller;
 
 import com.etl.etl_pipeline.config.SQLiteTransactionManager;
+import com.etl.etl_pipeline.service.JobRetentionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.JobExecution;
@@ -8,11 +9,12 @@ import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -26,7 +28,7 @@ public class JobHistoryController {
     private static final Logger logger = LoggerFactory.getLogger(JobHistoryController.class);
 
     private final JobExplorer jobExplorer;
-    private final JdbcTemplate jdbcTemplate;
+    private final JobRetentionService jobRetentionService;
     
     @Value("${job.history.max-retries:5}")
     private int maxRetries = 5;
@@ -35,9 +37,9 @@ public class JobHistoryController {
     private long retryDelayMs = 500;
 
     @Autowired
-    public JobHistoryController(JobExplorer jobExplorer, JdbcTemplate jdbcTemplate) {
+    public JobHistoryController(JobExplorer jobExplorer, JobRetentionService jobRetentionService) {
         this.jobExplorer = jobExplorer;
-        this.jdbcTemplate = jdbcTemplate;
+        this.jobRetentionService = jobRetentionService;
     }
 
     /**
@@ -177,6 +179,44 @@ public class JobHistoryController {
         }
     }
     
+    /**
+     * Bulk delete finished jobs matching the given filters
+     * At least one filter is required so an empty request cannot wipe the whole history
+     */
+    @DeleteMapping
+    public ResponseEntity<Map<String, Object>> deleteJobs(
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+            @RequestParam(required = false) Integer olderThanDays,
+            @RequestParam(required = false) String jobName,
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        Map<String, Object> response = new HashMap<>();
+        
+        if (olderThanDays != null) {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(olderThanDays);
+            createdBefore = createdBefore == null || cutoff.isBefore(createdBefore) ? cutoff : createdBefore;
+        }
+        
+        if ((status == null || status.isEmpty()) && createdBefore == null && createdAfter == null && jobName == null) {
+            response.put("success", false);
+            response.put("message", "At least one filter (status, createdBefore, createdAfter, olderThanDays, jobName) is required");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        try {
+            response.putAll(jobRetentionService.purgeExecutions(status, createdBefore, createdAfter, jobName, dryRun));
+            response.put("success", true);
+            logger.info("Bulk job delete finished: {}", response);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error during bulk job delete: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Error deleting jobs: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
     /**
      * Delete job with retry logic for handling database locks
      */
@@ -196,40 +236,8 @@ public class JobHistoryController {
                     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
                 }
                 
-                // Get job instance ID before deleting
-                Long jobInstanceId = jobExecution.getJobInstance().getId();
-                
-                // Delete in a specific order to maintain referential integrity
-                // 1. Delete step execution context
-                jdbcTemplate.update(
-                    "DELETE FROM BATCH_STEP_EXECUTION_CONTEXT WHERE STEP_EXECUTION_ID IN " +
-                    "(SELECT STEP_EXECUTION_ID FROM BATCH_STEP_EXECUTION WHERE JOB_EXECUTION_ID = ?)", 
-                    jobId
-                );
-                
-                // 2. Delete step executions
-                jdbcTemplate.update("DELETE FROM BATCH_STEP_EXECUTION WHERE JOB_EXECUTION_ID = ?", jobId);
-                
-                // 3. Delete job execution context
-                jdbcTemplate.update("DELETE FROM BATCH_JOB_EXECUTION_CONTEXT WHERE JOB_EXECUTION_ID = ?", jobId);
-                
-                // 4. Delete job execution params
-                jdbcTemplate.update("DELETE FROM BATCH_JOB_EXECUTION_PARAMS WHERE JOB_EXECUTION_ID = ?", jobId);
-                
-                // 5. Delete job execution
-                jdbcTemplate.update("DELETE FROM BATCH_JOB_EXECUTION WHERE JOB_EXECUTION_ID = ?", jobId);
-                
-                // Check if there are any other job executions for this instance
-                Integer remainingExecutions = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM BATCH_JOB_EXECUTION WHERE JOB_INSTANCE_ID = ?", 
-                    Integer.class, 
-                    jobInstanceId
-                );
-                
-                // If no other executions exist, delete the job instance
-                if (remainingExecutions != null && remainingExecutions == 0) {
-                    jdbcTemplate.update("DELETE FROM BATCH_JOB_INSTANCE WHERE JOB_INSTANCE_ID = ?", jobInstanceId);
-                }
+                // Delete the execution and its dependent metadata in one transaction
+                jobRetentionService.deleteExecutions(List.of(jobId));
                 
                 logger.info("Successfully deleted job with ID: {}", jobId);
                 response.put("success", true);
@@ -1,12 +1,23 @@
 package com.etl.etl_pipeline.controller;
 
 import com.etl.etl_pipeline.config.SQLiteTransactionManager;
+import com.etl.etl_pipeline.service.FlightRecordingService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,9 +31,13 @@ public class MonitoringController {
 
     private final SQLiteTransactionManager transactionManager;
 
+    private final FlightRecordingService flightRecordingService;
+
     @Autowired
-    public MonitoringController(SQLiteTransactionManager transactionManager) {
+    public MonitoringController(SQLiteTransactionManager transactionManager,
+                                FlightRecordingService flightRecordingService) {
         this.transactionManager = transactionManager;
+        this.flightRecordingService = flightRecordingService;
     }
 
     /**
@@ -62,4 +77,76 @@ public class MonitoringController {
         
         return result;
     }
+
+    /**
+     * Get the state of the flight recorder
+     * @return Map with recording status
+     */
+    @GetMapping("/recording")
+    public Map<String, Object> getRecordingStatus() {
+        return flightRecordingService.getStatus();
+    }
+
+    /**
+     * Start a Java Flight Recorder recording
+     * @param settings JFR settings: "default" or "profile"
+     * @return Response with recording status
+     */
+    @PostMapping("/recording/start")
+    public ResponseEntity<Map<String, Object>> startRecording(@RequestParam(defaultValue = "default") String settings) {
+        try {
+            Map<String, Object> status = flightRecordingService.start(settings);
+            status.put("status", "success");
+            status.put("message", "Recording started");
+            return ResponseEntity.ok(status);
+        } catch (IllegalStateException e) {
+            return recordingError(HttpStatus.CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return recordingError(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Stop the running recording and write it to disk
+     * @return Response with recording status
+     */
+    @PostMapping("/recording/stop")
+    public ResponseEntity<Map<String, Object>> stopRecording() {
+        try {
+            Map<String, Object> status = flightRecordingService.stop();
+            status.put("status", "success");
+            status.put("message", "Recording stopped; download it from /api/monitor/recording/download");
+            return ResponseEntity.ok(status);
+        } catch (IllegalStateException e) {
+            return recordingError(HttpStatus.CONFLICT, e.getMessage());
+        } catch (IOException e) {
+            log.error("Failed to write flight recording", e);
+            return recordingError(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to write recording: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Download the last stopped recording
+     * @return The .jfr file
+     */
+    @GetMapping("/recording/download")
+    public ResponseEntity<Resource> downloadRecording() {
+        Path file;
+        try {
+            file = flightRecordingService.getLastRecording();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .body(new FileSystemResource(file));
+    }
+
+    private ResponseEntity<Map<String, Object>> recordingError(HttpStatus httpStatus, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", message);
+        return ResponseEntity.status(httpStatus).body(response);
+    }
 }
@@ -0,0 +1,174 @@
+package com.etl.etl_pipeline.controller;
+
+import com.etl.etl_pipeline.service.JobQueueFullException;
+import com.etl.etl_pipeline.service.UploadSessionNotFoundException;
+import com.etl.etl_pipeline.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * REST controller for resumable chunked uploads
+ * Create a session, PUT byte ranges (in any order, in parallel) with a Content-Range header,
+ * query which ranges have been received, then complete the session to launch the ETL job
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/etl/uploads")
+@CrossOrigin(origins = "*")
+public class UploadSessionController {
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+|\\*)");
+
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Value("${etl.launcher.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    /**
+     * Create an upload session
+     * @param fileName Original file name
+     * @param size Total file size in bytes
+     * @param sha256 Expected SHA-256 of the whole file (optional)
+     * @return Response with the session details
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createSession(@RequestParam("fileName") String fileName,
+                                                             @RequestParam("size") long size,
+                                                             @RequestParam(value = "sha256", required = false) String sha256) {
+        try {
+            Map<String, Object> response = new HashMap<>(uploadSessionService.createSession(fileName, size, sha256));
+            response.put("status", "success");
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            log.error("Error creating upload session", e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to create upload session: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Upload one byte range of the file
+     * @param sessionId Session ID
+     * @param contentRange Range of the part, e.g. "bytes 0-8388607/104857600"
+     * @param checksum SHA-256 of the part (optional, verified before the part is acknowledged)
+     * @param request HTTP request whose body is the part
+     * @return Response with the received ranges
+     */
+    @PutMapping("/{sessionId}")
+    public ResponseEntity<Map<String, Object>> uploadPart(@PathVariable String sessionId,
+                                                          @RequestHeader(HttpHeaders.CONTENT_RANGE) String contentRange,
+                                                          @RequestHeader(value = "X-Part-Checksum", required = false) String checksum,
+                                                          HttpServletRequest request) {
+        Matcher matcher = CONTENT_RANGE.matcher(contentRange.trim());
+        if (!matcher.matches()) {
+            return error(HttpStatus.BAD_REQUEST, "Invalid Content-Range: " + contentRange);
+        }
+
+        try {
+            long start = Long.parseLong(matcher.group(1));
+            long end = Long.parseLong(matcher.group(2));
+            Map<String, Object> response = new HashMap<>(
+                uploadSessionService.writePart(sessionId, start, end, request.getInputStream(), checksum));
+            response.put("status", "success");
+            return ResponseEntity.ok(response);
+        } catch (UploadSessionNotFoundException e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            log.error("Error writing upload part for session {}", sessionId, e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to write part: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get a session and the byte ranges received so far
+     * @param sessionId Session ID
+     * @return Response with the session details
+     */
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<Map<String, Object>> getSession(@PathVariable String sessionId) {
+        try {
+            return ResponseEntity.ok(uploadSessionService.getSession(sessionId));
+        } catch (UploadSessionNotFoundException e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    /**
+     * Complete a session and launch the ETL job
+     * @param sessionId Session ID
+     * @param force Re-process the file even if identical content was already processed
+     * @return Response with job details
+     */
+    @PostMapping("/{sessionId}/complete")
+    public ResponseEntity<Map<String, Object>> completeSession(@PathVariable String sessionId,
+                                                               @RequestParam(value = "force", defaultValue = "false") boolean force) {
+        try {
+            Map<String, Object> response = new HashMap<>(uploadSessionService.completeSession(sessionId, force));
+            response.put("status", "success");
+            response.put("message", Boolean.TRUE.equals(response.get("duplicate")) ?
+                    "File already processed, returning the previous ETL job" : "Upload completed and ETL job queued");
+            return ResponseEntity.ok(response);
+        } catch (UploadSessionNotFoundException e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.CONFLICT, e.getMessage());
+        } catch (JobQueueFullException e) {
+            log.warn("Upload completion rejected: {}", e.getMessage());
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(response);
+        } catch (IOException | JobParametersInvalidException | JobExecutionAlreadyRunningException |
+                 JobRestartException | JobInstanceAlreadyCompleteException e) {
+            log.error("Error completing upload session {}", sessionId, e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to complete upload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Abort a session and discard the received data
+     * @param sessionId Session ID
+     * @return Response with status
+     */
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Map<String, Object>> abortSession(@PathVariable String sessionId) {
+        try {
+            uploadSessionService.abortSession(sessionId);
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "success");
+            response.put("message", "Upload session aborted");
+            return ResponseEntity.ok(response);
+        } catch (UploadSessionNotFoundException e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
+}
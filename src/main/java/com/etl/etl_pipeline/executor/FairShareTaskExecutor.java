@@ -0,0 +1,376 @@
+package com.etl.etl_pipeline.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Task executor that shares a fixed pool of worker threads fairly between running jobs
+ *
+ * Tasks submitted from a step are queued per job execution (a "lane"). Workers pick the
+ * next task using weighted fair queuing: every lane has a virtual time that advances by
+ * 1/weight per dispatched task, and the eligible lane with the lowest virtual time runs next.
+ * Each lane is also capped to its weighted share of the pool, and the caps are recomputed
+ * whenever a job registers or unregisters.
+ *
+ * Jobs whose input is below the small-file threshold run in a fast lane: they have a higher
+ * weight, are always considered before regular jobs, and regular jobs together can never
+ * occupy the threads reserved for the fast lane
+ */
+@Slf4j
+public class FairShareTaskExecutor implements TaskExecutor, DisposableBean {
+
+    // Lane used for tasks submitted outside a step or by an unregistered job
+    private static final long UNASSIGNED_LANE_ID = -1L;
+
+    private final int poolSize;
+    private final int fastLaneThreads;
+    private final int fastLaneWeight;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Map<Long, JobLane> lanes = new LinkedHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private double systemVirtualTime = 0.0;
+    private volatile boolean shutdown = false;
+
+    /**
+     * Per-job queue and accounting, guarded by the executor lock
+     */
+    private static final class JobLane {
+        private final long jobExecutionId;
+        private boolean fastLane;
+        private int weight;
+        private boolean registered;
+        private final Queue<Runnable> pending = new ArrayDeque<>();
+        private int running = 0;
+        private int cap = 1;
+        private double virtualTime = 0.0;
+        private long dispatched = 0;
+
+        private JobLane(long jobExecutionId, boolean fastLane, int weight, boolean registered) {
+            this.jobExecutionId = jobExecutionId;
+            this.fastLane = fastLane;
+            this.weight = weight;
+            this.registered = registered;
+        }
+
+        private boolean isIdle() {
+            return pending.isEmpty() && running == 0;
+        }
+    }
+
+    /**
+     * @param poolSize Total number of worker threads
+     * @param fastLaneThreads Threads regular jobs may never occupy (reserved for small jobs)
+     * @param fastLaneWeight Weight of small jobs relative to regular jobs (weight 1)
+     * @param threadNamePrefix Prefix for worker thread names
+     */
+    public FairShareTaskExecutor(int poolSize, int fastLaneThreads, int fastLaneWeight, String threadNamePrefix) {
+        this.poolSize = Math.max(1, poolSize);
+        this.fastLaneThreads = Math.max(0, Math.min(fastLaneThreads, this.poolSize - 1));
+        this.fastLaneWeight = Math.max(1, fastLaneWeight);
+
+        AtomicInteger threadCount = new AtomicInteger(0);
+        for (int i = 0; i < this.poolSize; i++) {
+            Thread worker = new Thread(this::runWorker, threadNamePrefix + threadCount.incrementAndGet());
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+
+        log.info("Started fair-share executor with {} threads ({} reserved for the fast lane, fast-lane weight {})",
+                this.poolSize, this.fastLaneThreads, this.fastLaneWeight);
+    }
+
+    /**
+     * Register a job so its tasks get their own lane and share of the pool
+     * @param jobExecutionId Job execution ID
+     * @param fastLane Whether the job qualifies for the small-job fast lane
+     */
+    public void registerJob(long jobExecutionId, boolean fastLane) {
+        lock.lock();
+        try {
+            JobLane lane = lanes.get(jobExecutionId);
+            if (lane == null) {
+                lane = new JobLane(jobExecutionId, fastLane, 0, true);
+                lane.virtualTime = systemVirtualTime;
+                lanes.put(jobExecutionId, lane);
+            }
+            // Update in place: workers running this lane's tasks hold a reference to it
+            lane.fastLane = fastLane;
+            lane.weight = fastLane ? fastLaneWeight : 1;
+            lane.registered = true;
+            recomputeCaps();
+            workAvailable.signalAll();
+            log.info("Registered job execution {} with the fair-share executor (fast lane: {})", jobExecutionId, fastLane);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove a finished job's lane and give its share back to the remaining jobs
+     * @param jobExecutionId Job execution ID
+     */
+    public void unregisterJob(long jobExecutionId) {
+        lock.lock();
+        try {
+            JobLane lane = lanes.get(jobExecutionId);
+            if (lane != null) {
+                if (lane.isIdle()) {
+                    lanes.remove(jobExecutionId);
+                } else {
+                    // Still draining: the lane is removed once its last task finishes
+                    lane.registered = false;
+                }
+            }
+            recomputeCaps();
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void execute(@NonNull Runnable task) {
+        if (shutdown) {
+            throw new TaskRejectedException("Fair-share executor has been shut down");
+        }
+
+        long laneId = currentJobExecutionId();
+        lock.lock();
+        try {
+            JobLane lane = lanes.get(laneId);
+            if (lane == null) {
+                lane = new JobLane(laneId, false, 1, false);
+                lane.virtualTime = systemVirtualTime;
+                lanes.put(laneId, lane);
+                recomputeCaps();
+            } else if (lane.isIdle()) {
+                // A lane does not bank credit while it has nothing to run
+                lane.virtualTime = Math.max(lane.virtualTime, systemVirtualTime);
+            }
+            lane.pending.add(task);
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            JobLane lane;
+            Runnable task;
+
+            lock.lock();
+            try {
+                while ((lane = pickNextLane()) == null) {
+                    if (shutdown && !hasPendingTasks()) {
+                        return;
+                    }
+                    workAvailable.await(1, TimeUnit.SECONDS);
+                }
+                task = lane.pending.poll();
+                lane.running++;
+                lane.dispatched++;
+                systemVirtualTime = lane.virtualTime;
+                lane.virtualTime += 1.0 / lane.weight;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                task.run();
+            } catch (Throwable t) {
+                log.error("Task failed in fair-share executor lane {}", lane.jobExecutionId, t);
+            } finally {
+                lock.lock();
+                try {
+                    lane.running--;
+                    if (!lane.registered && lane.isIdle()) {
+                        lanes.remove(lane.jobExecutionId);
+                        recomputeCaps();
+                    }
+                    workAvailable.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Pick the lane whose next task should run, or null if no lane is eligible
+     * Fast lanes first, then regular lanes while they are below the regular capacity
+     */
+    private JobLane pickNextLane() {
+        JobLane best = pickLowestVirtualTime(true);
+        if (best != null) {
+            return best;
+        }
+
+        int regularRunning = 0;
+        for (JobLane lane : lanes.values()) {
+            if (!lane.fastLane) {
+                regularRunning += lane.running;
+            }
+        }
+        if (regularRunning >= poolSize - fastLaneThreads) {
+            return null;
+        }
+        return pickLowestVirtualTime(false);
+    }
+
+    private JobLane pickLowestVirtualTime(boolean fastLane) {
+        JobLane best = null;
+        for (JobLane lane : lanes.values()) {
+            if (lane.fastLane != fastLane || lane.pending.isEmpty() || lane.running >= lane.cap) {
+                continue;
+            }
+            if (best == null || lane.virtualTime < best.virtualTime) {
+                best = lane;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Give every lane a thread cap proportional to its weight
+     * Fast lanes share the whole pool; regular lanes share what is left after the reservation
+     */
+    private void recomputeCaps() {
+        int totalWeight = 0;
+        int regularWeight = 0;
+        for (JobLane lane : lanes.values()) {
+            totalWeight += lane.weight;
+            if (!lane.fastLane) {
+                regularWeight += lane.weight;
+            }
+        }
+
+        int regularCapacity = poolSize - fastLaneThreads;
+        for (JobLane lane : lanes.values()) {
+            if (lane.fastLane) {
+                lane.cap = Math.max(1, (int) Math.round((double) poolSize * lane.weight / totalWeight));
+            } else {
+                lane.cap = Math.max(1, (int) Math.round((double) regularCapacity * lane.weight / regularWeight));
+            }
+        }
+    }
+
+    private boolean hasPendingTasks() {
+        for (JobLane lane : lanes.values()) {
+            if (!lane.pending.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long currentJobExecutionId() {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        if (stepContext == null) {
+            return UNASSIGNED_LANE_ID;
+        }
+        Long jobExecutionId = stepContext.getStepExecution().getJobExecutionId();
+        return jobExecutionId != null ? jobExecutionId : UNASSIGNED_LANE_ID;
+    }
+
+    /**
+     * @return Tasks waiting for a thread, across all lanes
+     */
+    public int getQueuedTaskCount() {
+        lock.lock();
+        try {
+            int queued = 0;
+            for (JobLane lane : lanes.values()) {
+                queued += lane.pending.size();
+            }
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Tasks currently running on a worker thread
+     */
+    public int getActiveTaskCount() {
+        lock.lock();
+        try {
+            int busy = 0;
+            for (JobLane lane : lanes.values()) {
+                busy += lane.running;
+            }
+            return busy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get per-job lanes with their weight, cap and queue depth
+     * @return Map with executor status
+     */
+    public Map<String, Object> getStatus() {
+        lock.lock();
+        try {
+            Map<String, Object> status = new HashMap<>();
+            List<Map<String, Object>> laneStatus = new ArrayList<>();
+            int busy = 0;
+            for (JobLane lane : lanes.values()) {
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("jobExecutionId", lane.jobExecutionId);
+                entry.put("fastLane", lane.fastLane);
+                entry.put("weight", lane.weight);
+                entry.put("threadCap", lane.cap);
+                entry.put("running", lane.running);
+                entry.put("pending", lane.pending.size());
+                entry.put("dispatched", lane.dispatched);
+                laneStatus.add(entry);
+                busy += lane.running;
+            }
+            status.put("poolSize", poolSize);
+            status.put("fastLaneThreads", fastLaneThreads);
+            status.put("busyThreads", busy);
+            status.put("lanes", laneStatus);
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        lock.lock();
+        try {
+            shutdown = true;
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(60));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.etl.etl_pipeline.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Executors for I/O-bound work that run every task on its own virtual thread
+ * Virtual threads need Java 21; on older runtimes the executors fall back to a new platform
+ * thread per task, so the same configuration runs everywhere. Code running on these threads
+ * should block on java.util.concurrent locks rather than synchronized, and keep JDBC calls
+ * behind a permit: both pin the virtual thread to its carrier while they wait
+ */
+@Slf4j
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @param threadNamePrefix Prefix for thread names
+     * @param concurrencyLimit Maximum tasks running at once; further submissions wait
+     * @return Executor starting a thread per task
+     */
+    public static SimpleAsyncTaskExecutor newExecutor(String threadNamePrefix, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setConcurrencyLimit(Math.max(1, concurrencyLimit));
+        try {
+            executor.setVirtualThreads(true);
+            log.info("I/O executor {} uses virtual threads (limit {})", threadNamePrefix, concurrencyLimit);
+        } catch (UnsupportedOperationException e) {
+            executor.setDaemon(true);
+            log.info("Virtual threads are not available on Java {}, I/O executor {} uses platform threads (limit {})",
+                    Runtime.version().feature(), threadNamePrefix, concurrencyLimit);
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,31 @@
+package com.etl.etl_pipeline.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Read, process or write phase of one chunk
+ */
+@Name("com.etl.ChunkPhase")
+@Label("Chunk Phase")
+@Category({"ETL", "Batch"})
+@Description("Read, process or write phase of one chunk")
+@StackTrace(false)
+public class ChunkPhaseEvent extends Event {
+
+    @Label("Job Id")
+    public long jobId;
+
+    @Label("Chunk")
+    public long chunk;
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Items")
+    public int items;
+}
@@ -0,0 +1,60 @@
+package com.etl.etl_pipeline.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Database operation retried after a lock timeout or SQLITE_BUSY
+ */
+@Name("com.etl.DatabaseRetry")
+@Label("Database Retry")
+@Category({"ETL", "Database"})
+@Description("Database operation retried after a lock timeout or SQLITE_BUSY")
+@StackTrace(false)
+public class DatabaseRetryEvent extends Event {
+
+    @Label("Job Id")
+    public long jobId;
+
+    @Label("Chunk")
+    public long chunk;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("Reason")
+    public String reason;
+
+    @Label("Backoff")
+    @Timespan(Timespan.MILLISECONDS)
+    public long backoffMs;
+
+    /**
+     * Record a retry as an instant event
+     * @param operation Operation being retried
+     * @param attempt Attempt that failed (1-based)
+     * @param reason Why it failed
+     * @param backoffMs Delay before the next attempt
+     */
+    public static void emit(String operation, int attempt, String reason, long backoffMs) {
+        DatabaseRetryEvent event = new DatabaseRetryEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.jobId = JfrContext.jobId();
+        event.chunk = JfrContext.chunk();
+        event.operation = operation;
+        event.attempt = attempt;
+        event.reason = reason;
+        event.backoffMs = backoffMs;
+        event.commit();
+    }
+}
@@ -0,0 +1,45 @@
+package com.etl.etl_pipeline.jfr;
+
+/**
+ * Job and chunk the current thread is working on, attached to flight recorder events
+ * Set by the chunk listener; a chunk is read, processed and written on a single thread
+ */
+public final class JfrContext {
+
+    private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<>();
+
+    private JfrContext() {
+    }
+
+    /**
+     * Mark the start of a chunk on the current thread
+     * @param jobId Job instance id
+     * @param chunk Chunk number within the step
+     */
+    public static void enter(long jobId, long chunk) {
+        CURRENT.set(new long[] {jobId, chunk});
+    }
+
+    /**
+     * Mark the end of the current thread's chunk
+     */
+    public static void exit() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return Job instance id of the current chunk, or 0 outside a chunk
+     */
+    public static long jobId() {
+        long[] current = CURRENT.get();
+        return current != null ? current[0] : 0;
+    }
+
+    /**
+     * @return Number of the current chunk, or 0 outside a chunk
+     */
+    public static long chunk() {
+        long[] current = CURRENT.get();
+        return current != null ? current[1] : 0;
+    }
+}
@@ -0,0 +1,73 @@
+package com.etl.etl_pipeline.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Wait for one of the database locks
+ */
+@Name("com.etl.LockAcquire")
+@Label("Database Lock Acquire")
+@Category({"ETL", "Database"})
+@Description("Wait for the transaction manager's global lock or the writer's lock")
+@StackTrace(false)
+public class LockAcquireEvent extends Event {
+
+    @Label("Job Id")
+    public long jobId;
+
+    @Label("Chunk")
+    public long chunk;
+
+    @Label("Lock")
+    public String lock;
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Acquired")
+    public boolean acquired;
+
+    @Label("Queue Length")
+    @Description("Threads waiting for the lock when the wait started")
+    public int queueLength;
+
+    /**
+     * Start timing a lock wait on the current thread
+     * @param lock Lock name
+     * @param phase Transaction phase or write
+     * @param operation Operation waiting for the lock
+     * @param queueLength Threads already waiting
+     * @return Started event
+     */
+    public static LockAcquireEvent begin(String lock, String phase, String operation, int queueLength) {
+        LockAcquireEvent event = new LockAcquireEvent();
+        event.jobId = JfrContext.jobId();
+        event.chunk = JfrContext.chunk();
+        event.lock = lock;
+        event.phase = phase;
+        event.operation = operation;
+        event.queueLength = queueLength;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Finish timing the lock wait
+     * @param acquired Whether the lock was acquired before the timeout
+     */
+    public void finish(boolean acquired) {
+        end();
+        if (shouldCommit()) {
+            this.acquired = acquired;
+            commit();
+        }
+    }
+}
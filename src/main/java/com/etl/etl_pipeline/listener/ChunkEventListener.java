@@ -0,0 +1,160 @@
+package com.etl.etl_pipeline.listener;
+
+import com.etl.etl_pipeline.jfr.ChunkPhaseEvent;
+import com.etl.etl_pipeline.jfr.JfrContext;
+import com.etl.etl_pipeline.model.InputData;
+import com.etl.etl_pipeline.model.ProcessedData;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Step listener that emits a flight recorder event for the read, process and write phase of
+ * every chunk, and tags the thread with its job and chunk number for the database events
+ * Events cost next to nothing unless a recording is running
+ */
+@Component
+public class ChunkEventListener implements ChunkListener, ItemReadListener<InputData>,
+        ItemProcessListener<InputData, ProcessedData>, ItemWriteListener<ProcessedData>, StepExecutionListener {
+
+    // Step execution id -> chunks started, shared by the step's threads
+    private final Map<Long, AtomicLong> chunkCounters = new ConcurrentHashMap<>();
+
+    // A chunk is read, processed and written on a single worker thread
+    private final ThreadLocal<ChunkTrace> trace = new ThreadLocal<>();
+
+    private static final class ChunkTrace {
+        private final long jobId;
+        private final long chunk;
+        private ChunkPhaseEvent event;
+        private String phase;
+        private int items;
+
+        private ChunkTrace(long jobId, long chunk) {
+            this.jobId = jobId;
+            this.chunk = chunk;
+        }
+
+        private void start(String phase) {
+            finish();
+            this.phase = phase;
+            this.items = 0;
+            event = new ChunkPhaseEvent();
+            event.begin();
+        }
+
+        private void finish() {
+            if (event == null) {
+                return;
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.jobId = jobId;
+                event.chunk = chunk;
+                event.phase = phase;
+                event.items = items;
+                event.commit();
+            }
+            event = null;
+        }
+    }
+
+    @Override
+    public void beforeStep(@NonNull StepExecution stepExecution) {
+        chunkCounters.put(stepExecution.getId(), new AtomicLong());
+    }
+
+    @Override
+    public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
+        chunkCounters.remove(stepExecution.getId());
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(@NonNull ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        long chunk = chunkCounters.computeIfAbsent(stepExecution.getId(), id -> new AtomicLong()).incrementAndGet();
+        ChunkTrace chunkTrace = new ChunkTrace(stepExecution.getJobExecution().getJobId(), chunk);
+        JfrContext.enter(chunkTrace.jobId, chunk);
+        trace.set(chunkTrace);
+        chunkTrace.start("read");
+    }
+
+    @Override
+    public void afterRead(@NonNull InputData item) {
+        ChunkTrace chunkTrace = trace.get();
+        if (chunkTrace != null) {
+            chunkTrace.items++;
+        }
+    }
+
+    @Override
+    public void beforeProcess(@NonNull InputData item) {
+        ChunkTrace chunkTrace = trace.get();
+        if (chunkTrace != null && "read".equals(chunkTrace.phase)) {
+            chunkTrace.start("process");
+        }
+    }
+
+    @Override
+    public void afterProcess(@NonNull InputData item, ProcessedData result) {
+        ChunkTrace chunkTrace = trace.get();
+        if (chunkTrace != null) {
+            chunkTrace.items++;
+        }
+    }
+
+    @Override
+    public void beforeWrite(@NonNull Chunk<? extends ProcessedData> items) {
+        ChunkTrace chunkTrace = trace.get();
+        if (chunkTrace != null) {
+            chunkTrace.start("write");
+            chunkTrace.items = items.size();
+        }
+    }
+
+    @Override
+    public void afterWrite(@NonNull Chunk<? extends ProcessedData> items) {
+        finishPhase();
+    }
+
+    @Override
+    public void onWriteError(@NonNull Exception exception, @NonNull Chunk<? extends ProcessedData> items) {
+        finishPhase();
+    }
+
+    @Override
+    public void afterChunk(@NonNull ChunkContext context) {
+        endChunk();
+    }
+
+    @Override
+    public void afterChunkError(@NonNull ChunkContext context) {
+        endChunk();
+    }
+
+    private void finishPhase() {
+        ChunkTrace chunkTrace = trace.get();
+        if (chunkTrace != null) {
+            chunkTrace.finish();
+        }
+    }
+
+    private void endChunk() {
+        finishPhase();
+        trace.remove();
+        JfrContext.exit();
+    }
+}
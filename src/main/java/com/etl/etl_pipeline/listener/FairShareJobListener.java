@@ -0,0 +1,71 @@
+package com.etl.etl_pipeline.listener;
+
+import com.etl.etl_pipeline.executor.FairShareTaskExecutor;
+import com.etl.etl_pipeline.service.IngestSpoolRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Job listener that registers running jobs with the fair-share executor
+ * Jobs whose input file is at most the small-file threshold are placed in the fast lane.
+ * An input still being uploaded is sized by the length the client declared, and without one
+ * it is treated as large, since its spool only holds what has arrived so far
+ */
+@Slf4j
+public class FairShareJobListener implements JobExecutionListener {
+
+    /**
+     * Job parameter holding the input size declared by the client (e.g. Content-Length), if known
+     */
+    public static final String DECLARED_SIZE_PARAMETER = "declaredSize";
+
+    private final FairShareTaskExecutor executor;
+    private final IngestSpoolRegistry spoolRegistry;
+    private final long smallFileBytes;
+
+    public FairShareJobListener(FairShareTaskExecutor executor, IngestSpoolRegistry spoolRegistry, long smallFileBytes) {
+        this.executor = executor;
+        this.spoolRegistry = spoolRegistry;
+        this.smallFileBytes = smallFileBytes;
+    }
+
+    @Override
+    public void beforeJob(@NonNull JobExecution jobExecution) {
+        long inputBytes = getInputSize(jobExecution);
+        boolean fastLane = inputBytes >= 0 && inputBytes <= smallFileBytes;
+        log.debug("Job execution {} input size {} bytes, fast lane: {}", jobExecution.getId(), inputBytes, fastLane);
+        executor.registerJob(jobExecution.getId(), fastLane);
+    }
+
+    @Override
+    public void afterJob(@NonNull JobExecution jobExecution) {
+        executor.unregisterJob(jobExecution.getId());
+    }
+
+    /**
+     * Get the size of the job's input file
+     * @return Size in bytes, or -1 if unknown
+     */
+    private long getInputSize(JobExecution jobExecution) {
+        Long declaredSize = jobExecution.getJobParameters().getLong(DECLARED_SIZE_PARAMETER);
+        if (declaredSize != null && declaredSize >= 0) {
+            return declaredSize;
+        }
+        String filePath = jobExecution.getJobParameters().getString("filePath");
+        if (filePath == null || spoolRegistry.isReceiving(filePath)) {
+            return -1;
+        }
+        try {
+            return Files.size(Paths.get(filePath));
+        } catch (IOException e) {
+            log.warn("Could not determine input size for job execution {}: {}", jobExecution.getId(), e.getMessage());
+            return -1;
+        }
+    }
+}
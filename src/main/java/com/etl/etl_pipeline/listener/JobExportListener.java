@@ -0,0 +1,38 @@
+package com.etl.etl_pipeline.listener;
+
+import com.etl.etl_pipeline.service.EtlService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Job listener that exports the processed data exactly once when a job completes
+ */
+@Slf4j
+@Component
+public class JobExportListener implements JobExecutionListener {
+
+    // Lazy to break the cycle EtlService -> etlJob -> listener -> EtlService
+    @Autowired
+    @Lazy
+    private EtlService etlService;
+
+    @Value("${etl.export.processed:true}")
+    private boolean exportProcessedData;
+
+    @Override
+    public void afterJob(@NonNull JobExecution jobExecution) {
+        if (!exportProcessedData || jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            return;
+        }
+
+        log.info("Job execution {} completed, exporting processed data", jobExecution.getId());
+        etlService.exportProcessedDataForJob(jobExecution);
+    }
+}
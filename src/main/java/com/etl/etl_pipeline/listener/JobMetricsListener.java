@@ -0,0 +1,81 @@
+package com.etl.etl_pipeline.listener;
+
+import com.etl.etl_pipeline.service.JobProgressService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Job and chunk listener that records chunk durations and per-job throughput
+ * Item read/process and chunk write timers come from Spring Batch itself (spring.batch.*)
+ */
+@Component
+public class JobMetricsListener implements JobExecutionListener, ChunkListener {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JobProgressService jobProgressService;
+
+    // A chunk is read, processed and written on a single worker thread
+    private final ThreadLocal<Timer.Sample> chunkSample = new ThreadLocal<>();
+
+    // Throughput gauges of running jobs, removed when the job ends to keep the series bounded
+    private final Map<Long, Gauge> throughputGauges = new ConcurrentHashMap<>();
+
+    @Override
+    public void beforeJob(@NonNull JobExecution jobExecution) {
+        long jobId = jobExecution.getJobId();
+        Gauge gauge = Gauge.builder("etl.job.throughput", jobProgressService, service -> service.getRecordsPerSecond(jobId))
+                .description("Records read per second by a running job")
+                .baseUnit("records")
+                .tag("job", String.valueOf(jobId))
+                .register(meterRegistry);
+        throughputGauges.put(jobId, gauge);
+    }
+
+    @Override
+    public void beforeChunk(@NonNull ChunkContext context) {
+        chunkSample.set(Timer.start(meterRegistry));
+    }
+
+    @Override
+    public void afterChunk(@NonNull ChunkContext context) {
+        stopChunk("success");
+    }
+
+    @Override
+    public void afterChunkError(@NonNull ChunkContext context) {
+        stopChunk("failure");
+    }
+
+    @Override
+    public void afterJob(@NonNull JobExecution jobExecution) {
+        Gauge gauge = throughputGauges.remove(jobExecution.getJobId());
+        if (gauge != null) {
+            meterRegistry.remove(gauge);
+        }
+    }
+
+    private void stopChunk(String outcome) {
+        Timer.Sample sample = chunkSample.get();
+        if (sample != null) {
+            chunkSample.remove();
+            sample.stop(Timer.builder("etl.chunk")
+                    .description("Time to read, process, write and commit one chunk")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.etl.etl_pipeline.listener;
+
+import com.etl.etl_pipeline.service.JobProgressService;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Job and chunk listener that feeds the live progress stream
+ */
+@Component
+public class JobProgressListener implements JobExecutionListener, ChunkListener {
+
+    @Autowired
+    private JobProgressService jobProgressService;
+
+    @Override
+    public void beforeJob(@NonNull JobExecution jobExecution) {
+        jobProgressService.jobStarted(jobExecution);
+    }
+
+    @Override
+    public void afterChunk(@NonNull ChunkContext context) {
+        jobProgressService.chunkCompleted(context.getStepContext().getStepExecution());
+    }
+
+    @Override
+    public void afterJob(@NonNull JobExecution jobExecution) {
+        jobProgressService.jobFinished(jobExecution);
+    }
+}
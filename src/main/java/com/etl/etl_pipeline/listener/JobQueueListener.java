@@ -0,0 +1,28 @@
+package com.etl.etl_pipeline.listener;
+
+import com.etl.etl_pipeline.service.JobQueueService;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Job listener that reports job start and completion to the launch queue
+ */
+@Component
+public class JobQueueListener implements JobExecutionListener {
+
+    @Autowired
+    private JobQueueService jobQueueService;
+
+    @Override
+    public void beforeJob(@NonNull JobExecution jobExecution) {
+        jobQueueService.jobStarted(jobExecution);
+    }
+
+    @Override
+    public void afterJob(@NonNull JobExecution jobExecution) {
+        jobQueueService.jobFinished(jobExecution);
+    }
+}
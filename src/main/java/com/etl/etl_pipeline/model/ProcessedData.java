@@ -46,4 +46,5 @@ public class ProcessedData {
     private LocalDateTime processedAt;
     private String processingStatus;
     private String validationMessages;
+    private Long jobExecutionId;             // Job execution that last loaded this row
 }
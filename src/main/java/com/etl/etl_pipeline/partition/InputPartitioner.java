@@ -0,0 +1,143 @@
+package com.etl.etl_pipeline.partition;
+
+import com.etl.etl_pipeline.reader.FileReaderFactory;
+import com.etl.etl_pipeline.reader.ReadProgress;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits an input file into ranges that are read by separate partition steps
+ * CSV files are split into line-aligned byte ranges after the header, so no partition reads
+ * another's lines. JSON files are split by object index and Excel files by data row index, after
+ * counting the records once. Small inputs get fewer partitions than requested, never empty ones
+ * (except a single partition for an empty input, so the job still runs)
+ */
+@Slf4j
+public class InputPartitioner implements Partitioner {
+
+    /**
+     * Execution context key of the partition's start (inclusive)
+     */
+    public static final String START_KEY = "partitionStart";
+
+    /**
+     * Execution context key of the partition's end (exclusive)
+     */
+    public static final String END_KEY = "partitionEnd";
+
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    private final String filePath;
+    private final FileReaderFactory fileReaderFactory;
+    private final ReadProgress progress;
+
+    /**
+     * @param filePath Path to the fully received input file
+     * @param fileReaderFactory Factory used to count JSON and Excel records
+     * @param progress Progress to report the record total to, or null
+     */
+    public InputPartitioner(String filePath, FileReaderFactory fileReaderFactory, ReadProgress progress) {
+        this.filePath = filePath;
+        this.fileReaderFactory = fileReaderFactory;
+        this.progress = progress;
+    }
+
+    @Override
+    @NonNull
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        int partitions = Math.max(1, gridSize);
+        List<long[]> ranges;
+        try {
+            ranges = filePath.toLowerCase().endsWith(".csv") ? lineRanges(partitions) : recordRanges(partitions);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to partition input file " + filePath + ": " + e.getMessage(), e);
+        }
+
+        Map<String, ExecutionContext> contexts = new LinkedHashMap<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            ExecutionContext context = new ExecutionContext();
+            context.putLong(START_KEY, ranges.get(i)[0]);
+            context.putLong(END_KEY, ranges.get(i)[1]);
+            contexts.put("partition" + i, context);
+        }
+        log.info("Split {} into {} partitions", filePath, contexts.size());
+        return contexts;
+    }
+
+    /**
+     * Split the lines after the header into byte ranges that start at line boundaries
+     */
+    private List<long[]> lineRanges(int partitions) throws IOException {
+        Path path = Paths.get(filePath);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = nextLineStart(channel, 0);
+
+            List<long[]> ranges = new ArrayList<>();
+            long start = dataStart;
+            for (int i = 1; i < partitions && start < size; i++) {
+                long nominal = dataStart + (size - dataStart) * i / partitions;
+                // A boundary is the start of the line that contains the nominal offset's previous byte
+                long boundary = nextLineStart(channel, Math.max(start, nominal - 1));
+                if (boundary > start && boundary < size) {
+                    ranges.add(new long[] {start, boundary});
+                    start = boundary;
+                }
+            }
+            ranges.add(new long[] {start, size});
+            return ranges;
+        }
+    }
+
+    /**
+     * Find the offset after the first line feed at or after a position
+     * @return Offset of the next line, or the file size if there is none
+     */
+    private long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long offset = position;
+        while (true) {
+            buffer.clear();
+            int n = channel.read(buffer, offset);
+            if (n <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < n; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += n;
+        }
+    }
+
+    /**
+     * Split the records into contiguous index ranges of near-equal size
+     */
+    private List<long[]> recordRanges(int partitions) throws Exception {
+        int records = fileReaderFactory.countRecords(filePath);
+        if (progress != null) {
+            progress.setTotalRecords(records);
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        int count = Math.max(1, Math.min(partitions, records));
+        for (int i = 0; i < count; i++) {
+            ranges.add(new long[] {(long) records * i / count, (long) records * (i + 1) / count});
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,28 @@
+package com.etl.etl_pipeline.partition;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.StepExecutionAggregator;
+import org.springframework.lang.NonNull;
+
+import java.util.Collection;
+
+/**
+ * Aggregates only the status of the partition steps into the partitioned step
+ * Read, write and skip counts stay on the partition steps. The job status and history APIs list
+ * every step execution and their clients add the counts up, so copying them onto the
+ * partitioned step as well would count every record twice
+ */
+public class PartitionStatusAggregator implements StepExecutionAggregator {
+
+    @Override
+    public void aggregate(@NonNull StepExecution result, Collection<StepExecution> executions) {
+        if (executions == null) {
+            return;
+        }
+        for (StepExecution execution : executions) {
+            result.setStatus(BatchStatus.max(result.getStatus(), execution.getStatus()));
+            result.setExitStatus(result.getExitStatus().and(execution.getExitStatus()));
+        }
+    }
+}
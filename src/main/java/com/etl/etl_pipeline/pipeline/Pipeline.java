@@ -0,0 +1,36 @@
+package com.etl.etl_pipeline.pipeline;
+
+/**
+ * Read, process and write of one input, running on threads of its own
+ * Started once, then watched by a PipelineTasklet until every stage has finished
+ */
+public interface Pipeline {
+
+    /**
+     * Open the reader and start the stages
+     */
+    void start();
+
+    /**
+     * Wait for the stages to finish
+     * @param timeoutMs Maximum time to wait
+     * @return true if every stage has finished
+     */
+    boolean awaitCompletion(long timeoutMs) throws InterruptedException;
+
+    /**
+     * @return The first failure of any stage, or null
+     */
+    Throwable getFailure();
+
+    long getReadCount();
+
+    long getFilterCount();
+
+    long getWriteCount();
+
+    /**
+     * Stop the stages if they are still running, then close the reader and release the threads
+     */
+    void close();
+}
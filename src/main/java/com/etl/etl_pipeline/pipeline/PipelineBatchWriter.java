@@ -0,0 +1,51 @@
+package com.etl.etl_pipeline.pipeline;
+
+import com.etl.etl_pipeline.model.ProcessedData;
+import com.etl.etl_pipeline.writer.DatabaseWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.item.Chunk;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Writes a pipeline's batches, each in its own transaction
+ * The database writer takes a write permit before the batch's first write and gives it back when the
+ * transaction commits or rolls back, so the permit covers the commit as well as the write
+ */
+class PipelineBatchWriter {
+
+    private final DatabaseWriter writer;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Timer writeTimer;
+
+    PipelineBatchWriter(DatabaseWriter writer, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.writer = writer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.writeTimer = Timer.builder("etl.pipeline.write")
+                .description("Time to write one pipeline batch, including the wait for a write permit")
+                .register(meterRegistry);
+    }
+
+    void write(List<ProcessedData> batch) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Chunk<ProcessedData> chunk = new Chunk<>(batch);
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    writer.write(chunk);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException("Failed to write pipeline batch: " + e.getMessage(), e);
+                }
+            });
+        } finally {
+            sample.stop(writeTimer);
+        }
+    }
+}
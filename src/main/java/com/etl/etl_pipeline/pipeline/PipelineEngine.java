@@ -0,0 +1,314 @@
+package com.etl.etl_pipeline.pipeline;
+
+import com.etl.etl_pipeline.model.InputData;
+import com.etl.etl_pipeline.model.ProcessedData;
+import com.etl.etl_pipeline.writer.DatabaseWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Pipelined read, process and write of one input
+ *
+ * One reader thread, a configurable number of processor threads and one writer thread run
+ * concurrently, connected by two ring buffers: while the writer commits a batch to SQLite the
+ * processors keep transforming and the reader keeps parsing, until a full buffer holds them back.
+ * Each batch is written in its own transaction, holding one of the database writer's permits until
+ * it commits. Items are not
+ * written in input order; rows are upserted by id, as with the multi-threaded step
+ */
+@Slf4j
+public class PipelineEngine implements Pipeline {
+
+    /**
+     * Stage sizes
+     * @param processorThreads Number of processor threads
+     * @param inputBufferSize Slots between the reader and the processors
+     * @param outputBufferSize Slots between the processors and the writer
+     * @param handoffBatchSize Items a stage moves through a buffer at once
+     * @param writeBatchSize Items written per transaction at most
+     */
+    public record Settings(int processorThreads, int inputBufferSize, int outputBufferSize,
+                           int handoffBatchSize, int writeBatchSize) {
+    }
+
+    private static final long CLOSE_TIMEOUT_MS = 30000;
+
+    private final ItemReader<InputData> reader;
+    private final ItemProcessor<InputData, ProcessedData> processor;
+    private final PipelineBatchWriter writer;
+    private final StepExecution stepExecution;
+    private final MeterRegistry meterRegistry;
+    private final Settings settings;
+
+    private final RingBuffer<InputData> input;
+    private final RingBuffer<ProcessedData> output;
+    private final List<Thread> threads = new ArrayList<>();
+    private final CountDownLatch finished;
+    private final AtomicInteger activeProcessors;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final List<Meter> meters = new ArrayList<>();
+
+    private final AtomicLong readCount = new AtomicLong();
+    private final AtomicLong filterCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    /**
+     * @param reader Reader of the input; opened and closed by the engine if it is a stream
+     * @param processor Processor run by the processor threads
+     * @param writer Writer run by the writer thread
+     * @param transactionManager Transaction manager for the write transactions
+     * @param stepExecution Step the engine runs in, exposed to the stages' threads
+     * @param meterRegistry Registry for the stage metrics
+     * @param settings Stage sizes
+     */
+    public PipelineEngine(ItemReader<InputData> reader, ItemProcessor<InputData, ProcessedData> processor,
+                          DatabaseWriter writer, PlatformTransactionManager transactionManager,
+                          StepExecution stepExecution, MeterRegistry meterRegistry, Settings settings) {
+        this.reader = reader;
+        this.processor = processor;
+        this.writer = new PipelineBatchWriter(writer, transactionManager, meterRegistry);
+        this.stepExecution = stepExecution;
+        this.meterRegistry = meterRegistry;
+        this.settings = settings;
+        this.input = new RingBuffer<>(settings.inputBufferSize());
+        this.output = new RingBuffer<>(settings.outputBufferSize());
+        int processorThreads = Math.max(1, settings.processorThreads());
+        this.activeProcessors = new AtomicInteger(processorThreads);
+        this.finished = new CountDownLatch(processorThreads + 2);
+    }
+
+    @Override
+    public void start() {
+        if (reader instanceof ItemStream stream) {
+            stream.open(new ExecutionContext());
+        }
+        registerMetrics();
+
+        String prefix = "etl-pipeline-" + stepExecution.getJobExecutionId() + "-";
+        threads.add(new Thread(() -> runStage(this::readStage), prefix + "reader"));
+        for (int i = 0; i < activeProcessors.get(); i++) {
+            threads.add(new Thread(() -> runStage(this::processStage), prefix + "processor-" + (i + 1)));
+        }
+        threads.add(new Thread(() -> runStage(this::writeStage), prefix + "writer"));
+        for (Thread thread : threads) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+        log.info("Started pipeline for job execution {}: {} processor threads, buffers {}/{}",
+                stepExecution.getJobExecutionId(), activeProcessors.get(), input.capacity(), output.capacity());
+    }
+
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    /**
+     * Run a stage with the step's context; the first failure of any stage stops all of them
+     */
+    private void runStage(Stage stage) {
+        StepSynchronizationManager.register(stepExecution);
+        try {
+            stage.run();
+        } catch (Throwable t) {
+            // Stages interrupted by close() end quietly
+            if (!closed) {
+                fail(t);
+            }
+        } finally {
+            StepSynchronizationManager.close();
+            finished.countDown();
+        }
+    }
+
+    private void fail(Throwable t) {
+        if (failure.compareAndSet(null, t)) {
+            log.error("Pipeline for job execution {} failed in {}: {}",
+                    stepExecution.getJobExecutionId(), Thread.currentThread().getName(), t.getMessage());
+        }
+        input.abort();
+        output.abort();
+    }
+
+    private void readStage() throws Exception {
+        List<InputData> batch = new ArrayList<>(settings.handoffBatchSize());
+        try {
+            InputData item;
+            while ((item = reader.read()) != null) {
+                readCount.incrementAndGet();
+                batch.add(item);
+                if (batch.size() >= settings.handoffBatchSize()) {
+                    if (!input.putAll(batch)) {
+                        return;
+                    }
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                input.putAll(batch);
+            }
+        } finally {
+            input.close();
+        }
+    }
+
+    private void processStage() throws Exception {
+        List<InputData> batch = new ArrayList<>(settings.handoffBatchSize());
+        List<ProcessedData> results = new ArrayList<>(settings.handoffBatchSize());
+        try {
+            while (input.takeBatch(batch, settings.handoffBatchSize()) > 0) {
+                for (InputData item : batch) {
+                    ProcessedData result = processor.process(item);
+                    if (result != null) {
+                        results.add(result);
+                    } else {
+                        filterCount.incrementAndGet();
+                    }
+                }
+                batch.clear();
+                if (!results.isEmpty()) {
+                    if (!output.putAll(results)) {
+                        return;
+                    }
+                    results.clear();
+                }
+            }
+        } finally {
+            // The last processor to finish ends the writer's input
+            if (activeProcessors.decrementAndGet() == 0) {
+                output.close();
+            }
+        }
+    }
+
+    private void writeStage() throws Exception {
+        List<ProcessedData> batch = new ArrayList<>(settings.writeBatchSize());
+        while (output.takeBatch(batch, settings.writeBatchSize()) > 0) {
+            // Top the batch up with what arrived meanwhile, without waiting for more
+            while (batch.size() < settings.writeBatchSize() && output.size() > 0) {
+                output.takeBatch(batch, settings.writeBatchSize() - batch.size());
+            }
+            writer.write(batch);
+            writeCount.addAndGet(batch.size());
+            batch.clear();
+        }
+    }
+
+    @Override
+    public boolean awaitCompletion(long timeoutMs) throws InterruptedException {
+        return finished.await(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return failure.get();
+    }
+
+    @Override
+    public long getReadCount() {
+        return readCount.get();
+    }
+
+    @Override
+    public long getFilterCount() {
+        return filterCount.get();
+    }
+
+    @Override
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * Stop the stages if they are still running, then close the reader and remove the metrics
+     * Stages waiting on a buffer or on the input are woken rather than waited for
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (finished.getCount() > 0) {
+            log.info("Stopping pipeline for job execution {}", stepExecution.getJobExecutionId());
+            input.abort();
+            output.abort();
+            threads.forEach(Thread::interrupt);
+        }
+        try {
+            if (!finished.await(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                log.warn("Pipeline stages did not stop within {} ms", CLOSE_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (reader instanceof ItemStream stream) {
+            stream.close();
+        }
+        meters.forEach(meterRegistry::remove);
+        meters.clear();
+    }
+
+    /**
+     * Per-job stage meters: buffer occupancy, time blocked on each side of a buffer, and items
+     * through each stage. Removed when the engine is closed to keep the series bounded
+     */
+    private void registerMetrics() {
+        String job = String.valueOf(stepExecution.getJobExecution().getJobId());
+        meters.add(Gauge.builder("etl.pipeline.buffer.size", input, RingBuffer::size)
+                .description("Items waiting in a pipeline buffer")
+                .tags("job", job, "buffer", "input")
+                .register(meterRegistry));
+        meters.add(Gauge.builder("etl.pipeline.buffer.size", output, RingBuffer::size)
+                .description("Items waiting in a pipeline buffer")
+                .tags("job", job, "buffer", "output")
+                .register(meterRegistry));
+        meters.add(waitCounter(job, "reader", "full", input, RingBuffer::getFullWaitSeconds));
+        meters.add(waitCounter(job, "processor", "empty", input, RingBuffer::getEmptyWaitSeconds));
+        meters.add(waitCounter(job, "processor", "full", output, RingBuffer::getFullWaitSeconds));
+        meters.add(waitCounter(job, "writer", "empty", output, RingBuffer::getEmptyWaitSeconds));
+        meters.add(itemCounter(job, "reader", readCount));
+        meters.add(itemCounter(job, "processor", output, RingBuffer::getPublished));
+        meters.add(itemCounter(job, "writer", writeCount));
+    }
+
+    private <B> Meter waitCounter(String job, String stage, String cause,
+                                  B ring, ToDoubleFunction<B> seconds) {
+        return FunctionCounter.builder("etl.pipeline.stage.wait", ring, seconds)
+                .description("Time a pipeline stage spent blocked on a full or empty buffer")
+                .baseUnit("seconds")
+                .tags("job", job, "stage", stage, "cause", cause)
+                .register(meterRegistry);
+    }
+
+    private Meter itemCounter(String job, String stage, AtomicLong count) {
+        return itemCounter(job, stage, count, AtomicLong::get);
+    }
+
+    private <S> Meter itemCounter(String job, String stage, S source, ToDoubleFunction<S> count) {
+        return FunctionCounter.builder("etl.pipeline.stage.items", source, count)
+                .description("Items passed on by a pipeline stage")
+                .tags("job", job, "stage", stage)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,88 @@
+package com.etl.etl_pipeline.pipeline;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.lang.NonNull;
+
+import java.util.function.Function;
+
+/**
+ * Runs a pipeline as a step
+ * The first execution creates and starts the pipeline. Every execution then waits up to the report
+ * interval and adds what the stages did meanwhile to the step's counts, so the job status shows live
+ * progress and a stop request is noticed between reports. The pipeline is closed when the step ends.
+ * The step must not wrap the executions in a transaction: the writer commits its own batches
+ */
+public class PipelineTasklet implements Tasklet, StepExecutionListener {
+
+    private final Function<StepExecution, Pipeline> pipelineFactory;
+    private final long reportIntervalMs;
+
+    private Pipeline pipeline;
+    private long reportedReads = 0;
+    private long reportedFilters = 0;
+    private long reportedWrites = 0;
+
+    /**
+     * @param pipelineFactory Creates the pipeline for the step execution it runs in
+     * @param reportIntervalMs How often the counts are reported to the step
+     */
+    public PipelineTasklet(Function<StepExecution, Pipeline> pipelineFactory, long reportIntervalMs) {
+        this.pipelineFactory = pipelineFactory;
+        this.reportIntervalMs = reportIntervalMs;
+    }
+
+    @Override
+    public RepeatStatus execute(@NonNull StepContribution contribution, @NonNull ChunkContext chunkContext) throws Exception {
+        if (pipeline == null) {
+            pipeline = pipelineFactory.apply(chunkContext.getStepContext().getStepExecution());
+            pipeline.start();
+        }
+
+        boolean finished = pipeline.awaitCompletion(reportIntervalMs);
+        report(contribution);
+
+        Throwable failure = pipeline.getFailure();
+        if (failure instanceof Exception e) {
+            throw e;
+        } else if (failure != null) {
+            throw new IllegalStateException("Pipeline failed: " + failure.getMessage(), failure);
+        }
+        return finished ? RepeatStatus.FINISHED : RepeatStatus.CONTINUABLE;
+    }
+
+    /**
+     * Add the counts since the last report to the contribution
+     */
+    private void report(StepContribution contribution) {
+        long reads = pipeline.getReadCount();
+        for (long i = reportedReads; i < reads; i++) {
+            contribution.incrementReadCount();
+        }
+        reportedReads = reads;
+
+        long filters = pipeline.getFilterCount();
+        contribution.incrementFilterCount(filters - reportedFilters);
+        reportedFilters = filters;
+
+        long writes = pipeline.getWriteCount();
+        contribution.incrementWriteCount(writes - reportedWrites);
+        reportedWrites = writes;
+    }
+
+    /**
+     * Stop the pipeline if the step ended before it did, and release its reader
+     */
+    @Override
+    public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        return null;
+    }
+}
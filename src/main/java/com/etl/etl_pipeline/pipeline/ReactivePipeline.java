@@ -0,0 +1,279 @@
+package com.etl.etl_pipeline.pipeline;
+
+import com.etl.etl_pipeline.model.InputData;
+import com.etl.etl_pipeline.model.ProcessedData;
+import com.etl.etl_pipeline.writer.DatabaseWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Backpressured read, process and write of one input on Project Reactor
+ *
+ * The input is a Flux pulled from the reader one item per request, split into parallel rails that
+ * run the processor, and gathered into batches for a single writer. Demand starts at the writer:
+ * it asks for the next batch only when the previous one is committed, and every stage above it
+ * holds at most its prefetch, so a slow database slows the reader instead of filling memory.
+ * Batches are flushed when full or after the maximum wait, so a slowly arriving upload is still
+ * written as it comes in. Closing cancels the subscription and interrupts the stages' threads,
+ * releasing the reader at once. Items are not written in input order; rows are upserted by id
+ */
+@Slf4j
+public class ReactivePipeline implements Pipeline {
+
+    /**
+     * Stage sizes
+     * @param processorThreads Number of processor rails, each on its own thread
+     * @param prefetch Items each stage requests ahead from the stage above it
+     * @param writeBatchSize Items written per transaction at most
+     * @param maxBatchWaitMs Longest a partial batch waits for more items before it is written
+     */
+    public record Settings(int processorThreads, int prefetch, int writeBatchSize, long maxBatchWaitMs) {
+    }
+
+    private static final long CLOSE_TIMEOUT_MS = 30000;
+
+    private final ItemReader<InputData> reader;
+    private final ItemProcessor<InputData, ProcessedData> processor;
+    private final PipelineBatchWriter writer;
+    private final StepExecution stepExecution;
+    private final MeterRegistry meterRegistry;
+    private final Settings settings;
+    private final int processorThreads;
+
+    private final List<ExecutorService> executors = new ArrayList<>();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final List<Meter> meters = new ArrayList<>();
+
+    private final AtomicLong readCount = new AtomicLong();
+    private final AtomicLong processCount = new AtomicLong();
+    private final AtomicLong filterCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+
+    private Disposable subscription;
+    private volatile boolean closed = false;
+
+    /**
+     * @param reader Reader of the input; opened and closed by the pipeline if it is a stream
+     * @param processor Processor run on the processor rails
+     * @param writer Writer run by the writer thread
+     * @param transactionManager Transaction manager for the write transactions
+     * @param stepExecution Step the pipeline runs in, exposed to the stages' threads
+     * @param meterRegistry Registry for the stage metrics
+     * @param settings Stage sizes
+     */
+    public ReactivePipeline(ItemReader<InputData> reader, ItemProcessor<InputData, ProcessedData> processor,
+                            DatabaseWriter writer, PlatformTransactionManager transactionManager,
+                            StepExecution stepExecution, MeterRegistry meterRegistry, Settings settings) {
+        this.reader = reader;
+        this.processor = processor;
+        this.writer = new PipelineBatchWriter(writer, transactionManager, meterRegistry);
+        this.stepExecution = stepExecution;
+        this.meterRegistry = meterRegistry;
+        this.settings = settings;
+        this.processorThreads = Math.max(1, settings.processorThreads());
+    }
+
+    @Override
+    public void start() {
+        if (reader instanceof ItemStream stream) {
+            stream.open(new ExecutionContext());
+        }
+        registerMetrics();
+
+        Scheduler readScheduler = stageScheduler("reader", 1);
+        Scheduler processScheduler = stageScheduler("processor", processorThreads);
+        Scheduler writeScheduler = stageScheduler("writer", 1);
+        int prefetch = Math.max(1, settings.prefetch());
+        int writeBatchSize = Math.max(1, settings.writeBatchSize());
+
+        subscription = Flux.<InputData>generate(sink -> {
+                    try {
+                        InputData item = reader.read();
+                        if (item == null) {
+                            sink.complete();
+                        } else {
+                            readCount.incrementAndGet();
+                            sink.next(item);
+                        }
+                    } catch (Exception e) {
+                        sink.error(e);
+                    }
+                })
+                // Requests reach the reader on its own thread
+                .subscribeOn(readScheduler)
+                .parallel(processorThreads, prefetch)
+                .runOn(processScheduler, prefetch)
+                .map(this::process)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .sequential(prefetch)
+                // Fair backpressure: the buffer only requests what the writer has asked for
+                .bufferTimeout(writeBatchSize, Duration.ofMillis(settings.maxBatchWaitMs()), true)
+                .publishOn(writeScheduler, 1)
+                .subscribe(this::write, this::fail, finished::countDown);
+
+        log.info("Started reactive pipeline for job execution {}: {} processor rails, prefetch {}, write batch {}",
+                stepExecution.getJobExecutionId(), processorThreads, prefetch, writeBatchSize);
+    }
+
+    private Optional<ProcessedData> process(InputData item) {
+        try {
+            ProcessedData result = processor.process(item);
+            if (result == null) {
+                filterCount.incrementAndGet();
+            } else {
+                processCount.incrementAndGet();
+            }
+            return Optional.ofNullable(result);
+        } catch (Exception e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    private void write(List<ProcessedData> batch) {
+        writer.write(batch);
+        writeCount.addAndGet(batch.size());
+    }
+
+    private void fail(Throwable t) {
+        Throwable cause = Exceptions.unwrap(t);
+        if (failure.compareAndSet(null, cause)) {
+            log.error("Reactive pipeline for job execution {} failed: {}",
+                    stepExecution.getJobExecutionId(), cause.getMessage());
+        }
+        finished.countDown();
+    }
+
+    /**
+     * Scheduler over threads of this pipeline only, each carrying the step's context so the
+     * writer tags rows with the job execution; disposed with the pipeline
+     */
+    private Scheduler stageScheduler(String stage, int threads) {
+        String prefix = "etl-reactive-" + stepExecution.getJobExecutionId() + "-" + stage + "-";
+        AtomicInteger number = new AtomicInteger();
+        ThreadFactory threadFactory = task -> {
+            Thread thread = new Thread(() -> {
+                StepSynchronizationManager.register(stepExecution);
+                try {
+                    task.run();
+                } finally {
+                    StepSynchronizationManager.close();
+                }
+            }, prefix + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(threads, threadFactory);
+        executors.add(executor);
+        return Schedulers.fromExecutorService(executor, prefix + "scheduler");
+    }
+
+    @Override
+    public boolean awaitCompletion(long timeoutMs) throws InterruptedException {
+        return finished.await(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return failure.get();
+    }
+
+    @Override
+    public long getReadCount() {
+        return readCount.get();
+    }
+
+    @Override
+    public long getFilterCount() {
+        return filterCount.get();
+    }
+
+    @Override
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * Cancel the subscription if it is still running, stop the stage threads, then close the
+     * reader and remove the metrics. A reader blocked on input is interrupted rather than waited for
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (subscription != null && finished.getCount() > 0) {
+            log.info("Cancelling reactive pipeline for job execution {}", stepExecution.getJobExecutionId());
+            subscription.dispose();
+        }
+        executors.forEach(ExecutorService::shutdownNow);
+        try {
+            for (ExecutorService executor : executors) {
+                if (!executor.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    log.warn("Reactive pipeline threads did not stop within {} ms", CLOSE_TIMEOUT_MS);
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (reader instanceof ItemStream stream) {
+            stream.close();
+        }
+        meters.forEach(meterRegistry::remove);
+        meters.clear();
+    }
+
+    /**
+     * Per-job stage meters: items through each stage, and items read but not yet filtered out or
+     * written, which the prefetch limits keep bounded. Removed when the pipeline is closed
+     */
+    private void registerMetrics() {
+        String job = String.valueOf(stepExecution.getJobExecution().getJobId());
+        meters.add(Gauge.builder("etl.pipeline.in-flight", this,
+                        p -> p.readCount.get() - p.filterCount.get() - p.writeCount.get())
+                .description("Items read but not yet filtered out or written")
+                .tags("job", job)
+                .register(meterRegistry));
+        meters.add(itemCounter(job, "reader", readCount));
+        meters.add(itemCounter(job, "processor", processCount));
+        meters.add(itemCounter(job, "writer", writeCount));
+    }
+
+    private Meter itemCounter(String job, String stage, AtomicLong count) {
+        return FunctionCounter.builder("etl.pipeline.stage.items", count, AtomicLong::get)
+                .description("Items passed on by a pipeline stage")
+                .tags("job", job, "stage", stage)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,184 @@
+package com.etl.etl_pipeline.pipeline;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded ring buffer between two pipeline stages
+ *
+ * The slots are allocated once. Producers publish and consumers take items in batches, so the
+ * lock is taken once per batch rather than once per item. A full buffer blocks its producers
+ * (backpressure) and an empty one its consumers; the time each side spends blocked is recorded.
+ * Once the producing stage closes the buffer, consumers drain what is left and then see the end.
+ * Aborting wakes everyone and discards the remaining items
+ */
+public class RingBuffer<T> {
+
+    private final Object[] slots;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition notEmpty = lock.newCondition();
+
+    private int head = 0;
+    private int count = 0;
+    private boolean closed = false;
+    private boolean aborted = false;
+
+    private final AtomicLong fullWaitNanos = new AtomicLong();
+    private final AtomicLong emptyWaitNanos = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+
+    /**
+     * @param capacity Number of slots
+     */
+    public RingBuffer(int capacity) {
+        this.slots = new Object[Math.max(1, capacity)];
+    }
+
+    /**
+     * Publish a batch, waiting for free slots as needed
+     * A batch larger than the free space is published in parts as consumers make room
+     * @param items Items to publish; left unchanged
+     * @return false if the buffer was aborted before every item was published
+     */
+    public boolean putAll(List<? extends T> items) throws InterruptedException {
+        int next = 0;
+        lock.lockInterruptibly();
+        try {
+            while (next < items.size()) {
+                if (count == slots.length && !aborted) {
+                    long waitStart = System.nanoTime();
+                    while (count == slots.length && !aborted) {
+                        notFull.await();
+                    }
+                    fullWaitNanos.addAndGet(System.nanoTime() - waitStart);
+                }
+                if (aborted) {
+                    return false;
+                }
+                if (closed) {
+                    throw new IllegalStateException("Ring buffer is closed");
+                }
+                int tail = (head + count) % slots.length;
+                while (next < items.size() && count < slots.length) {
+                    slots[tail] = items.get(next++);
+                    tail = (tail + 1) % slots.length;
+                    count++;
+                }
+                notEmpty.signalAll();
+            }
+            published.addAndGet(items.size());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take up to max items, waiting until at least one is available or the buffer has ended
+     * @param into List the items are added to
+     * @param max Maximum number of items to take
+     * @return Number of items taken; 0 once the buffer is closed and drained, or aborted
+     */
+    @SuppressWarnings("unchecked")
+    public int takeBatch(List<? super T> into, int max) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (count == 0 && !closed && !aborted) {
+                long waitStart = System.nanoTime();
+                while (count == 0 && !closed && !aborted) {
+                    notEmpty.await();
+                }
+                emptyWaitNanos.addAndGet(System.nanoTime() - waitStart);
+            }
+            if (aborted) {
+                return 0;
+            }
+            int taken = 0;
+            while (taken < max && count > 0) {
+                into.add((T) slots[head]);
+                slots[head] = null;
+                head = (head + 1) % slots.length;
+                count--;
+                taken++;
+            }
+            if (taken > 0) {
+                notFull.signalAll();
+            }
+            return taken;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Mark the end of the input: nothing more will be published
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop both sides and drop the buffered items
+     */
+    public void abort() {
+        lock.lock();
+        try {
+            aborted = true;
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = null;
+            }
+            count = 0;
+            notFull.signalAll();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Items currently buffered
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return Items published so far
+     */
+    public long getPublished() {
+        return published.get();
+    }
+
+    /**
+     * @return Seconds producers spent waiting for free slots
+     */
+    public double getFullWaitSeconds() {
+        return fullWaitNanos.get() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * @return Seconds consumers spent waiting for items
+     */
+    public double getEmptyWaitSeconds() {
+        return emptyWaitNanos.get() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,102 @@
+package com.etl.etl_pipeline.reader;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.lang.NonNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A byte range of a file, read as if it were the whole file
+ * Gives each partition of a CSV input its own reader over its own lines
+ */
+public class ByteRangeResource extends AbstractResource {
+
+    private final Path path;
+    private final long start;
+    private final long end;
+
+    /**
+     * @param path File to read
+     * @param start Offset of the first byte (inclusive)
+     * @param end Offset after the last byte (exclusive)
+     */
+    public ByteRangeResource(Path path, long start, long end) {
+        this.path = path;
+        this.start = start;
+        this.end = Math.max(start, end);
+    }
+
+    @Override
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    @Override
+    public String getFilename() {
+        return path.getFileName().toString();
+    }
+
+    @Override
+    public long contentLength() {
+        return end - start;
+    }
+
+    @Override
+    @NonNull
+    public String getDescription() {
+        return "bytes " + start + "-" + end + " of file [" + path + "]";
+    }
+
+    @Override
+    @NonNull
+    public InputStream getInputStream() throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        channel.position(start);
+        return new FilterInputStream(Channels.newInputStream(channel)) {
+            private long remaining = end - start;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int b = super.read();
+                if (b >= 0) {
+                    remaining--;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int n = super.read(buffer, offset, (int) Math.min(length, remaining));
+                if (n > 0) {
+                    remaining -= n;
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(Math.min(n, remaining));
+                remaining -= skipped;
+                return skipped;
+            }
+
+            @Override
+            public int available() throws IOException {
+                return (int) Math.min(super.available(), remaining);
+            }
+        };
+    }
+}
@@ -3,13 +3,20 @@ package com.etl.etl_pipeline.reader;
 import com.etl.etl_pipeline.model.InputData;
 import com.etl.etl_pipeline.util.DateUtils;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.LineMapper;
 import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.transform.FieldSet;
 import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Reader for CSV files
  */
@@ -22,10 +29,45 @@ public class CsvReader {
      * @return ItemReader for CSV files
      */
     public ItemReader<InputData> createReader(String filePath) {
+        return createReader(new FileSystemResource(filePath));
+    }
+
+    /**
+     * Creates a reader for CSV content
+     * @param resource CSV resource (a file, or a spool that is still being uploaded)
+     * @return ItemReader for CSV content
+     */
+    public ItemReader<InputData> createReader(Resource resource) {
+        return createReader(resource, null);
+    }
+
+    /**
+     * Creates a reader for CSV content with a resolved column mapping
+     * @param resource CSV resource (a file, or a spool that is still being uploaded)
+     * @param plan Reader plan from a preview, or null for the default column order
+     * @return ItemReader for CSV content
+     */
+    public ItemReader<InputData> createReader(Resource resource, ReaderPlan plan) {
+        return createReader(resource, plan, 1); // Skip header line
+    }
+
+    /**
+     * Creates a reader for one partition of a CSV file
+     * The reader saves its line count in the partition's execution context, so a restarted
+     * partition resumes after the last committed line
+     * @param range Lines of the partition, starting after the header (see {@link ByteRangeResource})
+     * @param plan Reader plan from a preview, or null for the default column order
+     * @return ItemStreamReader for the partition's lines
+     */
+    public ItemStreamReader<InputData> createPartitionReader(Resource range, ReaderPlan plan) {
+        return createReader(range, plan, 0);
+    }
+
+    private FlatFileItemReader<InputData> createReader(Resource resource, ReaderPlan plan, int linesToSkip) {
         FlatFileItemReader<InputData> reader = new FlatFileItemReader<>();
-        reader.setResource(new FileSystemResource(filePath));
-        reader.setLinesToSkip(1); // Skip header line
-        reader.setLineMapper(createLineMapper());
+        reader.setResource(resource);
+        reader.setLinesToSkip(linesToSkip);
+        reader.setLineMapper(createLineMapper(plan));
         reader.setName("csvItemReader");
         
         try {
@@ -38,31 +80,36 @@ public class CsvReader {
         return reader;
     }
 
-    private LineMapper<InputData> createLineMapper() {
+    private LineMapper<InputData> createLineMapper(ReaderPlan plan) {
         DefaultLineMapper<InputData> lineMapper = new DefaultLineMapper<>();
         
         DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
-        tokenizer.setNames("id", "firstName", "lastName", "email", "birthDate", 
-                          "address", "city", "country", "phoneNumber", "salary", "dependents");
+        String[] tokenizerNames = plan != null ? plan.getTokenizerNames() : ReaderPlan.FIELDS.toArray(new String[0]);
+        tokenizer.setNames(tokenizerNames);
+        if (plan != null) {
+            // Columns follow the file's header; fields it lacks read as empty
+            tokenizer.setStrict(false);
+        }
+        Set<String> names = new HashSet<>(Arrays.asList(tokenizerNames));
         
         lineMapper.setLineTokenizer(tokenizer);
         lineMapper.setFieldSetMapper(fieldSet -> {
             InputData data = new InputData();
             
             // Set fields with appropriate type conversion
-            data.setId(fieldSet.readString("id"));
-            data.setFirstName(fieldSet.readString("firstName"));
-            data.setLastName(fieldSet.readString("lastName"));
-            data.setEmail(fieldSet.readString("email"));
+            data.setId(readString(fieldSet, names, "id"));
+            data.setFirstName(readString(fieldSet, names, "firstName"));
+            data.setLastName(readString(fieldSet, names, "lastName"));
+            data.setEmail(readString(fieldSet, names, "email"));
             
             // Parse date using utility
-            String birthDateStr = fieldSet.readString("birthDate");
-            data.setBirthDate(DateUtils.parseDate(birthDateStr));
+            String birthDateStr = readString(fieldSet, names, "birthDate");
+            data.setBirthDate(plan != null ? plan.parseDate(birthDateStr) : DateUtils.parseDate(birthDateStr));
             
-            data.setAddress(fieldSet.readString("address"));
-            data.setCity(fieldSet.readString("city"));
-            data.setCountry(fieldSet.readString("country"));
-            data.setPhoneNumber(fieldSet.readString("phoneNumber"));
+            data.setAddress(readString(fieldSet, names, "address"));
+            data.setCity(readString(fieldSet, names, "city"));
+            data.setCountry(readString(fieldSet, names, "country"));
+            data.setPhoneNumber(readString(fieldSet, names, "phoneNumber"));
             
             try {
                 data.setSalary(fieldSet.readDouble("salary"));
@@ -81,4 +128,8 @@ public class CsvReader {
         
         return lineMapper;
     }
+
+    private String readString(FieldSet fieldSet, Set<String> names, String field) {
+        return names.contains(field) ? fieldSet.readString(field) : "";
+    }
 }
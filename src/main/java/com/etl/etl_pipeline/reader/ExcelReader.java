@@ -4,6 +4,7 @@ import com.etl.etl_pipeline.model.InputData;
 import com.etl.etl_pipeline.util.DateUtils;
 import org.apache.poi.ss.usermodel.*;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
 import org.springframework.stereotype.Component;
 
@@ -21,7 +22,86 @@ public class ExcelReader {
      * @return ItemReader for Excel files
      */
     public ItemReader<InputData> createReader(String filePath) {
-        return new ExcelItemReader(filePath);
+        return createReader(filePath, null);
+    }
+
+    /**
+     * Creates a reader for Excel files with a resolved column mapping
+     * @param filePath Path to the Excel file
+     * @param plan Reader plan from a preview, or null for the default column order
+     * @return ItemReader for Excel files
+     */
+    public ItemReader<InputData> createReader(String filePath, ReaderPlan plan) {
+        return createReader(filePath, plan, null);
+    }
+
+    /**
+     * Creates a reader for Excel files that reports its record total for progress tracking
+     * @param filePath Path to the Excel file
+     * @param plan Reader plan from a preview, or null for the default column order
+     * @param progress Progress to report the sheet's row count to, or null
+     * @return ItemReader for Excel files
+     */
+    public ItemReader<InputData> createReader(String filePath, ReaderPlan plan, ReadProgress progress) {
+        return new ExcelItemReader(filePath, plan, progress);
+    }
+
+    /**
+     * Creates a reader for a range of the data rows of an Excel file's first sheet
+     * Each partition opens its own copy of the workbook. The reader saves its position in the
+     * partition's execution context, so a restarted partition resumes after the last committed row
+     * @param filePath Path to the Excel file
+     * @param plan Reader plan from a preview, or null for the default column order
+     * @param progress Progress to report the sheet's row count to, or null
+     * @param start Index of the first data row (inclusive, 0 is the row below the header)
+     * @param end Index after the last data row (exclusive)
+     * @return ItemStreamReader for the rows in the range
+     */
+    public ItemStreamReader<InputData> createPartitionReader(String filePath, ReaderPlan plan, ReadProgress progress,
+                                                            int start, int end) {
+        ExcelItemReader reader = new ExcelItemReader(filePath, plan, progress);
+        reader.setCurrentItemCount(start);
+        reader.setMaxItemCount(end);
+        return reader;
+    }
+
+    /**
+     * Count the data rows of an Excel file's first sheet
+     * @param filePath Path to the Excel file
+     * @return Number of rows below the header
+     */
+    public int countRows(String filePath) throws Exception {
+        try (Workbook workbook = WorkbookFactory.create(new java.io.File(filePath), null, true)) {
+            return Math.max(0, workbook.getSheetAt(0).getPhysicalNumberOfRows() - 1);
+        }
+    }
+
+    /**
+     * Get a cell value as a string, formatting dates as ISO dates
+     * Shared with the file preview so both read cells the same way
+     * @param cell Excel cell (may be null)
+     * @return String value, or an empty string for blank cells
+     */
+    public static String getCellValueAsString(Cell cell) {
+        if (cell == null) {
+            return "";
+        }
+        
+        switch (cell.getCellType()) {
+            case STRING:
+                return cell.getStringCellValue();
+            case NUMERIC:
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    return cell.getLocalDateTimeCellValue().toLocalDate().toString();
+                }
+                return String.valueOf(cell.getNumericCellValue());
+            case BOOLEAN:
+                return String.valueOf(cell.getBooleanCellValue());
+            case FORMULA:
+                return cell.getCellFormula();
+            default:
+                return "";
+        }
     }
 
     /**
@@ -29,22 +109,31 @@ public class ExcelReader {
      */
     private static class ExcelItemReader extends AbstractItemCountingItemStreamItemReader<InputData> {
         private final String filePath;
+        private final ReaderPlan plan;
+        private final ReadProgress progress;
         private Workbook workbook;
         private Sheet sheet;
         private Iterator<Row> rowIterator;
         private boolean initialized = false;
 
-        public ExcelItemReader(String filePath) {
+        public ExcelItemReader(String filePath, ReaderPlan plan, ReadProgress progress) {
             this.filePath = filePath;
+            this.plan = plan;
+            this.progress = progress;
             setName("excelItemReader");
         }
 
         @Override
         protected void doOpen() throws Exception {
             if (!initialized) {
-                workbook = WorkbookFactory.create(new java.io.File(filePath));
+                // Read-only: a workbook opened for writing saves itself back to the upload on close
+                workbook = WorkbookFactory.create(new java.io.File(filePath), null, true);
                 sheet = workbook.getSheetAt(0); // Use first sheet
                 rowIterator = sheet.rowIterator();
+                if (progress != null) {
+                    // Rows below the header
+                    progress.setTotalRecords(sheet.getLastRowNum());
+                }
                 
                 // Skip header row
                 if (rowIterator.hasNext()) {
@@ -65,51 +154,42 @@ public class ExcelReader {
             return mapRowToInputData(row);
         }
 
+        @Override
+        protected void jumpToItem(int itemIndex) throws Exception {
+            // Skip the rows before a partition or restart point without mapping them
+            for (int i = 0; i < itemIndex && rowIterator != null && rowIterator.hasNext(); i++) {
+                rowIterator.next();
+            }
+        }
+
         private InputData mapRowToInputData(Row row) {
             InputData data = new InputData();
             
             // Map Excel cells to InputData fields
-            data.setId(getCellValueAsString(row.getCell(0)));
-            data.setFirstName(getCellValueAsString(row.getCell(1)));
-            data.setLastName(getCellValueAsString(row.getCell(2)));
-            data.setEmail(getCellValueAsString(row.getCell(3)));
+            data.setId(getCellValueAsString(cell(row, "id")));
+            data.setFirstName(getCellValueAsString(cell(row, "firstName")));
+            data.setLastName(getCellValueAsString(cell(row, "lastName")));
+            data.setEmail(getCellValueAsString(cell(row, "email")));
             
             // Parse date
-            String birthDateStr = getCellValueAsString(row.getCell(4));
-            data.setBirthDate(DateUtils.parseDate(birthDateStr));
+            String birthDateStr = getCellValueAsString(cell(row, "birthDate"));
+            data.setBirthDate(plan != null ? plan.parseDate(birthDateStr) : DateUtils.parseDate(birthDateStr));
             
-            data.setAddress(getCellValueAsString(row.getCell(5)));
-            data.setCity(getCellValueAsString(row.getCell(6)));
-            data.setCountry(getCellValueAsString(row.getCell(7)));
-            data.setPhoneNumber(getCellValueAsString(row.getCell(8)));
+            data.setAddress(getCellValueAsString(cell(row, "address")));
+            data.setCity(getCellValueAsString(cell(row, "city")));
+            data.setCountry(getCellValueAsString(cell(row, "country")));
+            data.setPhoneNumber(getCellValueAsString(cell(row, "phoneNumber")));
             
             // Parse numeric values
-            data.setSalary(getCellValueAsDouble(row.getCell(9)));
-            data.setDependents(getCellValueAsInteger(row.getCell(10)));
+            data.setSalary(getCellValueAsDouble(cell(row, "salary")));
+            data.setDependents(getCellValueAsInteger(cell(row, "dependents")));
             
             return data;
         }
 
-        private String getCellValueAsString(Cell cell) {
-            if (cell == null) {
-                return "";
-            }
-            
-            switch (cell.getCellType()) {
-                case STRING:
-                    return cell.getStringCellValue();
-                case NUMERIC:
-                    if (DateUtil.isCellDateFormatted(cell)) {
-                        return cell.getLocalDateTimeCellValue().toLocalDate().toString();
-                    }
-                    return String.valueOf(cell.getNumericCellValue());
-                case BOOLEAN:
-                    return String.valueOf(cell.getBooleanCellValue());
-                case FORMULA:
-                    return cell.getCellFormula();
-                default:
-                    return "";
-            }
+        private Cell cell(Row row, String field) {
+            int index = plan != null ? plan.columnIndex(field) : ReaderPlan.FIELDS.indexOf(field);
+            return index >= 0 ? row.getCell(index) : null;
         }
 
         private Double getCellValueAsDouble(Cell cell) {
@@ -1,10 +1,15 @@
 package com.etl.etl_pipeline.reader;
 
 import com.etl.etl_pipeline.model.InputData;
+import com.etl.etl_pipeline.service.IngestSpoolRegistry;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -23,12 +28,37 @@ public class FileReaderFactory {
     @Autowired
     private JsonReader jsonReader;
 
+    @Autowired
+    private IngestSpoolRegistry spoolRegistry;
+
     /**
      * Returns the appropriate reader based on file extension
+     * CSV and JSON inputs whose upload is still in flight are read as they arrive
+     * @param filePath Path to the input file
+     * @return ItemReader for the specified file type
+     */
+    public ItemReader<InputData> getReader(String filePath) throws IOException {
+        return getReader(filePath, null);
+    }
+
+    /**
+     * Returns the appropriate reader based on file extension, following a resolved reader plan
      * @param filePath Path to the input file
+     * @param plan Column mapping and date format from a preview, or null for the defaults
      * @return ItemReader for the specified file type
      */
-    public ItemReader<InputData> getReader(String filePath) {
+    public ItemReader<InputData> getReader(String filePath, ReaderPlan plan) throws IOException {
+        return getReader(filePath, plan, null);
+    }
+
+    /**
+     * Returns the appropriate reader based on file extension, reporting its position in the input
+     * @param filePath Path to the input file
+     * @param plan Column mapping and date format from a preview, or null for the defaults
+     * @param progress Progress the reader reports bytes or its record total to, or null
+     * @return ItemReader for the specified file type
+     */
+    public ItemReader<InputData> getReader(String filePath, ReaderPlan plan, ReadProgress progress) throws IOException {
         if (filePath == null) {
             return null;
         }
@@ -37,13 +67,63 @@ public class FileReaderFactory {
         String fileName = path.getFileName().toString().toLowerCase();
 
         if (fileName.endsWith(".csv")) {
-            return csvReader.createReader(filePath);
+            return csvReader.createReader(open(filePath, progress), plan);
+        } else if (fileName.endsWith(".xlsx") || fileName.endsWith(".xls")) {
+            return excelReader.createReader(filePath, plan, progress);
+        } else if (fileName.endsWith(".json")) {
+            return jsonReader.createReader(open(filePath, progress), plan);
+        } else {
+            throw new IllegalArgumentException("Unsupported file type: " + fileName);
+        }
+    }
+
+    /**
+     * Returns a reader for one partition of a fully received input file
+     * The range is in bytes for CSV (line-aligned, after the header) and in records for JSON
+     * objects and Excel rows, as produced by {@link com.etl.etl_pipeline.partition.InputPartitioner}
+     * @param filePath Path to the input file
+     * @param plan Column mapping and date format from a preview, or null for the defaults
+     * @param progress Progress the reader reports bytes or its record total to, or null
+     * @param start Start of the partition (inclusive)
+     * @param end End of the partition (exclusive)
+     * @return ItemStreamReader for the partition, to be opened and checkpointed by its step
+     */
+    public ItemStreamReader<InputData> getPartitionReader(String filePath, ReaderPlan plan, ReadProgress progress,
+                                                          long start, long end) {
+        Path path = Paths.get(filePath);
+        String fileName = path.getFileName().toString().toLowerCase();
+
+        if (fileName.endsWith(".csv")) {
+            Resource range = new ByteRangeResource(path, start, end);
+            return csvReader.createPartitionReader(progress != null ? progress.track(range) : range, plan);
         } else if (fileName.endsWith(".xlsx") || fileName.endsWith(".xls")) {
-            return excelReader.createReader(filePath);
+            return excelReader.createPartitionReader(filePath, plan, progress, (int) start, (int) end);
         } else if (fileName.endsWith(".json")) {
-            return jsonReader.createReader(filePath);
+            // Every partition parses the objects before its own, so progress is counted in records
+            return jsonReader.createPartitionReader(new FileSystemResource(path), plan, (int) start, (int) end);
         } else {
             throw new IllegalArgumentException("Unsupported file type: " + fileName);
         }
     }
+
+    /**
+     * Count the records of a JSON or Excel input without mapping them
+     * @param filePath Path to the input file
+     * @return Number of JSON objects or Excel data rows
+     */
+    public int countRecords(String filePath) throws Exception {
+        String fileName = Paths.get(filePath).getFileName().toString().toLowerCase();
+        if (fileName.endsWith(".xlsx") || fileName.endsWith(".xls")) {
+            return excelReader.countRows(filePath);
+        } else if (fileName.endsWith(".json")) {
+            return jsonReader.countRecords(new FileSystemResource(filePath));
+        } else {
+            throw new IllegalArgumentException("Records are not counted for file type: " + fileName);
+        }
+    }
+
+    private Resource open(String filePath, ReadProgress progress) throws IOException {
+        Resource resource = spoolRegistry.openResource(filePath);
+        return progress != null ? progress.track(resource) : resource;
+    }
 }
@@ -2,20 +2,22 @@ package com.etl.etl_pipeline.reader;
 
 import com.etl.etl_pipeline.model.InputData;
 import com.etl.etl_pipeline.util.DateUtils;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.util.Iterator;
-import java.util.List;
-
 /**
  * Reader for JSON files
  */
+@Slf4j
 @Component
 public class JsonReader {
 
@@ -25,20 +27,82 @@ public class JsonReader {
      * @return ItemReader for JSON files
      */
     public ItemReader<InputData> createReader(String filePath) {
-        return new JsonItemReader(filePath);
+        return createReader(new FileSystemResource(filePath));
+    }
+
+    /**
+     * Creates a reader for JSON content
+     * @param resource JSON resource (a file, or a spool that is still being uploaded)
+     * @return ItemReader for JSON content
+     */
+    public ItemReader<InputData> createReader(Resource resource) {
+        return createReader(resource, null);
+    }
+
+    /**
+     * Creates a reader for JSON content with a resolved field mapping
+     * @param resource JSON resource (a file, or a spool that is still being uploaded)
+     * @param plan Reader plan from a preview, or null to read fields by their own names
+     * @return ItemReader for JSON content
+     */
+    public ItemReader<InputData> createReader(Resource resource, ReaderPlan plan) {
+        return new JsonItemReader(resource, plan);
+    }
+
+    /**
+     * Creates a reader for a range of the objects in JSON content
+     * Objects before the range are skipped without being mapped. The reader saves its position
+     * in the partition's execution context, so a restarted partition resumes after the last
+     * committed object
+     * @param resource JSON resource
+     * @param plan Reader plan from a preview, or null to read fields by their own names
+     * @param start Index of the first object (inclusive)
+     * @param end Index after the last object (exclusive)
+     * @return ItemStreamReader for the objects in the range
+     */
+    public ItemStreamReader<InputData> createPartitionReader(Resource resource, ReaderPlan plan, int start, int end) {
+        JsonItemReader reader = new JsonItemReader(resource, plan);
+        reader.setCurrentItemCount(start);
+        reader.setMaxItemCount(end);
+        return reader;
+    }
+
+    /**
+     * Count the objects in JSON content without mapping them
+     * @param resource JSON resource (a top-level array of objects or a sequence of objects)
+     * @return Number of objects
+     */
+    public int countRecords(Resource resource) throws Exception {
+        JsonItemReader reader = new JsonItemReader(resource, null);
+        try {
+            reader.doOpen();
+            int count = 0;
+            while (reader.skipObject()) {
+                count++;
+            }
+            return count;
+        } finally {
+            reader.doClose();
+        }
     }
 
     /**
      * Custom JSON item reader implementation
+     * Objects are parsed one at a time from the stream, so memory use does not grow with the
+     * input and records are available before the whole document has been received.
+     * Accepts a top-level array of objects or a sequence of objects (NDJSON)
      */
     private static class JsonItemReader extends AbstractItemCountingItemStreamItemReader<InputData> {
-        private final String filePath;
-        private Iterator<ObjectNode> jsonIterator;
+        private final Resource resource;
+        private final ReaderPlan plan;
+        private JsonParser parser;
+        private boolean firstObjectPending;
         private boolean initialized = false;
         private final ObjectMapper objectMapper = new ObjectMapper();
 
-        public JsonItemReader(String filePath) {
-            this.filePath = filePath;
+        public JsonItemReader(Resource resource, ReaderPlan plan) {
+            this.resource = resource;
+            this.plan = plan;
             setName("jsonItemReader");
         }
 
@@ -46,21 +110,20 @@ public class JsonReader {
         protected void doOpen() throws Exception {
             if (!initialized) {
                 try {
-                    // Read JSON file as a list of objects
-                    List<ObjectNode> jsonObjects = objectMapper.readValue(
-                        new File(filePath), 
-                        new TypeReference<List<ObjectNode>>() {}
-                    );
+                    parser = objectMapper.getFactory().createParser(resource.getInputStream());
                     
-                    jsonIterator = jsonObjects.iterator();
+                    // Position the parser before the first object
+                    JsonToken first = parser.nextToken();
+                    firstObjectPending = first == JsonToken.START_OBJECT;
+                    if (first != null && first != JsonToken.START_ARRAY && first != JsonToken.START_OBJECT) {
+                        throw new IllegalStateException("Expected a JSON array or objects but found " + first);
+                    }
                     initialized = true;
                     
                     // Log successful initialization
-                    System.out.println("Successfully initialized JSON reader with " + 
-                                     (jsonObjects != null ? jsonObjects.size() : 0) + " records");
+                    log.info("Successfully initialized JSON reader for {}", resource.getDescription());
                 } catch (Exception e) {
-                    System.err.println("Error initializing JSON reader: " + e.getMessage());
-                    e.printStackTrace();
+                    log.error("Error initializing JSON reader: {}", e.getMessage(), e);
                     throw e;
                 }
             }
@@ -68,14 +131,55 @@ public class JsonReader {
 
         @Override
         protected InputData doRead() throws Exception {
-            if (jsonIterator == null || !jsonIterator.hasNext()) {
+            if (!nextObject()) {
                 return null;
             }
 
-            ObjectNode jsonNode = jsonIterator.next();
+            ObjectNode jsonNode = objectMapper.readTree(parser);
             return mapJsonToInputData(jsonNode);
         }
 
+        @Override
+        protected void jumpToItem(int itemIndex) throws Exception {
+            // Skip the objects before a partition or restart point without building trees
+            int skipped = 0;
+            while (skipped < itemIndex && skipObject()) {
+                skipped++;
+            }
+        }
+
+        /**
+         * Skip the next object
+         * @return false at the end of the input
+         */
+        boolean skipObject() throws Exception {
+            if (!nextObject()) {
+                return false;
+            }
+            parser.skipChildren();
+            return true;
+        }
+
+        /**
+         * Move the parser onto the start of the next object
+         * @return false at the end of the input
+         */
+        private boolean nextObject() throws Exception {
+            if (parser == null) {
+                return false;
+            }
+
+            // For a sequence of root objects, open() already positioned the parser on the first one
+            JsonToken token;
+            if (firstObjectPending) {
+                token = parser.currentToken();
+                firstObjectPending = false;
+            } else {
+                token = parser.nextToken();
+            }
+            return token == JsonToken.START_OBJECT;
+        }
+
         private InputData mapJsonToInputData(ObjectNode jsonNode) {
             InputData data = new InputData();
             
@@ -87,7 +191,7 @@ public class JsonReader {
             
             // Parse date
             String birthDateStr = getStringValue(jsonNode, "birthDate");
-            data.setBirthDate(DateUtils.parseDate(birthDateStr));
+            data.setBirthDate(plan != null ? plan.parseDate(birthDateStr) : DateUtils.parseDate(birthDateStr));
             
             data.setAddress(getStringValue(jsonNode, "address"));
             data.setCity(getStringValue(jsonNode, "city"));
@@ -101,11 +205,18 @@ public class JsonReader {
             return data;
         }
 
-        private String getStringValue(ObjectNode node, String fieldName) {
+        private String keyFor(String fieldName) {
+            String column = plan != null ? plan.columnFor(fieldName) : null;
+            return column != null ? column : fieldName;
+        }
+
+        private String getStringValue(ObjectNode node, String field) {
+            String fieldName = keyFor(field);
             return node.has(fieldName) ? node.get(fieldName).asText() : "";
         }
 
-        private Double getDoubleValue(ObjectNode node, String fieldName) {
+        private Double getDoubleValue(ObjectNode node, String field) {
+            String fieldName = keyFor(field);
             if (!node.has(fieldName)) {
                 return 0.0;
             }
@@ -117,7 +228,8 @@ public class JsonReader {
             }
         }
 
-        private Integer getIntegerValue(ObjectNode node, String fieldName) {
+        private Integer getIntegerValue(ObjectNode node, String field) {
+            String fieldName = keyFor(field);
             if (!node.has(fieldName)) {
                 return 0;
             }
@@ -131,7 +243,10 @@ public class JsonReader {
 
         @Override
         protected void doClose() throws Exception {
-            jsonIterator = null;
+            if (parser != null) {
+                parser.close();
+                parser = null;
+            }
             initialized = false;
         }
     }
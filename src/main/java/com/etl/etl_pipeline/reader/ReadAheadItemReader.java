@@ -0,0 +1,156 @@
+package com.etl.etl_pipeline.reader;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.lang.NonNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reader that reads its delegate ahead on a thread of its own into a bounded buffer
+ * Waiting on the input (a spooled upload still arriving, the disk) happens on the read-ahead
+ * thread instead of the step's threads, and the buffer bounds how far ahead it runs.
+ * read() is safe to call from several threads. The position is not checkpointed, since it is
+ * ahead of what has been written: a restarted step reads the input again (rows are upserted by id)
+ */
+@Slf4j
+public class ReadAheadItemReader<T> implements ItemStreamReader<T> {
+
+    // Marks the end of the input in the buffer; consumers put it back for each other
+    private static final Object END = new Object();
+
+    // How often a producer blocked on a full buffer checks whether the reader was closed
+    private static final long OFFER_INTERVAL_MS = 100;
+
+    private static final long CLOSE_TIMEOUT_MS = 10000;
+
+    private final ItemReader<T> delegate;
+    private final TaskExecutor executor;
+    private final BlockingQueue<Object> buffer;
+    private final CountDownLatch producerDone = new CountDownLatch(1);
+
+    private volatile Thread producer;
+    private volatile Throwable failure;
+    private volatile boolean closed = false;
+    private boolean opened = false;
+
+    /**
+     * @param delegate Reader to read ahead; opened and closed with this reader
+     * @param executor Executor the read-ahead runs on
+     * @param capacity Items buffered at most
+     */
+    public ReadAheadItemReader(ItemReader<T> delegate, TaskExecutor executor, int capacity) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    @Override
+    public void open(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        if (delegate instanceof ItemStream stream) {
+            stream.open(new ExecutionContext());
+        }
+        opened = true;
+        executor.execute(this::readAhead);
+    }
+
+    private void readAhead() {
+        producer = Thread.currentThread();
+        try {
+            T item;
+            while (!closed && (item = delegate.read()) != null) {
+                if (!offer(item)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            if (!closed) {
+                failure = e;
+            }
+        } catch (Throwable t) {
+            if (!closed) {
+                log.error("Read-ahead failed: {}", t.getMessage());
+                failure = t;
+            }
+        } finally {
+            try {
+                offer(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            producer = null;
+            producerDone.countDown();
+        }
+    }
+
+    /**
+     * Wait for room in the buffer
+     * @return false if the reader was closed while waiting
+     */
+    private boolean offer(Object item) throws InterruptedException {
+        while (!buffer.offer(item, OFFER_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+            if (closed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T read() throws Exception {
+        Object next = buffer.take();
+        if (next == END) {
+            // Leave the marker for the step's other threads; there is room, one was just taken
+            buffer.offer(END);
+            Throwable cause = failure;
+            if (cause instanceof Exception e) {
+                throw e;
+            } else if (cause != null) {
+                throw new IllegalStateException("Read-ahead failed", cause);
+            }
+            return null;
+        }
+        return (T) next;
+    }
+
+    @Override
+    public void update(@NonNull ExecutionContext executionContext) throws ItemStreamException {
+        // Nothing to save: see the class comment
+    }
+
+    /**
+     * Stop reading ahead and close the delegate
+     * A read-ahead thread waiting for input is interrupted rather than waited for
+     */
+    @Override
+    public void close() throws ItemStreamException {
+        if (!opened || closed) {
+            return;
+        }
+        closed = true;
+        Thread thread = producer;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        try {
+            if (!producerDone.await(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                log.warn("Read-ahead did not stop within {} ms, closing its reader anyway", CLOSE_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        buffer.clear();
+        if (delegate instanceof ItemStream stream) {
+            stream.close();
+        }
+    }
+}
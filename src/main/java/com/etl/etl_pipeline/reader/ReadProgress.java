@@ -0,0 +1,106 @@
+package com.etl.etl_pipeline.reader;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.NonNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Position of a job's readers in their input, used for progress and ETA reporting
+ * Written by the reading threads and read by the progress publisher
+ */
+public class ReadProgress {
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private volatile long totalRecords = -1;
+
+    /**
+     * @return Bytes consumed from the input so far
+     */
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * @return Number of records in the input, or -1 if it is only known by size
+     */
+    public long getTotalRecords() {
+        return totalRecords;
+    }
+
+    /**
+     * Record the number of records in the input (known up front for Excel sheets)
+     * @param totalRecords Number of records
+     */
+    public void setTotalRecords(long totalRecords) {
+        this.totalRecords = totalRecords;
+    }
+
+    /**
+     * Wrap a resource so that every byte read from it is counted
+     * @param resource Input resource
+     * @return Resource whose streams report to this progress
+     */
+    public Resource track(Resource resource) {
+        return new TrackedResource(resource);
+    }
+
+    private class TrackedResource extends AbstractResource {
+        private final Resource delegate;
+
+        TrackedResource(Resource delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean exists() {
+            return delegate.exists();
+        }
+
+        @Override
+        public String getFilename() {
+            return delegate.getFilename();
+        }
+
+        @Override
+        @NonNull
+        public String getDescription() {
+            return delegate.getDescription();
+        }
+
+        @Override
+        @NonNull
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(delegate.getInputStream()) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        bytesRead.incrementAndGet();
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+                    int n = super.read(buffer, offset, length);
+                    if (n > 0) {
+                        bytesRead.addAndGet(n);
+                    }
+                    return n;
+                }
+
+                @Override
+                public long skip(long n) throws IOException {
+                    long skipped = super.skip(n);
+                    bytesRead.addAndGet(skipped);
+                    return skipped;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.etl.etl_pipeline.reader;
+
+import com.etl.etl_pipeline.util.DateUtils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * How to read an input file, resolved from a preview
+ * Maps each InputData field to a column of the file and records the date format the file uses.
+ * Passed to the job as the readerPlan parameter; without a plan the readers fall back to the
+ * fixed column order (CSV and Excel) or the field names (JSON)
+ */
+@Data
+public class ReaderPlan {
+
+    /**
+     * InputData fields in the default column order
+     */
+    public static final List<String> FIELDS = List.of(
+        "id", "firstName", "lastName", "email", "birthDate",
+        "address", "city", "country", "phoneNumber", "salary", "dependents"
+    );
+
+    // Normalized header -> field, for headers that are not just the field name
+    private static final Map<String, String> ALIASES = Map.ofEntries(
+        Map.entry("employeeid", "id"),
+        Map.entry("recordid", "id"),
+        Map.entry("givenname", "firstName"),
+        Map.entry("fname", "firstName"),
+        Map.entry("surname", "lastName"),
+        Map.entry("familyname", "lastName"),
+        Map.entry("lname", "lastName"),
+        Map.entry("emailaddress", "email"),
+        Map.entry("mail", "email"),
+        Map.entry("dob", "birthDate"),
+        Map.entry("dateofbirth", "birthDate"),
+        Map.entry("birthday", "birthDate"),
+        Map.entry("streetaddress", "address"),
+        Map.entry("street", "address"),
+        Map.entry("phone", "phoneNumber"),
+        Map.entry("telephone", "phoneNumber"),
+        Map.entry("mobile", "phoneNumber"),
+        Map.entry("income", "salary"),
+        Map.entry("annualsalary", "salary"),
+        Map.entry("grosssalary", "salary"),
+        Map.entry("dependants", "dependents"),
+        Map.entry("children", "dependents")
+    );
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private String format;
+    private List<String> columns = new ArrayList<>();
+    private Map<String, String> fieldMapping = new LinkedHashMap<>();
+    private Map<String, Integer> columnIndexes = new LinkedHashMap<>();
+    private String dateFormat;
+
+    /**
+     * Resolve a plan from the header and first rows of a file
+     * Columns are matched to fields by name (ignoring case, spaces and punctuation, plus common
+     * aliases). For CSV and Excel, fields without a matching header keep their default position.
+     * Columns are taken by position from the header, so blank and repeated header names keep their place
+     * @param format File extension (csv, json, xlsx or xls)
+     * @param header Header row in file order; empty for JSON, whose columns are the keys of the rows
+     * @param rows Preview rows
+     * @return Reader plan
+     */
+    public static ReaderPlan detect(String format, List<String> header, List<Map<String, Object>> rows) {
+        ReaderPlan plan = new ReaderPlan();
+        plan.setFormat(format);
+
+        List<String> columns = new ArrayList<>();
+        if (header != null && !header.isEmpty()) {
+            header.forEach(name -> columns.add(name != null ? name : ""));
+        } else {
+            // JSON keys are unique within an object, so the union of the keys is the column list
+            Set<String> keys = new LinkedHashSet<>();
+            rows.forEach(row -> keys.addAll(row.keySet()));
+            columns.addAll(keys);
+        }
+        plan.setColumns(columns);
+
+        Map<String, Integer> indexes = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            String field = matchField(columns.get(i));
+            if (field != null && !indexes.containsKey(field)) {
+                indexes.put(field, i);
+            }
+        }
+
+        // Positional formats keep the historical column order for anything not matched by name
+        if (!"json".equals(format)) {
+            Collection<Integer> claimed = new HashSet<>(indexes.values());
+            for (int i = 0; i < FIELDS.size() && i < columns.size(); i++) {
+                if (!indexes.containsKey(FIELDS.get(i)) && !claimed.contains(i)) {
+                    indexes.put(FIELDS.get(i), i);
+                    claimed.add(i);
+                }
+            }
+        }
+
+        Map<String, Integer> orderedIndexes = new LinkedHashMap<>();
+        Map<String, String> ordered = new LinkedHashMap<>();
+        FIELDS.stream().filter(indexes::containsKey).forEach(field -> {
+            orderedIndexes.put(field, indexes.get(field));
+            ordered.put(field, columns.get(indexes.get(field)));
+        });
+        plan.setColumnIndexes(orderedIndexes);
+        plan.setFieldMapping(ordered);
+
+        // Preview rows are keyed by header name, so a repeated name does not identify one column
+        String birthDateColumn = ordered.get("birthDate");
+        if (birthDateColumn != null && columns.indexOf(birthDateColumn) == columns.lastIndexOf(birthDateColumn)) {
+            List<String> dates = new ArrayList<>();
+            for (Map<String, Object> row : rows) {
+                Object value = row.get(birthDateColumn);
+                if (value != null) {
+                    dates.add(value.toString());
+                }
+            }
+            plan.setDateFormat(DateUtils.detectFormat(dates));
+        }
+
+        return plan;
+    }
+
+    private static String matchField(String column) {
+        String normalized = normalize(column);
+        for (String field : FIELDS) {
+            if (normalize(field).equals(normalized)) {
+                return field;
+            }
+        }
+        return ALIASES.get(normalized);
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    /**
+     * Get the column a field is read from
+     * @param field InputData field
+     * @return Column name, or null if the file has no column for the field
+     */
+    public String columnFor(String field) {
+        return fieldMapping.get(field);
+    }
+
+    /**
+     * Get the position of the column a field is read from
+     * @param field InputData field
+     * @return Zero-based column index, or -1 if the file has no column for the field
+     */
+    public int columnIndex(String field) {
+        return columnIndexes.getOrDefault(field, -1);
+    }
+
+    /**
+     * Parse a date using the detected format first
+     * @param value Date string
+     * @return Parsed date, or null
+     */
+    public LocalDate parseDate(String value) {
+        return DateUtils.parseDate(value, dateFormat);
+    }
+
+    /**
+     * Serialize for use as a job parameter
+     * @return JSON representation
+     */
+    public String toJson() {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(this);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize reader plan", e);
+        }
+    }
+
+    /**
+     * Read a plan from a job parameter
+     * @param json JSON representation (may be null)
+     * @return Reader plan, or null if there is none
+     */
+    public static ReaderPlan fromJson(String json) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.readValue(json, ReaderPlan.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid reader plan: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Column names for a positional (CSV) tokenizer: the mapped field where there is one
+     * @return One name per file column
+     */
+    @JsonIgnore
+    public String[] getTokenizerNames() {
+        String[] names = new String[columns.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "column" + i;
+        }
+        columnIndexes.forEach((field, index) -> {
+            if (index >= 0 && index < names.length) {
+                names[index] = field;
+            }
+        });
+        return names;
+    }
+}
@@ -0,0 +1,61 @@
+package com.etl.etl_pipeline.reader;
+
+import com.etl.etl_pipeline.service.IngestSpoolRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Input stream over a spool file that is still being written
+ * At the current end of the file it waits for the uploader to append more bytes, and only
+ * reports end of stream once the upload has completed
+ */
+public class SpoolInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private final IngestSpoolRegistry.Spool spool;
+    private final long stallTimeoutMillis;
+    private long position;
+
+    public SpoolInputStream(Path path, IngestSpoolRegistry.Spool spool, long stallTimeoutMillis) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.spool = spool;
+        this.stallTimeoutMillis = stallTimeoutMillis;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+
+        long written = spool.awaitBytes(position, stallTimeoutMillis);
+        if (written <= position) {
+            // Upload complete and everything has been read
+            return -1;
+        }
+
+        int toRead = (int) Math.min(length, written - position);
+        int n = channel.read(ByteBuffer.wrap(buffer, offset, toRead), position);
+        if (n > 0) {
+            position += n;
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
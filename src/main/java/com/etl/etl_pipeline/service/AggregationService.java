@@ -0,0 +1,240 @@
+package com.etl.etl_pipeline.service;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for grouped aggregates over processed_data
+ * Dimensions and measures are picked from fixed whitelists and compiled to parameterized SQL,
+ * so callers can combine them freely without ever supplying SQL. Results are cached per data
+ * version: a repeated query is served from memory until processed_data changes
+ */
+@Slf4j
+@Service
+public class AggregationService {
+
+    public static final int MAX_GROUPS = 1000;
+
+    // Dimension name -> SQL expression
+    private static final Map<String, String> DIMENSIONS = Map.of(
+        "country", "country",
+        "city", "city",
+        "status", "processing_status",
+        "jobExecutionId", "job_execution_id",
+        "ageRange", "CASE WHEN age < 18 THEN 'Under 18' WHEN age < 30 THEN '18-29' WHEN age < 40 THEN '30-39' " +
+                    "WHEN age < 50 THEN '40-49' WHEN age < 60 THEN '50-59' ELSE '60+' END",
+        // Band widths are bound as parameters
+        "ageBand", "CAST(age / ? AS INTEGER) * ?",
+        "salaryBand", "CAST(salary / ? AS INTEGER) * ?"
+    );
+
+    // Measure name -> SQL expression
+    private static final Map<String, String> MEASURES = Map.ofEntries(
+        Map.entry("count", "COUNT(*)"),
+        Map.entry("validCount", "SUM(processing_status = 'VALID')"),
+        Map.entry("invalidCount", "SUM(processing_status = 'INVALID')"),
+        Map.entry("invalidRate", "AVG(processing_status = 'INVALID')"),
+        Map.entry("avgAge", "AVG(age)"),
+        Map.entry("minAge", "MIN(age)"),
+        Map.entry("maxAge", "MAX(age)"),
+        Map.entry("avgSalary", "AVG(salary)"),
+        Map.entry("sumSalary", "SUM(salary)"),
+        Map.entry("minSalary", "MIN(salary)"),
+        Map.entry("maxSalary", "MAX(salary)"),
+        Map.entry("avgNetSalary", "AVG(net_salary)"),
+        Map.entry("sumNetSalary", "SUM(net_salary)"),
+        Map.entry("avgTaxRate", "AVG(tax_rate)"),
+        Map.entry("sumDependents", "SUM(dependents)")
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProcessedDataQueryService processedDataQueryService;
+
+    @Autowired
+    private ProcessedStatsService processedStatsService;
+
+    @Value("${etl.aggregate.cache-size:256}")
+    private int cacheSize;
+
+    private Map<String, CachedResult> cache;
+
+    private static class CachedResult {
+        private final long dataVersion;
+        private final Map<String, Object> result;
+
+        private CachedResult(long dataVersion, Map<String, Object> result) {
+            this.dataVersion = dataVersion;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Aggregation query
+     */
+    @Data
+    public static class AggregationQuery {
+        private List<String> dimensions = new ArrayList<>();
+        private List<String> measures = new ArrayList<>();
+        private ProcessedDataQueryService.DataFilter filter = new ProcessedDataQueryService.DataFilter();
+        private int ageBandWidth = 10;
+        private double salaryBandWidth = 10000;
+        private String orderBy;
+        private boolean descending = true;
+        private int limit = MAX_GROUPS;
+    }
+
+    /**
+     * Run an aggregation query
+     * @param query Dimensions, measures, filters, ordering and limit
+     * @return Map with the result rows (one entry per dimension and measure) and the data version
+     * @throws IllegalArgumentException for unknown dimensions, measures or order keys
+     */
+    public Map<String, Object> aggregate(AggregationQuery query) {
+        validate(query);
+
+        long dataVersion = processedStatsService.getDataVersion();
+        String key = cacheKey(query);
+        Map<String, CachedResult> resultCache = getCache();
+
+        synchronized (resultCache) {
+            CachedResult cached = resultCache.get(key);
+            if (cached != null && cached.dataVersion == dataVersion) {
+                Map<String, Object> result = new HashMap<>(cached.result);
+                result.put("cached", true);
+                return result;
+            }
+        }
+
+        List<Object> params = new ArrayList<>();
+        StringBuilder select = new StringBuilder();
+        for (String dimension : query.getDimensions()) {
+            appendColumn(select, DIMENSIONS.get(dimension), dimension);
+            addBandParams(dimension, query, params);
+        }
+        for (String measure : query.getMeasures()) {
+            appendColumn(select, MEASURES.get(measure), measure);
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(select)
+                .append(" FROM processed_data WHERE ")
+                .append(processedDataQueryService.buildWhereClause(query.getFilter(), params));
+
+        if (!query.getDimensions().isEmpty()) {
+            // Group by position so band expressions are not bound twice
+            sql.append(" GROUP BY ");
+            for (int i = 1; i <= query.getDimensions().size(); i++) {
+                sql.append(i > 1 ? ", " : "").append(i);
+            }
+        }
+
+        String orderBy = query.getOrderBy() != null ? query.getOrderBy() :
+                (!query.getMeasures().isEmpty() ? query.getMeasures().get(0) : null);
+        if (orderBy != null) {
+            sql.append(" ORDER BY \"").append(orderBy).append("\" ").append(query.isDescending() ? "DESC" : "ASC");
+        }
+        sql.append(" LIMIT ?");
+        params.add(Math.max(1, Math.min(query.getLimit(), MAX_GROUPS)));
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql.toString(), params.toArray());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("dimensions", query.getDimensions());
+        result.put("measures", query.getMeasures());
+        result.put("rows", rows);
+        result.put("dataVersion", dataVersion);
+
+        synchronized (resultCache) {
+            resultCache.put(key, new CachedResult(dataVersion, result));
+        }
+
+        Map<String, Object> response = new HashMap<>(result);
+        response.put("cached", false);
+        return response;
+    }
+
+    /**
+     * Get the available dimensions and measures
+     * @return Map with dimension and measure names
+     */
+    public Map<String, Object> getCapabilities() {
+        Map<String, Object> capabilities = new HashMap<>();
+        capabilities.put("dimensions", new ArrayList<>(DIMENSIONS.keySet()));
+        capabilities.put("measures", new ArrayList<>(MEASURES.keySet()));
+        return capabilities;
+    }
+
+    private void validate(AggregationQuery query) {
+        if (query.getMeasures().isEmpty()) {
+            throw new IllegalArgumentException("At least one measure is required");
+        }
+        for (String dimension : query.getDimensions()) {
+            if (!DIMENSIONS.containsKey(dimension)) {
+                throw new IllegalArgumentException("Unknown dimension: " + dimension + " (use one of " + DIMENSIONS.keySet() + ")");
+            }
+        }
+        for (String measure : query.getMeasures()) {
+            if (!MEASURES.containsKey(measure)) {
+                throw new IllegalArgumentException("Unknown measure: " + measure + " (use one of " + MEASURES.keySet() + ")");
+            }
+        }
+        if (query.getOrderBy() != null && !query.getDimensions().contains(query.getOrderBy())
+                && !query.getMeasures().contains(query.getOrderBy())) {
+            throw new IllegalArgumentException("orderBy must be one of the requested dimensions or measures");
+        }
+        if (query.getAgeBandWidth() <= 0 || query.getSalaryBandWidth() <= 0) {
+            throw new IllegalArgumentException("Band widths must be positive");
+        }
+    }
+
+    private void appendColumn(StringBuilder select, String expression, String alias) {
+        if (select.length() > 0) {
+            select.append(", ");
+        }
+        // Aliases come from the whitelist, so quoting them is safe
+        select.append(expression).append(" AS \"").append(alias).append("\"");
+    }
+
+    private void addBandParams(String dimension, AggregationQuery query, List<Object> params) {
+        if ("ageBand".equals(dimension)) {
+            params.add(query.getAgeBandWidth());
+            params.add(query.getAgeBandWidth());
+        } else if ("salaryBand".equals(dimension)) {
+            params.add(query.getSalaryBandWidth());
+            params.add(query.getSalaryBandWidth());
+        }
+    }
+
+    private String cacheKey(AggregationQuery query) {
+        return String.join(",", query.getDimensions()) + "|" + String.join(",", query.getMeasures()) + "|" +
+                query.getFilter() + "|" + query.getAgeBandWidth() + "|" + query.getSalaryBandWidth() + "|" +
+                query.getOrderBy() + "|" + query.isDescending() + "|" + query.getLimit();
+    }
+
+    private synchronized Map<String, CachedResult> getCache() {
+        if (cache == null) {
+            int maxEntries = Math.max(1, cacheSize);
+            // Least recently used entries are evicted once the cache is full
+            cache = Collections.synchronizedMap(new LinkedHashMap<String, CachedResult>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                    return size() > maxEntries;
+                }
+            });
+        }
+        return cache;
+    }
+}
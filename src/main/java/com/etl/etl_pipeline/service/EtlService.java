@@ -1,14 +1,14 @@
 package com.etl.etl_pipeline.service;
 
+import com.etl.etl_pipeline.config.ExecutionModeDecider;
+import com.etl.etl_pipeline.executor.FairShareTaskExecutor;
+import com.etl.etl_pipeline.listener.FairShareJobListener;
 import com.etl.etl_pipeline.model.ProcessedData;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.etl.etl_pipeline.reader.ReaderPlan;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.poi.ss.usermodel.*;
 import org.springframework.batch.core.*;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
 import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
@@ -16,20 +16,16 @@ import org.springframework.batch.core.repository.JobRestartException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -53,108 +49,382 @@ public class EtlService {
     
     @Autowired
     private FileExportService fileExportService;
-
-    @Value("${etl.upload-dir:uploads}")
-    private String uploadDir;
     
+    @Autowired
+    private JobQueueService jobQueueService;
+    
+    @Autowired
+    private FairShareTaskExecutor taskExecutor;
+    
+    @Autowired
+    private UploadStore uploadStore;
+    
+    @Autowired
+    private IngestSpoolRegistry spoolRegistry;
+    
+    @Autowired
+    private ProcessedStatsService processedStatsService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private JobExplorer jobExplorer;
+    
+    @Autowired
+    private UploadTokenService uploadTokenService;
+
     @Value("${etl.output-dir:outputs}")
     private String outputDir;
-    
-    @Value("${etl.export.processed:true}")
-    private boolean exportProcessedData;
 
-    // Map to store job execution details
-    private final Map<String, JobExecution> jobExecutions = new ConcurrentHashMap<>();
+    @Value("${etl.execution.mode:" + ExecutionModeDecider.MULTI_THREADED + "}")
+    private String executionMode;
     
-    // Map to store original file names for each job
-    private final Map<String, String> jobOriginalFileNames = new ConcurrentHashMap<>();
+    // How long deleting a job's rows waits for running jobs' chunks to commit
+    private static final long DELETE_LOCK_TIMEOUT_MS = 60000;
     
-    // Map to store file types for each job
-    private final Map<String, String> jobFileTypes = new ConcurrentHashMap<>();
+    // Map to store job execution details
+    private final Map<String, JobExecution> jobExecutions = new ConcurrentHashMap<>();
 
     /**
      * Process a file through the ETL pipeline
+     * The job is launched asynchronously; this returns as soon as the job execution is created.
+     * Byte-identical content that was already processed successfully is not processed again
+     * unless a re-run is forced; the previous job is returned instead
      * @param file File to process
-     * @return Job ID
+     * @param forceRerun Process the file even if identical content was already processed
+     * @return Map with jobId, sha256 and whether the previous job was reused
+     * @throws JobQueueFullException if too many jobs are already queued or running
      */
-    public String processFile(MultipartFile file) throws IOException, JobParametersInvalidException,
-            JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+    public Map<String, Object> processFile(MultipartFile file, boolean forceRerun) throws IOException,
+            JobParametersInvalidException, JobExecutionAlreadyRunningException, JobRestartException,
+            JobInstanceAlreadyCompleteException {
         
-        // Create upload directory if it doesn't exist
-        File uploadDirectory = new File(uploadDir);
-        if (!uploadDirectory.exists()) {
-            uploadDirectory.mkdirs();
+        // Reserve a launch slot before touching the disk so rejected uploads cost nothing
+        jobQueueService.admit();
+        try {
+            return saveAndLaunch(file, forceRerun);
+        } catch (IOException | JobParametersInvalidException | JobExecutionAlreadyRunningException |
+                 JobRestartException | JobInstanceAlreadyCompleteException | RuntimeException e) {
+            jobQueueService.cancelAdmission();
+            throw e;
         }
+    }
+    
+    private Map<String, Object> saveAndLaunch(MultipartFile file, boolean forceRerun) throws IOException,
+            JobParametersInvalidException, JobExecutionAlreadyRunningException, JobRestartException,
+            JobInstanceAlreadyCompleteException {
         
-        // Create output directory structure if it doesn't exist
-        File outputDirectory = new File(outputDir);
-        if (!outputDirectory.exists()) {
-            outputDirectory.mkdirs();
+        String originalFilename = file.getOriginalFilename();
+        String fileExtension = FilenameUtils.getExtension(originalFilename).toLowerCase();
+        
+        // Hash the body while it is written to the upload store; this is the only copy of the bytes
+        UploadStore.StoredUpload upload;
+        try (InputStream inputStream = file.getInputStream()) {
+            upload = uploadStore.store(inputStream, fileExtension);
         }
         
-        // Create type-specific output directories
-        File csvOutputDir = new File(outputDir, "csv");
-        File jsonOutputDir = new File(outputDir, "json");
-        File excelOutputDir = new File(outputDir, "excel");
+        return launchStored(upload, fileExtension, originalFilename, forceRerun, null);
+    }
+    
+    /**
+     * Process a file that has been fully received into the upload store
+     * Used by upload sessions once all their parts have arrived
+     * @param upload Stored upload
+     * @param originalFilename Original file name
+     * @param forceRerun Process the file even if identical content was already processed
+     * @return Map with jobId, sha256 and whether the previous job was reused
+     * @throws JobQueueFullException if too many jobs are already queued or running
+     */
+    public Map<String, Object> processStoredFile(UploadStore.StoredUpload upload, String originalFilename,
+                                                 boolean forceRerun) throws IOException,
+            JobParametersInvalidException, JobExecutionAlreadyRunningException, JobRestartException,
+            JobInstanceAlreadyCompleteException {
+        return processStoredFile(upload, originalFilename, forceRerun, null);
+    }
+    
+    /**
+     * Process a file that was handed off from a preview
+     * The token's reader plan is passed to the job, so it reads the columns the preview resolved
+     * @param token Upload token returned by the preview
+     * @param forceRerun Process the file even if identical content was already processed
+     * @return Map with jobId, sha256, whether the previous job was reused and the original file name
+     * @throws UploadTokenNotFoundException if the token is unknown, has expired or was already used
+     * @throws JobQueueFullException if too many jobs are already queued or running
+     */
+    public Map<String, Object> processUploadToken(String token, boolean forceRerun) throws IOException,
+            JobParametersInvalidException, JobExecutionAlreadyRunningException, JobRestartException,
+            JobInstanceAlreadyCompleteException {
         
-        if (!csvOutputDir.exists()) csvOutputDir.mkdirs();
-        if (!jsonOutputDir.exists()) jsonOutputDir.mkdirs();
-        if (!excelOutputDir.exists()) excelOutputDir.mkdirs();
+        UploadTokenService.UploadToken uploadToken = uploadTokenService.claim(token);
+        try {
+            Map<String, Object> result = processStoredFile(uploadToken.getUpload(), uploadToken.getOriginalFilename(),
+                    forceRerun, uploadToken.getPlan());
+            result.put("fileName", uploadToken.getOriginalFilename());
+            return result;
+        } catch (IOException | JobParametersInvalidException | JobExecutionAlreadyRunningException |
+                 JobRestartException | JobInstanceAlreadyCompleteException | RuntimeException e) {
+            // Nothing was launched, so the token stays usable for a retry
+            uploadTokenService.release(uploadToken);
+            throw e;
+        }
+    }
+    
+    private Map<String, Object> processStoredFile(UploadStore.StoredUpload upload, String originalFilename,
+                                                  boolean forceRerun, ReaderPlan plan) throws IOException,
+            JobParametersInvalidException, JobExecutionAlreadyRunningException, JobRestartException,
+            JobInstanceAlreadyCompleteException {
         
-        // Save the file
-        String originalFilename = file.getOriginalFilename();
         String fileExtension = FilenameUtils.getExtension(originalFilename).toLowerCase();
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String newFilename = timestamp + "_" + originalFilename;
         
-        // Save to upload directory first
-        Path uploadPath = Paths.get(uploadDir, newFilename);
-        Files.copy(file.getInputStream(), uploadPath);
-        log.info("File saved to upload directory: {}", uploadPath);
+        jobQueueService.admit();
+        try {
+            return launchStored(upload, fileExtension, originalFilename, forceRerun, plan);
+        } catch (IOException | JobParametersInvalidException | JobExecutionAlreadyRunningException |
+                 JobRestartException | JobInstanceAlreadyCompleteException | RuntimeException e) {
+            jobQueueService.cancelAdmission();
+            throw e;
+        }
+    }
+    
+    private Map<String, Object> launchStored(UploadStore.StoredUpload upload, String fileExtension,
+                                             String originalFilename, boolean forceRerun,
+                                             ReaderPlan plan) throws IOException,
+            JobParametersInvalidException, JobExecutionAlreadyRunningException, JobRestartException,
+            JobInstanceAlreadyCompleteException {
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("sha256", upload.getSha256());
+        
+        if (!forceRerun && upload.isAlreadyStored()) {
+            Map<String, Object> previous = uploadStore.findCompletedJob(upload.getSha256(), fileExtension);
+            if (previous != null) {
+                // Nothing is launched, so the reserved slot is released straight away
+                jobQueueService.cancelAdmission();
+                log.info("Upload {} matches content already processed by job {}, skipping re-processing",
+                        originalFilename, previous.get("jobId"));
+                result.put("jobId", String.valueOf(previous.get("jobId")));
+                result.put("duplicate", true);
+                return result;
+            }
+        }
+        
+        linkIntoOutputs(upload.getPath(), fileExtension, originalFilename);
+        
+        JobExecution jobExecution = launchJob(upload.getPath(), fileExtension, originalFilename, upload.getSha256(), plan, null);
+        String jobId = String.valueOf(jobExecution.getJobId());
+        if (!isRejected(jobExecution)) {
+            uploadStore.recordJob(upload.getSha256(), fileExtension, jobId, jobExecution.getId());
+        }
+        
+        result.put("jobId", jobId);
+        result.put("duplicate", false);
+        return result;
+    }
+    
+    /**
+     * Ingest a file from a raw request body while it is still being received
+     * The body is teed into a spool file and, for CSV and JSON, the job is launched before the
+     * upload finishes: its reader follows the spool as it grows, so the first rows are committed
+     * while the rest of the file is in flight. The spool stays on disk, so a failed job can be
+     * restarted from it. Excel workbooks cannot be parsed before they are complete, so they are
+     * spooled fully and launched afterwards
+     * @param body Request body
+     * @param originalFilename Original file name (its extension selects the reader)
+     * @param declaredSize Body length declared by the client, or -1 if unknown (chunked)
+     * @return Map with jobId, sha256 and the number of bytes received
+     * @throws JobQueueFullException if too many jobs are already queued or running
+     */
+    public Map<String, Object> ingestStream(InputStream body, String originalFilename, long declaredSize) throws IOException,
+            JobParametersInvalidException, JobExecutionAlreadyRunningException, JobRestartException,
+            JobInstanceAlreadyCompleteException {
+        
+        String fileExtension = FilenameUtils.getExtension(originalFilename).toLowerCase();
+        if (!Set.of("csv", "json", "xls", "xlsx").contains(fileExtension)) {
+            throw new IllegalArgumentException("Unsupported file type: " + fileExtension);
+        }
+        boolean streaming = "csv".equals(fileExtension) || "json".equals(fileExtension);
+        
+        jobQueueService.admit();
+        JobExecution jobExecution = null;
+        Path spoolPath = null;
+        boolean received = false;
+        try {
+            spoolPath = uploadStore.newSpoolFile(fileExtension);
+            IngestSpoolRegistry.Spool spool = null;
+            if (streaming) {
+                // Register before launching so the reader follows the file instead of stopping at its end
+                spool = spoolRegistry.register(spoolPath);
+                Files.createFile(spoolPath);
+                jobExecution = launchJob(spoolPath, fileExtension, originalFilename, null, null, declaredSize);
+            }
+            
+            UploadStore.StoredUpload upload = uploadStore.spool(body, spoolPath, spool);
+            received = true;
+            if (streaming) {
+                spoolRegistry.complete(spoolPath);
+            }
+            
+            if (!streaming) {
+                jobExecution = launchJob(spoolPath, fileExtension, originalFilename, upload.getSha256(), null, declaredSize);
+            }
+            
+            uploadStore.adopt(spoolPath, upload.getSha256(), fileExtension);
+            linkIntoOutputs(spoolPath, fileExtension, originalFilename);
+            
+            String jobId = String.valueOf(jobExecution.getJobId());
+            if (!isRejected(jobExecution)) {
+                uploadStore.recordJob(upload.getSha256(), fileExtension, jobId, jobExecution.getId());
+            }
+            
+            Map<String, Object> result = new HashMap<>();
+            result.put("jobId", jobId);
+            result.put("sha256", upload.getSha256());
+            result.put("bytesReceived", upload.getSize());
+            result.put("streamed", streaming);
+            return result;
+        } catch (IOException | JobParametersInvalidException | JobExecutionAlreadyRunningException |
+                 JobRestartException | JobInstanceAlreadyCompleteException | RuntimeException e) {
+            // A fully received spool is kept: a launched job may still be reading it
+            if (spoolPath != null && !received) {
+                abandonSpool(spoolPath, e);
+            }
+            // Once launched, the job fails on the broken spool and its listener frees the slot
+            if (jobExecution == null) {
+                jobQueueService.cancelAdmission();
+            }
+            throw e;
+        }
+    }
+    
+    private void abandonSpool(Path spoolPath, Exception cause) {
+        spoolRegistry.fail(spoolPath, cause instanceof IOException ? (IOException) cause : new IOException(cause));
+        try {
+            Files.deleteIfExists(spoolPath);
+        } catch (IOException e) {
+            log.warn("Could not delete incomplete spool file {}: {}", spoolPath, e.getMessage());
+        }
+    }
+    
+    /**
+     * Launch the ETL job for an input file and track its execution
+     */
+    private JobExecution launchJob(Path inputPath, String fileExtension, String originalFilename, String sha256,
+                                   ReaderPlan plan, Long declaredSize)
+            throws JobParametersInvalidException, JobExecutionAlreadyRunningException, JobRestartException,
+            JobInstanceAlreadyCompleteException {
+        
+        JobParametersBuilder builder = new JobParametersBuilder()
+                .addString("filePath", inputPath.toString())
+                .addString("fileType", fileExtension)
+                .addString("originalFileName", originalFilename, false)
+                .addLong("timestamp", System.currentTimeMillis());
+        if (sha256 != null) {
+            builder.addString("sha256", sha256, false);
+        }
+        if (plan != null) {
+            builder.addString("readerPlan", plan.toJson(), false);
+        }
+        if (declaredSize != null && declaredSize >= 0) {
+            builder.addLong(FairShareJobListener.DECLARED_SIZE_PARAMETER, declaredSize, false);
+        }
+        builder.addString(ExecutionModeDecider.MODE_PARAMETER, executionMode, false);
+        
+        JobExecution jobExecution = jobLauncher.run(etlJob, builder.toJobParameters());
+        String jobId = String.valueOf(jobExecution.getJobId());
+        
+        // A launch rejected by the executor fails without ever starting, so no listener frees its slot
+        if (isRejected(jobExecution)) {
+            jobQueueService.cancelAdmission();
+        }
+        
+        // Store job execution for status tracking
+        jobExecutions.put(jobId, jobExecution);
         
-        // Determine output directory based on file type
-        File typeOutputDir;
+        log.info("ETL job queued with ID: {}", jobId);
+        return jobExecution;
+    }
+    
+    /**
+     * Restart a failed or stopped job with its original parameters
+     * A partitioned job only re-runs the partitions that did not complete. Rows loaded by earlier
+     * executions of the job are moved onto the new execution before it runs (JobLineageListener),
+     * so its export, data queries and undo cover the whole input
+     * @param jobId Job ID
+     * @return Map with jobId and the new execution's status
+     * @throws IllegalArgumentException if the job does not exist
+     * @throws IllegalStateException if the job cannot be restarted
+     * @throws JobQueueFullException if too many jobs are already queued or running
+     */
+    public Map<String, Object> restartJob(String jobId) throws JobParametersInvalidException,
+            JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+        
+        JobExecution lastExecution = findJobExecution(jobId);
+        if (lastExecution == null) {
+            throw new IllegalArgumentException("Job not found: " + jobId);
+        }
+        if (lastExecution.getStatus() != BatchStatus.FAILED && lastExecution.getStatus() != BatchStatus.STOPPED) {
+            throw new IllegalStateException("Job " + jobId + " is " + lastExecution.getStatus() +
+                    ", only failed or stopped jobs can be restarted");
+        }
+        String filePath = lastExecution.getJobParameters().getString("filePath");
+        if (filePath == null || !Files.exists(Paths.get(filePath))) {
+            throw new IllegalStateException("The input file of job " + jobId + " no longer exists");
+        }
+        
+        jobQueueService.admit();
+        try {
+            JobExecution jobExecution = jobLauncher.run(etlJob, lastExecution.getJobParameters());
+            if (isRejected(jobExecution)) {
+                jobQueueService.cancelAdmission();
+            }
+            jobExecutions.put(jobId, jobExecution);
+            log.info("ETL job {} restarted as execution {}", jobId, jobExecution.getId());
+            
+            Map<String, Object> result = new HashMap<>();
+            result.put("jobId", jobId);
+            result.put("jobExecutionId", jobExecution.getId());
+            result.put("jobStatus", jobExecution.getStatus().toString());
+            return result;
+        } catch (JobParametersInvalidException | JobExecutionAlreadyRunningException | JobRestartException |
+                 JobInstanceAlreadyCompleteException | RuntimeException e) {
+            jobQueueService.cancelAdmission();
+            throw e;
+        }
+    }
+    
+    private boolean isRejected(JobExecution jobExecution) {
+        return jobExecution.getStatus() == BatchStatus.FAILED && jobExecution.getStartTime() == null;
+    }
+    
+    /**
+     * Expose an input file in the inputs directory of its type's output directory without copying it
+     * The view is a hard link to the stored object, so it must never share a path with an export:
+     * an export written there would overwrite the stored upload
+     */
+    private void linkIntoOutputs(Path inputPath, String fileExtension, String originalFilename) throws IOException {
+        Path typeOutputDir;
         switch (fileExtension) {
             case "csv":
-                typeOutputDir = csvOutputDir;
+                typeOutputDir = Paths.get(outputDir, "csv");
                 break;
             case "json":
-                typeOutputDir = jsonOutputDir;
+                typeOutputDir = Paths.get(outputDir, "json");
                 break;
             case "xls":
             case "xlsx":
-                typeOutputDir = excelOutputDir;
+                typeOutputDir = Paths.get(outputDir, "excel");
                 break;
             default:
                 // Default to main output directory
-                typeOutputDir = outputDirectory;
+                typeOutputDir = Paths.get(outputDir);
                 break;
         }
         
-        // Copy to type-specific output directory
-        Path outputPath = Paths.get(typeOutputDir.getPath(), newFilename);
-        Files.copy(uploadPath, outputPath, StandardCopyOption.REPLACE_EXISTING);
-        log.info("File copied to type-specific output directory: {}", outputPath);
-        
-        // Start the ETL job
-        JobParameters jobParameters = new JobParametersBuilder()
-                .addString("filePath", uploadPath.toString())
-                .addString("fileType", fileExtension)
-                .addLong("timestamp", System.currentTimeMillis())
-                .toJobParameters();
-        
-        JobExecution jobExecution = jobLauncher.run(etlJob, jobParameters);
-        String jobId = String.valueOf(jobExecution.getJobId());
-        
-        // Store job execution for status tracking
-        jobExecutions.put(jobId, jobExecution);
-        
-        // Store original file name and type for later use in exporting
-        jobOriginalFileNames.put(jobId, originalFilename);
-        jobFileTypes.put(jobId, fileExtension);
-        
-        log.info("ETL job started with ID: {}", jobId);
-        return jobId;
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        Path outputPath = typeOutputDir.resolve("inputs").resolve(timestamp + "_" + originalFilename);
+        uploadStore.linkView(inputPath, outputPath);
+        log.info("File linked into type-specific output directory: {}", outputPath);
     }
 
     /**
@@ -165,7 +435,7 @@ public class EtlService {
     public Map<String, Object> getJobStatus(String jobId) {
         Map<String, Object> status = new HashMap<>();
         
-        JobExecution jobExecution = jobExecutions.get(jobId);
+        JobExecution jobExecution = findJobExecution(jobId);
         if (jobExecution == null) {
             status.put("status", "NOT_FOUND");
             status.put("message", "Job not found");
@@ -176,6 +446,7 @@ public class EtlService {
         String exitCode = jobExecution.getExitStatus().getExitCode();
         
         status.put("jobId", jobId);
+        status.put("jobExecutionId", jobExecution.getId());
         status.put("status", batchStatus.toString());
         status.put("exitCode", exitCode);
         status.put("startTime", jobExecution.getStartTime());
@@ -186,9 +457,12 @@ public class EtlService {
         if (jobParameters != null) {
             status.put("jobParameters", jobParameters.getParameters());
             
-            // Extract file information for convenience
+            // Extract file information for convenience; stored uploads are named by hash
+            String originalFileName = jobParameters.getString("originalFileName");
             String filePath = jobParameters.getString("filePath");
-            if (filePath != null) {
+            if (originalFileName != null) {
+                status.put("fileName", originalFileName);
+            } else if (filePath != null) {
                 // Extract just the filename from the path
                 String fileName = filePath.contains("\\") ? 
                     filePath.substring(filePath.lastIndexOf("\\") + 1) : filePath;
@@ -219,306 +493,186 @@ public class EtlService {
         
         status.put("steps", stepDetails);
         
-        // If job is completed, export processed data
-        if (exportProcessedData && batchStatus == BatchStatus.COMPLETED) {
-            exportProcessedDataForJob(jobId);
+        // Exports are written once by JobExportListener; polls only read the recorded result
+        if (batchStatus == BatchStatus.COMPLETED) {
+            Map<String, Object> export = getJobExport(jobExecution.getId());
+            if (export != null) {
+                status.put("export", export);
+            }
         }
         
         return status;
     }
 
     /**
-     * Get all processed data from the database
-     * @return List of processed data
+     * Find the latest execution of a job, falling back to the job repository for jobs
+     * launched before a restart (or reused by a duplicate upload)
+     * @param jobId Job ID
+     * @return Job execution, or null if the job does not exist
      */
-    public List<ProcessedData> getAllProcessedData() {
-        String sql = "SELECT * FROM processed_data";
+    private JobExecution findJobExecution(String jobId) {
+        JobExecution jobExecution = jobExecutions.get(jobId);
+        if (jobExecution != null) {
+            return jobExecution;
+        }
         
-        return jdbcTemplate.query(sql, getProcessedDataRowMapper());
+        try {
+            JobInstance jobInstance = jobExplorer.getJobInstance(Long.valueOf(jobId));
+            return jobInstance != null ? jobExplorer.getLastJobExecution(jobInstance) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     /**
-     * Get statistics about processed data
-     * @return Map with statistics
+     * Get the launch queue depth and wait/run time statistics
+     * @return Map with queue statistics
      */
-    public Map<String, Object> getStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        // Count total records
-        Integer totalRecords = jdbcTemplate.queryForObject(
-            "SELECT COUNT(*) FROM processed_data", Integer.class);
-        stats.put("totalRecords", totalRecords != null ? totalRecords : 0);
-        
-        // Count valid records
-        Integer validRecords = jdbcTemplate.queryForObject(
-            "SELECT COUNT(*) FROM processed_data WHERE processing_status = 'VALID'", Integer.class);
-        stats.put("validRecords", validRecords != null ? validRecords : 0);
-        
-        // Count invalid records
-        Integer invalidRecords = jdbcTemplate.queryForObject(
-            "SELECT COUNT(*) FROM processed_data WHERE processing_status = 'INVALID'", Integer.class);
-        stats.put("invalidRecords", invalidRecords != null ? invalidRecords : 0);
-        
-        // Average age
-        Double avgAge = jdbcTemplate.queryForObject(
-            "SELECT AVG(age) FROM processed_data", Double.class);
-        stats.put("averageAge", avgAge != null ? avgAge : 0);
-        
-        // Average salary
-        Double avgSalary = jdbcTemplate.queryForObject(
-            "SELECT AVG(salary) FROM processed_data", Double.class);
-        stats.put("averageSalary", avgSalary != null ? avgSalary : 0);
-        
-        // Average net salary
-        Double avgNetSalary = jdbcTemplate.queryForObject(
-            "SELECT AVG(net_salary) FROM processed_data", Double.class);
-        stats.put("averageNetSalary", avgNetSalary != null ? avgNetSalary : 0);
-        
-        // Count by country
-        List<Map<String, Object>> countryStats = jdbcTemplate.queryForList(
-            "SELECT country, COUNT(*) as count FROM processed_data GROUP BY country ORDER BY count DESC");
-        stats.put("countryDistribution", countryStats);
-        
-        return stats;
+    public Map<String, Object> getQueueStatus() {
+        Map<String, Object> status = jobQueueService.getQueueStatus();
+        status.put("workers", taskExecutor.getStatus());
+        return status;
     }
 
     /**
-     * Preview raw data from an uploaded file
-     * @param file File to preview
-     * @return List of raw data records
+     * Get all processed data from the database
+     * @return List of processed data
      */
-    public List<Map<String, Object>> previewFile(MultipartFile file) throws IOException {
-        List<Map<String, Object>> preview = new ArrayList<>();
-        String filename = file.getOriginalFilename();
-        
-        if (filename == null) {
-            return preview;
-        }
-        
-        String extension = FilenameUtils.getExtension(filename).toLowerCase();
-        
-        switch (extension) {
-            case "csv":
-                preview = previewCsvFile(file);
-                break;
-            case "xlsx":
-            case "xls":
-                preview = previewExcelFile(file);
-                break;
-            case "json":
-                preview = previewJsonFile(file);
-                break;
-            default:
-                throw new IllegalArgumentException("Unsupported file type: " + extension);
-        }
+    public List<ProcessedData> getAllProcessedData() {
+        String sql = "SELECT " + ProcessedDataRowMapper.COLUMNS + " FROM processed_data";
         
-        // Limit preview to 50 records
-        return preview.size() > 50 ? preview.subList(0, 50) : preview;
+        return jdbcTemplate.query(sql, ProcessedDataRowMapper.INSTANCE);
     }
 
     /**
-     * Preview CSV file
-     * @param file CSV file
-     * @return List of records
+     * Get the processed data loaded by a single job execution
+     * Uses the job lineage index, so the cost is proportional to the job's size
+     * @param jobExecutionId Job execution ID
+     * @return List of processed data
      */
-    private List<Map<String, Object>> previewCsvFile(MultipartFile file) throws IOException {
-        List<Map<String, Object>> records = new ArrayList<>();
+    public List<ProcessedData> getProcessedDataForJob(Long jobExecutionId) {
+        String sql = "SELECT " + ProcessedDataRowMapper.COLUMNS + " FROM processed_data WHERE job_execution_id = ?";
         
-        try (Reader reader = new InputStreamReader(file.getInputStream());
-             CSVParser csvParser = new CSVParser(reader, CSVFormat.Builder.create().setHeader().build())) {
-            
-            for (CSVRecord record : csvParser) {
-                Map<String, Object> map = new HashMap<>();
-                csvParser.getHeaderNames().forEach(header -> map.put(header, record.get(header)));
-                records.add(map);
-            }
-        }
-        
-        return records;
+        return jdbcTemplate.query(sql, ProcessedDataRowMapper.INSTANCE, jobExecutionId);
     }
-
+    
     /**
-     * Preview Excel file
-     * @param file Excel file
-     * @return List of records
+     * Delete the processed data loaded by a single job execution ("undo this load")
+     * The upload is forgotten as well, so the same file can be loaded again
+     * @param jobExecutionId Job execution ID
+     * @return Number of rows deleted
      */
-    private List<Map<String, Object>> previewExcelFile(MultipartFile file) throws IOException {
-        List<Map<String, Object>> records = new ArrayList<>();
-        
-        try (Workbook workbook = WorkbookFactory.create(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            
-            // Get header row
-            Row headerRow = sheet.getRow(0);
-            List<String> headers = new ArrayList<>();
-            for (Cell cell : headerRow) {
-                headers.add(getCellValueAsString(cell));
-            }
-            
-            // Process data rows
-            Iterator<Row> rowIterator = sheet.rowIterator();
-            // Skip header
-            if (rowIterator.hasNext()) {
-                rowIterator.next();
-            }
-            
-            while (rowIterator.hasNext()) {
-                Row row = rowIterator.next();
-                Map<String, Object> record = new HashMap<>();
-                
-                for (int i = 0; i < headers.size(); i++) {
-                    Cell cell = row.getCell(i, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-                    record.put(headers.get(i), cell != null ? getCellValueAsString(cell) : "");
-                }
-                
-                records.add(record);
-            }
-        }
-        
-        return records;
+    public int deleteProcessedDataForJob(Long jobExecutionId) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer deleted = transactionTemplate.execute(status -> {
+            processedStatsService.lockForWrite(DELETE_LOCK_TIMEOUT_MS);
+            ProcessedStatsService.Delta statsDelta = processedStatsService.deltaForJobDelete(jobExecutionId);
+            int rows = jdbcTemplate.update("DELETE FROM processed_data WHERE job_execution_id = ?", jobExecutionId);
+            processedStatsService.apply(statsDelta);
+            // The content is no longer loaded, so uploading it again must not be treated as a duplicate
+            jdbcTemplate.update("DELETE FROM upload_index WHERE job_execution_id = ?", jobExecutionId);
+            return rows;
+        });
+        log.info("Deleted {} processed rows loaded by job execution {}", deleted, jobExecutionId);
+        return deleted != null ? deleted : 0;
     }
 
     /**
-     * Preview JSON file
-     * @param file JSON file
-     * @return List of records
+     * Get statistics about processed data
+     * Served from the incrementally maintained summary table
+     * @return Map with statistics
      */
-    private List<Map<String, Object>> previewJsonFile(MultipartFile file) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        return mapper.readValue(file.getInputStream(), 
-            mapper.getTypeFactory().constructCollectionType(List.class, Map.class));
+    public Map<String, Object> getStatistics() {
+        return processedStatsService.getStatistics();
     }
 
     /**
-     * Get cell value as string
-     * @param cell Excel cell
-     * @return String value
+     * Recompute the statistics summary from processed_data
+     * @return Map with the rebuilt statistics
      */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return "";
-        }
-        
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getLocalDateTimeCellValue().toLocalDate().toString();
-                }
-                return String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return "";
-        }
+    public Map<String, Object> rebuildStatistics() {
+        return processedStatsService.rebuild();
     }
 
     /**
-     * Export processed data for a completed job
-     * @param jobId Job ID
+     * Export processed data for a completed job and record the exported file
+     * Called once per job execution by JobExportListener; a job that already has a
+     * recorded export is skipped, so a restart never produces a second file
+     * @param jobExecution Completed job execution
      */
-    @Async
-    public void exportProcessedDataForJob(String jobId) {
+    public void exportProcessedDataForJob(JobExecution jobExecution) {
+        Long jobExecutionId = jobExecution.getId();
         try {
-            // Get original file name and type
-            String originalFileName = jobOriginalFileNames.get(jobId);
-            String fileType = jobFileTypes.get(jobId);
+            if (getJobExport(jobExecutionId) != null) {
+                log.info("Processed data for job execution {} already exported, skipping", jobExecutionId);
+                return;
+            }
+            
+            // Get original file name and type from the job parameters
+            JobParameters jobParameters = jobExecution.getJobParameters();
+            String originalFileName = jobParameters.getString("originalFileName");
+            String fileType = jobParameters.getString("fileType");
             
             if (originalFileName == null || fileType == null) {
-                log.warn("Cannot export processed data for job {}: missing file information", jobId);
+                log.warn("Cannot export processed data for job execution {}: missing file information", jobExecutionId);
                 return;
             }
             
-            // Get processed data from database
-            List<ProcessedData> processedData = getAllProcessedData();
+            // Count via the job lineage index; the export itself streams rows from a cursor
+            Integer rowCount = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM processed_data WHERE job_execution_id = ?", Integer.class, jobExecutionId);
             
-            if (processedData.isEmpty()) {
-                log.warn("No processed data found for job {}", jobId);
+            if (rowCount == null || rowCount == 0) {
+                log.warn("No processed data found for job execution {}", jobExecutionId);
                 return;
             }
             
             // Export processed data to file
-            String exportedFilePath = fileExportService.exportProcessedData(processedData, originalFileName, fileType);
+            String exportedFilePath = fileExportService.exportProcessedDataForJob(jobExecutionId, originalFileName, fileType);
             
-            if (exportedFilePath != null) {
-                log.info("Exported processed data for job {} to {}", jobId, exportedFilePath);
-            } else {
-                log.error("Failed to export processed data for job {}", jobId);
+            if (exportedFilePath == null) {
+                log.error("Failed to export processed data for job execution {}", jobExecutionId);
+                return;
             }
+            
+            String checksum = fileExportService.computeChecksum(exportedFilePath);
+            long fileSize = Files.size(Paths.get(exportedFilePath));
+            String exportedAt = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            
+            jdbcTemplate.update(
+                "INSERT OR IGNORE INTO job_exports (job_execution_id, file_path, checksum, file_size, row_count, exported_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?)",
+                jobExecutionId, exportedFilePath, checksum, fileSize, rowCount, exportedAt
+            );
+            
+            log.info("Exported processed data for job execution {} to {} (sha256 {})", 
+                    jobExecutionId, exportedFilePath, checksum);
         } catch (Exception e) {
-            log.error("Error exporting processed data for job {}", jobId, e);
+            log.error("Error exporting processed data for job execution {}", jobExecutionId, e);
         }
     }
     
     /**
-     * Row mapper for ProcessedData
-     * @return RowMapper for ProcessedData
+     * Get the recorded export for a job execution
+     * @param jobExecutionId Job execution ID
+     * @return Map with file path, checksum, size and row count, or null if nothing was exported
      */
-    private RowMapper<ProcessedData> getProcessedDataRowMapper() {
-        return (rs, rowNum) -> {
-            ProcessedData data = new ProcessedData();
-            
-            data.setId(rs.getString("id"));
-            data.setFirstName(rs.getString("first_name"));
-            data.setLastName(rs.getString("last_name"));
-            data.setEmail(rs.getString("email"));
-            
-            String birthDateStr = rs.getString("birth_date");
-            data.setBirthDate(birthDateStr != null ? LocalDate.parse(birthDateStr) : null);
-            
-            data.setAddress(rs.getString("address"));
-            data.setCity(rs.getString("city"));
-            data.setCountry(rs.getString("country"));
-            data.setPhoneNumber(rs.getString("phone_number"));
-            data.setSalary(rs.getDouble("salary"));
-            data.setDependents(rs.getInt("dependents"));
-            data.setAge(rs.getInt("age"));
-            data.setTaxRate(rs.getDouble("tax_rate"));
-            data.setNetSalary(rs.getDouble("net_salary"));
-            data.setFullName(rs.getString("full_name"));
-            data.setDependentAllowance(rs.getDouble("dependent_allowance"));
-            data.setTotalDeductions(rs.getDouble("total_deductions"));
-            
-            // Get new fields with null handling
-            try {
-                data.setBonus(rs.getDouble("bonus"));
-                if (rs.wasNull()) data.setBonus(null);
-            } catch (Exception e) {
-                data.setBonus(null);
-            }
-            
-            try {
-                data.setRetirementContribution(rs.getDouble("retirement_contribution"));
-                if (rs.wasNull()) data.setRetirementContribution(null);
-            } catch (Exception e) {
-                data.setRetirementContribution(null);
-            }
-            
-            try {
-                data.setTotalCompensation(rs.getDouble("total_compensation"));
-                if (rs.wasNull()) data.setTotalCompensation(null);
-            } catch (Exception e) {
-                data.setTotalCompensation(null);
-            }
-            
-            try {
-                data.setTaxAmount(rs.getDouble("tax_amount"));
-                if (rs.wasNull()) data.setTaxAmount(null);
-            } catch (Exception e) {
-                data.setTaxAmount(null);
-            }
-            
-            String processedAtStr = rs.getString("processed_at");
-            data.setProcessedAt(processedAtStr != null ? 
-                LocalDateTime.parse(processedAtStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
-            
-            data.setProcessingStatus(rs.getString("processing_status"));
-            data.setValidationMessages(rs.getString("validation_messages"));
-            
-            return data;
-        };
+    public Map<String, Object> getJobExport(Long jobExecutionId) {
+        if (jobExecutionId == null) {
+            return null;
+        }
+        
+        // A primary key lookup, read each time so exports purged by retention are never returned
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT file_path AS filePath, checksum, file_size AS fileSize, row_count AS rowCount, " +
+            "exported_at AS exportedAt FROM job_exports WHERE job_execution_id = ?",
+            jobExecutionId
+        );
+        
+        if (rows.isEmpty()) {
+            return null;
+        }
+        
+        return rows.get(0);
     }
 }
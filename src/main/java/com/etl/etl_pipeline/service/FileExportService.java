@@ -1,24 +1,45 @@
 package com.etl.etl_pipeline.service;
 
 import com.etl.etl_pipeline.model.ProcessedData;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.FileWriter;
+import jakarta.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 
 /**
@@ -28,221 +49,438 @@ import java.util.List;
 @Service
 public class FileExportService {
 
+    // Column headers shared by the CSV and Excel exports
+    private static final String[] EXPORT_HEADERS = {
+        "ID", "First Name", "Last Name", "Email", "Birth Date", "Address", "City", "Country", 
+        "Phone Number", "Salary", "Dependents", "Age", "Tax Rate", "Net Salary", "Full Name", 
+        "Dependent Allowance", "Total Deductions", "Bonus", "Retirement Contribution", 
+        "Total Compensation", "Tax Amount", "Processing Status"
+    };
+
+    private static final String JOB_ROWS_SQL =
+        "SELECT " + ProcessedDataRowMapper.COLUMNS + " FROM processed_data WHERE job_execution_id = ?";
+
     @Value("${etl.output-dir:outputs}")
     private String outputDir;
 
+    @Value("${etl.export.fetch-size:5000}")
+    private int exportFetchSize;
+
+    @Value("${etl.export.buffer-size:65536}")
+    private int exportBufferSize;
+
+    // Rows kept in memory per sheet before SXSSF flushes them to a temp file
+    @Value("${etl.export.excel.row-window:500}")
+    private int excelRowWindow;
+
+    // Rows sampled to estimate Excel column widths
+    @Value("${etl.export.excel.width-sample-rows:200}")
+    private int excelWidthSampleRows;
+
+    private final JdbcTemplate cursorJdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    private ProcessedDataQueryService processedDataQueryService;
+
+    @Autowired
+    public FileExportService(DataSource dataSource) {
+        // Dedicated template so the large fetch size only applies to export cursors
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @PostConstruct
+    public void init() {
+        cursorJdbcTemplate.setFetchSize(exportFetchSize);
+    }
+
+    /**
+     * Callback receiving one exported row at a time
+     */
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ProcessedData data) throws IOException;
+    }
+
+    private interface ExportWriter {
+        long write(OutputStream outputStream) throws IOException;
+    }
+
     /**
-     * Export processed data to a file
-     * @param processedData List of processed data
+     * Export the processed data loaded by a job execution to a file
+     * Rows are streamed from a forward-only cursor straight into the output file,
+     * so heap usage does not grow with the number of rows
+     * @param jobExecutionId Job execution ID
      * @param originalFileName Original file name
      * @param fileType File type (csv, json, xlsx)
      * @return Path to the exported file
      */
-    public String exportProcessedData(List<ProcessedData> processedData, String originalFileName, String fileType) {
+    public String exportProcessedDataForJob(Long jobExecutionId, String originalFileName, String fileType) {
         try {
             // Create timestamp for filename
             String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
             String baseFileName = timestamp + "_" + originalFileName;
             
             // Determine output directory based on file type
-            String typeDir;
             switch (fileType.toLowerCase()) {
                 case "csv":
-                    typeDir = "csv";
-                    return exportToCsv(processedData, baseFileName, typeDir);
+                    return exportToCsv(jobExecutionId, baseFileName, "csv");
                 case "json":
-                    typeDir = "json";
-                    return exportToJson(processedData, baseFileName, typeDir);
+                    return exportToJson(jobExecutionId, baseFileName, "json");
                 case "xls":
                 case "xlsx":
-                    typeDir = "excel";
-                    return exportToExcel(processedData, baseFileName, typeDir);
+                    return exportToExcel(jobExecutionId, baseFileName, "excel");
                 default:
                     log.warn("Unsupported file type for export: {}", fileType);
                     return null;
             }
         } catch (Exception e) {
-            log.error("Error exporting processed data", e);
+            log.error("Error exporting processed data for job execution {}", jobExecutionId, e);
             return null;
         }
     }
 
+    /**
+     * Write processed data as NDJSON (one JSON object per line) straight from a forward-only cursor
+     * Nothing is buffered beyond the cursor's fetch window, so heap usage does not depend on the
+     * number of rows and the first bytes are written as soon as the first row is read.
+     * The output stream is flushed but not closed
+     * @param filter Filters to apply (nullable)
+     * @param outputStream Output stream
+     * @return Number of rows written
+     */
+    public long writeNdjson(ProcessedDataQueryService.DataFilter filter, OutputStream outputStream) throws IOException {
+        List<Object> params = new ArrayList<>();
+        String where = processedDataQueryService.buildWhereClause(filter, params);
+        ObjectWriter rowWriter = objectMapper.writerFor(ProcessedData.class);
+        
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            
+            long rowCount = streamRows(
+                "SELECT " + ProcessedDataRowMapper.COLUMNS + " FROM processed_data WHERE " + where,
+                params.toArray(),
+                data -> rowWriter.writeValue(generator, data)
+            );
+            if (rowCount > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+            
+            log.info("Streamed {} rows of processed data as NDJSON", rowCount);
+            return rowCount;
+        }
+    }
+
+    /**
+     * Stream the rows of a job execution through a row writer
+     * @param jobExecutionId Job execution ID
+     * @param rowWriter Callback receiving each row
+     * @return Number of rows streamed
+     */
+    private long streamRowsForJob(Long jobExecutionId, RowWriter rowWriter) throws IOException {
+        return streamRows(JOB_ROWS_SQL, new Object[] { jobExecutionId }, rowWriter);
+    }
+
+    /**
+     * Stream the rows of a query through a row writer
+     * @param sql Query selecting {@link ProcessedDataRowMapper#COLUMNS}
+     * @param params Query parameters
+     * @param rowWriter Callback receiving each row
+     * @return Number of rows streamed
+     */
+    private long streamRows(String sql, Object[] params, RowWriter rowWriter) throws IOException {
+        long[] rowCount = {0};
+        RowCallbackHandler handler = rs -> {
+            try {
+                rowWriter.write(ProcessedDataRowMapper.INSTANCE.mapRow(rs, (int) rowCount[0]));
+                rowCount[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        
+        try {
+            cursorJdbcTemplate.query(sql, handler, params);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rowCount[0];
+    }
+
     /**
      * Export processed data to CSV
-     * @param processedData List of processed data
+     * @param jobExecutionId Job execution ID
      * @param fileName File name
      * @param typeDir Type directory
      * @return Path to the exported file
      */
-    private String exportToCsv(List<ProcessedData> processedData, String fileName, String typeDir) throws IOException {
+    private String exportToCsv(Long jobExecutionId, String fileName, String typeDir) throws IOException {
         Path outputPath = getOutputPath(fileName, typeDir);
         
-        // Define CSV headers
-        String[] headers = {
-            "ID", "First Name", "Last Name", "Email", "Birth Date", "Address", "City", "Country", 
-            "Phone Number", "Salary", "Dependents", "Age", "Tax Rate", "Net Salary", "Full Name", 
-            "Dependent Allowance", "Total Deductions", "Bonus", "Retirement Contribution", 
-            "Total Compensation", "Tax Amount", "Processing Status"
-        };
-        
-        try (FileWriter fileWriter = new FileWriter(outputPath.toFile());
-             CSVPrinter csvPrinter = new CSVPrinter(fileWriter, CSVFormat.DEFAULT.withHeader(headers))) {
+        long rowCount = writeReplacing(outputPath, outputStream -> {
+            Writer fileWriter = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            CSVPrinter csvPrinter = new CSVPrinter(fileWriter, CSVFormat.DEFAULT.withHeader(EXPORT_HEADERS));
             
-            for (ProcessedData data : processedData) {
-                csvPrinter.printRecord(
-                    data.getId(),
-                    data.getFirstName(),
-                    data.getLastName(),
-                    data.getEmail(),
-                    data.getBirthDate(),
-                    data.getAddress(),
-                    data.getCity(),
-                    data.getCountry(),
-                    data.getPhoneNumber(),
-                    data.getSalary(),
-                    data.getDependents(),
-                    data.getAge(),
-                    data.getTaxRate(),
-                    data.getNetSalary(),
-                    data.getFullName(),
-                    data.getDependentAllowance(),
-                    data.getTotalDeductions(),
-                    data.getBonus(),
-                    data.getRetirementContribution(),
-                    data.getTotalCompensation(),
-                    data.getTaxAmount(),
-                    data.getProcessingStatus()
-                );
-            }
+            long rows = streamRowsForJob(jobExecutionId, data -> csvPrinter.printRecord(
+                data.getId(),
+                data.getFirstName(),
+                data.getLastName(),
+                data.getEmail(),
+                data.getBirthDate(),
+                data.getAddress(),
+                data.getCity(),
+                data.getCountry(),
+                data.getPhoneNumber(),
+                data.getSalary(),
+                data.getDependents(),
+                data.getAge(),
+                data.getTaxRate(),
+                data.getNetSalary(),
+                data.getFullName(),
+                data.getDependentAllowance(),
+                data.getTotalDeductions(),
+                data.getBonus(),
+                data.getRetirementContribution(),
+                data.getTotalCompensation(),
+                data.getTaxAmount(),
+                data.getProcessingStatus()
+            ));
             
             csvPrinter.flush();
-            log.info("Exported processed data to CSV: {}", outputPath);
-            return outputPath.toString();
-        }
+            return rows;
+        });
+        
+        log.info("Exported {} rows of processed data to CSV: {}", rowCount, outputPath);
+        return outputPath.toString();
     }
 
     /**
      * Export processed data to JSON
-     * @param processedData List of processed data
+     * @param jobExecutionId Job execution ID
      * @param fileName File name
      * @param typeDir Type directory
      * @return Path to the exported file
      */
-    private String exportToJson(List<ProcessedData> processedData, String fileName, String typeDir) throws IOException {
+    private String exportToJson(Long jobExecutionId, String fileName, String typeDir) throws IOException {
         Path outputPath = getOutputPath(fileName, typeDir);
+        ObjectWriter rowWriter = objectMapper.writerFor(ProcessedData.class);
         
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
+        long rowCount = writeReplacing(outputPath, outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartArray();
+            long rows = streamRowsForJob(jobExecutionId, data -> rowWriter.writeValue(generator, data));
+            generator.writeEndArray();
+            generator.flush();
+            return rows;
+        });
         
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(outputPath.toFile(), processedData);
-        
-        log.info("Exported processed data to JSON: {}", outputPath);
+        log.info("Exported {} rows of processed data to JSON: {}", rowCount, outputPath);
         return outputPath.toString();
     }
 
     /**
      * Export processed data to Excel
-     * @param processedData List of processed data
+     * Uses a streaming SXSSF workbook that keeps only a bounded window of rows in memory
+     * and starts a new sheet whenever the current one reaches Excel's row limit.
+     * Column widths are estimated from the first rows instead of auto-sizing every cell
+     * @param jobExecutionId Job execution ID
      * @param fileName File name
      * @param typeDir Type directory
      * @return Path to the exported file
      */
-    private String exportToExcel(List<ProcessedData> processedData, String fileName, String typeDir) throws IOException {
+    private String exportToExcel(Long jobExecutionId, String fileName, String typeDir) throws IOException {
         Path outputPath = getOutputPath(fileName, typeDir);
         
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Processed Data");
-            
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {
-                "ID", "First Name", "Last Name", "Email", "Birth Date", "Address", "City", "Country", 
-                "Phone Number", "Salary", "Dependents", "Age", "Tax Rate", "Net Salary", "Full Name", 
-                "Dependent Allowance", "Total Deductions", "Bonus", "Retirement Contribution", 
-                "Total Compensation", "Tax Amount", "Processing Status"
-            };
-            
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
+        SXSSFWorkbook workbook = new SXSSFWorkbook(excelRowWindow);
+        workbook.setCompressTempFiles(true);
+        try {
+            // Header row counts towards the sheet's row limit
+            int maxDataRowsPerSheet = SpreadsheetVersion.EXCEL2007.getMaxRows() - 1;
+            int[] maxCharsPerColumn = new int[EXPORT_HEADERS.length];
+            for (int i = 0; i < EXPORT_HEADERS.length; i++) {
+                maxCharsPerColumn[i] = EXPORT_HEADERS[i].length();
             }
             
-            // Create data rows
-            int rowNum = 1;
-            for (ProcessedData data : processedData) {
-                Row row = sheet.createRow(rowNum++);
-                
-                row.createCell(0).setCellValue(data.getId() != null ? data.getId() : "");
-                row.createCell(1).setCellValue(data.getFirstName() != null ? data.getFirstName() : "");
-                row.createCell(2).setCellValue(data.getLastName() != null ? data.getLastName() : "");
-                row.createCell(3).setCellValue(data.getEmail() != null ? data.getEmail() : "");
-                row.createCell(4).setCellValue(data.getBirthDate() != null ? data.getBirthDate().toString() : "");
-                row.createCell(5).setCellValue(data.getAddress() != null ? data.getAddress() : "");
-                row.createCell(6).setCellValue(data.getCity() != null ? data.getCity() : "");
-                row.createCell(7).setCellValue(data.getCountry() != null ? data.getCountry() : "");
-                row.createCell(8).setCellValue(data.getPhoneNumber() != null ? data.getPhoneNumber() : "");
-                
-                if (data.getSalary() != null) {
-                    row.createCell(9).setCellValue(data.getSalary());
-                }
-                
-                if (data.getDependents() != null) {
-                    row.createCell(10).setCellValue(data.getDependents());
-                }
-                
-                if (data.getAge() != null) {
-                    row.createCell(11).setCellValue(data.getAge());
-                }
-                
-                if (data.getTaxRate() != null) {
-                    row.createCell(12).setCellValue(data.getTaxRate());
-                }
-                
-                if (data.getNetSalary() != null) {
-                    row.createCell(13).setCellValue(data.getNetSalary());
-                }
-                
-                row.createCell(14).setCellValue(data.getFullName() != null ? data.getFullName() : "");
-                
-                if (data.getDependentAllowance() != null) {
-                    row.createCell(15).setCellValue(data.getDependentAllowance());
-                }
-                
-                if (data.getTotalDeductions() != null) {
-                    row.createCell(16).setCellValue(data.getTotalDeductions());
-                }
-                
-                if (data.getBonus() != null) {
-                    row.createCell(17).setCellValue(data.getBonus());
-                }
-                
-                if (data.getRetirementContribution() != null) {
-                    row.createCell(18).setCellValue(data.getRetirementContribution());
+            List<Sheet> sheets = new ArrayList<>();
+            Sheet[] currentSheet = {createExcelSheet(workbook, sheets)};
+            int[] rowNum = {1};
+            
+            long rowCount = streamRowsForJob(jobExecutionId, data -> {
+                if (rowNum[0] > maxDataRowsPerSheet) {
+                    currentSheet[0] = createExcelSheet(workbook, sheets);
+                    rowNum[0] = 1;
                 }
                 
-                if (data.getTotalCompensation() != null) {
-                    row.createCell(19).setCellValue(data.getTotalCompensation());
-                }
+                Row row = currentSheet[0].createRow(rowNum[0]++);
+                writeExcelRow(row, data);
                 
-                if (data.getTaxAmount() != null) {
-                    row.createCell(20).setCellValue(data.getTaxAmount());
+                // Estimate column widths from the first rows only
+                if (sheets.size() == 1 && rowNum[0] <= excelWidthSampleRows + 1) {
+                    for (Cell cell : row) {
+                        int length = cell.getCellType() == CellType.NUMERIC
+                            ? String.valueOf(cell.getNumericCellValue()).length()
+                            : cell.getStringCellValue().length();
+                        int column = cell.getColumnIndex();
+                        maxCharsPerColumn[column] = Math.max(maxCharsPerColumn[column], length);
+                    }
                 }
-                
-                row.createCell(21).setCellValue(data.getProcessingStatus() != null ? data.getProcessingStatus() : "");
-            }
+            });
             
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+            for (Sheet sheet : sheets) {
+                for (int i = 0; i < maxCharsPerColumn.length; i++) {
+                    // Width is in 1/256ths of a character; pad by two characters and cap at Excel's maximum
+                    sheet.setColumnWidth(i, Math.min((maxCharsPerColumn[i] + 2) * 256, 255 * 256));
+                }
             }
             
             // Write to file
-            try (java.io.FileOutputStream outputStream = new java.io.FileOutputStream(outputPath.toFile())) {
+            writeReplacing(outputPath, outputStream -> {
                 workbook.write(outputStream);
-            }
+                return rowCount;
+            });
             
-            log.info("Exported processed data to Excel: {}", outputPath);
+            log.info("Exported {} rows of processed data to Excel ({} sheets): {}", rowCount, sheets.size(), outputPath);
             return outputPath.toString();
+        } finally {
+            // Remove the temporary files backing the flushed rows
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * Create a new export sheet with a header row
+     * @param workbook Workbook to add the sheet to
+     * @param sheets Sheets created so far; the new sheet is appended
+     * @return The new sheet
+     */
+    private Sheet createExcelSheet(Workbook workbook, List<Sheet> sheets) {
+        String sheetName = sheets.isEmpty() ? "Processed Data" : "Processed Data (" + (sheets.size() + 1) + ")";
+        Sheet sheet = workbook.createSheet(sheetName);
+        
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < EXPORT_HEADERS.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(EXPORT_HEADERS[i]);
+        }
+        
+        sheets.add(sheet);
+        return sheet;
+    }
+
+    /**
+     * Write one processed data record into an Excel row
+     * @param row Target row
+     * @param data Processed data
+     */
+    private void writeExcelRow(Row row, ProcessedData data) {
+        row.createCell(0).setCellValue(data.getId() != null ? data.getId() : "");
+        row.createCell(1).setCellValue(data.getFirstName() != null ? data.getFirstName() : "");
+        row.createCell(2).setCellValue(data.getLastName() != null ? data.getLastName() : "");
+        row.createCell(3).setCellValue(data.getEmail() != null ? data.getEmail() : "");
+        row.createCell(4).setCellValue(data.getBirthDate() != null ? data.getBirthDate().toString() : "");
+        row.createCell(5).setCellValue(data.getAddress() != null ? data.getAddress() : "");
+        row.createCell(6).setCellValue(data.getCity() != null ? data.getCity() : "");
+        row.createCell(7).setCellValue(data.getCountry() != null ? data.getCountry() : "");
+        row.createCell(8).setCellValue(data.getPhoneNumber() != null ? data.getPhoneNumber() : "");
+        
+        if (data.getSalary() != null) {
+            row.createCell(9).setCellValue(data.getSalary());
+        }
+        
+        if (data.getDependents() != null) {
+            row.createCell(10).setCellValue(data.getDependents());
+        }
+        
+        if (data.getAge() != null) {
+            row.createCell(11).setCellValue(data.getAge());
+        }
+        
+        if (data.getTaxRate() != null) {
+            row.createCell(12).setCellValue(data.getTaxRate());
+        }
+        
+        if (data.getNetSalary() != null) {
+            row.createCell(13).setCellValue(data.getNetSalary());
+        }
+        
+        row.createCell(14).setCellValue(data.getFullName() != null ? data.getFullName() : "");
+        
+        if (data.getDependentAllowance() != null) {
+            row.createCell(15).setCellValue(data.getDependentAllowance());
+        }
+        
+        if (data.getTotalDeductions() != null) {
+            row.createCell(16).setCellValue(data.getTotalDeductions());
+        }
+        
+        if (data.getBonus() != null) {
+            row.createCell(17).setCellValue(data.getBonus());
+        }
+        
+        if (data.getRetirementContribution() != null) {
+            row.createCell(18).setCellValue(data.getRetirementContribution());
+        }
+        
+        if (data.getTotalCompensation() != null) {
+            row.createCell(19).setCellValue(data.getTotalCompensation());
+        }
+        
+        if (data.getTaxAmount() != null) {
+            row.createCell(20).setCellValue(data.getTaxAmount());
+        }
+        
+        row.createCell(21).setCellValue(data.getProcessingStatus() != null ? data.getProcessingStatus() : "");
+    }
+
+    /**
+     * Compute the SHA-256 checksum of an exported file
+     * @param filePath Path to the file
+     * @return Lowercase hex digest
+     */
+    public String computeChecksum(String filePath) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream inputStream = Files.newInputStream(Paths.get(filePath))) {
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Write an export to a temporary file next to its target, then move it into place
+     * The move replaces whatever is at the path instead of writing through it, so an existing
+     * file, possibly a hard link to a stored upload, is never modified and readers never see a
+     * partial export
+     * @param outputPath Path of the export
+     * @param exportWriter Writes the export to the given stream and returns the row count
+     * @return Row count returned by the writer
+     */
+    private long writeReplacing(Path outputPath, ExportWriter exportWriter) throws IOException {
+        Path tempPath = Files.createTempFile(outputPath.getParent(), ".export-", ".tmp");
+        try {
+            long rowCount;
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tempPath), exportBufferSize)) {
+                rowCount = exportWriter.write(outputStream);
+            }
+            Files.move(tempPath, outputPath, StandardCopyOption.REPLACE_EXISTING);
+            return rowCount;
+        } finally {
+            Files.deleteIfExists(tempPath);
         }
     }
 
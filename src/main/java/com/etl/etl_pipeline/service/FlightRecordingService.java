@@ -0,0 +1,160 @@
+package com.etl.etl_pipeline.service;
+
+import com.etl.etl_pipeline.jfr.ChunkPhaseEvent;
+import com.etl.etl_pipeline.jfr.DatabaseRetryEvent;
+import com.etl.etl_pipeline.jfr.LockAcquireEvent;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * On-demand Java Flight Recorder recordings of the running application
+ * One recording at a time; stopping it dumps a .jfr file that replaces the previous one.
+ * Besides the JVM's own events the recording captures the pipeline's chunk phase, lock wait
+ * and retry events (see the jfr package)
+ */
+@Slf4j
+@Service
+public class FlightRecordingService {
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Value("${etl.jfr.dir:recordings}")
+    private String recordingDir;
+
+    @Value("${etl.jfr.max-age-minutes:60}")
+    private long maxAgeMinutes;
+
+    @Value("${etl.jfr.max-size-mb:256}")
+    private long maxSizeMb;
+
+    private Recording recording;
+    private Instant startedAt;
+    private Path lastDump;
+
+    /**
+     * Start a recording
+     * @param settings JFR settings to use: "default" (about 1% overhead) or "profile"
+     * @return Recording status
+     * @throws IllegalStateException if a recording is already running
+     * @throws IllegalArgumentException if the settings are unknown
+     */
+    public synchronized Map<String, Object> start(String settings) {
+        if (recording != null) {
+            throw new IllegalStateException("A recording is already running");
+        }
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown recording settings: " + settings);
+        }
+
+        Recording newRecording = new Recording(configuration);
+        newRecording.setName("etl-" + LocalDateTime.now().format(NAME_FORMAT));
+        newRecording.setToDisk(true);
+        // Bound the repository if the recording is forgotten
+        newRecording.setMaxAge(Duration.ofMinutes(maxAgeMinutes));
+        newRecording.setMaxSize(maxSizeMb * 1024 * 1024);
+        newRecording.enable(ChunkPhaseEvent.class);
+        newRecording.enable(LockAcquireEvent.class);
+        newRecording.enable(DatabaseRetryEvent.class);
+        newRecording.start();
+
+        recording = newRecording;
+        startedAt = Instant.now();
+        log.info("Started flight recording {} with {} settings", newRecording.getName(), settings);
+        return getStatus();
+    }
+
+    /**
+     * Stop the running recording and write it to disk
+     * @return Recording status, including the size of the dump
+     * @throws IllegalStateException if no recording is running
+     * @throws IOException if the recording cannot be written
+     */
+    public synchronized Map<String, Object> stop() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("No recording is running");
+        }
+
+        Path dir = Paths.get(recordingDir);
+        Files.createDirectories(dir);
+        Path file = dir.resolve(recording.getName() + ".jfr");
+        try {
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            recording.close();
+            recording = null;
+        }
+
+        if (lastDump != null && !lastDump.equals(file)) {
+            Files.deleteIfExists(lastDump);
+        }
+        lastDump = file;
+        log.info("Flight recording written to {} ({} bytes)", file, Files.size(file));
+        return getStatus();
+    }
+
+    /**
+     * Get the file written by the last stopped recording
+     * @return Path of the .jfr file
+     * @throws IllegalStateException if no recording has been written
+     */
+    public synchronized Path getLastRecording() {
+        if (lastDump == null || !Files.exists(lastDump)) {
+            throw new IllegalStateException("No recording has been written yet");
+        }
+        return lastDump;
+    }
+
+    /**
+     * @return Whether a recording is running, since when, and the last written file
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        boolean running = recording != null && recording.getState() == RecordingState.RUNNING;
+        status.put("recording", running);
+        if (running) {
+            status.put("name", recording.getName());
+            status.put("startedAt", startedAt.toString());
+            status.put("maxAgeMinutes", maxAgeMinutes);
+            status.put("maxSizeMb", maxSizeMb);
+        }
+        if (lastDump != null && Files.exists(lastDump)) {
+            status.put("lastRecording", lastDump.getFileName().toString());
+            try {
+                status.put("lastRecordingSize", Files.size(lastDump));
+            } catch (IOException e) {
+                log.debug("Could not read size of {}: {}", lastDump, e.getMessage());
+            }
+        }
+        return status;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
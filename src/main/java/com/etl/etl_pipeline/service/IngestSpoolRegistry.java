@@ -0,0 +1,189 @@
+package com.etl.etl_pipeline.service;
+
+import com.etl.etl_pipeline.reader.SpoolInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registry of spool files that are still being written by an in-flight upload
+ * Readers opened on a registered spool follow the file as it grows instead of stopping
+ * at its current end, so a job can start while its input is still arriving
+ */
+@Slf4j
+@Service
+public class IngestSpoolRegistry {
+
+    private final Map<Path, Spool> spools = new ConcurrentHashMap<>();
+
+    @Value("${etl.ingest.stall-timeout-seconds:60}")
+    private long stallTimeoutSeconds;
+
+    /**
+     * Write progress of a spool file, shared between the uploading thread and the readers
+     * Guarded by a lock rather than synchronized, so a reader waiting on a virtual thread
+     * does not pin its carrier thread
+     */
+    public static class Spool {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private long written;
+        private boolean complete;
+        private IOException failure;
+
+        /**
+         * Record bytes appended to the spool file
+         */
+        public void advance(long bytes) {
+            lock.lock();
+            try {
+                written += bytes;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Mark the upload as fully received
+         */
+        public void complete() {
+            lock.lock();
+            try {
+                complete = true;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Mark the upload as failed; readers waiting for more bytes fail as well
+         */
+        public void fail(IOException cause) {
+            lock.lock();
+            try {
+                failure = cause;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Wait until bytes beyond the given position are available or the upload has ended
+         * @param position Read position
+         * @param timeoutMillis Maximum time to wait for new bytes
+         * @return Number of bytes written so far
+         * @throws IOException if the upload failed or stalled
+         */
+        public long awaitBytes(long position, long timeoutMillis) throws IOException {
+            lock.lock();
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+                while (written <= position && !complete && failure == null) {
+                    if (remaining <= 0) {
+                        throw new IOException("Upload stalled: no data received for " + timeoutMillis + " ms");
+                    }
+                    try {
+                        remaining = changed.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while waiting for upload data", e);
+                    }
+                }
+                if (failure != null) {
+                    throw new IOException("Upload failed: " + failure.getMessage(), failure);
+                }
+                return written;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean isComplete() {
+            lock.lock();
+            try {
+                return complete;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Register a spool file that is about to be written
+     * @param path Spool file path
+     * @return Spool progress handle
+     */
+    public Spool register(Path path) {
+        Spool spool = new Spool();
+        spools.put(normalize(path), spool);
+        return spool;
+    }
+
+    /**
+     * Mark a spool as fully written and stop tracking it
+     * Readers opened from now on read the file directly
+     */
+    public void complete(Path path) {
+        Spool spool = spools.remove(normalize(path));
+        if (spool != null) {
+            spool.complete();
+        }
+    }
+
+    /**
+     * Mark a spool as failed and stop tracking it
+     * Readers already following it are woken and fail. The caller deletes the spool file, so a
+     * job that has not opened its reader yet fails on the missing file instead of reading a
+     * truncated one
+     */
+    public void fail(Path path, IOException cause) {
+        Spool spool = spools.remove(normalize(path));
+        if (spool != null) {
+            spool.fail(cause);
+        }
+    }
+
+    /**
+     * Open a file as a resource, following it while its upload is still in flight
+     * @param filePath File path
+     * @return Resource for the file
+     */
+    public Resource openResource(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        Spool spool = spools.get(normalize(path));
+        if (spool == null) {
+            return new FileSystemResource(path);
+        }
+
+        log.info("Reading {} while its upload is in progress", filePath);
+        return new InputStreamResource(new SpoolInputStream(path, spool, stallTimeoutSeconds * 1000));
+    }
+
+    /**
+     * Check whether a file's upload is still in flight
+     * @param filePath File path
+     * @return true while the file is still growing
+     */
+    public boolean isReceiving(String filePath) {
+        return spools.containsKey(normalize(Paths.get(filePath)));
+    }
+
+    private Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
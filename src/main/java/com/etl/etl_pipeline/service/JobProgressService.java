@@ -0,0 +1,366 @@
+package com.etl.etl_pipeline.service;
+
+import com.etl.etl_pipeline.reader.ReadProgress;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Pushes live job progress to browsers over server-sent events
+ * Chunk completions only mark a job as changed; a single publisher thread turns the changes into
+ * at most one event per job per interval, serialized once and written to every watcher of the job.
+ * Jobs nobody is watching cost a flag update per chunk
+ */
+@Slf4j
+@Service
+public class JobProgressService {
+
+    private static final int FINISHED_JOBS_KEPT = 200;
+    private static final Set<String> ACTIVE_STATUSES = Set.of("STARTING", "STARTED", "STOPPING");
+
+    @Autowired
+    private IngestSpoolRegistry spoolRegistry;
+
+    @Value("${etl.progress.interval-ms:500}")
+    private long intervalMs;
+
+    @Value("${etl.progress.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${etl.progress.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Job instance id -> live progress of the running execution
+    private final Map<Long, JobProgress> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    // Final event of recently finished jobs, for watchers that connect just after the end
+    private final Map<Long, String> finished = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > FINISHED_JOBS_KEPT;
+        }
+    });
+
+    private ScheduledExecutorService publisher;
+    private long lastHeartbeat = System.nanoTime();
+
+    @PostConstruct
+    public void start() {
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "etl-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleWithFixedDelay(this::publish, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        publisher.shutdownNow();
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        subscribers.clear();
+    }
+
+    /**
+     * Start tracking a job
+     * @param jobExecution Job execution that started
+     */
+    public void jobStarted(JobExecution jobExecution) {
+        String filePath = jobExecution.getJobParameters().getString("filePath");
+        jobs.put(jobExecution.getJobId(), new JobProgress(jobExecution, filePath));
+    }
+
+    /**
+     * Get the read position a job's reader should report to
+     * @param jobId Job instance id
+     * @return Read progress of the job (detached if the job is not tracked)
+     */
+    public ReadProgress trackReads(Long jobId) {
+        JobProgress progress = jobId != null ? jobs.get(jobId) : null;
+        return progress != null ? progress.reads : new ReadProgress();
+    }
+
+    /**
+     * Record that a chunk was committed
+     * @param stepExecution Step execution the chunk belongs to
+     */
+    public void chunkCompleted(StepExecution stepExecution) {
+        JobProgress progress = jobs.get(stepExecution.getJobExecution().getJobId());
+        if (progress != null) {
+            progress.steps.putIfAbsent(stepExecution.getId(), stepExecution);
+            progress.dirty = true;
+        }
+    }
+
+    /**
+     * Stop tracking a job and send the final event to its watchers
+     * @param jobExecution Job execution that finished
+     */
+    public void jobFinished(JobExecution jobExecution) {
+        Long jobId = jobExecution.getJobId();
+        JobProgress progress = jobs.remove(jobId);
+
+        Map<String, Object> event = progress != null
+            ? progress.snapshot(System.nanoTime())
+            : new LinkedHashMap<>(Map.of("jobId", String.valueOf(jobId)));
+        event.put("status", jobExecution.getStatus().toString());
+        event.put("exitCode", jobExecution.getExitStatus().getExitCode());
+
+        String json = toJson(event);
+        finished.put(jobId, json);
+        publisher.execute(() -> complete(jobId, json));
+    }
+
+    /**
+     * Open an event stream for a job
+     * The stream starts with a "status" event carrying the current job status, followed by
+     * "progress" events while the job runs and a single "complete" event when it ends
+     * @param jobId Job ID
+     * @param status Current job status, as returned by the status endpoint
+     * @return Emitter for the event stream
+     */
+    public SseEmitter subscribe(String jobId, Map<String, Object> status) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Long id = parseJobId(jobId);
+        try {
+            emitter.send(SseEmitter.event().name("status").data(status, MediaType.APPLICATION_JSON));
+
+            String done = id != null ? finished.get(id) : null;
+            if (id == null || done != null || !ACTIVE_STATUSES.contains(String.valueOf(status.get("status")))) {
+                Object event = done != null ? done : status;
+                emitter.send(SseEmitter.event().name("complete").data(event, MediaType.APPLICATION_JSON));
+                emitter.complete();
+                return emitter;
+            }
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+
+        subscribers.compute(id, (key, emitters) -> {
+            List<SseEmitter> list = emitters != null ? emitters : new CopyOnWriteArrayList<>();
+            list.add(emitter);
+            return list;
+        });
+        emitter.onCompletion(() -> unsubscribe(id, emitter));
+        emitter.onTimeout(() -> unsubscribe(id, emitter));
+        emitter.onError(e -> unsubscribe(id, emitter));
+
+        // The job may have finished between reading its status and registering the emitter
+        String done = finished.get(id);
+        if (done != null) {
+            publisher.execute(() -> complete(id, done));
+        }
+
+        // Give the new watcher the current counts on the next tick
+        JobProgress progress = jobs.get(id);
+        if (progress != null) {
+            progress.dirty = true;
+        }
+        return emitter;
+    }
+
+    /**
+     * Get the average read throughput of a running job since it started
+     * @param jobId Job instance id
+     * @return Records read per second, or 0 if the job is not running
+     */
+    public double getRecordsPerSecond(long jobId) {
+        JobProgress progress = jobs.get(jobId);
+        if (progress == null) {
+            return 0;
+        }
+        double elapsedSeconds = (System.nanoTime() - progress.startNanos) / 1e9;
+        return elapsedSeconds > 0 ? progress.readCount() / elapsedSeconds : 0;
+    }
+
+    /**
+     * @return Number of open event streams
+     */
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(List::size).sum();
+    }
+
+    private void unsubscribe(Long jobId, SseEmitter emitter) {
+        subscribers.computeIfPresent(jobId, (key, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private void publish() {
+        try {
+            long now = System.nanoTime();
+            for (Map.Entry<Long, JobProgress> entry : jobs.entrySet()) {
+                List<SseEmitter> emitters = subscribers.get(entry.getKey());
+                JobProgress progress = entry.getValue();
+                if (emitters == null || !progress.dirty) {
+                    continue;
+                }
+                progress.dirty = false;
+                String json = toJson(progress.snapshot(now));
+                for (SseEmitter emitter : emitters) {
+                    send(entry.getKey(), emitter, SseEmitter.event().name("progress").data(json, MediaType.APPLICATION_JSON));
+                }
+            }
+
+            if (now - lastHeartbeat >= TimeUnit.MILLISECONDS.toNanos(heartbeatMs)) {
+                lastHeartbeat = now;
+                // Keeps idle connections from being closed by proxies while a job is queued
+                subscribers.forEach((jobId, emitters) ->
+                    emitters.forEach(emitter -> send(jobId, emitter, SseEmitter.event().comment("keep-alive"))));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to publish job progress: {}", e.getMessage());
+        }
+    }
+
+    private void complete(Long jobId, String json) {
+        List<SseEmitter> emitters = subscribers.remove(jobId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            if (send(jobId, emitter, SseEmitter.event().name("complete").data(json, MediaType.APPLICATION_JSON))) {
+                emitter.complete();
+            }
+        }
+    }
+
+    private boolean send(Long jobId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // The browser went away; the container reports the error to the emitter's callbacks
+            log.debug("Dropping progress watcher of job {}: {}", jobId, e.getMessage());
+            unsubscribe(jobId, emitter);
+            return false;
+        }
+    }
+
+    private String toJson(Map<String, Object> event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize job progress", e);
+        }
+    }
+
+    private static Long parseJobId(String jobId) {
+        try {
+            return Long.valueOf(jobId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Progress of one running job
+     * Step executions are read from the publisher thread while the step threads update them,
+     * so counts may lag by a chunk
+     */
+    private class JobProgress {
+        final long jobId;
+        final String filePath;
+        final long startNanos = System.nanoTime();
+        final ReadProgress reads = new ReadProgress();
+        final Map<Long, StepExecution> steps = new ConcurrentHashMap<>();
+        volatile boolean dirty = true;
+
+        long totalBytes = -1;
+        long lastReadCount;
+        long lastNanos = startNanos;
+
+        JobProgress(JobExecution jobExecution, String filePath) {
+            this.jobId = jobExecution.getJobId();
+            this.filePath = filePath;
+        }
+
+        long readCount() {
+            return steps.values().stream().mapToLong(StepExecution::getReadCount).sum();
+        }
+
+        synchronized Map<String, Object> snapshot(long now) {
+            long readCount = 0;
+            long writeCount = 0;
+            long filterCount = 0;
+            long skipCount = 0;
+            for (StepExecution step : steps.values()) {
+                readCount += step.getReadCount();
+                writeCount += step.getWriteCount();
+                filterCount += step.getFilterCount();
+                skipCount += step.getSkipCount();
+            }
+
+            double elapsedSeconds = (now - startNanos) / 1e9;
+            double intervalSeconds = (now - lastNanos) / 1e9;
+            double recordsPerSecond = intervalSeconds > 0 ? (readCount - lastReadCount) / intervalSeconds : 0;
+            double averageRecordsPerSecond = elapsedSeconds > 0 ? readCount / elapsedSeconds : 0;
+            lastReadCount = readCount;
+            lastNanos = now;
+
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("jobId", String.valueOf(jobId));
+            event.put("status", "STARTED");
+            event.put("readCount", readCount);
+            event.put("writeCount", writeCount);
+            event.put("filterCount", filterCount);
+            event.put("skipCount", skipCount);
+            event.put("elapsedMs", Math.round(elapsedSeconds * 1000));
+            event.put("recordsPerSecond", Math.round(recordsPerSecond));
+            event.put("averageRecordsPerSecond", Math.round(averageRecordsPerSecond));
+
+            long bytesRead = reads.getBytesRead();
+            event.put("bytesRead", bytesRead);
+            event.put("totalBytes", totalBytes());
+
+            // Fraction done: by record count when the reader knows it, otherwise by bytes consumed
+            double fraction = -1;
+            long totalRecords = reads.getTotalRecords();
+            if (totalRecords > 0) {
+                fraction = (double) readCount / totalRecords;
+            } else if (totalBytes > 0 && bytesRead > 0) {
+                fraction = (double) bytesRead / totalBytes;
+            }
+            if (fraction >= 0) {
+                fraction = Math.min(fraction, 1.0);
+                event.put("percent", Math.round(fraction * 1000) / 10.0);
+                if (fraction > 0) {
+                    event.put("etaSeconds", Math.round(elapsedSeconds * (1 - fraction) / fraction));
+                }
+            }
+            return event;
+        }
+
+        private long totalBytes() {
+            // The size is only final once a streamed upload has been fully received
+            if (totalBytes < 0 && filePath != null && !spoolRegistry.isReceiving(filePath)) {
+                try {
+                    totalBytes = Files.size(Paths.get(filePath));
+                } catch (IOException e) {
+                    totalBytes = 0;
+                }
+            }
+            return totalBytes;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.etl.etl_pipeline.service;
+
+/**
+ * Thrown when a job cannot be admitted because the launch backlog is full
+ */
+public class JobQueueFullException extends RuntimeException {
+
+    public JobQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,129 @@
+package com.etl.etl_pipeline.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control and statistics for the asynchronous job launcher
+ * Jobs are admitted while the number of queued plus running jobs is below the configured
+ * limit; beyond that uploads are rejected instead of piling up behind the launcher
+ */
+@Slf4j
+@Service
+public class JobQueueService {
+
+    @Value("${etl.launcher.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${etl.launcher.max-queued-jobs:8}")
+    private int maxQueuedJobs;
+
+    // Jobs admitted and not yet finished (queued + running)
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final AtomicInteger running = new AtomicInteger(0);
+
+    private final AtomicLong totalAdmitted = new AtomicLong(0);
+    private final AtomicLong totalRejected = new AtomicLong(0);
+    private final AtomicLong totalFinished = new AtomicLong(0);
+
+    private final AtomicLong totalWaitMs = new AtomicLong(0);
+    private final AtomicLong maxWaitMs = new AtomicLong(0);
+    private final AtomicLong totalRunMs = new AtomicLong(0);
+    private final AtomicLong maxRunMs = new AtomicLong(0);
+
+    /**
+     * Reserve a slot for a new job
+     * @throws JobQueueFullException if the backlog limit has been reached
+     */
+    public void admit() {
+        int limit = maxConcurrentJobs + maxQueuedJobs;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                totalRejected.incrementAndGet();
+                log.warn("Rejecting job: {} jobs already queued or running (limit {})", current, limit);
+                throw new JobQueueFullException("Job queue is full (" + current + " jobs queued or running), retry later");
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                totalAdmitted.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Release a slot reserved by {@link #admit()} for a job that was never launched
+     */
+    public void cancelAdmission() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Record that an admitted job has left the queue and started running
+     * @param jobExecution Job execution that started
+     */
+    public void jobStarted(JobExecution jobExecution) {
+        running.incrementAndGet();
+
+        long waitMs = millisBetween(jobExecution.getCreateTime(), jobExecution.getStartTime());
+        totalWaitMs.addAndGet(waitMs);
+        maxWaitMs.accumulateAndGet(waitMs, Math::max);
+        log.debug("Job execution {} waited {}ms in the launch queue", jobExecution.getId(), waitMs);
+    }
+
+    /**
+     * Record that an admitted job has finished and release its slot
+     * @param jobExecution Job execution that finished
+     */
+    public void jobFinished(JobExecution jobExecution) {
+        running.decrementAndGet();
+        inFlight.decrementAndGet();
+        totalFinished.incrementAndGet();
+
+        LocalDateTime endTime = jobExecution.getEndTime() != null ? jobExecution.getEndTime() : LocalDateTime.now();
+        long runMs = millisBetween(jobExecution.getStartTime(), endTime);
+        totalRunMs.addAndGet(runMs);
+        maxRunMs.accumulateAndGet(runMs, Math::max);
+        log.debug("Job execution {} ran for {}ms", jobExecution.getId(), runMs);
+    }
+
+    /**
+     * Get the current queue depth and wait/run time statistics
+     * @return Map with queue statistics
+     */
+    public Map<String, Object> getQueueStatus() {
+        Map<String, Object> status = new HashMap<>();
+        int runningJobs = running.get();
+        long finished = totalFinished.get();
+        long started = finished + runningJobs;
+
+        status.put("maxConcurrentJobs", maxConcurrentJobs);
+        status.put("maxQueuedJobs", maxQueuedJobs);
+        status.put("runningJobs", runningJobs);
+        status.put("queuedJobs", Math.max(0, inFlight.get() - runningJobs));
+        status.put("totalAdmitted", totalAdmitted.get());
+        status.put("totalRejected", totalRejected.get());
+        status.put("totalFinished", finished);
+        status.put("averageWaitMs", started > 0 ? totalWaitMs.get() / started : 0);
+        status.put("maxWaitMs", maxWaitMs.get());
+        status.put("averageRunMs", finished > 0 ? totalRunMs.get() / finished : 0);
+        status.put("maxRunMs", maxRunMs.get());
+        return status;
+    }
+
+    private long millisBetween(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(start, end).toMillis());
+    }
+}
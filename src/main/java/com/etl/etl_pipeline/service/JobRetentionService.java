@@ -0,0 +1,261 @@
+package com.etl.etl_pipeline.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for purging Spring Batch job metadata (BATCH_* tables)
+ * Deletes are set-based and run in bounded batches so a purge never holds the
+ * SQLite write lock for long, and the scheduled purge only runs while no jobs are active
+ */
+@Slf4j
+@Service
+public class JobRetentionService {
+
+    // Keeps IN (...) lists below SQLite's default host parameter limit (999)
+    private static final int MAX_BATCH_SIZE = 900;
+
+    // Executions in these states are never purged
+    private static final String ACTIVE_STATUSES = "'STARTING', 'STARTED', 'STOPPING'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${etl.retention.enabled:true}")
+    private boolean retentionEnabled;
+
+    @Value("${etl.retention.max-age-days:30}")
+    private int maxAgeDays;
+
+    @Value("${etl.retention.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Scheduled purge of executions older than the retention policy
+     * Skipped when any job is running; stops between batches if a job starts
+     */
+    @Scheduled(cron = "${etl.retention.cron:0 0 3 * * *}")
+    public void purgeExpiredExecutions() {
+        if (!retentionEnabled) {
+            return;
+        }
+
+        if (!isIdle()) {
+            log.info("Skipping job metadata retention purge: jobs are currently running");
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(maxAgeDays);
+        log.info("Running job metadata retention purge for executions created before {}", cutoff);
+
+        Map<String, Object> result = purgeExecutions(null, cutoff, null, null, false, true);
+        log.info("Job metadata retention purge finished: {}", result);
+    }
+
+    /**
+     * Purge job executions matching the given filters
+     * @param statuses Batch statuses to match (null or empty for any finished status)
+     * @param createdBefore Only executions created before this time (nullable)
+     * @param createdAfter Only executions created after this time (nullable)
+     * @param jobName Only executions of this job (nullable)
+     * @param dryRun If true, only count the matching executions
+     * @return Map with purge summary
+     */
+    public Map<String, Object> purgeExecutions(List<String> statuses, LocalDateTime createdBefore,
+                                               LocalDateTime createdAfter, String jobName, boolean dryRun) {
+        return purgeExecutions(statuses, createdBefore, createdAfter, jobName, dryRun, false);
+    }
+
+    private Map<String, Object> purgeExecutions(List<String> statuses, LocalDateTime createdBefore,
+                                                LocalDateTime createdAfter, String jobName,
+                                                boolean dryRun, boolean yieldToJobs) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("dryRun", dryRun);
+
+        List<Object> params = new ArrayList<>();
+        String whereClause = buildWhereClause(statuses, createdBefore, createdAfter, jobName, params);
+
+        if (dryRun) {
+            Integer matched = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM BATCH_JOB_EXECUTION e WHERE " + whereClause,
+                Integer.class, params.toArray());
+            result.put("matched", matched != null ? matched : 0);
+            return result;
+        }
+
+        int effectiveBatchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        long lastId = 0;
+        int purged = 0;
+        int batches = 0;
+        boolean interrupted = false;
+
+        while (true) {
+            List<Object> batchParams = new ArrayList<>(params);
+            batchParams.add(lastId);
+            batchParams.add(effectiveBatchSize);
+
+            // Walk forward by id so a batch that fails to delete can never be selected again
+            List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT e.JOB_EXECUTION_ID FROM BATCH_JOB_EXECUTION e WHERE " + whereClause +
+                " AND e.JOB_EXECUTION_ID > ? ORDER BY e.JOB_EXECUTION_ID LIMIT ?",
+                Long.class, batchParams.toArray());
+
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            deleteExecutions(ids);
+            purged += ids.size();
+            batches++;
+            lastId = ids.get(ids.size() - 1);
+
+            if (ids.size() < effectiveBatchSize) {
+                break;
+            }
+
+            if (yieldToJobs && !isIdle()) {
+                log.info("Pausing retention purge after {} executions: a job has started", purged);
+                interrupted = true;
+                break;
+            }
+        }
+
+        if (purged > 0) {
+            checkpointWal();
+        }
+
+        result.put("purged", purged);
+        result.put("batches", batches);
+        result.put("completed", !interrupted);
+        return result;
+    }
+
+    /**
+     * Delete the given job executions and all dependent metadata in a single transaction
+     * Job instances left without any execution are removed as well
+     * @param jobExecutionIds Job execution IDs (at most 900)
+     * @return Number of job executions deleted
+     */
+    public int deleteExecutions(List<Long> jobExecutionIds) {
+        if (jobExecutionIds == null || jobExecutionIds.isEmpty()) {
+            return 0;
+        }
+        if (jobExecutionIds.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Cannot delete more than " + MAX_BATCH_SIZE + " executions at once");
+        }
+
+        String in = String.join(", ", Collections.nCopies(jobExecutionIds.size(), "?"));
+        Object[] ids = jobExecutionIds.toArray();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer deleted = transactionTemplate.execute(status -> {
+            List<Long> jobInstanceIds = jdbcTemplate.queryForList(
+                "SELECT DISTINCT JOB_INSTANCE_ID FROM BATCH_JOB_EXECUTION WHERE JOB_EXECUTION_ID IN (" + in + ")",
+                Long.class, ids);
+
+            jdbcTemplate.update(
+                "DELETE FROM BATCH_STEP_EXECUTION_CONTEXT WHERE STEP_EXECUTION_ID IN " +
+                "(SELECT STEP_EXECUTION_ID FROM BATCH_STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (" + in + "))", ids);
+            jdbcTemplate.update("DELETE FROM BATCH_STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (" + in + ")", ids);
+            jdbcTemplate.update("DELETE FROM BATCH_JOB_EXECUTION_CONTEXT WHERE JOB_EXECUTION_ID IN (" + in + ")", ids);
+            jdbcTemplate.update("DELETE FROM BATCH_JOB_EXECUTION_PARAMS WHERE JOB_EXECUTION_ID IN (" + in + ")", ids);
+            jdbcTemplate.update("DELETE FROM job_exports WHERE job_execution_id IN (" + in + ")", ids);
+            jdbcTemplate.update("DELETE FROM upload_index WHERE job_execution_id IN (" + in + ")", ids);
+            int executions = jdbcTemplate.update(
+                "DELETE FROM BATCH_JOB_EXECUTION WHERE JOB_EXECUTION_ID IN (" + in + ")", ids);
+
+            if (!jobInstanceIds.isEmpty()) {
+                String instanceIn = String.join(", ", Collections.nCopies(jobInstanceIds.size(), "?"));
+                jdbcTemplate.update(
+                    "DELETE FROM BATCH_JOB_INSTANCE WHERE JOB_INSTANCE_ID IN (" + instanceIn + ") " +
+                    "AND NOT EXISTS (SELECT 1 FROM BATCH_JOB_EXECUTION e " +
+                    "WHERE e.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID)",
+                    jobInstanceIds.toArray());
+            }
+
+            return executions;
+        });
+
+        log.debug("Deleted {} job executions", deleted);
+        return deleted != null ? deleted : 0;
+    }
+
+    /**
+     * Check whether any job is currently running
+     */
+    private boolean isIdle() {
+        try {
+            for (String jobName : jobExplorer.getJobNames()) {
+                if (!jobExplorer.findRunningJobExecutions(jobName).isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Could not determine running jobs, assuming busy: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Fold the WAL back into the main database file after a large delete
+     */
+    private void checkpointWal() {
+        try {
+            List<Map<String, Object>> result = jdbcTemplate.queryForList("PRAGMA wal_checkpoint(TRUNCATE)");
+            log.info("WAL checkpoint after retention purge: {}", result);
+        } catch (Exception e) {
+            log.warn("WAL checkpoint after retention purge failed: {}", e.getMessage());
+        }
+    }
+
+    private String buildWhereClause(List<String> statuses, LocalDateTime createdBefore,
+                                    LocalDateTime createdAfter, String jobName, List<Object> params) {
+        StringBuilder where = new StringBuilder("e.STATUS NOT IN (" + ACTIVE_STATUSES + ")");
+
+        if (statuses != null && !statuses.isEmpty()) {
+            where.append(" AND e.STATUS IN (")
+                 .append(String.join(", ", Collections.nCopies(statuses.size(), "?")))
+                 .append(")");
+            statuses.forEach(status -> params.add(status.toUpperCase()));
+        }
+
+        if (createdBefore != null) {
+            where.append(" AND e.CREATE_TIME < ?");
+            params.add(Timestamp.valueOf(createdBefore));
+        }
+
+        if (createdAfter != null) {
+            where.append(" AND e.CREATE_TIME > ?");
+            params.add(Timestamp.valueOf(createdAfter));
+        }
+
+        if (jobName != null && !jobName.isBlank()) {
+            where.append(" AND e.JOB_INSTANCE_ID IN (SELECT JOB_INSTANCE_ID FROM BATCH_JOB_INSTANCE WHERE JOB_NAME = ?)");
+            params.add(jobName);
+        }
+
+        return where.toString();
+    }
+}
@@ -0,0 +1,514 @@
+package com.etl.etl_pipeline.service;
+
+import com.etl.etl_pipeline.reader.ExcelReader;
+import com.etl.etl_pipeline.util.DateUtils;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Service for previewing uploaded files
+ * Files are read from disk with streaming parsers that stop as soon as enough rows have been seen,
+ * so a preview costs the same for a small file and a large one; .xlsx parts are read from the zip
+ * on demand rather than loaded into memory. The sampling mode scans the whole
+ * file once, keeping a uniform random sample (reservoir sampling) and per-column profiles
+ */
+@Slf4j
+@Service
+public class PreviewService {
+
+    @Value("${etl.preview.max-rows:1000}")
+    private int maxRows;
+
+    @Value("${etl.preview.profile-distinct-limit:1000}")
+    private int distinctLimit;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Callback for rows read from a file
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        /**
+         * @param row Column name to value, in file column order
+         * @return false to stop reading
+         */
+        boolean visit(Map<String, Object> row);
+
+        /**
+         * Called once with the header row, before the first row; JSON files have none
+         * @param columns Column names in file order, including blank and repeated names
+         */
+        default void header(List<String> columns) {
+        }
+    }
+
+    /**
+     * Thrown from the Excel SAX handler to stop parsing once the visitor is done
+     */
+    private static class StopScanException extends RuntimeException {
+        StopScanException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Read the first rows of a file
+     * @param file File to read
+     * @param extension File extension (csv, json, xlsx or xls)
+     * @param rows Number of rows to return
+     * @return Up to rows records
+     */
+    public List<Map<String, Object>> head(Path file, String extension, int rows) throws IOException {
+        int limit = clampRows(rows);
+        List<Map<String, Object>> records = new ArrayList<>(limit);
+        scan(file, extension, row -> {
+            records.add(row);
+            return records.size() < limit;
+        });
+        return records;
+    }
+
+    /**
+     * Read the header row of a file
+     * Rows are keyed by column name, so this is the only view of a file's columns that keeps
+     * blank and repeated names at their position
+     * @param file File to read
+     * @param extension File extension (csv, json, xlsx or xls)
+     * @return Column names in file order; empty for JSON
+     */
+    public List<String> header(Path file, String extension) throws IOException {
+        List<String> header = new ArrayList<>();
+        scan(file, extension, new RowVisitor() {
+            @Override
+            public void header(List<String> columns) {
+                header.addAll(columns);
+            }
+
+            @Override
+            public boolean visit(Map<String, Object> row) {
+                return false;
+            }
+        });
+        return header;
+    }
+
+    /**
+     * Scan a whole file, returning a uniform random sample of its rows and a profile of each column
+     * @param file File to read
+     * @param extension File extension (csv, json, xlsx or xls)
+     * @param rows Sample size
+     * @param seed Random seed for a repeatable sample (optional)
+     * @return Map with the sample (in file order), the number of rows scanned and the column profiles
+     */
+    public Map<String, Object> sample(Path file, String extension, int rows, Long seed) throws IOException {
+        int limit = clampRows(rows);
+        Random random = seed != null ? new Random(seed) : new Random();
+        long[] positions = new long[limit];
+        List<Map<String, Object>> reservoir = new ArrayList<>(limit);
+        Map<String, ColumnProfile> profiles = new LinkedHashMap<>();
+        long[] seen = {0};
+        long started = System.currentTimeMillis();
+
+        scan(file, extension, row -> {
+            long index = seen[0]++;
+            for (Map.Entry<String, Object> entry : row.entrySet()) {
+                profiles.computeIfAbsent(entry.getKey(), k -> new ColumnProfile()).add(entry.getValue(), distinctLimit);
+            }
+
+            // Algorithm R: row i replaces a random slot with probability limit / (i + 1)
+            if (reservoir.size() < limit) {
+                positions[reservoir.size()] = index;
+                reservoir.add(row);
+            } else {
+                long slot = (long) (random.nextDouble() * (index + 1));
+                if (slot < limit) {
+                    reservoir.set((int) slot, row);
+                    positions[(int) slot] = index;
+                }
+            }
+            return true;
+        });
+
+        // Return the sample in file order
+        Integer[] order = new Integer[reservoir.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> positions[i]));
+        List<Map<String, Object>> sample = new ArrayList<>(order.length);
+        for (Integer i : order) {
+            sample.add(reservoir.get(i));
+        }
+
+        Map<String, Object> columns = new LinkedHashMap<>();
+        profiles.forEach((name, profile) -> columns.put(name, profile.toMap(seen[0])));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("sample", sample);
+        result.put("sampleSize", sample.size());
+        result.put("rowsScanned", seen[0]);
+        result.put("columns", columns);
+        result.put("scanMillis", System.currentTimeMillis() - started);
+        return result;
+    }
+
+    /**
+     * Stream the rows of a file to a visitor until the file ends or the visitor stops
+     * @param file File to read
+     * @param extension File extension (csv, json, xlsx or xls)
+     * @param visitor Row callback
+     */
+    public void scan(Path file, String extension, RowVisitor visitor) throws IOException {
+        if ("xlsx".equals(extension)) {
+            scanXlsx(file, visitor);
+            return;
+        }
+
+        try (InputStream in = Files.newInputStream(file)) {
+            switch (extension) {
+                case "csv":
+                    scanCsv(in, visitor);
+                    break;
+                case "json":
+                    scanJson(in, visitor);
+                    break;
+                case "xls":
+                    scanXls(in, visitor);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported file type: " + extension);
+            }
+        }
+    }
+
+    private int clampRows(int rows) {
+        return Math.max(1, Math.min(rows, maxRows));
+    }
+
+    private void scanCsv(InputStream in, RowVisitor visitor) throws IOException {
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT);
+        Iterator<CSVRecord> records = csvParser.iterator();
+        if (!records.hasNext()) {
+            return;
+        }
+
+        // Read the header as a plain record: a parsed header rejects blank names and maps repeated ones to one index
+        List<String> headers = records.next().toList();
+        visitor.header(headers);
+
+        while (records.hasNext()) {
+            CSVRecord record = records.next();
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < headers.size(); i++) {
+                row.put(headers.get(i), i < record.size() ? record.get(i) : "");
+            }
+            if (!visitor.visit(row)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Read a top-level array of objects or a sequence of objects (NDJSON), one object at a time
+     */
+    private void scanJson(InputStream in, RowVisitor visitor) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(in);
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            token = parser.nextToken();
+        } else if (token != null && token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Expected a JSON array or objects but found " + token);
+        }
+
+        while (token == JsonToken.START_OBJECT) {
+            JsonNode node = objectMapper.readTree(parser);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> row = objectMapper.convertValue(node, LinkedHashMap.class);
+            if (!visitor.visit(row)) {
+                return;
+            }
+            token = parser.nextToken();
+        }
+    }
+
+    /**
+     * Read the first sheet of an .xlsx file with the SAX event API
+     * The package is opened from the file, so parts are decompressed from the zip as they are read,
+     * and rows are parsed as they are encountered instead of building the whole workbook in memory
+     */
+    private void scanXlsx(Path file, RowVisitor visitor) throws IOException {
+        OPCPackage pkg = null;
+        try {
+            pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            Iterator<InputStream> sheets = xssfReader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        xssfReader.getStylesTable(), null, strings, new SheetRowHandler(visitor), new IsoDateFormatter(), true));
+                parser.parse(new InputSource(sheet));
+            } catch (StopScanException e) {
+                // The visitor has all the rows it needs
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Failed to read Excel file: " + e.getMessage(), e);
+        } finally {
+            // Closing a read-only package would try to save it
+            if (pkg != null) {
+                pkg.revert();
+            }
+        }
+    }
+
+    /**
+     * Read the first sheet of a legacy .xls file
+     * HSSF has no streaming row API, but .xls sheets are limited to 65536 rows
+     */
+    private void scanXls(InputStream in, RowVisitor visitor) throws IOException {
+        try (Workbook workbook = WorkbookFactory.create(in)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            Iterator<Row> rowIterator = sheet.rowIterator();
+            if (!rowIterator.hasNext()) {
+                return;
+            }
+
+            List<String> headers = new ArrayList<>();
+            for (Cell cell : rowIterator.next()) {
+                while (headers.size() < cell.getColumnIndex()) {
+                    headers.add("");
+                }
+                headers.add(ExcelReader.getCellValueAsString(cell));
+            }
+            visitor.header(headers);
+
+            while (rowIterator.hasNext()) {
+                Row row = rowIterator.next();
+                Map<String, Object> record = new LinkedHashMap<>();
+                for (int i = 0; i < headers.size(); i++) {
+                    record.put(headers.get(i), ExcelReader.getCellValueAsString(
+                            row.getCell(i, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL)));
+                }
+                if (!visitor.visit(record)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects SAX cell events into rows; the first row holds the headers
+     */
+    private static class SheetRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final RowVisitor visitor;
+        private List<String> headers;
+        private String[] values;
+        private int nextColumn;
+
+        SheetRowHandler(RowVisitor visitor) {
+            this.visitor = visitor;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            values = headers != null ? new String[headers.size()] : null;
+            nextColumn = 0;
+            if (headers == null) {
+                headers = new ArrayList<>();
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (values == null) {
+                visitor.header(headers);
+                return;
+            }
+
+            Map<String, Object> record = new LinkedHashMap<>();
+            for (int i = 0; i < headers.size(); i++) {
+                record.put(headers.get(i), values[i] != null ? values[i] : "");
+            }
+            if (!visitor.visit(record)) {
+                throw new StopScanException();
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            nextColumn = column + 1;
+
+            if (values == null) {
+                while (headers.size() < column) {
+                    headers.add("");
+                }
+                headers.add(formattedValue);
+            } else if (column < values.length) {
+                values[column] = formattedValue;
+            }
+        }
+    }
+
+    /**
+     * Formats numeric cells the way ExcelReader does: dates as ISO dates, other numbers unformatted
+     */
+    private static class IsoDateFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value).toLocalDate().toString();
+            }
+            return String.valueOf(value);
+        }
+    }
+
+    /**
+     * Running profile of one column: fill rate, inferred type, ranges and distinct values
+     */
+    private static class ColumnProfile {
+        private long seen;
+        private long empty;
+        private long integers;
+        private long decimals;
+        private long booleans;
+        private long dates;
+        private long strings;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private int minLength = Integer.MAX_VALUE;
+        private int maxLength;
+        private final Set<String> distinct = new HashSet<>();
+        private boolean distinctCapped;
+
+        void add(Object value, int distinctLimit) {
+            seen++;
+            String text = value != null ? value.toString() : "";
+            if (text.isBlank()) {
+                empty++;
+                return;
+            }
+
+            minLength = Math.min(minLength, text.length());
+            maxLength = Math.max(maxLength, text.length());
+            if (!distinctCapped) {
+                distinct.add(text);
+                distinctCapped = distinct.size() > distinctLimit;
+            }
+
+            if (value instanceof Boolean || "true".equalsIgnoreCase(text) || "false".equalsIgnoreCase(text)) {
+                booleans++;
+            } else if (isInteger(text)) {
+                integers++;
+                addNumber(Double.parseDouble(text));
+            } else if (isDecimal(text)) {
+                decimals++;
+                addNumber(Double.parseDouble(text));
+            } else if (DateUtils.parseDate(text) != null) {
+                dates++;
+            } else {
+                strings++;
+            }
+        }
+
+        private void addNumber(double number) {
+            min = Math.min(min, number);
+            max = Math.max(max, number);
+        }
+
+        private static boolean isInteger(String text) {
+            try {
+                Long.parseLong(text.trim());
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        private static boolean isDecimal(String text) {
+            try {
+                double number = Double.parseDouble(text.trim());
+                return !Double.isNaN(number) && !Double.isInfinite(number);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        private String inferredType() {
+            long filled = integers + decimals + booleans + dates + strings;
+            if (filled == 0) {
+                return "empty";
+            } else if (strings > 0) {
+                return "string";
+            } else if (integers == filled) {
+                return "integer";
+            } else if (integers + decimals == filled) {
+                return "decimal";
+            } else if (booleans == filled) {
+                return "boolean";
+            } else if (dates == filled) {
+                return "date";
+            }
+            return "string";
+        }
+
+        Map<String, Object> toMap(long rows) {
+            // Rows without the column at all (possible in JSON) count as empty
+            long missing = rows - seen + empty;
+            long filled = rows - missing;
+            Map<String, Object> profile = new LinkedHashMap<>();
+            profile.put("type", inferredType());
+            profile.put("filled", filled);
+            profile.put("empty", missing);
+            profile.put("fillRate", rows > 0 ? (double) filled / rows : 0.0);
+            if (integers + decimals > 0) {
+                profile.put("min", min);
+                profile.put("max", max);
+            }
+            if (filled > 0) {
+                profile.put("minLength", minLength);
+                profile.put("maxLength", maxLength);
+            }
+            profile.put("distinct", distinct.size());
+            profile.put("distinctCapped", distinctCapped);
+            return profile;
+        }
+    }
+}
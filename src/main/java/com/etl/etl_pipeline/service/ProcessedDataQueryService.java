@@ -0,0 +1,273 @@
+package com.etl.etl_pipeline.service;
+
+import com.etl.etl_pipeline.model.ProcessedData;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for paged, filtered and sorted reads of processed_data
+ * Pages are addressed by a keyset cursor (the sort value and id of the last row) instead of
+ * an offset, so every page is an index range scan of page size rows wherever it is in the table
+ */
+@Slf4j
+@Service
+public class ProcessedDataQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    // Sort keys and their columns; each has an index on (column, id) and is never NULL in rows written by the pipeline
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+        "id", "id",
+        "salary", "salary",
+        "netSalary", "net_salary",
+        "age", "age"
+    );
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProcessedStatsService processedStatsService;
+
+    @Value("${etl.data.count-estimate-limit:10000}")
+    private int countEstimateLimit;
+
+    /**
+     * Filters for processed data queries; null fields do not filter
+     */
+    @Data
+    public static class DataFilter {
+        private String status;
+        private String country;
+        private String city;
+        private Double minSalary;
+        private Double maxSalary;
+        private Integer minAge;
+        private Integer maxAge;
+        private Long jobExecutionId;
+
+        public boolean isEmpty() {
+            return status == null && country == null && city == null && minSalary == null && maxSalary == null
+                    && minAge == null && maxAge == null && jobExecutionId == null;
+        }
+    }
+
+    /**
+     * Get one page of processed data
+     * @param filter Filters to apply
+     * @param sort Sort key (id, salary, netSalary or age)
+     * @param descending Sort in descending order
+     * @param limit Page size (capped at MAX_PAGE_SIZE)
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @return Map with items, nextCursor, hasMore and an estimated total
+     */
+    public Map<String, Object> getPage(DataFilter filter, String sort, boolean descending, int limit, String cursor) {
+        String sortKey = sort != null ? sort : "id";
+        String sortColumn = SORT_COLUMNS.get(sortKey);
+        if (sortColumn == null) {
+            throw new IllegalArgumentException("Unsupported sort key: " + sortKey + " (use one of " + SORT_COLUMNS.keySet() + ")");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String direction = descending ? "DESC" : "ASC";
+
+        List<Object> params = new ArrayList<>();
+        StringBuilder where = new StringBuilder(buildWhereClause(filter, params));
+
+        if (cursor != null && !cursor.isBlank()) {
+            List<Object> position = decodeCursor(cursor, sortKey);
+            // Row-value comparison continues strictly after the last row of the previous page
+            if ("id".equals(sortColumn)) {
+                where.append(" AND id ").append(descending ? "<" : ">").append(" ?");
+                params.add(position.get(1));
+            } else {
+                where.append(" AND (").append(sortColumn).append(", id) ").append(descending ? "<" : ">").append(" (?, ?)");
+                params.add(position.get(0));
+                params.add(position.get(1));
+            }
+        }
+
+        String orderBy = "id".equals(sortColumn) ?
+                "id " + direction : sortColumn + " " + direction + ", id " + direction;
+        params.add(pageSize + 1);
+
+        // One extra row tells whether another page exists without a count
+        List<ProcessedData> rows = jdbcTemplate.query(
+            "SELECT " + ProcessedDataRowMapper.COLUMNS + " FROM processed_data WHERE " + where +
+            " ORDER BY " + orderBy + " LIMIT ?",
+            ProcessedDataRowMapper.INSTANCE,
+            params.toArray()
+        );
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ProcessedData> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<String, Object> page = new HashMap<>();
+        page.put("items", items);
+        page.put("hasMore", hasMore);
+        page.put("limit", pageSize);
+        page.put("sort", sortKey);
+        page.put("direction", descending ? "desc" : "asc");
+        page.put("nextCursor", hasMore ? encodeCursor(items.get(items.size() - 1), sortKey) : null);
+        page.putAll(estimateTotal(filter));
+        return page;
+    }
+
+    /**
+     * Estimate the number of rows matching a filter
+     * Unfiltered, status-only and country-only counts come from the statistics summary and are
+     * exact; other filters are counted up to a limit, so the cost stays bounded
+     */
+    private Map<String, Object> estimateTotal(DataFilter filter) {
+        Map<String, Object> result = new HashMap<>();
+        DataFilter f = filter != null ? filter : new DataFilter();
+
+        if (f.isEmpty()) {
+            Map<String, Object> stats = processedStatsService.getStatistics();
+            result.put("estimatedTotal", stats.get("totalRecords"));
+            result.put("totalExact", true);
+            return result;
+        }
+
+        DataFilter statusOnly = new DataFilter();
+        statusOnly.setStatus(f.getStatus());
+        if (f.getStatus() != null && f.equals(statusOnly)) {
+            String status = f.getStatus().toUpperCase();
+            if ("VALID".equals(status) || "INVALID".equals(status)) {
+                Map<String, Object> stats = processedStatsService.getStatistics();
+                result.put("estimatedTotal", stats.get("VALID".equals(status) ? "validRecords" : "invalidRecords"));
+                result.put("totalExact", true);
+                return result;
+            }
+        }
+
+        DataFilter countryOnly = new DataFilter();
+        countryOnly.setCountry(f.getCountry());
+        if (f.getCountry() != null && f.equals(countryOnly)) {
+            Long count = processedStatsService.getCountryCount(f.getCountry());
+            result.put("estimatedTotal", count);
+            result.put("totalExact", true);
+            return result;
+        }
+
+        List<Object> params = new ArrayList<>();
+        String where = buildWhereClause(f, params);
+        params.add(countEstimateLimit);
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM (SELECT 1 FROM processed_data WHERE " + where + " LIMIT ?)",
+            Long.class, params.toArray());
+        long total = count != null ? count : 0;
+
+        result.put("estimatedTotal", total);
+        result.put("totalExact", total < countEstimateLimit);
+        return result;
+    }
+
+    /**
+     * Build the WHERE clause for a filter
+     * @param filter Filters to apply (nullable)
+     * @param params List receiving the query parameters
+     * @return WHERE clause without the WHERE keyword
+     */
+    public String buildWhereClause(DataFilter filter, List<Object> params) {
+        StringBuilder where = new StringBuilder("1 = 1");
+        if (filter == null) {
+            return where.toString();
+        }
+
+        if (filter.getStatus() != null) {
+            where.append(" AND processing_status = ?");
+            params.add(filter.getStatus().toUpperCase());
+        }
+        if (filter.getCountry() != null) {
+            where.append(" AND country = ?");
+            params.add(filter.getCountry());
+        }
+        if (filter.getCity() != null) {
+            where.append(" AND city = ?");
+            params.add(filter.getCity());
+        }
+        if (filter.getMinSalary() != null) {
+            where.append(" AND salary >= ?");
+            params.add(filter.getMinSalary());
+        }
+        if (filter.getMaxSalary() != null) {
+            where.append(" AND salary <= ?");
+            params.add(filter.getMaxSalary());
+        }
+        if (filter.getMinAge() != null) {
+            where.append(" AND age >= ?");
+            params.add(filter.getMinAge());
+        }
+        if (filter.getMaxAge() != null) {
+            where.append(" AND age <= ?");
+            params.add(filter.getMaxAge());
+        }
+        if (filter.getJobExecutionId() != null) {
+            where.append(" AND job_execution_id = ?");
+            params.add(filter.getJobExecutionId());
+        }
+        return where.toString();
+    }
+
+    private String encodeCursor(ProcessedData last, String sortKey) {
+        Object sortValue;
+        switch (sortKey) {
+            case "salary":
+                sortValue = last.getSalary();
+                break;
+            case "netSalary":
+                sortValue = last.getNetSalary();
+                break;
+            case "age":
+                sortValue = last.getAge();
+                break;
+            default:
+                sortValue = last.getId();
+                break;
+        }
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(List.of(sortKey, sortValue, last.getId()));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    /**
+     * Decode a cursor into [sortValue, id]
+     */
+    private List<Object> decodeCursor(String cursor, String sortKey) {
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            List<Object> values = objectMapper.readValue(json, new TypeReference<List<Object>>() {});
+            if (values.size() != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if (!sortKey.equals(values.get(0))) {
+                throw new IllegalArgumentException("Cursor was issued for sort key " + values.get(0));
+            }
+            return values.subList(1, 3);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.etl.etl_pipeline.service;
+
+import com.etl.etl_pipeline.model.ProcessedData;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.NonNull;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Row mapper for ProcessedData that reads columns by position
+ * Queries must select {@link #COLUMNS} in this exact order; resolving columns by index
+ * avoids a name lookup per column per row, which dominates the cost of large scans
+ */
+public class ProcessedDataRowMapper implements RowMapper<ProcessedData> {
+
+    public static final String COLUMNS =
+        "id, first_name, last_name, email, birth_date, address, city, country, " +
+        "phone_number, salary, dependents, age, tax_rate, net_salary, full_name, " +
+        "dependent_allowance, total_deductions, bonus, retirement_contribution, total_compensation, tax_amount, " +
+        "processed_at, processing_status, validation_messages, job_execution_id";
+
+    public static final ProcessedDataRowMapper INSTANCE = new ProcessedDataRowMapper();
+
+    @Override
+    public ProcessedData mapRow(@NonNull ResultSet rs, int rowNum) throws SQLException {
+        ProcessedData data = new ProcessedData();
+
+        data.setId(rs.getString(1));
+        data.setFirstName(rs.getString(2));
+        data.setLastName(rs.getString(3));
+        data.setEmail(rs.getString(4));
+
+        String birthDateStr = rs.getString(5);
+        data.setBirthDate(birthDateStr != null && !birthDateStr.isEmpty() ? LocalDate.parse(birthDateStr) : null);
+
+        data.setAddress(rs.getString(6));
+        data.setCity(rs.getString(7));
+        data.setCountry(rs.getString(8));
+        data.setPhoneNumber(rs.getString(9));
+        data.setSalary(rs.getDouble(10));
+        data.setDependents(rs.getInt(11));
+        data.setAge(rs.getInt(12));
+        data.setTaxRate(rs.getDouble(13));
+        data.setNetSalary(rs.getDouble(14));
+        data.setFullName(rs.getString(15));
+        data.setDependentAllowance(rs.getDouble(16));
+        data.setTotalDeductions(rs.getDouble(17));
+        data.setBonus(getNullableDouble(rs, 18));
+        data.setRetirementContribution(getNullableDouble(rs, 19));
+        data.setTotalCompensation(getNullableDouble(rs, 20));
+        data.setTaxAmount(getNullableDouble(rs, 21));
+
+        String processedAtStr = rs.getString(22);
+        data.setProcessedAt(processedAtStr != null ?
+            LocalDateTime.parse(processedAtStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
+
+        data.setProcessingStatus(rs.getString(23));
+        data.setValidationMessages(rs.getString(24));
+
+        long jobExecutionId = rs.getLong(25);
+        data.setJobExecutionId(rs.wasNull() ? null : jobExecutionId);
+
+        return data;
+    }
+
+    private static Double getNullableDouble(ResultSet rs, int columnIndex) throws SQLException {
+        double value = rs.getDouble(columnIndex);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,297 @@
+package com.etl.etl_pipeline.service;
+
+import com.etl.etl_pipeline.model.ProcessedData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service maintaining the processed_stats summary of processed_data
+ * Writers apply a delta in the same transaction as the rows they change, so reading the
+ * statistics is a constant-time lookup instead of a set of full-table scans.
+ * NULL countries are counted under the empty string
+ */
+@Slf4j
+@Service
+public class ProcessedStatsService {
+
+    // Keeps IN (...) lists below SQLite's default host parameter limit (999)
+    private static final int MAX_IN_LIST = 900;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Pending change to the summary
+     */
+    public static class Delta {
+        private long totalRecords;
+        private long validRecords;
+        private long invalidRecords;
+        private double ageSum;
+        private long ageCount;
+        private double salarySum;
+        private long salaryCount;
+        private double netSalarySum;
+        private long netSalaryCount;
+        private final Map<String, Long> countryCounts = new HashMap<>();
+
+        private void add(String status, String country, Number age, Number salary, Number netSalary, int sign) {
+            totalRecords += sign;
+            if ("VALID".equals(status)) {
+                validRecords += sign;
+            } else if ("INVALID".equals(status)) {
+                invalidRecords += sign;
+            }
+            if (age != null) {
+                ageSum += sign * age.doubleValue();
+                ageCount += sign;
+            }
+            if (salary != null) {
+                salarySum += sign * salary.doubleValue();
+                salaryCount += sign;
+            }
+            if (netSalary != null) {
+                netSalarySum += sign * netSalary.doubleValue();
+                netSalaryCount += sign;
+            }
+            countryCounts.merge(country != null ? country : "", (long) sign, Long::sum);
+        }
+
+        public boolean isEmpty() {
+            return totalRecords == 0 && validRecords == 0 && invalidRecords == 0 && ageCount == 0
+                    && salaryCount == 0 && netSalaryCount == 0
+                    && countryCounts.values().stream().allMatch(count -> count == 0);
+        }
+    }
+
+    /**
+     * Take SQLite's write lock for the caller's transaction, waiting up to the given time for it
+     * Call before computing a delta: a transaction that reads and then writes fails with
+     * SQLITE_BUSY_SNAPSHOT if another writer commits in between, and retrying in the same
+     * transaction cannot succeed. Writing first makes concurrent writers queue instead
+     * @param timeoutMs How long to wait for other writers to commit
+     */
+    public void lockForWrite(long timeoutMs) {
+        // Applies to the transaction's connection, which may not have had its busy timeout raised
+        jdbcTemplate.execute("PRAGMA busy_timeout = " + timeoutMs);
+        // Changes no rows, but starts the write transaction
+        jdbcTemplate.update("UPDATE processed_stats SET data_version = data_version WHERE 0");
+    }
+
+    /**
+     * Compute the summary change of writing the given items with INSERT OR REPLACE
+     * Must be called before the items are written, after {@link #lockForWrite}: rows that will be replaced are read and
+     * subtracted, and an id repeated within the items only counts its last occurrence
+     * @param items Items about to be written
+     * @return Delta to apply once the items are written
+     */
+    public Delta deltaForUpsert(List<? extends ProcessedData> items) {
+        Map<String, ProcessedData> lastById = new LinkedHashMap<>();
+        for (ProcessedData item : items) {
+            lastById.put(item.getId(), item);
+        }
+
+        Delta delta = new Delta();
+        List<String> ids = new ArrayList<>(lastById.keySet());
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+            List<String> batch = ids.subList(from, Math.min(from + MAX_IN_LIST, ids.size()));
+            String in = String.join(", ", Collections.nCopies(batch.size(), "?"));
+            jdbcTemplate.query(
+                "SELECT processing_status, country, age, salary, net_salary FROM processed_data WHERE id IN (" + in + ")",
+                rs -> {
+                    delta.add(rs.getString(1), rs.getString(2), (Number) rs.getObject(3),
+                            (Number) rs.getObject(4), (Number) rs.getObject(5), -1);
+                },
+                batch.toArray()
+            );
+        }
+
+        // Same defaults as DatabaseWriter uses for missing values
+        for (ProcessedData item : lastById.values()) {
+            delta.add(item.getProcessingStatus(), item.getCountry(),
+                    item.getAge() != null ? item.getAge() : 0,
+                    item.getSalary() != null ? item.getSalary() : 0.0,
+                    item.getNetSalary() != null ? item.getNetSalary() : 0.0, 1);
+        }
+        return delta;
+    }
+
+    /**
+     * Compute the summary change of deleting the rows loaded by a job execution
+     * Must be called before the rows are deleted, after {@link #lockForWrite}
+     * @param jobExecutionId Job execution ID
+     * @return Delta to apply once the rows are deleted
+     */
+    public Delta deltaForJobDelete(Long jobExecutionId) {
+        Delta delta = new Delta();
+        jdbcTemplate.query(
+            "SELECT processing_status, country, age, salary, net_salary FROM processed_data WHERE job_execution_id = ?",
+            rs -> {
+                delta.add(rs.getString(1), rs.getString(2), (Number) rs.getObject(3),
+                        (Number) rs.getObject(4), (Number) rs.getObject(5), -1);
+            },
+            jobExecutionId
+        );
+        return delta;
+    }
+
+    /**
+     * Bump the data version for a change that leaves the summary as it is, such as moving rows
+     * to another job execution, so results cached against the version are recomputed
+     * Runs in the caller's transaction
+     */
+    public void touch() {
+        jdbcTemplate.update("UPDATE processed_stats SET data_version = data_version + 1 WHERE id = 1");
+    }
+
+    /**
+     * Apply a delta to the summary
+     * Runs in the caller's transaction, so the summary commits or rolls back with the data
+     * @param delta Delta to apply
+     */
+    public void apply(Delta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.update(
+            "UPDATE processed_stats SET total_records = total_records + ?, valid_records = valid_records + ?, " +
+            "invalid_records = invalid_records + ?, age_sum = age_sum + ?, age_count = age_count + ?, " +
+            "salary_sum = salary_sum + ?, salary_count = salary_count + ?, " +
+            "net_salary_sum = net_salary_sum + ?, net_salary_count = net_salary_count + ?, " +
+            "data_version = data_version + 1 WHERE id = 1",
+            delta.totalRecords, delta.validRecords, delta.invalidRecords, delta.ageSum, delta.ageCount,
+            delta.salarySum, delta.salaryCount, delta.netSalarySum, delta.netSalaryCount
+        );
+
+        List<Object[]> countryUpdates = new ArrayList<>();
+        delta.countryCounts.forEach((country, count) -> {
+            if (count != 0) {
+                countryUpdates.add(new Object[] { country, count });
+            }
+        });
+        if (!countryUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO processed_stats_country (country, record_count) VALUES (?, ?) " +
+                "ON CONFLICT(country) DO UPDATE SET record_count = record_count + excluded.record_count",
+                countryUpdates
+            );
+            jdbcTemplate.update("DELETE FROM processed_stats_country WHERE record_count <= 0");
+        }
+    }
+
+    /**
+     * Get summary statistics of processed data
+     * Reads the maintained summary; cost does not depend on the size of processed_data
+     * @return Map with statistics
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT total_records, valid_records, invalid_records, age_sum, age_count, salary_sum, salary_count, " +
+            "net_salary_sum, net_salary_count, data_version FROM processed_stats WHERE id = 1");
+        Map<String, Object> row = rows.isEmpty() ? Collections.emptyMap() : rows.get(0);
+
+        stats.put("totalRecords", toLong(row.get("total_records")));
+        stats.put("validRecords", toLong(row.get("valid_records")));
+        stats.put("invalidRecords", toLong(row.get("invalid_records")));
+        stats.put("averageAge", average(row.get("age_sum"), row.get("age_count")));
+        stats.put("averageSalary", average(row.get("salary_sum"), row.get("salary_count")));
+        stats.put("averageNetSalary", average(row.get("net_salary_sum"), row.get("net_salary_count")));
+        stats.put("dataVersion", toLong(row.get("data_version")));
+
+        List<Map<String, Object>> countryStats = jdbcTemplate.queryForList(
+            "SELECT country, record_count AS count FROM processed_stats_country ORDER BY record_count DESC");
+        stats.put("countryDistribution", countryStats);
+
+        return stats;
+    }
+
+    /**
+     * Get the number of rows for one country from the summary
+     * @param country Country
+     * @return Row count
+     */
+    public long getCountryCount(String country) {
+        List<Long> counts = jdbcTemplate.queryForList(
+            "SELECT record_count FROM processed_stats_country WHERE country = ?", Long.class, country);
+        return counts.isEmpty() ? 0 : counts.get(0);
+    }
+
+    /**
+     * Get the data version, incremented by every change to processed_data made through this service
+     * @return Current data version
+     */
+    public long getDataVersion() {
+        Long version = jdbcTemplate.queryForObject("SELECT data_version FROM processed_stats WHERE id = 1", Long.class);
+        return version != null ? version : 0;
+    }
+
+    /**
+     * Rebuild the summary at startup, since processed_data is recreated by schema.sql
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Failed to rebuild processed data statistics at startup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute the summary from processed_data
+     * Covers drift from changes made outside the writers (manual SQL, schema resets)
+     * @return The rebuilt statistics
+     */
+    public Map<String, Object> rebuild() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(
+                "INSERT OR REPLACE INTO processed_stats (id, total_records, valid_records, invalid_records, " +
+                "age_sum, age_count, salary_sum, salary_count, net_salary_sum, net_salary_count, data_version) " +
+                "SELECT 1, COUNT(*), " +
+                "COALESCE(SUM(processing_status = 'VALID'), 0), COALESCE(SUM(processing_status = 'INVALID'), 0), " +
+                "COALESCE(SUM(age), 0), COUNT(age), COALESCE(SUM(salary), 0), COUNT(salary), " +
+                "COALESCE(SUM(net_salary), 0), COUNT(net_salary), " +
+                "COALESCE((SELECT data_version FROM processed_stats WHERE id = 1), 0) + 1 " +
+                "FROM processed_data"
+            );
+            jdbcTemplate.update("DELETE FROM processed_stats_country");
+            jdbcTemplate.update(
+                "INSERT INTO processed_stats_country (country, record_count) " +
+                "SELECT COALESCE(country, ''), COUNT(*) FROM processed_data GROUP BY COALESCE(country, '')"
+            );
+        });
+
+        Map<String, Object> stats = getStatistics();
+        log.info("Rebuilt processed data statistics: {} records", stats.get("totalRecords"));
+        return stats;
+    }
+
+    private long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private double average(Object sum, Object count) {
+        long n = toLong(count);
+        return n > 0 && sum instanceof Number ? ((Number) sum).doubleValue() / n : 0;
+    }
+}
@@ -0,0 +1,11 @@
+package com.etl.etl_pipeline.service;
+
+/**
+ * Thrown when an upload session does not exist or has already been completed or aborted
+ */
+public class UploadSessionNotFoundException extends RuntimeException {
+
+    public UploadSessionNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,415 @@
+package com.etl.etl_pipeline.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service for resumable, chunked uploads
+ * A session preallocates the target file; parts are written at their byte offset with
+ * positional writes, so they can arrive in any order and in parallel, and a client that
+ * loses its connection only re-sends the ranges that were not acknowledged.
+ * Sessions and received ranges are kept in the database, so uploads survive a restart.
+ * Parts of a session share a lock that completion, abort and cleanup take exclusively, so a part
+ * is never written into a session that is being completed or removed
+ */
+@Slf4j
+@Service
+public class UploadSessionService {
+
+    private static final Set<String> SUPPORTED_TYPES = Set.of("csv", "json", "xls", "xlsx");
+
+    /** Lock stripes, indexed by session ID, so no per-session lock has to be created or removed */
+    private final ReadWriteLock[] sessionLocks = new ReadWriteLock[64];
+
+    {
+        for (int i = 0; i < sessionLocks.length; i++) {
+            sessionLocks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UploadStore uploadStore;
+
+    @Autowired
+    private EtlService etlService;
+
+    @Value("${etl.upload-dir:uploads}")
+    private String uploadDir;
+
+    @Value("${etl.upload.buffer-size:65536}")
+    private int bufferSize;
+
+    @Value("${etl.upload.session-ttl-hours:24}")
+    private int sessionTtlHours;
+
+    /**
+     * Create an upload session and preallocate its file
+     * @param fileName Original file name; its extension selects the reader
+     * @param totalSize Total size of the file in bytes
+     * @param sha256 Expected SHA-256 of the whole file, verified on completion (nullable)
+     * @return Map with the session details
+     */
+    public Map<String, Object> createSession(String fileName, long totalSize, String sha256) throws IOException {
+        String fileType = FilenameUtils.getExtension(fileName).toLowerCase();
+        if (!SUPPORTED_TYPES.contains(fileType)) {
+            throw new IllegalArgumentException("Unsupported file type: " + fileType);
+        }
+        if (totalSize <= 0) {
+            throw new IllegalArgumentException("Total size must be positive");
+        }
+
+        String sessionId = UUID.randomUUID().toString();
+        Path sessionDir = Paths.get(uploadDir, "sessions");
+        Files.createDirectories(sessionDir);
+        Path filePath = sessionDir.resolve(sessionId + "." + fileType);
+
+        // Reserve the full size up front; parts are then written in place
+        try (RandomAccessFile file = new RandomAccessFile(filePath.toFile(), "rw")) {
+            file.setLength(totalSize);
+        }
+
+        String now = now();
+        jdbcTemplate.update(
+            "INSERT INTO upload_sessions (session_id, file_name, file_type, total_size, sha256, file_path, " +
+            "status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, 'OPEN', ?, ?)",
+            sessionId, fileName, fileType, totalSize,
+            sha256 != null && !sha256.isBlank() ? sha256.toLowerCase() : null,
+            filePath.toString(), now, now
+        );
+
+        log.info("Created upload session {} for {} ({} bytes)", sessionId, fileName, totalSize);
+        return getSession(sessionId);
+    }
+
+    /**
+     * Write one part of an upload at its byte offset
+     * The part is acknowledged only after it has been written, forced to disk and matched
+     * its checksum, so a range reported as received never needs to be sent again
+     * @param sessionId Session ID
+     * @param start Offset of the first byte
+     * @param end Offset of the last byte (inclusive)
+     * @param body Part content
+     * @param checksum Expected SHA-256 of the part (nullable)
+     * @return Map with the session details
+     */
+    public Map<String, Object> writePart(String sessionId, long start, long end, InputStream body,
+                                         String checksum) throws IOException {
+        Lock lock = sessionLock(sessionId).readLock();
+        lock.lock();
+        try {
+            return writeOpenPart(sessionId, start, end, body, checksum);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write a part while holding the session's shared lock
+     * The state is checked under the lock, so completion cannot claim the session until the part is recorded
+     */
+    private Map<String, Object> writeOpenPart(String sessionId, long start, long end, InputStream body,
+                                              String checksum) throws IOException {
+        Map<String, Object> session = findOpenSession(sessionId);
+        long totalSize = ((Number) session.get("totalSize")).longValue();
+        if (start < 0 || end < start || end >= totalSize) {
+            throw new IllegalArgumentException("Invalid byte range " + start + "-" + end + " for size " + totalSize);
+        }
+
+        long expectedLength = end - start + 1;
+        MessageDigest digest = newSha256();
+        long written = 0;
+
+        try (FileChannel channel = FileChannel.open(Paths.get((String) session.get("filePath")), StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[bufferSize];
+            int read;
+            while ((read = body.read(buffer, 0, (int) Math.min(buffer.length, expectedLength - written + 1))) != -1) {
+                if (written + read > expectedLength) {
+                    throw new IllegalArgumentException("Part is longer than its range " + start + "-" + end);
+                }
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                long position = start + written;
+                while (byteBuffer.hasRemaining()) {
+                    position += channel.write(byteBuffer, position);
+                }
+                digest.update(buffer, 0, read);
+                written += read;
+            }
+            channel.force(false);
+        }
+
+        if (written != expectedLength) {
+            throw new IllegalArgumentException("Part is shorter than its range: received " + written +
+                    " of " + expectedLength + " bytes");
+        }
+
+        String partChecksum = HexFormat.of().formatHex(digest.digest());
+        if (checksum != null && !checksum.isBlank() && !checksum.equalsIgnoreCase(partChecksum)) {
+            throw new IllegalArgumentException("Checksum mismatch for range " + start + "-" + end);
+        }
+
+        jdbcTemplate.update(
+            "INSERT OR REPLACE INTO upload_session_parts (session_id, range_start, range_end, checksum) " +
+            "VALUES (?, ?, ?, ?)",
+            sessionId, start, end, partChecksum
+        );
+        jdbcTemplate.update("UPDATE upload_sessions SET updated_at = ? WHERE session_id = ?", now(), sessionId);
+
+        log.debug("Upload session {} received bytes {}-{}", sessionId, start, end);
+        return getSession(sessionId);
+    }
+
+    /**
+     * Get a session with the byte ranges received so far
+     * @param sessionId Session ID
+     * @return Map with the session details, received ranges and missing byte count
+     */
+    public Map<String, Object> getSession(String sessionId) {
+        Map<String, Object> session = findSession(sessionId);
+        long totalSize = ((Number) session.get("totalSize")).longValue();
+
+        List<long[]> ranges = getReceivedRanges(sessionId);
+        long received = 0;
+        List<Map<String, Object>> rangeList = new ArrayList<>();
+        for (long[] range : ranges) {
+            received += range[1] - range[0] + 1;
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("start", range[0]);
+            entry.put("end", range[1]);
+            rangeList.add(entry);
+        }
+
+        Map<String, Object> result = new HashMap<>(session);
+        result.remove("filePath");
+        result.put("receivedRanges", rangeList);
+        result.put("receivedBytes", received);
+        result.put("missingBytes", totalSize - received);
+        return result;
+    }
+
+    /**
+     * Complete a session and launch the ETL job for the assembled file
+     * @param sessionId Session ID
+     * @param forceRerun Process the file even if identical content was already processed
+     * @return Map with jobId, sha256 and whether the previous job was reused
+     * @throws IllegalStateException if parts are still missing or the file checksum does not match
+     * @throws JobQueueFullException if too many jobs are already queued or running
+     */
+    public Map<String, Object> completeSession(String sessionId, boolean forceRerun) throws IOException,
+            JobParametersInvalidException, JobExecutionAlreadyRunningException, JobRestartException,
+            JobInstanceAlreadyCompleteException {
+        Map<String, Object> session;
+        long totalSize;
+        // Parts still being written hold the shared lock; once the claim below commits, new parts are refused
+        Lock lock = sessionLock(sessionId).writeLock();
+        lock.lock();
+        try {
+            session = findOpenSession(sessionId);
+            totalSize = ((Number) session.get("totalSize")).longValue();
+
+            long missing = totalSize;
+            for (long[] range : getReceivedRanges(sessionId)) {
+                missing -= range[1] - range[0] + 1;
+            }
+            if (missing > 0) {
+                throw new IllegalStateException("Upload incomplete: " + missing + " bytes missing");
+            }
+
+            // Claim the session so concurrent completions cannot launch the job twice
+            int claimed = jdbcTemplate.update(
+                "UPDATE upload_sessions SET status = 'COMPLETING' WHERE session_id = ? AND status = 'OPEN'", sessionId);
+            if (claimed == 0) {
+                throw new UploadSessionNotFoundException("Upload session " + sessionId + " is already being completed");
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Path filePath = Paths.get((String) session.get("filePath"));
+        String fileType = (String) session.get("fileType");
+        String sha256;
+        Map<String, Object> result;
+        try {
+            sha256 = uploadStore.hash(filePath);
+            String expected = (String) session.get("sha256");
+            if (expected != null && !expected.equals(sha256)) {
+                throw new IllegalStateException("Checksum mismatch: expected " + expected + " but file has " + sha256);
+            }
+
+            UploadStore.StoredUpload upload = uploadStore.adopt(filePath, sha256, fileType);
+            result = etlService.processStoredFile(upload, (String) session.get("fileName"), forceRerun);
+        } catch (IOException | JobParametersInvalidException | JobExecutionAlreadyRunningException |
+                 JobRestartException | JobInstanceAlreadyCompleteException | RuntimeException e) {
+            // Leave the session open so the client can retry the completion
+            jdbcTemplate.update("UPDATE upload_sessions SET status = 'OPEN' WHERE session_id = ?", sessionId);
+            throw e;
+        }
+
+        jdbcTemplate.update(
+            "UPDATE upload_sessions SET status = 'COMPLETED', sha256 = ?, job_id = ?, updated_at = ? WHERE session_id = ?",
+            sha256, result.get("jobId"), now(), sessionId
+        );
+        jdbcTemplate.update("DELETE FROM upload_session_parts WHERE session_id = ?", sessionId);
+        deleteQuietly(filePath);
+
+        log.info("Completed upload session {} ({} bytes, sha256 {})", sessionId, totalSize, sha256);
+        return result;
+    }
+
+    /**
+     * Abort a session and delete its partial file
+     * @param sessionId Session ID
+     */
+    public void abortSession(String sessionId) {
+        Lock lock = sessionLock(sessionId).writeLock();
+        lock.lock();
+        try {
+            Map<String, Object> session = findOpenSession(sessionId);
+            removeSession(sessionId, (String) session.get("filePath"));
+        } finally {
+            lock.unlock();
+        }
+        log.info("Aborted upload session {}", sessionId);
+    }
+
+    /**
+     * Remove sessions that have not received data within the session TTL
+     * Sessions being completed are skipped: their file is being hashed and adopted into the upload store
+     */
+    @Scheduled(cron = "${etl.upload.session-cleanup-cron:0 0 * * * *}")
+    public void purgeStaleSessions() {
+        String cutoff = LocalDateTime.now().minusHours(sessionTtlHours).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        List<Map<String, Object>> stale = jdbcTemplate.queryForList(
+            "SELECT session_id, file_path FROM upload_sessions WHERE updated_at < ? AND status <> 'COMPLETING'", cutoff);
+
+        int removed = 0;
+        for (Map<String, Object> session : stale) {
+            String sessionId = (String) session.get("session_id");
+            Lock lock = sessionLock(sessionId).writeLock();
+            lock.lock();
+            try {
+                // Re-check under the lock: a part or a completion may have touched the session since the query
+                int deleted = jdbcTemplate.update(
+                    "DELETE FROM upload_sessions WHERE session_id = ? AND updated_at < ? AND status <> 'COMPLETING'",
+                    sessionId, cutoff);
+                if (deleted > 0) {
+                    removeSession(sessionId, (String) session.get("file_path"));
+                    removed++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} stale upload sessions", removed);
+        }
+    }
+
+    private ReadWriteLock sessionLock(String sessionId) {
+        return sessionLocks[Math.floorMod(sessionId.hashCode(), sessionLocks.length)];
+    }
+
+    private void removeSession(String sessionId, String filePath) {
+        jdbcTemplate.update("DELETE FROM upload_session_parts WHERE session_id = ?", sessionId);
+        jdbcTemplate.update("DELETE FROM upload_sessions WHERE session_id = ?", sessionId);
+        deleteQuietly(Paths.get(filePath));
+    }
+
+    /**
+     * Get the received byte ranges of a session, merged into disjoint ranges in offset order
+     */
+    private List<long[]> getReceivedRanges(String sessionId) {
+        List<long[]> parts = jdbcTemplate.query(
+            "SELECT range_start, range_end FROM upload_session_parts WHERE session_id = ? ORDER BY range_start",
+            (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) },
+            sessionId
+        );
+
+        List<long[]> merged = new ArrayList<>();
+        for (long[] part : parts) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && part[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], part[1]);
+            } else {
+                merged.add(part);
+            }
+        }
+        return merged;
+    }
+
+    private Map<String, Object> findSession(String sessionId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT session_id AS sessionId, file_name AS fileName, file_type AS fileType, total_size AS totalSize, " +
+            "sha256, file_path AS filePath, status AS sessionStatus, job_id AS jobId, created_at AS createdAt, updated_at AS updatedAt " +
+            "FROM upload_sessions WHERE session_id = ?",
+            sessionId
+        );
+        if (rows.isEmpty()) {
+            throw new UploadSessionNotFoundException("Upload session not found: " + sessionId);
+        }
+        return rows.get(0);
+    }
+
+    private Map<String, Object> findOpenSession(String sessionId) {
+        Map<String, Object> session = findSession(sessionId);
+        if (!"OPEN".equals(session.get("sessionStatus"))) {
+            throw new UploadSessionNotFoundException("Upload session " + sessionId + " is " + session.get("sessionStatus"));
+        }
+        return session;
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete upload session file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private String now() {
+        return LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    private MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
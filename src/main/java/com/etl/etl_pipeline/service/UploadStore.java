@@ -0,0 +1,279 @@
+package com.etl.etl_pipeline.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Content-addressed store for uploaded files
+ * Each upload is written once, under its SHA-256 computed while the body is streamed to disk.
+ * Byte-identical uploads share one stored object, and other directories get hard links to it
+ * instead of copies
+ */
+@Slf4j
+@Service
+public class UploadStore {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Value("${etl.upload-dir:uploads}")
+    private String uploadDir;
+
+    @Value("${etl.upload.buffer-size:65536}")
+    private int bufferSize;
+
+    /**
+     * An upload stored in the content-addressed store
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class StoredUpload {
+        private final String sha256;
+        private final Path path;
+        private final long size;
+        private final boolean alreadyStored;
+    }
+
+    /**
+     * Stream an upload into the store, hashing it on the way
+     * @param inputStream Upload body
+     * @param fileExtension File extension (kept on the stored object so readers can detect the format)
+     * @return The stored upload
+     */
+    public StoredUpload store(InputStream inputStream, String fileExtension) throws IOException {
+        Path tempDir = Paths.get(uploadDir, "tmp");
+        Files.createDirectories(tempDir);
+        Path tempFile = tempDir.resolve(UUID.randomUUID() + ".part");
+
+        MessageDigest digest = newSha256();
+        long size;
+        try {
+            size = writeAndHash(inputStream, tempFile, digest, null);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        String sha256 = HexFormat.of().formatHex(digest.digest());
+        Path objectPath = getObjectPath(sha256, fileExtension);
+
+        if (Files.exists(objectPath)) {
+            Files.delete(tempFile);
+            log.info("Upload {} already stored at {}", sha256, objectPath);
+            return new StoredUpload(sha256, objectPath, size, true);
+        }
+
+        Files.createDirectories(objectPath.getParent());
+        try {
+            Files.move(tempFile, objectPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Another request stored the same content concurrently
+            Files.deleteIfExists(tempFile);
+            return new StoredUpload(sha256, objectPath, size, true);
+        }
+
+        log.info("Stored upload {} ({} bytes) at {}", sha256, size, objectPath);
+        return new StoredUpload(sha256, objectPath, size, false);
+    }
+
+    /**
+     * Create a new spool file for an upload that is processed while it is being received
+     * @param fileExtension File extension (kept so readers can detect the format)
+     * @return Path of the (not yet existing) spool file
+     */
+    public Path newSpoolFile(String fileExtension) throws IOException {
+        Path spoolDir = Paths.get(uploadDir, "spool");
+        Files.createDirectories(spoolDir);
+        return spoolDir.resolve(UUID.randomUUID() + "." + fileExtension);
+    }
+
+    /**
+     * Stream an upload into a spool file, hashing it on the way
+     * Progress is published to the spool handle after every write so readers can follow the file
+     * @param inputStream Upload body
+     * @param spoolFile Spool file (created if it does not exist yet)
+     * @param spool Progress handle for readers (nullable)
+     * @return The spooled upload; the spool file stays in place as the job's durable input
+     */
+    public StoredUpload spool(InputStream inputStream, Path spoolFile, IngestSpoolRegistry.Spool spool) throws IOException {
+        MessageDigest digest = newSha256();
+        long size = writeAndHash(inputStream, spoolFile, digest, spool);
+        String sha256 = HexFormat.of().formatHex(digest.digest());
+        log.info("Spooled upload {} ({} bytes) at {}", sha256, size, spoolFile);
+        return new StoredUpload(sha256, spoolFile, size, false);
+    }
+
+    /**
+     * Add a fully received file to the store under its content hash
+     * The object is a hard link to the file, so nothing is copied
+     * @param file Fully received file
+     * @param sha256 Content hash of the file
+     * @param fileExtension File extension
+     * @return The stored upload
+     */
+    public StoredUpload adopt(Path file, String sha256, String fileExtension) throws IOException {
+        Path objectPath = getObjectPath(sha256, fileExtension);
+        boolean alreadyStored = Files.exists(objectPath);
+        if (!alreadyStored) {
+            linkView(file, objectPath);
+        }
+        return new StoredUpload(sha256, objectPath, Files.size(objectPath), alreadyStored);
+    }
+
+    /**
+     * Compute the SHA-256 of a file
+     * @param file File to hash
+     * @return Lowercase hex digest
+     */
+    public String hash(Path file) throws IOException {
+        MessageDigest digest = newSha256();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            byte[] buffer = new byte[bufferSize];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Expose a stored object under another path as a hard link
+     * Falls back to a copy when the file system does not support hard links
+     * @param objectPath Path of the stored object
+     * @param viewPath Path of the view to create
+     */
+    public void linkView(Path objectPath, Path viewPath) throws IOException {
+        Files.createDirectories(viewPath.getParent());
+        Files.deleteIfExists(viewPath);
+        try {
+            Files.createLink(viewPath, objectPath);
+            log.debug("Linked {} to {}", viewPath, objectPath);
+        } catch (UnsupportedOperationException | IOException e) {
+            log.warn("Hard link not possible for {} ({}), copying instead", viewPath, e.getMessage());
+            Files.copy(objectPath, viewPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Record the job that processed an upload
+     * @param sha256 Content hash
+     * @param fileType File type the content was processed as
+     * @param jobId Job ID returned to clients
+     * @param jobExecutionId Job execution ID
+     */
+    public void recordJob(String sha256, String fileType, String jobId, Long jobExecutionId) {
+        jdbcTemplate.update(
+            "INSERT OR REPLACE INTO upload_index (sha256, file_type, job_id, job_execution_id, uploaded_at) " +
+            "VALUES (?, ?, ?, ?, ?)",
+            sha256, fileType, jobId, jobExecutionId,
+            LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+        );
+    }
+
+    /**
+     * Find a completed job that already processed byte-identical content and whose rows are still loaded
+     * processed_data is recreated on startup and a job's rows can be deleted, so a completed
+     * execution without rows is not a duplicate: the content is loaded again
+     * @param sha256 Content hash
+     * @param fileType File type
+     * @return Map with jobId and jobExecutionId, or null if no such job exists
+     */
+    public Map<String, Object> findCompletedJob(String sha256, String fileType) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT job_id AS jobId, job_execution_id AS jobExecutionId FROM upload_index " +
+            "WHERE sha256 = ? AND file_type = ?",
+            sha256, fileType
+        );
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Object> previous = rows.get(0);
+        Object jobExecutionId = previous.get("jobExecutionId");
+        if (!(jobExecutionId instanceof Number)) {
+            return null;
+        }
+
+        // The execution may have failed or been purged since it was recorded
+        JobExecution jobExecution = jobExplorer.getJobExecution(((Number) jobExecutionId).longValue());
+        if (jobExecution == null || jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            return null;
+        }
+
+        // Served by idx_processed_data_job
+        Boolean loaded = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM processed_data WHERE job_execution_id = ?)",
+            Boolean.class, jobExecution.getId()
+        );
+        if (!Boolean.TRUE.equals(loaded)) {
+            return null;
+        }
+        return previous;
+    }
+
+    private long writeAndHash(InputStream inputStream, Path file, MessageDigest digest,
+                              IngestSpoolRegistry.Spool spool) throws IOException {
+        long size = 0;
+        try (DigestInputStream digestStream = new DigestInputStream(inputStream, digest);
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[bufferSize];
+            int read;
+            while ((read = digestStream.read(buffer)) != -1) {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+                size += read;
+                if (spool != null) {
+                    spool.advance(read);
+                }
+            }
+        }
+        return size;
+    }
+
+    private Path getObjectPath(String sha256, String fileExtension) {
+        String fileName = fileExtension == null || fileExtension.isEmpty() ? sha256 : sha256 + "." + fileExtension;
+        return Paths.get(uploadDir, "objects", sha256.substring(0, 2), fileName);
+    }
+
+    private MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.etl.etl_pipeline.service;
+
+/**
+ * Thrown when a preview upload token does not exist, has expired or was already used
+ */
+public class UploadTokenNotFoundException extends RuntimeException {
+
+    public UploadTokenNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,138 @@
+package com.etl.etl_pipeline.service;
+
+import com.etl.etl_pipeline.reader.ReaderPlan;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service for handing a previewed file over to ingestion
+ * A handoff preview stores the file in the upload store and resolves its reader plan (format,
+ * header mapping and date format). The returned token lets the upload reference that stored
+ * file, so the bytes are sent and parsed for the header only once. Tokens are kept in memory,
+ * expire after a short TTL and are single use; the stored file itself follows the upload
+ * store's normal lifecycle
+ */
+@Slf4j
+@Service
+public class UploadTokenService {
+
+    private static final Set<String> SUPPORTED_TYPES = Set.of("csv", "json", "xls", "xlsx");
+
+    @Autowired
+    private UploadStore uploadStore;
+
+    @Autowired
+    private PreviewService previewService;
+
+    @Value("${etl.preview.token-ttl-minutes:30}")
+    private long tokenTtlMinutes;
+
+    @Value("${etl.preview.plan-sample-rows:200}")
+    private int planSampleRows;
+
+    private final Map<String, UploadToken> tokens = new ConcurrentHashMap<>();
+
+    /**
+     * A stored upload waiting to be processed, with its resolved reader plan
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class UploadToken {
+        private final String token;
+        private final UploadStore.StoredUpload upload;
+        private final String originalFilename;
+        private final ReaderPlan plan;
+        private final Instant expiresAt;
+    }
+
+    /**
+     * Store a file, preview it and issue an upload token for it
+     * @param in File content
+     * @param originalFilename Original file name; its extension selects the format
+     * @param rows Number of preview rows to return
+     * @return Map with the token, its expiry, the reader plan and the preview rows
+     */
+    public Map<String, Object> createHandoff(InputStream in, String originalFilename, int rows) throws IOException {
+        if (originalFilename == null) {
+            throw new IllegalArgumentException("File name is required");
+        }
+        String fileExtension = FilenameUtils.getExtension(originalFilename).toLowerCase();
+        if (!SUPPORTED_TYPES.contains(fileExtension)) {
+            throw new IllegalArgumentException("Unsupported file type: " + fileExtension);
+        }
+
+        // The store is the only copy of the bytes; the preview and, later, the job both read it
+        UploadStore.StoredUpload upload = uploadStore.store(in, fileExtension);
+
+        // Resolve the plan from more rows than are shown, so the date format is settled reliably
+        List<Map<String, Object>> preview = previewService.head(upload.getPath(), fileExtension, Math.max(rows, planSampleRows));
+        List<String> header = previewService.header(upload.getPath(), fileExtension);
+        ReaderPlan plan = ReaderPlan.detect(fileExtension, header, preview);
+
+        UploadToken token = new UploadToken(UUID.randomUUID().toString(), upload, originalFilename, plan,
+                Instant.now().plusSeconds(tokenTtlMinutes * 60));
+        tokens.put(token.getToken(), token);
+        log.info("Issued upload token {} for {} ({})", token.getToken(), originalFilename, upload.getSha256());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("uploadToken", token.getToken());
+        result.put("expiresAt", token.getExpiresAt().toString());
+        result.put("sha256", upload.getSha256());
+        result.put("size", upload.getSize());
+        result.put("plan", plan);
+        result.put("rows", preview.subList(0, Math.min(Math.max(rows, 0), preview.size())));
+        return result;
+    }
+
+    /**
+     * Claim an unexpired token for processing
+     * The token is removed, so concurrent uploads with the same token cannot both launch a job
+     * @param token Token string
+     * @return Upload token
+     * @throws UploadTokenNotFoundException if the token is unknown, expired or already claimed
+     */
+    public UploadToken claim(String token) {
+        UploadToken uploadToken = token != null ? tokens.remove(token) : null;
+        if (uploadToken == null || uploadToken.getExpiresAt().isBefore(Instant.now())) {
+            throw new UploadTokenNotFoundException("Upload token not found or expired: " + token);
+        }
+        return uploadToken;
+    }
+
+    /**
+     * Return a claimed token whose upload could not be processed, so the client can retry
+     * @param uploadToken Claimed token
+     */
+    public void release(UploadToken uploadToken) {
+        tokens.put(uploadToken.getToken(), uploadToken);
+    }
+
+    /**
+     * Drop expired tokens
+     */
+    @Scheduled(fixedDelayString = "${etl.preview.token-cleanup-ms:60000}")
+    public void purgeExpiredTokens() {
+        Instant now = Instant.now();
+        int before = tokens.size();
+        tokens.values().removeIf(token -> token.getExpiresAt().isBefore(now));
+        if (tokens.size() < before) {
+            log.debug("Dropped {} expired upload tokens", before - tokens.size());
+        }
+    }
+}
@@ -4,24 +4,29 @@ import java.time.LocalDate;
 import java.time.Period;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Utility class for date operations
  */
 public class DateUtils {
 
-    // Common date formats to try when parsing
-    private static final List<DateTimeFormatter> DATE_FORMATTERS = Arrays.asList(
-        DateTimeFormatter.ISO_DATE,                    // 2023-01-31
-        DateTimeFormatter.ofPattern("MM/dd/yyyy"),     // 01/31/2023
-        DateTimeFormatter.ofPattern("dd/MM/yyyy"),     // 31/01/2023
-        DateTimeFormatter.ofPattern("MM-dd-yyyy"),     // 01-31-2023
-        DateTimeFormatter.ofPattern("yyyy/MM/dd"),     // 2023/01/31
-        DateTimeFormatter.ofPattern("dd-MMM-yyyy"),    // 31-Jan-2023
-        DateTimeFormatter.ofPattern("MMM dd, yyyy")    // Jan 31, 2023
-    );
+    // Common date formats to try when parsing, keyed by pattern
+    private static final Map<String, DateTimeFormatter> DATE_FORMATS = new LinkedHashMap<>();
+    static {
+        DATE_FORMATS.put("yyyy-MM-dd", DateTimeFormatter.ISO_DATE);                  // 2023-01-31
+        DATE_FORMATS.put("MM/dd/yyyy", DateTimeFormatter.ofPattern("MM/dd/yyyy"));   // 01/31/2023
+        DATE_FORMATS.put("dd/MM/yyyy", DateTimeFormatter.ofPattern("dd/MM/yyyy"));   // 31/01/2023
+        DATE_FORMATS.put("MM-dd-yyyy", DateTimeFormatter.ofPattern("MM-dd-yyyy"));   // 01-31-2023
+        DATE_FORMATS.put("yyyy/MM/dd", DateTimeFormatter.ofPattern("yyyy/MM/dd"));   // 2023/01/31
+        DATE_FORMATS.put("dd-MMM-yyyy", DateTimeFormatter.ofPattern("dd-MMM-yyyy")); // 31-Jan-2023
+        DATE_FORMATS.put("MMM dd, yyyy", DateTimeFormatter.ofPattern("MMM dd, yyyy")); // Jan 31, 2023
+    }
+    private static final List<DateTimeFormatter> DATE_FORMATTERS = new ArrayList<>(DATE_FORMATS.values());
 
     /**
      * Parses a date string using multiple common formats
@@ -47,6 +52,56 @@ public class DateUtils {
         return null;
     }
 
+    /**
+     * Parses a date string, trying a known format first
+     * @param dateStr Date string to parse
+     * @param preferredPattern Pattern detected for the file (see {@link #detectFormat}), may be null
+     * @return LocalDate object or null if parsing fails
+     */
+    public static LocalDate parseDate(String dateStr, String preferredPattern) {
+        DateTimeFormatter preferred = preferredPattern != null ? DATE_FORMATS.get(preferredPattern) : null;
+        if (preferred != null && dateStr != null && !dateStr.trim().isEmpty()) {
+            try {
+                return LocalDate.parse(dateStr.trim(), preferred);
+            } catch (DateTimeParseException e) {
+                // Fall back to the other formats
+            }
+        }
+        
+        return parseDate(dateStr);
+    }
+
+    /**
+     * Detects the date format used by a set of values
+     * Picks the first known format that parses every non-empty value, which settles
+     * ambiguous values such as 05/03/2023 when another value in the set is 25/03/2023
+     * @param values Sample of date strings
+     * @return Pattern of the detected format, or null if no single format parses them all
+     */
+    public static String detectFormat(Collection<String> values) {
+        for (Map.Entry<String, DateTimeFormatter> format : DATE_FORMATS.entrySet()) {
+            boolean matchedAny = false;
+            boolean matchedAll = true;
+            for (String value : values) {
+                if (value == null || value.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    LocalDate.parse(value.trim(), format.getValue());
+                    matchedAny = true;
+                } catch (DateTimeParseException e) {
+                    matchedAll = false;
+                    break;
+                }
+            }
+            if (matchedAny && matchedAll) {
+                return format.getKey();
+            }
+        }
+        
+        return null;
+    }
+
     /**
      * Calculates age based on birth date
      * @param birthDate Birth date
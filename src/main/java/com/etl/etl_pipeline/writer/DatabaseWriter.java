@@ -1,10 +1,22 @@
 package com.etl.etl_pipeline.writer;
 
 import com.etl.etl_pipeline.config.SQLiteTransactionManager;
+import com.etl.etl_pipeline.jfr.DatabaseRetryEvent;
+import com.etl.etl_pipeline.jfr.LockAcquireEvent;
 import com.etl.etl_pipeline.model.ProcessedData;
+import com.etl.etl_pipeline.service.ProcessedStatsService;
 import com.etl.etl_pipeline.util.DateUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
 import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,17 +25,20 @@ import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Writer for saving processed data to SQLite database
@@ -31,7 +46,7 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 @Slf4j
 @Component
-public class DatabaseWriter implements ItemWriter<ProcessedData> {
+public class DatabaseWriter implements ItemWriter<ProcessedData>, ItemStream {
 
     @Autowired
     private JdbcTemplate jdbcTemplate;
@@ -39,8 +54,25 @@ public class DatabaseWriter implements ItemWriter<ProcessedData> {
     @Autowired
     private SQLiteTransactionManager sqliteTransactionManager;
     
-    // Lock to synchronize database writes
-    private static final ReentrantLock dbLock = new ReentrantLock();
+    @Autowired
+    private ProcessedStatsService processedStatsService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // How long a chunk's transaction waits for SQLite's write lock while other chunks commit
+    private static final long BUSY_TIMEOUT_MS = 120000;
+    
+    // Chunk transactions allowed to hold SQLite's write lock at once. A permit is taken before the
+    // transaction's first write and given back when it commits or rolls back, so the others wait
+    // here, parked, instead of inside SQLite's busy handler, where a virtual thread would pin its carrier
+    @Value("${etl.db.max-writers:1}")
+    private int maxWriters;
+    
+    private Semaphore writePermits;
+    
+    // Whether the current thread's chunk transaction has taken SQLite's write lock in write()
+    private final ThreadLocal<Boolean> wroteInTransaction = new ThreadLocal<>();
     
     // Retry configuration - read from application properties
     @Value("${spring.batch.retry.limit:10}")
@@ -55,16 +87,110 @@ public class DatabaseWriter implements ItemWriter<ProcessedData> {
     @Value("${spring.batch.retry.backoff.max-interval:15000}")
     private long maxRetryDelayMs;
     
-    @Value("${spring.batch.lock.timeout-ms:10000}")
-    private long lockTimeoutMs;
+    private Timer permitWait;
+    private Counter batchRetries;
+    private Counter singleRetries;
 
     private static final String INSERT_SQL = 
         "INSERT OR REPLACE INTO processed_data (" +
         "id, first_name, last_name, email, birth_date, address, city, country, " +
         "phone_number, salary, dependents, age, tax_rate, net_salary, full_name, " +
         "dependent_allowance, total_deductions, bonus, retirement_contribution, total_compensation, tax_amount, " +
-        "processed_at, processing_status, validation_messages" +
-        ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        "processed_at, processing_status, validation_messages, job_execution_id" +
+        ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @PostConstruct
+    public void registerMetrics() {
+        writePermits = new Semaphore(Math.max(1, maxWriters), true);
+        permitWait = Timer.builder("etl.lock.wait")
+                .description("Time spent waiting for a database lock")
+                .tag("lock", "writer-permit")
+                .tag("phase", "write")
+                .register(meterRegistry);
+        Gauge.builder("etl.lock.queue", writePermits, Semaphore::getQueueLength)
+                .description("Threads waiting for a database lock")
+                .tag("lock", "writer-permit")
+                .register(meterRegistry);
+        batchRetries = retryCounter("batch");
+        singleRetries = retryCounter("single");
+    }
+    
+    private Counter retryCounter(String mode) {
+        return Counter.builder("etl.write.retries")
+                .description("Failed write attempts that were retried or gave up")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Called in the chunk's transaction just before the step execution update, which reads before
+     * it writes. A chunk that wrote already holds SQLite's write lock; one that did not, such as
+     * the last, empty chunk of each step thread, takes a write permit and claims it here so the
+     * update cannot fail on a stale snapshot. Registered with the step as the writer's stream
+     */
+    @Override
+    public void update(@org.springframework.lang.NonNull ExecutionContext executionContext) {
+        if (Boolean.TRUE.equals(wroteInTransaction.get())) {
+            wroteInTransaction.remove();
+        } else if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            boolean releasedOnCompletion = holdWritePermitUntilCompletion();
+            try {
+                sqliteTransactionManager.claimWriteLock();
+            } finally {
+                if (!releasedOnCompletion) {
+                    writePermits.release();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Take a write permit for the current transaction unless it already holds one
+     * The permit is given back when the transaction completes, because SQLite keeps the write lock
+     * until the commit; without transaction synchronization the caller must release it itself
+     * @return true if the permit is released on completion of the transaction
+     */
+    private boolean holdWritePermitUntilCompletion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acquireWritePermit();
+            return false;
+        }
+        if (TransactionSynchronizationManager.hasResource(writePermits)) {
+            return true;
+        }
+        
+        acquireWritePermit();
+        TransactionSynchronizationManager.bindResource(writePermits, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(writePermits);
+                writePermits.release();
+            }
+        });
+        return true;
+    }
+    
+    /**
+     * Wait for a write permit
+     */
+    private void acquireWritePermit() {
+        boolean acquired = false;
+        try {
+            long waitStart = System.nanoTime();
+            LockAcquireEvent lockEvent = LockAcquireEvent.begin("writer-permit", "write", "DatabaseWriter.acquireWritePermit",
+                    writePermits.getQueueLength());
+            acquired = writePermits.tryAcquire(BUSY_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            permitWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+            lockEvent.finish(acquired);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Thread interrupted while waiting for a database write permit", e);
+        }
+        if (!acquired) {
+            throw new RuntimeException("Could not get a database write permit after " + BUSY_TIMEOUT_MS + "ms");
+        }
+    }
 
     @Override
     public void write(@org.springframework.lang.NonNull Chunk<? extends ProcessedData> items) throws Exception {
@@ -77,94 +203,121 @@ public class DatabaseWriter implements ItemWriter<ProcessedData> {
         // Mark this as NOT a job repository operation to prioritize job repository operations
         SQLiteTransactionManager.clearJobRepositoryOperation();
         
-        // Try to acquire lock with timeout to prevent deadlocks
-        boolean lockAcquired = false;
+        // Tag every row with the job execution that produced it
+        Long jobExecutionId = getCurrentJobExecutionId();
+        
+        // The permit is taken when the write starts, so chunks still reading their input do not block
+        // writers, and held until the chunk's transaction commits along with SQLite's write lock
+        boolean releasedOnCompletion = holdWritePermitUntilCompletion();
         try {
-            // Use a shorter timeout for data operations to prioritize job repository operations
-            long effectiveLockTimeout = (long)(lockTimeoutMs * 0.8); // 80% of the configured timeout
-            
-            lockAcquired = dbLock.tryLock(effectiveLockTimeout, TimeUnit.MILLISECONDS);
-            if (!lockAcquired) {
-                log.warn("Could not acquire database write lock after {}ms, proceeding with caution", effectiveLockTimeout);
-            }
-            
             // Optimize database connection for batch operations
             optimizeDatabaseConnection();
             
-            // Determine optimal batch size based on number of items
-            // For larger batches, use smaller chunk sizes to reduce lock contention
-            int optimalBatchSize = calculateOptimalBatchSize(items.size());
+            // Queue behind other chunks' uncommitted writes before reading anything in this transaction
+            processedStatsService.lockForWrite(BUSY_TIMEOUT_MS);
             
-            // If we have more than one item, try batch processing
-            if (items.size() > 1) {
-                if (items.size() <= optimalBatchSize) {
-                    // Process all items in a single batch if the size is reasonable
-                    try {
-                        writeBatchWithRetry(items);
-                        return;
-                    } catch (Exception e) {
-                        log.warn("Batch insert failed, falling back to individual inserts: {}", e.getMessage());
-                        // Fall back to individual inserts if batch fails
-                    }
-                } else {
-                    // Split into smaller batches to reduce lock contention
-                    log.info("Splitting {} items into smaller batches of {} items", items.size(), optimalBatchSize);
-                    List<ProcessedData> batch = new ArrayList<>(optimalBatchSize);
-                    int processed = 0;
-                    
-                    for (ProcessedData item : items) {
-                        batch.add(item);
-                        
-                        if (batch.size() >= optimalBatchSize) {
-                            try {
-                                writeBatchWithRetry(new Chunk<>(batch));
-                                processed += batch.size();
-                                batch.clear();
-                            } catch (Exception e) {
-                                log.warn("Batch insert failed at item {}, falling back to individual inserts: {}", 
-                                        processed, e.getMessage());
-                                // Process remaining items individually
-                                break;
-                            }
-                        }
-                    }
+            // Read the rows about to be replaced so the summary can subtract them
+            ProcessedStatsService.Delta statsDelta = processedStatsService.deltaForUpsert(items.getItems());
+            
+            writeItems(items, jobExecutionId);
+            
+            // Same transaction as the chunk, so the summary never disagrees with the data
+            processedStatsService.apply(statsDelta);
+            wroteInTransaction.set(Boolean.TRUE);
+        } finally {
+            if (!releasedOnCompletion) {
+                writePermits.release();
+            }
+        }
+    }
+    
+    /**
+     * Write the items, in batches where possible and individually as a fallback
+     * 
+     * @param items The data items to write
+     * @param jobExecutionId ID of the job execution writing the data (nullable)
+     * @throws Exception If writing fails after all retries
+     */
+    private void writeItems(Chunk<? extends ProcessedData> items, Long jobExecutionId) throws Exception {
+        // Determine optimal batch size based on number of items
+        // For larger batches, use smaller chunk sizes to reduce lock contention
+        int optimalBatchSize = calculateOptimalBatchSize(items.size());
+        
+        // If we have more than one item, try batch processing
+        if (items.size() > 1) {
+            if (items.size() <= optimalBatchSize) {
+                // Process all items in a single batch if the size is reasonable
+                try {
+                    writeBatchWithRetry(items, jobExecutionId);
+                    return;
+                } catch (Exception e) {
+                    log.warn("Batch insert failed, falling back to individual inserts: {}", e.getMessage());
+                    // Fall back to individual inserts if batch fails
+                }
+            } else {
+                // Split into smaller batches to reduce lock contention
+                log.info("Splitting {} items into smaller batches of {} items", items.size(), optimalBatchSize);
+                List<ProcessedData> batch = new ArrayList<>(optimalBatchSize);
+                int processed = 0;
+                
+                for (ProcessedData item : items) {
+                    batch.add(item);
                     
-                    // Process any remaining items in the last batch
-                    if (!batch.isEmpty()) {
+                    if (batch.size() >= optimalBatchSize) {
                         try {
-                            writeBatchWithRetry(new Chunk<>(batch));
+                            writeBatchWithRetry(new Chunk<>(batch), jobExecutionId);
                             processed += batch.size();
                             batch.clear();
                         } catch (Exception e) {
-                            log.warn("Final batch insert failed, falling back to individual inserts for remaining items: {}", 
-                                    e.getMessage());
+                            log.warn("Batch insert failed at item {}, falling back to individual inserts: {}", 
+                                    processed, e.getMessage());
                             // Process remaining items individually
-                            for (ProcessedData data : batch) {
-                                writeWithRetry(data);
-                            }
+                            break;
                         }
                     }
-                    
-                    // If we've processed all items, we're done
-                    if (processed == items.size()) {
-                        return;
+                }
+                
+                // Process any remaining items in the last batch
+                if (!batch.isEmpty()) {
+                    try {
+                        writeBatchWithRetry(new Chunk<>(batch), jobExecutionId);
+                        processed += batch.size();
+                        batch.clear();
+                    } catch (Exception e) {
+                        log.warn("Final batch insert failed, falling back to individual inserts for remaining items: {}", 
+                                e.getMessage());
+                        // Process remaining items individually
+                        for (ProcessedData data : batch) {
+                            writeWithRetry(data, jobExecutionId);
+                        }
                     }
                 }
+                
+                // If we've processed all items, we're done
+                if (processed == items.size()) {
+                    return;
+                }
             }
-            
-            // Individual inserts as fallback
-            for (ProcessedData data : items) {
-                writeWithRetry(data);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Thread interrupted while waiting for database lock", e);
-        } finally {
-            // Always release the lock if we acquired it
-            if (lockAcquired) {
-                dbLock.unlock();
-            }
         }
+        
+        // Individual inserts as fallback
+        for (ProcessedData data : items) {
+            writeWithRetry(data, jobExecutionId);
+        }
+    }
+    
+    /**
+     * Get the ID of the job execution running the current step
+     * Multi-threaded steps propagate the step context to their worker threads
+     * @return Job execution ID, or null when called outside a step
+     */
+    private Long getCurrentJobExecutionId() {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        if (stepContext == null) {
+            log.debug("No step context on thread {}, writing rows without job lineage", Thread.currentThread().getName());
+            return null;
+        }
+        return stepContext.getStepExecution().getJobExecutionId();
     }
     
     /**
@@ -189,7 +342,7 @@ public class DatabaseWriter implements ItemWriter<ProcessedData> {
             stmt.execute("PRAGMA temp_store = MEMORY");
             
             // Increase the busy timeout for batch operations
-            stmt.execute("PRAGMA busy_timeout = 120000"); // 120 seconds
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
             
             log.debug("Optimized database connection for batch operations");
         } catch (SQLException e) {
@@ -201,9 +354,10 @@ public class DatabaseWriter implements ItemWriter<ProcessedData> {
      * Write data with retry logic for handling SQLite database locking issues
      * 
      * @param data The data to write
+     * @param jobExecutionId ID of the job execution writing the data (nullable)
      * @throws Exception If writing fails after all retries
      */
-    private void writeWithRetry(ProcessedData data) throws Exception {
+    private void writeWithRetry(ProcessedData data, Long jobExecutionId) throws Exception {
         int attempts = 0;
         boolean success = false;
         Exception lastException = null;
@@ -236,7 +390,8 @@ public class DatabaseWriter implements ItemWriter<ProcessedData> {
                     data.getTaxAmount() != null ? data.getTaxAmount() : 0.0,
                     data.getProcessedAt() != null ? data.getProcessedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null,
                     data.getProcessingStatus(),
-                    data.getValidationMessages()
+                    data.getValidationMessages(),
+                    jobExecutionId
                 );
                 
                 log.debug("Successfully wrote data for ID: {}", data.getId());
@@ -246,10 +401,12 @@ public class DatabaseWriter implements ItemWriter<ProcessedData> {
                 if (e.getMessage() != null && (e.getMessage().contains("database is locked") || e.getMessage().contains("SQLITE_BUSY"))) {
                     log.warn("Database locked when writing data. Attempt {}/{}", attempts, maxRetries);
                     lastException = e;
+                    singleRetries.increment();
                     
                     // Wait before retrying with exponential backoff
                     try {
                         long delay = calculateBackoffDelay(attempts);
+                        DatabaseRetryEvent.emit("DatabaseWriter.writeWithRetry", attempts, "SQLITE_BUSY", delay);
                         log.debug("Waiting {}ms before retry attempt {}", delay, attempts + 1);
                         Thread.sleep(delay);
                     } catch (InterruptedException ie) {
@@ -264,10 +421,12 @@ public class DatabaseWriter implements ItemWriter<ProcessedData> {
             } catch (DataAccessException e) {
                 log.error("Database error writing data: {}", e.getMessage());
                 lastException = e;
+                singleRetries.increment();
                 
                 // Wait before retrying
                 try {
                     long delay = calculateBackoffDelay(attempts);
+                    DatabaseRetryEvent.emit("DatabaseWriter.writeWithRetry", attempts, "database error", delay);
                     log.debug("Waiting {}ms before retry attempt {}", delay, attempts + 1);
                     Thread.sleep(delay);
                 } catch (InterruptedException ie) {
@@ -291,9 +450,10 @@ public class DatabaseWriter implements ItemWriter<ProcessedData> {
      * Write a batch of data with retry logic
      * 
      * @param items The data items to write
+     * @param jobExecutionId ID of the job execution writing the data (nullable)
      * @throws Exception If writing fails after all retries
      */
-    private void writeBatchWithRetry(Chunk<? extends ProcessedData> items) throws Exception {
+    private void writeBatchWithRetry(Chunk<? extends ProcessedData> items, Long jobExecutionId) throws Exception {
         int attempts = 0;
         boolean success = false;
         Exception lastException = null;
@@ -331,6 +491,11 @@ public class DatabaseWriter implements ItemWriter<ProcessedData> {
                         ps.setString(22, data.getProcessedAt() != null ? data.getProcessedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
                         ps.setString(23, data.getProcessingStatus() != null ? data.getProcessingStatus().toString() : null);
                         ps.setString(24, data.getValidationMessages());
+                        if (jobExecutionId != null) {
+                            ps.setLong(25, jobExecutionId);
+                        } else {
+                            ps.setNull(25, Types.INTEGER);
+                        }
                     }
                     
                     @Override
@@ -345,10 +510,12 @@ public class DatabaseWriter implements ItemWriter<ProcessedData> {
                 if (e.getMessage() != null && (e.getMessage().contains("database is locked") || e.getMessage().contains("SQLITE_BUSY"))) {
                     log.warn("Database locked when writing batch. Attempt {}/{}", attempts, maxRetries);
                     lastException = e;
+                    batchRetries.increment();
                     
                     // Wait before retrying with exponential backoff
                     try {
                         long delay = calculateBackoffDelay(attempts);
+                        DatabaseRetryEvent.emit("DatabaseWriter.writeBatchWithRetry", attempts, "SQLITE_BUSY", delay);
                         log.debug("Waiting {}ms before retry attempt {}", delay, attempts + 1);
                         Thread.sleep(delay);
                     } catch (InterruptedException ie) {
@@ -377,10 +544,12 @@ public class DatabaseWriter implements ItemWriter<ProcessedData> {
                 if (isLockError) {
                     log.warn("Database locked (in cause chain) when writing batch. Attempt {}/{}", attempts, maxRetries);
                     lastException = e;
+                    batchRetries.increment();
                     
                     // Wait before retrying with exponential backoff
                     try {
                         long delay = calculateBackoffDelay(attempts);
+                        DatabaseRetryEvent.emit("DatabaseWriter.writeBatchWithRetry", attempts, "SQLITE_BUSY", delay);
                         log.debug("Waiting {}ms before retry attempt {}", delay, attempts + 1);
                         Thread.sleep(delay);
                     } catch (InterruptedException ie) {
@@ -390,10 +559,12 @@ public class DatabaseWriter implements ItemWriter<ProcessedData> {
                 } else {
                     log.error("Database error writing batch: {}", e.getMessage());
                     lastException = e;
+                    batchRetries.increment();
                     
                     // Wait before retrying
                     try {
                         long delay = calculateBackoffDelay(attempts);
+                        DatabaseRetryEvent.emit("DatabaseWriter.writeBatchWithRetry", attempts, "database error", delay);
                         log.debug("Waiting {}ms before retry attempt {}", delay, attempts + 1);
                         Thread.sleep(delay);
                     } catch (InterruptedException ie) {
@@ -468,13 +639,12 @@ public class DatabaseWriter implements ItemWriter<ProcessedData> {
     public String getDatabaseStats() {
         StringBuilder stats = new StringBuilder();
         stats.append("Database Writer Stats:\n");
-        stats.append("  - Writer Lock Status: ").append(dbLock.isLocked() ? "Locked" : "Unlocked").append("\n");
-        stats.append("  - Writer Queue Length: ").append(dbLock.getQueueLength()).append("\n");
+        stats.append("  - Writer Permit Queue Length: ").append(writePermits.getQueueLength()).append("\n");
+        stats.append("  - Write Permits Available: ").append(writePermits.availablePermits()).append("/").append(maxWriters).append("\n");
         stats.append("  - Max Retries: ").append(maxRetries).append("\n");
         stats.append("  - Initial Retry Delay: ").append(initialRetryDelayMs).append(" ms\n");
         stats.append("  - Backoff Multiplier: ").append(backoffMultiplier).append("\n");
         stats.append("  - Max Retry Delay: ").append(maxRetryDelayMs).append(" ms\n");
-        stats.append("  - Lock Timeout: ").append(lockTimeoutMs).append(" ms\n");
         
         if (sqliteTransactionManager != null) {
             stats.append("  - Transaction Manager Status:\n");
@@ -12,9 +12,6 @@ class DataChartManager {
         // Chart instance
         this.chart = null;
         
-        // Data
-        this.processedData = [];
-        
         this.init();
     }
     
@@ -40,11 +37,8 @@ class DataChartManager {
      */
     async loadData() {
         try {
-            // Get processed data
-            this.processedData = await apiService.getAllData();
-            
             // Update chart
-            this.updateChart();
+            await this.updateChart();
             
             // Update stats
             const stats = await apiService.getStatistics();
@@ -96,17 +90,23 @@ class DataChartManager {
     /**
      * Update the chart with current data and filters
      */
-    updateChart() {
-        if (!this.processedData || this.processedData.length === 0) {
-            return;
-        }
-        
+    async updateChart() {
         // Get selected metric and group by values
         const metric = this.chartMetricSelect.value;
         const groupBy = this.chartGroupBySelect.value;
         
         // Prepare chart data
-        const chartData = this.prepareChartData(metric, groupBy);
+        let chartData;
+        try {
+            chartData = await this.prepareChartData(metric, groupBy);
+        } catch (error) {
+            console.error('Error loading chart data:', error);
+            return;
+        }
+        
+        if (chartData.labels.length === 0) {
+            return;
+        }
         
         // Update chart
         this.chart.data.labels = chartData.labels;
@@ -126,111 +126,42 @@ class DataChartManager {
     
     /**
      * Prepare data for the chart based on selected metric and grouping
+     * Grouping runs on the server (/api/etl/aggregate), so only the top groups are transferred
      * @param {string} metric - The metric to display
      * @param {string} groupBy - The field to group by
-     * @returns {Object} - Object with labels and values arrays
+     * @returns {Promise<Object>} - Object with labels and values arrays
      */
-    prepareChartData(metric, groupBy) {
-        // Group data
-        const groupedData = {};
-        
-        this.processedData.forEach(item => {
-            let groupValue;
-            
-            // Handle different group by options
-            switch (groupBy) {
-                case 'country':
-                    groupValue = item.country || 'Unknown';
-                    break;
-                case 'city':
-                    groupValue = item.city || 'Unknown';
-                    break;
-                case 'age':
-                    // Group ages into ranges
-                    const age = item.age || 0;
-                    if (age < 18) {
-                        groupValue = 'Under 18';
-                    } else if (age < 30) {
-                        groupValue = '18-29';
-                    } else if (age < 40) {
-                        groupValue = '30-39';
-                    } else if (age < 50) {
-                        groupValue = '40-49';
-                    } else if (age < 60) {
-                        groupValue = '50-59';
-                    } else {
-                        groupValue = '60+';
-                    }
-                    break;
-                default:
-                    groupValue = 'All';
-            }
-            
-            // Get metric value
-            let metricValue = 0;
-            switch (metric) {
-                case 'age':
-                    metricValue = item.age || 0;
-                    break;
-                case 'salary':
-                    metricValue = item.salary || 0;
-                    break;
-                case 'netSalary':
-                    metricValue = item.netSalary || 0;
-                    break;
-                case 'taxRate':
-                    metricValue = item.taxRate || 0;
-                    break;
-                case 'dependents':
-                    metricValue = item.dependents || 0;
-                    break;
-                default:
-                    metricValue = 0;
-            }
-            
-            // Add to grouped data
-            if (!groupedData[groupValue]) {
-                groupedData[groupValue] = {
-                    sum: 0,
-                    count: 0
-                };
-            }
-            
-            groupedData[groupValue].sum += metricValue;
-            groupedData[groupValue].count++;
-        });
-        
-        // Calculate averages or sums based on metric
-        const useAverage = ['age', 'salary', 'netSalary', 'taxRate'].includes(metric);
-        
-        // Convert grouped data to arrays for chart
-        const labels = [];
-        const values = [];
+    async prepareChartData(metric, groupBy) {
+        // Averages for amounts and rates, sums for dependents
+        const measures = {
+            age: 'avgAge',
+            salary: 'avgSalary',
+            netSalary: 'avgNetSalary',
+            taxRate: 'avgTaxRate',
+            dependents: 'sumDependents'
+        };
+        const dimensions = {
+            country: 'country',
+            city: 'city',
+            age: 'ageRange'
+        };
+        
+        const measure = measures[metric];
+        const dimension = dimensions[groupBy];
+        if (!measure || !dimension) {
+            return { labels: [], values: [] };
+        }
         
-        // Sort groups by value (descending)
-        const sortedGroups = Object.keys(groupedData).sort((a, b) => {
-            const valueA = useAverage ? 
-                groupedData[a].sum / groupedData[a].count : 
-                groupedData[a].sum;
-            const valueB = useAverage ? 
-                groupedData[b].sum / groupedData[b].count : 
-                groupedData[b].sum;
-            return valueB - valueA;
+        // Top 10 groups, sorted by value (descending)
+        const result = await apiService.aggregate({
+            dimensions: dimension,
+            measures: measure,
+            direction: 'desc',
+            limit: 10
         });
         
-        // Limit to top 10 groups
-        const topGroups = sortedGroups.slice(0, 10);
-        
-        // Add to labels and values arrays
-        topGroups.forEach(group => {
-            labels.push(group);
-            
-            const value = useAverage ? 
-                groupedData[group].sum / groupedData[group].count : 
-                groupedData[group].sum;
-            
-            values.push(value);
-        });
+        const labels = result.rows.map(row => row[dimension] || 'Unknown');
+        const values = result.rows.map(row => row[measure] || 0);
         
         return { labels, values };
     }
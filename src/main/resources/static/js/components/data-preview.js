@@ -8,6 +8,9 @@ class DataPreviewManager {
         this.previewContent = document.getElementById('previewContent');
         this.previewLoader = document.getElementById('previewLoader');
         this.previewCard = document.getElementById('previewCard');
+        
+        // Upload token for the last previewed file, so processing it does not send it again
+        this.handoff = null;
     }
     
     /**
@@ -30,11 +33,13 @@ class DataPreviewManager {
             // Show loader
             this.showLoader();
             
-            // Get preview data from API
-            const previewData = await apiService.previewFile(file);
+            // Get preview data from API; the server keeps the file for processing
+            this.handoff = null;
+            const preview = await apiService.previewForUpload(file);
+            this.handoff = { file, token: preview.uploadToken };
             
             // Render preview table
-            this.renderPreviewTable(previewData);
+            this.renderPreviewTable(preview.rows);
         } catch (error) {
             console.error('Error previewing file:', error);
             this.previewContent.innerHTML = `
@@ -87,6 +92,20 @@ class DataPreviewManager {
         this.previewContent.innerHTML = tableHtml;
     }
     
+    /**
+     * Take the upload token for a file, if it was the last one previewed
+     * @param {File} file - The file about to be processed
+     * @returns {string|null} - Upload token, or null if the file has to be sent
+     */
+    takeUploadToken(file) {
+        if (!this.handoff || this.handoff.file !== file) {
+            return null;
+        }
+        const token = this.handoff.token;
+        this.handoff = null;
+        return token;
+    }
+    
     /**
      * Show the loader
      */
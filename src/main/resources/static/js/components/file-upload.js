@@ -125,8 +125,8 @@ class FileUploadManager {
             // Show job status modal
             window.jobStatus.showModal();
             
-            // Upload file
-            const response = await apiService.uploadFile(this.selectedFile);
+            // Process the previewed copy if there is one; fall back to sending the file
+            const response = await this.uploadPreviewedOrFile(this.selectedFile);
             
             // Update job status
             window.jobStatus.updateJobId(response.jobId);
@@ -140,6 +140,26 @@ class FileUploadManager {
         }
     }
     
+    /**
+     * Process a file using its preview upload token, or upload it if it has none
+     * @param {File} file - The file to process
+     * @returns {Promise} - Promise with the upload response
+     */
+    async uploadPreviewedOrFile(file) {
+        const token = window.dataPreview ? window.dataPreview.takeUploadToken(file) : null;
+        if (token) {
+            try {
+                return await apiService.uploadWithToken(token);
+            } catch (error) {
+                // An expired token means the server no longer holds the file
+                if (error.status !== 404) {
+                    throw error;
+                }
+            }
+        }
+        return await apiService.uploadFile(file);
+    }
+    
     /**
      * Reset the file upload state
      */
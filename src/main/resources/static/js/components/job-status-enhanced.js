@@ -29,6 +29,7 @@ class JobStatusManager {
         // State
         this.currentJobId = null;
         this.pollingInterval = null;
+        this.eventSource = null;
         this.isCompleted = false;
         this.jobStartTime = null;
         this.jobEndTime = null;
@@ -158,28 +159,83 @@ class JobStatusManager {
     }
     
     /**
-     * Start polling for job status updates
+     * Start receiving job status updates, pushed over server-sent events where supported
      * @param {string} jobId - The job ID
      */
     startStatusPolling(jobId) {
         this.currentJobId = jobId;
         
-        // Clear any existing interval
+        // Close any existing stream or interval
         this.stopStatusPolling();
         
+        const source = apiService.openJobEvents(jobId);
+        if (!source) {
+            this.startPolling();
+            return;
+        }
+        this.eventSource = source;
+        
+        source.addEventListener('status', (event) => this.handleStatus(JSON.parse(event.data)));
+        source.addEventListener('progress', (event) => this.updateProgress(JSON.parse(event.data)));
+        source.addEventListener('complete', () => {
+            this.closeEventStream();
+            // Poll for the full details until the final status has been saved
+            this.startPolling();
+        });
+        source.onerror = () => {
+            if (this.eventSource === source) {
+                this.closeEventStream();
+                if (!this.isCompleted) this.startPolling();
+            }
+        };
+    }
+    
+    /**
+     * Poll the status endpoint every 2 seconds
+     */
+    startPolling() {
+        if (this.pollingInterval) return;
+        
         // Check status immediately
         this.checkJobStatus();
         
-        // Start polling every 2 seconds
         this.pollingInterval = setInterval(() => {
             this.checkJobStatus();
         }, 2000);
     }
     
+    /**
+     * Close the progress stream
+     */
+    closeEventStream() {
+        if (this.eventSource) {
+            this.eventSource.close();
+            this.eventSource = null;
+        }
+    }
+    
+    /**
+     * Show pushed counts and throughput of the running job
+     * @param {Object} progress - Progress event
+     */
+    updateProgress(progress) {
+        if (!this.jobStatusElement || this.isCompleted) return;
+        
+        let text = `${progress.status} - ${progress.readCount} read, ${progress.recordsPerSecond} rec/s`;
+        if (typeof progress.percent === 'number') {
+            text += `, ${progress.percent.toFixed(1)}%`;
+        }
+        if (typeof progress.etaSeconds === 'number') {
+            text += `, ETA ${progress.etaSeconds}s`;
+        }
+        this.jobStatusElement.textContent = text;
+    }
+    
     /**
      * Stop polling for job status updates
      */
     stopStatusPolling() {
+        this.closeEventStream();
         if (this.pollingInterval) {
             clearInterval(this.pollingInterval);
             this.pollingInterval = null;
@@ -194,17 +250,25 @@ class JobStatusManager {
         
         try {
             const status = await apiService.getJobStatus(this.currentJobId);
-            this.updateStatusUI(status);
-            
-            // Check if job is completed
-            if (status.status === 'COMPLETED' || status.status === 'FAILED' || status.status === 'STOPPED') {
-                this.jobCompleted(status);
-            }
+            this.handleStatus(status);
         } catch (error) {
             console.error('Error checking job status:', error);
         }
     }
     
+    /**
+     * Apply a full job status, from polling or the stream's initial event
+     * @param {Object} status - The job status object
+     */
+    handleStatus(status) {
+        this.updateStatusUI(status);
+        
+        // Check if job is completed
+        if (status.status === 'COMPLETED' || status.status === 'FAILED' || status.status === 'STOPPED') {
+            this.jobCompleted(status);
+        }
+    }
+    
     /**
      * Update the status UI with job details
      * @param {Object} status - The job status object
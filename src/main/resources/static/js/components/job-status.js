@@ -3,7 +3,7 @@
  * Handles tracking and displaying ETL job status with enhanced metrics
  * 
  * Features:
- * - Real-time job status monitoring
+ * - Real-time job status monitoring (server-sent events, polling as a fallback)
  * - Detailed step execution metrics
  * - Process duration tracking
  * - Thread usage information
@@ -29,6 +29,8 @@ class JobStatusManager {
         // State
         this.currentJobId = null;
         this.pollingInterval = null;
+        this.eventSource = null;
+        this.progressElement = null;
         this.isCompleted = false;
         this.jobStartTime = null;
         this.jobEndTime = null;
@@ -130,28 +132,91 @@ class JobStatusManager {
     }
     
     /**
-     * Start polling for job status updates
+     * Start receiving job status updates
+     * Progress is pushed over server-sent events; browsers without EventSource poll instead
      * @param {string} jobId - The job ID
      */
     startStatusPolling(jobId) {
         this.currentJobId = jobId;
         
-        // Clear any existing interval
+        // Close any existing stream or interval
         this.stopStatusPolling();
         
+        if (this.progressElement) {
+            this.progressElement.innerHTML = '';
+        }
+        
+        if (window.EventSource) {
+            this.openEventStream();
+        } else {
+            this.startPolling();
+        }
+    }
+    
+    /**
+     * Poll the status endpoint every 2 seconds
+     */
+    startPolling() {
+        if (this.pollingInterval) return;
+        
         // Check status immediately
         this.checkJobStatus();
         
-        // Start polling every 2 seconds
         this.pollingInterval = setInterval(() => {
             this.checkJobStatus();
         }, 2000);
     }
     
+    /**
+     * Subscribe to the job's progress stream
+     */
+    openEventStream() {
+        const jobId = this.currentJobId;
+        const source = new EventSource(`/api/etl/status/${jobId}/events`);
+        this.eventSource = source;
+        
+        source.addEventListener('status', (event) => {
+            this.handleStatus(JSON.parse(event.data));
+        });
+        
+        source.addEventListener('progress', (event) => {
+            this.updateProgressUI(JSON.parse(event.data));
+        });
+        
+        source.addEventListener('complete', (event) => {
+            this.closeEventStream();
+            this.updateProgressUI(JSON.parse(event.data));
+            // Fetch the full details; polling continues until the final status has been saved
+            this.startPolling();
+        });
+        
+        source.onerror = () => {
+            // Fall back to polling rather than letting EventSource reconnect indefinitely
+            if (this.eventSource === source) {
+                console.warn(`Progress stream for job ${jobId} failed, falling back to polling`);
+                this.closeEventStream();
+                if (!this.isCompleted) {
+                    this.startPolling();
+                }
+            }
+        };
+    }
+    
+    /**
+     * Close the progress stream
+     */
+    closeEventStream() {
+        if (this.eventSource) {
+            this.eventSource.close();
+            this.eventSource = null;
+        }
+    }
+    
     /**
      * Stop polling for job status updates
      */
     stopStatusPolling() {
+        this.closeEventStream();
         if (this.pollingInterval) {
             clearInterval(this.pollingInterval);
             this.pollingInterval = null;
@@ -174,41 +239,90 @@ class JobStatusManager {
                 }
                 return response.json();
             })
-            .then(data => {
-                if (!data) {
-                    console.warn(`Received empty status data for job ${this.currentJobId}`);
-                    return;
-                }
-                
-                // Store the raw job data for reference
-                this.rawJobData = data;
-                
-                // Log the raw job data for debugging
-                console.debug(`Job status data for ${this.currentJobId}:`, data);
-                
-                // Update UI with job status
-                this.updateStatusUI(data);
-                
-                // Check if job is completed
-                if (data.status === 'COMPLETED' || data.status === 'FAILED' || data.status === 'STOPPED') {
-                    // Record the end time if not already set
-                    if (!this.jobEndTime) {
-                        this.jobEndTime = new Date().getTime();
-                    }
-                    
-                    // Process job completion
-                    this.jobCompleted(data.status);
-                } else if (!this.jobStartTime) {
-                    // Record the start time on first status check
-                    this.jobStartTime = new Date().getTime();
-                }
-            })
+            .then(data => this.handleStatus(data))
             .catch(error => {
                 console.error(`Error checking job status for ${this.currentJobId}:`, error);
                 // Don't mark as completed on error, keep polling
             });
     }
     
+    /**
+     * Apply a full job status, from polling or the stream's initial event
+     * @param {Object} data - The job status object
+     */
+    handleStatus(data) {
+        if (!data) {
+            console.warn(`Received empty status data for job ${this.currentJobId}`);
+            return;
+        }
+        
+        // Store the raw job data for reference
+        this.rawJobData = data;
+        
+        // Log the raw job data for debugging
+        console.debug(`Job status data for ${this.currentJobId}:`, data);
+        
+        // Update UI with job status
+        this.updateStatusUI(data);
+        
+        // Check if job is completed
+        if (data.status === 'COMPLETED' || data.status === 'FAILED' || data.status === 'STOPPED') {
+            // Record the end time if not already set
+            if (!this.jobEndTime) {
+                this.jobEndTime = new Date().getTime();
+            }
+            
+            // Process job completion
+            this.jobCompleted(data.status);
+        } else if (!this.jobStartTime) {
+            // Record the start time on first status check
+            this.jobStartTime = new Date().getTime();
+        }
+    }
+    
+    /**
+     * Update the live progress line from a pushed progress event
+     * @param {Object} progress - Counts, throughput, percent and ETA of the running job
+     */
+    updateProgressUI(progress) {
+        if (!progress || progress.readCount === undefined) return;
+        
+        if (!this.progressElement) {
+            this.progressElement = document.createElement('div');
+            this.progressElement.className = 'job-progress';
+            this.stepDetailsElement.parentNode.insertBefore(this.progressElement, this.stepDetailsElement);
+        }
+        
+        // Show content, hide loader
+        this.jobStatusLoader.classList.add('hidden');
+        this.jobStatusContent.classList.remove('hidden');
+        
+        if (!this.isCompleted && progress.status) {
+            this.jobStatusElement.textContent = progress.status;
+        }
+        
+        const hasPercent = typeof progress.percent === 'number';
+        const percent = hasPercent ? progress.percent : 0;
+        const parts = [
+            `Read ${progress.readCount}`,
+            `Written ${progress.writeCount}`,
+            `${progress.recordsPerSecond} rec/s`
+        ];
+        if (hasPercent) {
+            parts.unshift(`${percent.toFixed(1)}%`);
+        }
+        if (typeof progress.etaSeconds === 'number' && progress.status === 'STARTED') {
+            parts.push(`ETA ${this.formatDuration(progress.etaSeconds * 1000)}`);
+        }
+        
+        this.progressElement.innerHTML = `
+            <div class="progress-container${hasPercent ? '' : ' indeterminate'}">
+                <div class="progress-bar" style="width: ${hasPercent ? percent : 100}%"></div>
+            </div>
+            <div class="job-progress-text">${parts.join(' &middot; ')}</div>
+        `;
+    }
+    
     /**
      * Update the status UI with job details
      * @param {Object} status - The job status object
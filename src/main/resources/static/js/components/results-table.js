@@ -7,28 +7,68 @@ class ResultsTableManager {
         // DOM elements
         this.resultsContent = document.getElementById('resultsContent');
         this.resultsLoader = document.getElementById('resultsLoader');
+        
+        // Virtual scrolling: only the visible rows (plus a buffer) are in the DOM
+        this.pageSize = 200;
+        this.rowHeight = 41;
+        this.bufferRows = 20;
+        this.viewportHeight = 600;
+        
+        // Loaded rows and paging state
+        this.rows = [];
+        this.nextCursor = null;
+        this.hasMore = false;
+        this.estimatedTotal = 0;
+        this.totalExact = true;
+        this.loadingPage = false;
+        this.requestId = 0;
+        
+        // Server-side filters and sort
+        this.filters = {};
+        this.sort = 'id';
+        this.direction = 'asc';
+        
+        // Columns to display (not all fields)
+        this.columns = [
+            { key: 'id', label: 'ID' },
+            { key: 'firstName', label: 'First Name' },
+            { key: 'lastName', label: 'Last Name' },
+            { key: 'email', label: 'Email' },
+            { key: 'birthDate', label: 'Birth Date' },
+            { key: 'age', label: 'Age' },
+            { key: 'city', label: 'City' },
+            { key: 'country', label: 'Country' },
+            { key: 'salary', label: 'Salary', format: 'currency' },
+            { key: 'bonus', label: 'Bonus', format: 'currency' },
+            { key: 'retirementContribution', label: 'Retirement', format: 'currency' },
+            { key: 'totalCompensation', label: 'Total Compensation', format: 'currency' },
+            { key: 'taxRate', label: 'Tax Rate', format: 'percentage' },
+            { key: 'taxAmount', label: 'Tax Amount', format: 'currency' },
+            { key: 'netSalary', label: 'Net Salary', format: 'currency' },
+            { key: 'processingStatus', label: 'Status' }
+        ];
+        
+        // Columns the server can sort by
+        this.sortableColumns = { id: 'id', age: 'age', salary: 'salary', netSalary: 'netSalary' };
     }
     
     /**
-     * Load processed data from API
+     * Load processed data from API, starting again from the first page
      */
     async loadData() {
+        this.rows = [];
+        this.nextCursor = null;
+        this.hasMore = false;
+        this.requestId++;
+        
         try {
             // Show loader
             this.showLoader();
             
-            // Get processed data from API
-            const data = await apiService.getAllData();
-            
-            // Log data for debugging
-            console.log('Loaded data:', data);
-            if (data && data.length > 0) {
-                console.log('First record fields:', Object.keys(data[0]));
-                console.log('Sample record:', data[0]);
-            }
+            const page = await this.fetchPage();
             
             // Render results table
-            this.renderResultsTable(data);
+            this.renderResultsTable(page);
         } catch (error) {
             console.error('Error loading results data:', error);
             this.resultsContent.innerHTML = `
@@ -43,119 +83,255 @@ class ResultsTableManager {
     }
     
     /**
-     * Render processed data as a table
-     * @param {Array} data - The processed data
+     * Fetch the next page and append it to the loaded rows
+     * @returns {Promise} - Promise with the page, or null if it belongs to a superseded load
+     */
+    async fetchPage() {
+        const requestId = this.requestId;
+        this.loadingPage = true;
+        
+        try {
+            const page = await apiService.getDataPage({
+                ...this.filters,
+                sort: this.sort,
+                direction: this.direction,
+                limit: this.pageSize,
+                cursor: this.nextCursor
+            });
+            
+            // Filters or sort changed while the request was in flight
+            if (requestId !== this.requestId) {
+                return null;
+            }
+            
+            this.rows = this.rows.concat(page.items || []);
+            this.nextCursor = page.nextCursor;
+            this.hasMore = page.hasMore;
+            this.estimatedTotal = page.estimatedTotal || 0;
+            this.totalExact = page.totalExact;
+            return page;
+        } finally {
+            if (requestId === this.requestId) {
+                this.loadingPage = false;
+            }
+        }
+    }
+    
+    /**
+     * Render the table shell, filters and the first visible rows
+     * @param {Object} page - The first page of processed data
      */
-    renderResultsTable(data) {
-        if (!data || data.length === 0) {
-            this.resultsContent.innerHTML = '<p class="no-data-message">No processed data available</p>';
+    renderResultsTable(page) {
+        if (!page) {
             return;
         }
         
-        // Log column availability for debugging
-        const firstRecord = data[0];
-        console.log('Checking for new columns in data:');
-        console.log('bonus present:', firstRecord.hasOwnProperty('bonus'));
-        console.log('retirementContribution present:', firstRecord.hasOwnProperty('retirementContribution'));
-        console.log('totalCompensation present:', firstRecord.hasOwnProperty('totalCompensation'));
-        console.log('taxAmount present:', firstRecord.hasOwnProperty('taxAmount'));
+        let html = this.renderFilterBar();
         
-        // Create table HTML
-        let tableHtml = '<div class="data-table-container"><table class="data-table">';
+        if (this.rows.length === 0) {
+            html += '<p class="no-data-message">No processed data available</p>';
+            this.resultsContent.innerHTML = html;
+            this.bindFilterEvents();
+            return;
+        }
         
-        // Add header row
-        tableHtml += '<thead><tr>';
-        // Define columns to display (not all fields)
-        const columns = [
-            { key: 'id', label: 'ID' },
-            { key: 'firstName', label: 'First Name' },
-            { key: 'lastName', label: 'Last Name' },
-            { key: 'email', label: 'Email' },
-            { key: 'birthDate', label: 'Birth Date' },
-            { key: 'age', label: 'Age' },
-            { key: 'city', label: 'City' },
-            { key: 'country', label: 'Country' },
-            { key: 'salary', label: 'Salary', format: 'currency' },
-            { key: 'bonus', label: 'Bonus', format: 'currency' },
-            { key: 'retirementContribution', label: 'Retirement', format: 'currency' },
-            { key: 'totalCompensation', label: 'Total Compensation', format: 'currency' },
-            { key: 'taxRate', label: 'Tax Rate', format: 'percentage' },
-            { key: 'taxAmount', label: 'Tax Amount', format: 'currency' },
-            { key: 'netSalary', label: 'Net Salary', format: 'currency' },
-            { key: 'processingStatus', label: 'Status' }
-        ];
+        // Create table HTML
+        html += `<div class="data-table-container virtual-scroll" style="max-height: ${this.viewportHeight}px; overflow-y: auto;">`;
+        html += '<table class="data-table">';
         
-        columns.forEach(column => {
-            tableHtml += `<th>${column.label}</th>`;
+        // Add header row; sortable columns toggle the server-side sort
+        html += '<thead><tr>';
+        this.columns.forEach(column => {
+            const sortKey = this.sortableColumns[column.key];
+            if (sortKey) {
+                const indicator = this.sort === sortKey ? (this.direction === 'asc' ? ' &#9650;' : ' &#9660;') : '';
+                html += `<th class="sortable" data-sort="${sortKey}">${column.label}${indicator}</th>`;
+            } else {
+                html += `<th>${column.label}</th>`;
+            }
         });
-        tableHtml += '</tr></thead>';
+        html += '</tr></thead>';
+        html += '<tbody></tbody></table></div>';
         
-        // Add data rows
-        tableHtml += '<tbody>';
-        data.forEach(row => {
-            // Add status class for row
-            const rowClass = row.processingStatus === 'VALID' ? 'valid-row' : 'invalid-row';
-            tableHtml += `<tr class="${rowClass}">`;
-            
-            columns.forEach(column => {
-                let value = row[column.key];
-                
-                // Format values based on column format or key
-                if (column.format) {
-                    switch (column.format) {
-                        case 'currency':
-                            value = formatters.currency(value || 0);
-                            break;
-                        case 'percentage':
-                            value = formatters.percentage(value || 0);
-                            break;
-                        case 'date':
-                            value = value ? formatters.date(value) : '';
-                            break;
-                    }
-                } else {
-                    switch (column.key) {
-                        case 'birthDate':
-                            value = value ? formatters.date(value) : '';
-                            break;
-                        case 'processingStatus':
-                            const statusClass = value === 'VALID' ? 'status-success' : 'status-error';
-                            value = `<span class="${statusClass}">${value || 'N/A'}</span>`;
-                            break;
-                        default:
-                            value = value !== null && value !== undefined ? value : '';
-                    }
+        // Add table info
+        html += '<div class="table-info"></div>';
+        
+        // Update results content
+        this.resultsContent.innerHTML = html;
+        
+        this.scrollContainer = this.resultsContent.querySelector('.virtual-scroll');
+        this.tableBody = this.resultsContent.querySelector('tbody');
+        this.tableInfo = this.resultsContent.querySelector('.table-info');
+        
+        this.bindFilterEvents();
+        this.bindTableEvents();
+        this.renderVisibleRows();
+    }
+    
+    /**
+     * Render the filter controls
+     * @returns {string} - Filter bar HTML
+     */
+    renderFilterBar() {
+        const f = this.filters;
+        return `
+            <div class="results-filters">
+                <select data-filter="status">
+                    <option value="">All statuses</option>
+                    <option value="VALID" ${f.status === 'VALID' ? 'selected' : ''}>Valid</option>
+                    <option value="INVALID" ${f.status === 'INVALID' ? 'selected' : ''}>Invalid</option>
+                </select>
+                <input type="text" data-filter="country" placeholder="Country" value="${f.country || ''}">
+                <input type="text" data-filter="city" placeholder="City" value="${f.city || ''}">
+                <input type="number" data-filter="minSalary" placeholder="Min salary" value="${f.minSalary || ''}">
+                <input type="number" data-filter="maxSalary" placeholder="Max salary" value="${f.maxSalary || ''}">
+                <input type="number" data-filter="minAge" placeholder="Min age" value="${f.minAge || ''}">
+                <input type="number" data-filter="maxAge" placeholder="Max age" value="${f.maxAge || ''}">
+                <button class="btn btn-primary apply-filters-btn">Apply</button>
+            </div>
+        `;
+    }
+    
+    /**
+     * Bind the filter controls
+     */
+    bindFilterEvents() {
+        const applyButton = this.resultsContent.querySelector('.apply-filters-btn');
+        if (!applyButton) {
+            return;
+        }
+        
+        applyButton.addEventListener('click', () => {
+            const filters = {};
+            this.resultsContent.querySelectorAll('[data-filter]').forEach(input => {
+                if (input.value !== '') {
+                    filters[input.dataset.filter] = input.value;
                 }
-                
-                tableHtml += `<td>${value}</td>`;
             });
-            
-            tableHtml += '</tr>';
+            this.filters = filters;
+            this.loadData();
+        });
+    }
+    
+    /**
+     * Bind scrolling, sorting and row click events
+     */
+    bindTableEvents() {
+        // Re-render on scroll, at most once per frame
+        let frameRequested = false;
+        this.scrollContainer.addEventListener('scroll', () => {
+            if (!frameRequested) {
+                frameRequested = true;
+                requestAnimationFrame(() => {
+                    frameRequested = false;
+                    this.renderVisibleRows();
+                });
+            }
         });
-        tableHtml += '</tbody></table></div>';
         
-        // Add table info
-        tableHtml += `<div class="table-info">Showing ${data.length} records</div>`;
+        this.resultsContent.querySelectorAll('th.sortable').forEach(header => {
+            header.addEventListener('click', () => {
+                const sortKey = header.dataset.sort;
+                this.direction = this.sort === sortKey && this.direction === 'asc' ? 'desc' : 'asc';
+                this.sort = sortKey;
+                this.loadData();
+            });
+        });
         
-        // Update results content
-        this.resultsContent.innerHTML = tableHtml;
+        // One delegated handler instead of one per row
+        this.tableBody.addEventListener('click', (e) => {
+            const row = e.target.closest('tr[data-index]');
+            if (row) {
+                this.showRowDetails(this.rows[Number(row.dataset.index)]);
+            }
+        });
+    }
+    
+    /**
+     * Render the rows in and around the viewport, padding the rest with spacer rows
+     * Fetches the next page when the viewport approaches the end of the loaded rows
+     */
+    renderVisibleRows() {
+        if (!this.tableBody) {
+            return;
+        }
+        
+        const scrollTop = this.scrollContainer.scrollTop;
+        const visibleCount = Math.ceil(this.viewportHeight / this.rowHeight);
+        const first = Math.max(0, Math.floor(scrollTop / this.rowHeight) - this.bufferRows);
+        const last = Math.min(this.rows.length, first + visibleCount + 2 * this.bufferRows);
         
-        // Add row click event for details
-        this.addRowClickEvents(data);
+        let html = '';
+        if (first > 0) {
+            html += `<tr class="spacer-row" style="height: ${first * this.rowHeight}px;"><td colspan="${this.columns.length}"></td></tr>`;
+        }
+        for (let i = first; i < last; i++) {
+            html += this.renderRow(this.rows[i], i);
+        }
+        if (last < this.rows.length) {
+            html += `<tr class="spacer-row" style="height: ${(this.rows.length - last) * this.rowHeight}px;"><td colspan="${this.columns.length}"></td></tr>`;
+        }
+        this.tableBody.innerHTML = html;
+        
+        const total = this.totalExact ? this.estimatedTotal : `${this.estimatedTotal}+`;
+        this.tableInfo.textContent = `Loaded ${this.rows.length} of ${total} records`;
+        
+        if (this.hasMore && !this.loadingPage && last >= this.rows.length - this.bufferRows) {
+            this.fetchPage()
+                .then(page => {
+                    if (page) {
+                        this.renderVisibleRows();
+                    }
+                })
+                .catch(error => console.error('Error loading next page:', error));
+        }
     }
     
     /**
-     * Add click events to table rows for showing details
-     * @param {Array} data - The processed data
+     * Render a single row
+     * @param {Object} row - The row data
+     * @param {number} index - Index of the row in the loaded rows
+     * @returns {string} - Row HTML
      */
-    addRowClickEvents(data) {
-        const rows = this.resultsContent.querySelectorAll('tbody tr');
+    renderRow(row, index) {
+        // Add status class for row
+        const rowClass = row.processingStatus === 'VALID' ? 'valid-row' : 'invalid-row';
+        let html = `<tr class="${rowClass}" data-index="${index}" style="height: ${this.rowHeight}px;">`;
         
-        rows.forEach((row, index) => {
-            row.addEventListener('click', () => {
-                this.showRowDetails(data[index]);
-            });
+        this.columns.forEach(column => {
+            let value = row[column.key];
+            
+            // Format values based on column format or key
+            if (column.format) {
+                switch (column.format) {
+                    case 'currency':
+                        value = formatters.currency(value || 0);
+                        break;
+                    case 'percentage':
+                        value = formatters.percentage(value || 0);
+                        break;
+                    case 'date':
+                        value = value ? formatters.date(value) : '';
+                        break;
+                }
+            } else {
+                switch (column.key) {
+                    case 'birthDate':
+                        value = value ? formatters.date(value) : '';
+                        break;
+                    case 'processingStatus':
+                        const statusClass = value === 'VALID' ? 'status-success' : 'status-error';
+                        value = `<span class="${statusClass}">${value || 'N/A'}</span>`;
+                        break;
+                    default:
+                        value = value !== null && value !== undefined ? value : '';
+                }
+            }
+            
+            html += `<td>${value}</td>`;
         });
+        
+        return html + '</tr>';
     }
     
     /**
@@ -33,6 +33,34 @@ class ApiService {
         }
     }
 
+    /**
+     * Process a file that was already sent with previewForUpload
+     * @param {string} token - Upload token returned by the handoff preview
+     * @returns {Promise} - Promise with the response data
+     */
+    async uploadWithToken(token) {
+        const formData = new FormData();
+        formData.append('token', token);
+
+        try {
+            const response = await fetch(`${this.baseUrl}/upload`, {
+                method: 'POST',
+                body: formData
+            });
+
+            if (!response.ok) {
+                const error = new Error(`HTTP error! Status: ${response.status}`);
+                error.status = response.status;
+                throw error;
+            }
+
+            return await response.json();
+        } catch (error) {
+            console.error('Error uploading file by token:', error);
+            throw error;
+        }
+    }
+
     /**
      * Preview a file's contents
      * @param {File} file - The file to preview
@@ -79,6 +107,44 @@ class ApiService {
         }
     }
 
+    /**
+     * Open the server-sent event stream of an ETL job's progress
+     * @param {string} jobId - The job ID
+     * @returns {EventSource|null} - Stream emitting status, progress and complete events, or null if unsupported
+     */
+    openJobEvents(jobId) {
+        if (!window.EventSource) {
+            return null;
+        }
+        return new EventSource(`${this.baseUrl}/status/${jobId}/events`);
+    }
+
+    /**
+     * Preview a file and keep it on the server for processing
+     * @param {File} file - The file to preview
+     * @returns {Promise} - Promise with the preview rows, the resolved reader plan and an upload token
+     */
+    async previewForUpload(file) {
+        const formData = new FormData();
+        formData.append('file', file);
+
+        try {
+            const response = await fetch(`${this.baseUrl}/preview/handoff`, {
+                method: 'POST',
+                body: formData
+            });
+
+            if (!response.ok) {
+                throw new Error(`HTTP error! Status: ${response.status}`);
+            }
+
+            return await response.json();
+        } catch (error) {
+            console.error('Error previewing file:', error);
+            throw error;
+        }
+    }
+
     /**
      * Get all processed data
      * @returns {Promise} - Promise with the processed data
@@ -98,6 +164,61 @@ class ApiService {
         }
     }
 
+    /**
+     * Get one page of processed data
+     * @param {Object} params - Filters (status, country, city, minSalary, maxSalary, minAge, maxAge),
+     *                          sort, direction, limit and the cursor returned with the previous page
+     * @returns {Promise} - Promise with the page (items, nextCursor, hasMore, estimatedTotal)
+     */
+    async getDataPage(params = {}) {
+        const query = new URLSearchParams();
+        Object.entries(params).forEach(([key, value]) => {
+            if (value !== null && value !== undefined && value !== '') {
+                query.append(key, value);
+            }
+        });
+
+        try {
+            const response = await fetch(`${this.baseUrl}/data/page?${query.toString()}`);
+
+            if (!response.ok) {
+                throw new Error(`HTTP error! Status: ${response.status}`);
+            }
+
+            return await response.json();
+        } catch (error) {
+            console.error('Error getting processed data page:', error);
+            throw error;
+        }
+    }
+
+    /**
+     * Aggregate processed data on the server
+     * @param {Object} params - dimensions, measures (comma-separated), filters, orderBy, direction and limit
+     * @returns {Promise<Object>} - Aggregation result with one row per group
+     */
+    async aggregate(params = {}) {
+        const query = new URLSearchParams();
+        Object.entries(params).forEach(([key, value]) => {
+            if (value !== null && value !== undefined && value !== '') {
+                query.append(key, value);
+            }
+        });
+
+        try {
+            const response = await fetch(`${this.baseUrl}/aggregate?${query.toString()}`);
+
+            if (!response.ok) {
+                throw new Error(`HTTP error! Status: ${response.status}`);
+            }
+
+            return await response.json();
+        } catch (error) {
+            console.error('Error aggregating data:', error);
+            throw error;
+        }
+    }
+
     /**
      * Get ETL statistics
      * @returns {Promise} - Promise with the statistics
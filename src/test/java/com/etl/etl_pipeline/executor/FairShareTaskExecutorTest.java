@@ -0,0 +1,181 @@
+package com.etl.etl_pipeline.executor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FairShareTaskExecutorTest {
+
+    private FairShareTaskExecutor executor;
+
+    @AfterEach
+    void shutdown() throws Exception {
+        if (executor != null) {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void capsEachRegularJobToItsShareOfThePool() throws Exception {
+        executor = new FairShareTaskExecutor(4, 0, 2, "test-");
+        executor.registerJob(1L, false);
+        executor.registerJob(2L, false);
+
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 4; i++) {
+            submit(1L, () -> await(release));
+            submit(2L, () -> await(release));
+        }
+
+        awaitTrue(() -> executor.getActiveTaskCount() == 4);
+        assertThat(lane(1L)).containsEntry("threadCap", 2).containsEntry("running", 2).containsEntry("pending", 2);
+        assertThat(lane(2L)).containsEntry("threadCap", 2).containsEntry("running", 2).containsEntry("pending", 2);
+
+        release.countDown();
+        awaitTrue(() -> executor.getQueuedTaskCount() == 0 && executor.getActiveTaskCount() == 0);
+    }
+
+    @Test
+    void keepsReservedThreadsFreeForTheFastLane() throws Exception {
+        executor = new FairShareTaskExecutor(4, 1, 3, "test-");
+        executor.registerJob(1L, false);
+
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 6; i++) {
+            submit(1L, () -> await(release));
+        }
+        awaitTrue(() -> executor.getActiveTaskCount() == 3);
+
+        executor.registerJob(2L, true);
+        CountDownLatch fastDone = new CountDownLatch(1);
+        submit(2L, fastDone::countDown);
+
+        // Runs on the reserved thread while the regular job still occupies all of its share
+        assertThat(fastDone.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(lane(1L)).containsEntry("running", 3).containsEntry("pending", 3);
+        assertThat(lane(2L)).containsEntry("weight", 3);
+
+        release.countDown();
+    }
+
+    @Test
+    void dispatchesFastLaneTasksBeforeQueuedRegularTasks() throws Exception {
+        executor = new FairShareTaskExecutor(1, 0, 2, "test-");
+        executor.registerJob(1L, false);
+        executor.registerJob(2L, true);
+
+        List<Long> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        submit(1L, () -> {
+            started.countDown();
+            await(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 2; i++) {
+            submit(1L, () -> order.add(1L));
+            submit(2L, () -> order.add(2L));
+        }
+        release.countDown();
+
+        awaitTrue(() -> order.size() == 4);
+        assertThat(order).containsExactly(2L, 2L, 1L, 1L);
+    }
+
+    @Test
+    void alternatesBetweenRegularJobsOfEqualWeight() throws Exception {
+        executor = new FairShareTaskExecutor(1, 0, 2, "test-");
+        executor.registerJob(1L, false);
+        executor.registerJob(2L, false);
+
+        List<Long> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        submit(1L, () -> {
+            started.countDown();
+            await(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 3; i++) {
+            submit(1L, () -> order.add(1L));
+        }
+        for (int i = 0; i < 3; i++) {
+            submit(2L, () -> order.add(2L));
+        }
+        release.countDown();
+
+        awaitTrue(() -> order.size() == 6);
+        for (int i = 1; i < order.size(); i++) {
+            assertThat(order.get(i)).as("task %d runs on the other lane", i).isNotEqualTo(order.get(i - 1));
+        }
+    }
+
+    @Test
+    void removesAnUnregisteredLaneOnceItDrains() throws Exception {
+        executor = new FairShareTaskExecutor(2, 0, 2, "test-");
+        executor.registerJob(1L, false);
+
+        CountDownLatch release = new CountDownLatch(1);
+        submit(1L, () -> await(release));
+        awaitTrue(() -> executor.getActiveTaskCount() == 1);
+
+        executor.unregisterJob(1L);
+        assertThat(lane(1L)).isNotNull();
+
+        release.countDown();
+        awaitTrue(() -> lane(1L) == null);
+    }
+
+    /**
+     * Submit a task as a step of the given job execution would
+     */
+    private void submit(long jobExecutionId, Runnable task) {
+        StepSynchronizationManager.register(new StepExecution("step", new JobExecution(jobExecutionId)));
+        try {
+            executor.execute(task);
+        } finally {
+            StepSynchronizationManager.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> lane(long jobExecutionId) {
+        List<Map<String, Object>> lanes = (List<Map<String, Object>>) executor.getStatus().get("lanes");
+        return lanes.stream()
+                .filter(lane -> lane.get("jobExecutionId").equals(jobExecutionId))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5 s");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
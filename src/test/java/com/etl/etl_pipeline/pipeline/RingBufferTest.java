@@ -0,0 +1,114 @@
+package com.etl.etl_pipeline.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RingBufferTest {
+
+    @Test
+    void takesItemsInPublishOrderAcrossTheWrap() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        List<Integer> taken = new ArrayList<>();
+
+        assertThat(buffer.putAll(List.of(1, 2, 3))).isTrue();
+        assertThat(buffer.takeBatch(taken, 2)).isEqualTo(2);
+        assertThat(buffer.putAll(List.of(4, 5, 6))).isTrue();
+        assertThat(buffer.size()).isEqualTo(4);
+        assertThat(buffer.takeBatch(taken, 10)).isEqualTo(4);
+
+        assertThat(taken).containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(buffer.getPublished()).isEqualTo(6);
+    }
+
+    @Test
+    void drainsBufferedItemsAfterCloseThenReportsTheEnd() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        List<Integer> taken = new ArrayList<>();
+
+        buffer.putAll(List.of(1, 2));
+        buffer.close();
+
+        assertThat(buffer.takeBatch(taken, 1)).isEqualTo(1);
+        assertThat(buffer.takeBatch(taken, 1)).isEqualTo(1);
+        assertThat(buffer.takeBatch(taken, 1)).isZero();
+        assertThat(taken).containsExactly(1, 2);
+    }
+
+    @Test
+    void rejectsPublishingAfterClose() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        buffer.close();
+
+        assertThatThrownBy(() -> buffer.putAll(List.of(1))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void blocksProducerWhileFullAndPublishesLargeBatchInParts() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<>(2);
+        ExecutorService producer = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> put = producer.submit(() -> buffer.putAll(List.of(1, 2, 3, 4, 5)));
+            awaitTrue(() -> buffer.size() == 2);
+            assertThat(put.isDone()).isFalse();
+
+            List<Integer> taken = new ArrayList<>();
+            while (taken.size() < 5) {
+                buffer.takeBatch(taken, 5);
+            }
+
+            assertThat(put.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(taken).containsExactly(1, 2, 3, 4, 5);
+            assertThat(buffer.getFullWaitSeconds()).isGreaterThan(0);
+        } finally {
+            producer.shutdownNow();
+        }
+    }
+
+    @Test
+    void abortReleasesBlockedProducerAndConsumerAndDropsItems() throws Exception {
+        RingBuffer<Integer> full = new RingBuffer<>(1);
+        RingBuffer<Integer> empty = new RingBuffer<>(1);
+        full.putAll(List.of(1));
+
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> put = threads.submit(() -> full.putAll(List.of(2)));
+            Future<Integer> take = threads.submit(() -> empty.takeBatch(new ArrayList<>(), 1));
+            Thread.sleep(100);
+
+            full.abort();
+            empty.abort();
+
+            assertThat(put.get(5, TimeUnit.SECONDS)).isFalse();
+            assertThat(take.get(5, TimeUnit.SECONDS)).isZero();
+            assertThat(full.size()).isZero();
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void usesAtLeastOneSlot() {
+        assertThat(new RingBuffer<Integer>(0).capacity()).isEqualTo(1);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5 s");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
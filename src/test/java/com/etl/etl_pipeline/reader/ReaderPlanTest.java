@@ -0,0 +1,56 @@
+package com.etl.etl_pipeline.reader;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReaderPlanTest {
+
+    @Test
+    void keepsRepeatedHeadersAtTheirPosition() {
+        ReaderPlan plan = ReaderPlan.detect("csv", List.of("id", "note", "note", "country"), List.of());
+
+        assertThat(plan.getColumns()).containsExactly("id", "note", "note", "country");
+        assertThat(plan.columnIndex("firstName")).isEqualTo(1);
+        assertThat(plan.columnIndex("lastName")).isEqualTo(2);
+        assertThat(plan.columnIndex("country")).isEqualTo(3);
+        assertThat(plan.getTokenizerNames()).containsExactly("id", "firstName", "lastName", "country");
+    }
+
+    @Test
+    void keepsBlankHeadersAtTheirPosition() {
+        ReaderPlan plan = ReaderPlan.detect("xlsx", List.of("id", "", "first name", "", "e-mail"), List.of());
+
+        assertThat(plan.columnIndex("firstName")).isEqualTo(2);
+        assertThat(plan.columnIndex("email")).isEqualTo(4);
+        assertThat(plan.columnIndex("lastName")).isEqualTo(-1);
+        assertThat(plan.getTokenizerNames()).containsExactly("id", "column1", "firstName", "column3", "email");
+    }
+
+    @Test
+    void takesJsonColumnsFromTheRowKeys() {
+        List<Map<String, Object>> rows = List.of(
+                Map.of("id", "1", "surname", "Doe"),
+                Map.of("id", "2", "dob", "31/12/1990"));
+
+        ReaderPlan plan = ReaderPlan.detect("json", List.of(), rows);
+
+        assertThat(plan.columnFor("lastName")).isEqualTo("surname");
+        assertThat(plan.columnFor("birthDate")).isEqualTo("dob");
+        assertThat(plan.columnFor("firstName")).isNull();
+        assertThat(plan.getDateFormat()).isNotNull();
+    }
+
+    @Test
+    void survivesTheJobParameterRoundTrip() {
+        ReaderPlan plan = ReaderPlan.detect("csv", List.of("id", "", "email"), List.of());
+
+        ReaderPlan restored = ReaderPlan.fromJson(plan.toJson());
+
+        assertThat(restored.columnIndex("email")).isEqualTo(2);
+        assertThat(restored.getTokenizerNames()).containsExactly(plan.getTokenizerNames());
+    }
+}
@@ -0,0 +1,95 @@
+package com.etl.etl_pipeline.reader;
+
+import com.etl.etl_pipeline.service.IngestSpoolRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpoolInputStreamTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void waitsForAppendedBytesAndEndsOnlyOnceTheUploadCompletes() throws Exception {
+        Path file = tempDir.resolve("spool.csv");
+        Files.writeString(file, "abc");
+        IngestSpoolRegistry.Spool spool = new IngestSpoolRegistry.Spool();
+        spool.advance(3);
+
+        ExecutorService uploader = Executors.newSingleThreadExecutor();
+        try (SpoolInputStream in = new SpoolInputStream(file, spool, 5000)) {
+            byte[] buffer = new byte[16];
+            assertThat(in.read(buffer, 0, buffer.length)).isEqualTo(3);
+
+            Future<?> append = uploader.submit(() -> {
+                Thread.sleep(100);
+                Files.writeString(file, "de", StandardOpenOption.APPEND);
+                spool.advance(2);
+                spool.complete();
+                return null;
+            });
+
+            // Blocks at the current end of the file instead of reporting end of stream
+            assertThat(in.read(buffer, 3, buffer.length - 3)).isEqualTo(2);
+            assertThat(in.read(buffer, 5, buffer.length - 5)).isEqualTo(-1);
+            assertThat(new String(buffer, 0, 5, StandardCharsets.UTF_8)).isEqualTo("abcde");
+            append.get(5, TimeUnit.SECONDS);
+        } finally {
+            uploader.shutdownNow();
+        }
+    }
+
+    @Test
+    void readsOnlyBytesReportedAsWritten() throws Exception {
+        Path file = tempDir.resolve("spool.csv");
+        Files.writeString(file, "0123456789");
+        IngestSpoolRegistry.Spool spool = new IngestSpoolRegistry.Spool();
+        spool.advance(4);
+        spool.complete();
+
+        try (SpoolInputStream in = new SpoolInputStream(file, spool, 5000)) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("0123");
+            assertThat(in.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void failsWhenNoBytesArriveWithinTheStallTimeout() throws Exception {
+        Path file = tempDir.resolve("spool.csv");
+        Files.createFile(file);
+        IngestSpoolRegistry.Spool spool = new IngestSpoolRegistry.Spool();
+
+        try (SpoolInputStream in = new SpoolInputStream(file, spool, 100)) {
+            assertThatThrownBy(in::read)
+                    .isInstanceOf(IOException.class)
+                    .hasMessageStartingWith("Upload stalled");
+        }
+    }
+
+    @Test
+    void failsWhenTheUploadFails() throws Exception {
+        Path file = tempDir.resolve("spool.csv");
+        Files.createFile(file);
+        IngestSpoolRegistry.Spool spool = new IngestSpoolRegistry.Spool();
+        spool.fail(new IOException("client disconnected"));
+
+        try (SpoolInputStream in = new SpoolInputStream(file, spool, 5000)) {
+            assertThatThrownBy(in::read)
+                    .isInstanceOf(IOException.class)
+                    .hasMessage("Upload failed: client disconnected");
+        }
+    }
+}
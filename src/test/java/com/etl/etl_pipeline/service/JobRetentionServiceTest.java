@@ -0,0 +1,157 @@
+package com.etl.etl_pipeline.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class JobRetentionServiceTest {
+
+    private static final LocalDateTime OLD = LocalDateTime.now().minusDays(60);
+    private static final LocalDateTime CUTOFF = LocalDateTime.now().minusDays(30);
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private JobRetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase database = TestDatabase.create(tempDir);
+        jdbcTemplate = database.jdbcTemplate();
+
+        retentionService = new JobRetentionService();
+        ReflectionTestUtils.setField(retentionService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(retentionService, "jobExplorer", mock(JobExplorer.class));
+        ReflectionTestUtils.setField(retentionService, "transactionManager", database.transactionManager());
+        ReflectionTestUtils.setField(retentionService, "batchSize", 500);
+    }
+
+    @Test
+    void purgesExpiredExecutionsWithAllTheirMetadata() {
+        long instance = insertInstance("etlJob", "a");
+        long expired = insertExecution(instance, "COMPLETED", OLD);
+        long kept = insertExecution(insertInstance("etlJob", "b"), "FAILED", LocalDateTime.now());
+
+        Map<String, Object> result = retentionService.purgeExecutions(null, CUTOFF, null, null, false);
+
+        assertThat(result).containsEntry("purged", 1).containsEntry("batches", 1).containsEntry("completed", true);
+        assertThat(executionIds()).containsExactly(kept);
+        for (String table : List.of("BATCH_JOB_EXECUTION_PARAMS", "BATCH_JOB_EXECUTION_CONTEXT", "BATCH_STEP_EXECUTION",
+                "job_exports", "upload_index")) {
+            assertThat(count(table, expired)).as(table).isZero();
+            assertThat(count(table, kept)).as(table).isEqualTo(1);
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_STEP_EXECUTION_CONTEXT", Integer.class))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT JOB_KEY FROM BATCH_JOB_INSTANCE", String.class))
+                .containsExactly("b");
+    }
+
+    @Test
+    void neverPurgesActiveExecutions() {
+        long instance = insertInstance("etlJob", "a");
+        long started = insertExecution(instance, "STARTED", OLD);
+        long stopping = insertExecution(instance, "STOPPING", OLD);
+        insertExecution(instance, "COMPLETED", OLD);
+
+        Map<String, Object> result = retentionService.purgeExecutions(null, CUTOFF, null, null, false);
+
+        assertThat(result).containsEntry("purged", 1);
+        assertThat(executionIds()).containsExactly(started, stopping);
+        // The instance still has executions, so it stays
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_JOB_INSTANCE", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void walksForwardInBatchesUntilNothingMatches() {
+        ReflectionTestUtils.setField(retentionService, "batchSize", 2);
+        for (int i = 0; i < 5; i++) {
+            insertExecution(insertInstance("etlJob", "key" + i), "COMPLETED", OLD);
+        }
+
+        Map<String, Object> result = retentionService.purgeExecutions(null, CUTOFF, null, null, false);
+
+        assertThat(result).containsEntry("purged", 5).containsEntry("batches", 3).containsEntry("completed", true);
+        assertThat(executionIds()).isEmpty();
+    }
+
+    @Test
+    void appliesTheStatusAndJobNameFilters() {
+        insertExecution(insertInstance("etlJob", "a"), "FAILED", OLD);
+        long completed = insertExecution(insertInstance("etlJob", "b"), "COMPLETED", OLD);
+        long otherJob = insertExecution(insertInstance("otherJob", "c"), "FAILED", OLD);
+
+        Map<String, Object> result = retentionService.purgeExecutions(List.of("failed"), null, null, "etlJob", false);
+
+        assertThat(result).containsEntry("purged", 1);
+        assertThat(executionIds()).containsExactly(completed, otherJob);
+    }
+
+    @Test
+    void onlyCountsOnADryRun() {
+        insertExecution(insertInstance("etlJob", "a"), "COMPLETED", OLD);
+        insertExecution(insertInstance("etlJob", "b"), "COMPLETED", OLD);
+
+        Map<String, Object> result = retentionService.purgeExecutions(null, CUTOFF, null, null, true);
+
+        assertThat(result).containsEntry("dryRun", true).containsEntry("matched", 2);
+        assertThat(executionIds()).hasSize(2);
+    }
+
+    private long insertInstance(String jobName, String jobKey) {
+        jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (VERSION, JOB_NAME, JOB_KEY) VALUES (0, ?, ?)", jobName, jobKey);
+        return jdbcTemplate.queryForObject("SELECT MAX(JOB_INSTANCE_ID) FROM BATCH_JOB_INSTANCE", Long.class);
+    }
+
+    /**
+     * Insert an execution with one row in every table the purge cleans up
+     * Every statement runs on a new connection, so ids are read back with MAX rather than last_insert_rowid()
+     */
+    private long insertExecution(long instanceId, String status, LocalDateTime created) {
+        jdbcTemplate.update(
+            "INSERT INTO BATCH_JOB_EXECUTION (VERSION, JOB_INSTANCE_ID, CREATE_TIME, STATUS) VALUES (0, ?, ?, ?)",
+            instanceId, Timestamp.valueOf(created), status);
+        long executionId = jdbcTemplate.queryForObject("SELECT MAX(JOB_EXECUTION_ID) FROM BATCH_JOB_EXECUTION", Long.class);
+
+        jdbcTemplate.update(
+            "INSERT INTO BATCH_JOB_EXECUTION_PARAMS (JOB_EXECUTION_ID, PARAMETER_NAME, PARAMETER_TYPE, IDENTIFYING) " +
+            "VALUES (?, 'filePath', 'java.lang.String', 'Y')", executionId);
+        jdbcTemplate.update(
+            "INSERT INTO BATCH_JOB_EXECUTION_CONTEXT (JOB_EXECUTION_ID, SHORT_CONTEXT) VALUES (?, '{}')", executionId);
+        jdbcTemplate.update(
+            "INSERT INTO BATCH_STEP_EXECUTION (VERSION, STEP_NAME, JOB_EXECUTION_ID, CREATE_TIME) VALUES (0, 'step', ?, ?)",
+            executionId, Timestamp.valueOf(created));
+        jdbcTemplate.update(
+            "INSERT INTO BATCH_STEP_EXECUTION_CONTEXT (STEP_EXECUTION_ID, SHORT_CONTEXT) " +
+            "SELECT MAX(STEP_EXECUTION_ID), '{}' FROM BATCH_STEP_EXECUTION");
+        jdbcTemplate.update(
+            "INSERT INTO job_exports (job_execution_id, file_path, checksum) VALUES (?, 'export.csv', 'abc')", executionId);
+        jdbcTemplate.update(
+            "INSERT INTO upload_index (sha256, file_type, job_id, job_execution_id) VALUES (?, 'csv', 'job', ?)",
+            "sha" + executionId, executionId);
+        return executionId;
+    }
+
+    private List<Long> executionIds() {
+        return jdbcTemplate.queryForList(
+            "SELECT JOB_EXECUTION_ID FROM BATCH_JOB_EXECUTION ORDER BY JOB_EXECUTION_ID", Long.class);
+    }
+
+    private int count(String table, long executionId) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM " + table + " WHERE job_execution_id = ?", Integer.class, executionId);
+    }
+}
@@ -0,0 +1,133 @@
+package com.etl.etl_pipeline.service;
+
+import com.etl.etl_pipeline.model.ProcessedData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ProcessedDataQueryServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ProcessedDataQueryService queryService;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = TestDatabase.create(tempDir).jdbcTemplate();
+
+        // Salary ties between a/e and b/c put equal sort values on both sides of page boundaries
+        insert(jdbcTemplate, "a", 100.0, 30, "VALID");
+        insert(jdbcTemplate, "b", 200.0, 40, "INVALID");
+        insert(jdbcTemplate, "c", 200.0, 20, "VALID");
+        insert(jdbcTemplate, "d", 300.0, 50, "VALID");
+        insert(jdbcTemplate, "e", 100.0, 60, "INVALID");
+
+        queryService = new ProcessedDataQueryService();
+        ReflectionTestUtils.setField(queryService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(queryService, "processedStatsService", mock(ProcessedStatsService.class));
+        ReflectionTestUtils.setField(queryService, "countEstimateLimit", 10000);
+    }
+
+    @Test
+    void pagesThroughEveryRowOnceInSortOrder() {
+        for (int limit = 1; limit <= 5; limit++) {
+            assertThat(pageThrough(null, "salary", false, limit)).as("ascending, limit %d", limit)
+                    .containsExactly("a", "e", "b", "c", "d");
+            assertThat(pageThrough(null, "salary", true, limit)).as("descending, limit %d", limit)
+                    .containsExactly("d", "c", "b", "e", "a");
+            assertThat(pageThrough(null, "id", false, limit)).as("by id, limit %d", limit)
+                    .containsExactly("a", "b", "c", "d", "e");
+        }
+    }
+
+    @Test
+    void appliesTheFilterOnEveryPage() {
+        ProcessedDataQueryService.DataFilter filter = new ProcessedDataQueryService.DataFilter();
+        filter.setStatus("valid");
+
+        assertThat(pageThrough(filter, "age", false, 1)).containsExactly("c", "a", "d");
+    }
+
+    @Test
+    void encodesTheSortKeyValueAndIdAsUrlSafeBase64() {
+        Map<String, Object> page = queryService.getPage(null, "salary", false, 2, null);
+        String cursor = (String) page.get("nextCursor");
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        assertThat(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8))
+                .isEqualTo("[\"salary\",100.0,\"e\"]");
+    }
+
+    @Test
+    void endsWithoutACursorOnTheLastPage() {
+        Map<String, Object> page = queryService.getPage(null, "salary", false, 5, null);
+
+        assertThat(page).containsEntry("hasMore", false);
+        assertThat(page.get("nextCursor")).isNull();
+    }
+
+    @Test
+    void rejectsACursorIssuedForAnotherSortKey() {
+        String cursor = (String) queryService.getPage(null, "salary", false, 2, null).get("nextCursor");
+
+        assertThatThrownBy(() -> queryService.getPage(null, "age", false, 2, cursor))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor was issued for sort key salary");
+    }
+
+    @Test
+    void rejectsAMalformedCursor() {
+        String notJson = Base64.getUrlEncoder().withoutPadding().encodeToString("salary".getBytes(StandardCharsets.UTF_8));
+        String wrongLength = Base64.getUrlEncoder().withoutPadding().encodeToString("[\"salary\",1]".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> queryService.getPage(null, "salary", false, 2, notJson))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> queryService.getPage(null, "salary", false, 2, wrongLength))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> queryService.getPage(null, "salary", false, 2, "%%%"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Follow the cursors from the first page to the last and collect the ids in page order
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> pageThrough(ProcessedDataQueryService.DataFilter filter, String sort, boolean descending, int limit) {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        for (int pages = 0; pages < 10; pages++) {
+            Map<String, Object> page = queryService.getPage(filter, sort, descending, limit, cursor);
+            for (ProcessedData item : (List<ProcessedData>) page.get("items")) {
+                ids.add(item.getId());
+            }
+            if (!(Boolean) page.get("hasMore")) {
+                return ids;
+            }
+            cursor = (String) page.get("nextCursor");
+        }
+        throw new AssertionError("Paging did not end after 10 pages: " + ids);
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, String id, double salary, int age, String status) {
+        jdbcTemplate.update(
+            "INSERT INTO processed_data (id, salary, net_salary, age, processing_status) VALUES (?, ?, ?, ?, ?)",
+            id, salary, salary * 0.8, age, status
+        );
+    }
+}
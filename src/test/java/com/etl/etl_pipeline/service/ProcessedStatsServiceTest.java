@@ -0,0 +1,153 @@
+package com.etl.etl_pipeline.service;
+
+import com.etl.etl_pipeline.model.ProcessedData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProcessedStatsServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private ProcessedStatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase database = TestDatabase.create(tempDir);
+        jdbcTemplate = database.jdbcTemplate();
+
+        statsService = new ProcessedStatsService();
+        ReflectionTestUtils.setField(statsService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(statsService, "transactionManager", database.transactionManager());
+    }
+
+    @Test
+    void countsNewRows() {
+        upsert(row("1", "VALID", "US", 30, 1000.0, 800.0, 1L),
+               row("2", "INVALID", null, 40, 3000.0, 2000.0, 1L));
+
+        Map<String, Object> stats = statsService.getStatistics();
+        assertThat(stats).containsEntry("totalRecords", 2L)
+                .containsEntry("validRecords", 1L)
+                .containsEntry("invalidRecords", 1L)
+                .containsEntry("averageAge", 35.0)
+                .containsEntry("averageSalary", 2000.0);
+        assertThat(statsService.getCountryCount("US")).isEqualTo(1);
+        assertThat(statsService.getCountryCount("")).isEqualTo(1);
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void subtractsTheRowsAnUpsertReplaces() {
+        upsert(row("1", "VALID", "US", 30, 1000.0, 800.0, 1L));
+        upsert(row("1", "INVALID", "DE", 50, 2000.0, 1500.0, 2L));
+
+        Map<String, Object> stats = statsService.getStatistics();
+        assertThat(stats).containsEntry("totalRecords", 1L)
+                .containsEntry("validRecords", 0L)
+                .containsEntry("invalidRecords", 1L)
+                .containsEntry("averageAge", 50.0)
+                .containsEntry("averageSalary", 2000.0);
+        assertThat(statsService.getCountryCount("US")).isZero();
+        assertThat(statsService.getCountryCount("DE")).isEqualTo(1);
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void countsOnlyTheLastOccurrenceOfARepeatedId() {
+        upsert(row("1", "VALID", "US", 30, 1000.0, 800.0, 1L),
+               row("1", "VALID", "DE", 30, 1000.0, 800.0, 1L));
+
+        assertThat(statsService.getStatistics()).containsEntry("totalRecords", 1L);
+        assertThat(statsService.getCountryCount("US")).isZero();
+        assertThat(statsService.getCountryCount("DE")).isEqualTo(1);
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void subtractsTheRowsOfADeletedJob() {
+        upsert(row("1", "VALID", "US", 30, 1000.0, 800.0, 7L),
+               row("2", "INVALID", "US", 40, 2000.0, 1500.0, 7L),
+               row("3", "VALID", "DE", 50, 3000.0, 2500.0, 8L));
+
+        ProcessedStatsService.Delta delta = statsService.deltaForJobDelete(7L);
+        jdbcTemplate.update("DELETE FROM processed_data WHERE job_execution_id = ?", 7L);
+        statsService.apply(delta);
+
+        Map<String, Object> stats = statsService.getStatistics();
+        assertThat(stats).containsEntry("totalRecords", 1L)
+                .containsEntry("validRecords", 1L)
+                .containsEntry("invalidRecords", 0L)
+                .containsEntry("averageSalary", 3000.0);
+        assertThat(statsService.getCountryCount("US")).isZero();
+        assertMatchesRebuild();
+    }
+
+    @Test
+    void bumpsTheDataVersionOnlyForNonEmptyDeltas() {
+        long version = statsService.getDataVersion();
+
+        statsService.apply(new ProcessedStatsService.Delta());
+        assertThat(statsService.getDataVersion()).isEqualTo(version);
+
+        upsert(row("1", "VALID", "US", 30, 1000.0, 800.0, 1L));
+        assertThat(statsService.getDataVersion()).isEqualTo(version + 1);
+    }
+
+    /**
+     * Write items the way DatabaseWriter does: delta first, then the rows, then the delta
+     */
+    private void upsert(ProcessedData... items) {
+        ProcessedStatsService.Delta delta = statsService.deltaForUpsert(List.of(items));
+        for (ProcessedData item : items) {
+            jdbcTemplate.update(
+                "INSERT OR REPLACE INTO processed_data (id, processing_status, country, age, salary, net_salary, " +
+                "job_execution_id) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                item.getId(), item.getProcessingStatus(), item.getCountry(), item.getAge(), item.getSalary(),
+                item.getNetSalary(), item.getJobExecutionId()
+            );
+        }
+        statsService.apply(delta);
+    }
+
+    /**
+     * The incrementally maintained summary must equal one recomputed from processed_data
+     */
+    @SuppressWarnings("unchecked")
+    private void assertMatchesRebuild() {
+        Map<String, Object> maintained = new HashMap<>(statsService.getStatistics());
+        Map<String, Object> rebuilt = new HashMap<>(statsService.rebuild());
+
+        List<Map<String, Object>> maintainedCountries = (List<Map<String, Object>>) maintained.remove("countryDistribution");
+        List<Map<String, Object>> rebuiltCountries = (List<Map<String, Object>>) rebuilt.remove("countryDistribution");
+        maintained.remove("dataVersion");
+        rebuilt.remove("dataVersion");
+
+        assertThat(maintained).isEqualTo(rebuilt);
+        assertThat(maintainedCountries).containsExactlyInAnyOrderElementsOf(rebuiltCountries);
+    }
+
+    private static ProcessedData row(String id, String status, String country, Integer age, Double salary,
+                                     Double netSalary, Long jobExecutionId) {
+        return ProcessedData.builder()
+                .id(id)
+                .processingStatus(status)
+                .country(country)
+                .age(age)
+                .salary(salary)
+                .netSalary(netSalary)
+                .jobExecutionId(jobExecutionId)
+                .build();
+    }
+}
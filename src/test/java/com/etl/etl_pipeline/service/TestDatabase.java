@@ -0,0 +1,53 @@
+package com.etl.etl_pipeline.service;
+
+import com.etl.etl_pipeline.config.DatabaseInitializer;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+
+/**
+ * Temporary SQLite database for service tests, with the tables the application creates at startup:
+ * the Spring Batch metadata tables and everything DatabaseInitializer adds
+ */
+final class TestDatabase {
+
+    private final DriverManagerDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    private TestDatabase(DriverManagerDataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Create the database file and its tables
+     * @param directory Directory for the database file, usually a JUnit temporary directory
+     * @return Initialized database
+     */
+    static TestDatabase create(Path directory) {
+        TestDatabase database = new TestDatabase(new DriverManagerDataSource("jdbc:sqlite:" + directory.resolve("etl.db")));
+        new ResourceDatabasePopulator(new ClassPathResource("org/springframework/batch/core/schema-sqlite.sql"))
+                .execute(database.dataSource);
+
+        DatabaseInitializer initializer = new DatabaseInitializer();
+        ReflectionTestUtils.setField(initializer, "jdbcTemplate", database.jdbcTemplate);
+        initializer.initialize();
+        return database;
+    }
+
+    JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    /**
+     * @return Transaction manager over the database, for services that run their own transactions
+     */
+    DataSourceTransactionManager transactionManager() {
+        return new DataSourceTransactionManager(dataSource);
+    }
+}
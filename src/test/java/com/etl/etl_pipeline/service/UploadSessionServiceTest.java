@@ -0,0 +1,227 @@
+package com.etl.etl_pipeline.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UploadSessionServiceTest {
+
+    private static final byte[] CONTENT = "id,name\n1,a".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private UploadSessionService sessionService;
+    private UploadStore uploadStore;
+    private EtlService etlService;
+    private String sessionId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = TestDatabase.create(tempDir).jdbcTemplate();
+
+        uploadStore = mock(UploadStore.class);
+        etlService = mock(EtlService.class);
+
+        sessionService = new UploadSessionService();
+        ReflectionTestUtils.setField(sessionService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(sessionService, "uploadStore", uploadStore);
+        ReflectionTestUtils.setField(sessionService, "etlService", etlService);
+        ReflectionTestUtils.setField(sessionService, "uploadDir", tempDir.resolve("uploads").toString());
+        // Smaller than a part, so parts are written in several positional writes
+        ReflectionTestUtils.setField(sessionService, "bufferSize", 4);
+        ReflectionTestUtils.setField(sessionService, "sessionTtlHours", 24);
+
+        sessionId = (String) sessionService.createSession("data.csv", CONTENT.length, null).get("sessionId");
+    }
+
+    @Test
+    void reportsTheMissingRangesToResumeFrom() throws Exception {
+        writePart(0, 3);
+        Map<String, Object> session = writePart(7, 10);
+
+        assertThat(session).containsEntry("receivedBytes", 8L).containsEntry("missingBytes", 3L);
+        assertThat(ranges(session))
+                .containsExactly(Map.of("start", 0L, "end", 3L), Map.of("start", 7L, "end", 10L));
+
+        session = writePart(4, 6);
+        assertThat(session).containsEntry("receivedBytes", 11L).containsEntry("missingBytes", 0L);
+        assertThat(ranges(session)).containsExactly(Map.of("start", 0L, "end", 10L));
+    }
+
+    @Test
+    void assemblesPartsWrittenOutOfOrderAtTheirOffsets() throws Exception {
+        writePart(6, 10);
+        writePart(0, 5);
+
+        assertThat(Files.readAllBytes(sessionFile())).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void countsOverlappingRetransmittedBytesOnce() throws Exception {
+        writePart(0, 6);
+        Map<String, Object> session = writePart(3, 10);
+
+        assertThat(session).containsEntry("receivedBytes", 11L).containsEntry("missingBytes", 0L);
+        assertThat(ranges(session)).containsExactly(Map.of("start", 0L, "end", 10L));
+        assertThat(Files.readAllBytes(sessionFile())).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void doesNotAcknowledgeARejectedPart() throws Exception {
+        assertThatThrownBy(() -> sessionService.writePart(sessionId, 0, 3,
+                new ByteArrayInputStream(CONTENT, 0, 6), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Part is longer than its range");
+        assertThatThrownBy(() -> sessionService.writePart(sessionId, 0, 3,
+                new ByteArrayInputStream(CONTENT, 0, 2), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Part is shorter than its range");
+        assertThatThrownBy(() -> sessionService.writePart(sessionId, 0, 3,
+                new ByteArrayInputStream(CONTENT, 0, 4), "00"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Checksum mismatch");
+        assertThatThrownBy(() -> sessionService.writePart(sessionId, 8, CONTENT.length,
+                new ByteArrayInputStream(CONTENT, 8, 4), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid byte range");
+
+        assertThat(sessionService.getSession(sessionId))
+                .containsEntry("receivedBytes", 0L)
+                .containsEntry("missingBytes", (long) CONTENT.length);
+    }
+
+    @Test
+    void acceptsAPartWithAMatchingChecksum() throws Exception {
+        String checksum = HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(Arrays.copyOfRange(CONTENT, 0, 4)));
+
+        Map<String, Object> session = sessionService.writePart(sessionId, 0, 3,
+                new ByteArrayInputStream(CONTENT, 0, 4), checksum.toUpperCase());
+
+        assertThat(session).containsEntry("receivedBytes", 4L);
+    }
+
+    @Test
+    void refusesToCompleteWhileBytesAreMissing() throws Exception {
+        writePart(0, 7);
+
+        assertThatThrownBy(() -> sessionService.completeSession(sessionId, false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Upload incomplete: 3 bytes missing");
+        assertThat(sessionService.getSession(sessionId)).containsEntry("sessionStatus", "OPEN");
+    }
+
+    @Test
+    void completionWaitsForAPartThatIsStillBeingWritten() throws Exception {
+        when(uploadStore.hash(any())).thenReturn("abc");
+        when(etlService.processStoredFile(any(), anyString(), anyBoolean())).thenReturn(Map.of("jobId", 1L));
+        writePart(0, 5);
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream slowBody = new ByteArrayInputStream(CONTENT, 6, 5) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                writing.countDown();
+                awaitQuietly(release);
+                return super.read(b, off, len);
+            }
+        };
+        CompletableFuture<Map<String, Object>> part = CompletableFuture.supplyAsync(() -> {
+            try {
+                return sessionService.writePart(sessionId, 6, 10, slowBody, null);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Map<String, Object>> completion = CompletableFuture.supplyAsync(() -> {
+            try {
+                return sessionService.completeSession(sessionId, false);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertThat(completion).isNotDone();
+
+        release.countDown();
+        assertThat(part.get(5, TimeUnit.SECONDS)).containsEntry("missingBytes", 0L);
+        assertThat(completion.get(5, TimeUnit.SECONDS)).containsEntry("jobId", 1L);
+    }
+
+    @Test
+    void refusesPartsOnceCompletionHasClaimedTheSession() {
+        jdbcTemplate.update("UPDATE upload_sessions SET status = 'COMPLETING' WHERE session_id = ?", sessionId);
+
+        assertThatThrownBy(() -> writePart(0, 3))
+                .isInstanceOf(UploadSessionNotFoundException.class)
+                .hasMessage("Upload session " + sessionId + " is COMPLETING");
+    }
+
+    @Test
+    void purgeKeepsSessionsThatAreBeingCompleted() throws Exception {
+        String staleId = (String) sessionService.createSession("other.csv", CONTENT.length, null).get("sessionId");
+        jdbcTemplate.update("UPDATE upload_sessions SET updated_at = '2000-01-01T00:00:00'");
+        jdbcTemplate.update("UPDATE upload_sessions SET status = 'COMPLETING' WHERE session_id = ?", sessionId);
+        Path completingFile = sessionFile();
+
+        sessionService.purgeStaleSessions();
+
+        assertThat(sessionService.getSession(sessionId)).containsEntry("sessionStatus", "COMPLETING");
+        assertThat(completingFile).exists();
+        assertThatThrownBy(() -> sessionService.getSession(staleId))
+                .isInstanceOf(UploadSessionNotFoundException.class);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Object> writePart(int start, int end) throws Exception {
+        return sessionService.writePart(sessionId, start, end,
+                new ByteArrayInputStream(CONTENT, start, end - start + 1), null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> ranges(Map<String, Object> session) {
+        return (List<Map<String, Object>>) session.get("receivedRanges");
+    }
+
+    private Path sessionFile() {
+        return Paths.get(jdbcTemplate.queryForObject(
+                "SELECT file_path FROM upload_sessions WHERE session_id = ?", String.class, sessionId));
+    }
+}